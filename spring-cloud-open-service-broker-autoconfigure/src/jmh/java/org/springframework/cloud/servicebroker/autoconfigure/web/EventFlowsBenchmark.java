@@ -0,0 +1,120 @@
+/*
+ * Copyright 2002-2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.servicebroker.autoconfigure.web;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import reactor.core.publisher.Mono;
+
+import org.springframework.cloud.servicebroker.model.instance.CreateServiceInstanceRequest;
+import org.springframework.cloud.servicebroker.model.instance.CreateServiceInstanceResponse;
+import org.springframework.cloud.servicebroker.model.instance.DeleteServiceInstanceRequest;
+import org.springframework.cloud.servicebroker.model.instance.DeleteServiceInstanceResponse;
+import org.springframework.cloud.servicebroker.service.ServiceInstanceEventService;
+import org.springframework.cloud.servicebroker.service.ServiceInstanceService;
+import org.springframework.cloud.servicebroker.service.events.AsyncOperationServiceInstanceBindingEventFlowRegistry;
+import org.springframework.cloud.servicebroker.service.events.AsyncOperationServiceInstanceEventFlowRegistry;
+import org.springframework.cloud.servicebroker.service.events.CreateServiceInstanceBindingEventFlowRegistry;
+import org.springframework.cloud.servicebroker.service.events.CreateServiceInstanceEventFlowRegistry;
+import org.springframework.cloud.servicebroker.service.events.DeleteServiceInstanceBindingEventFlowRegistry;
+import org.springframework.cloud.servicebroker.service.events.DeleteServiceInstanceEventFlowRegistry;
+import org.springframework.cloud.servicebroker.service.events.EventFlowRegistries;
+import org.springframework.cloud.servicebroker.service.events.UpdateServiceInstanceEventFlowRegistry;
+import org.springframework.cloud.servicebroker.service.events.flows.CreateServiceInstanceCompletionFlow;
+import org.springframework.cloud.servicebroker.service.events.flows.CreateServiceInstanceErrorFlow;
+import org.springframework.cloud.servicebroker.service.events.flows.CreateServiceInstanceInitializationFlow;
+
+/**
+ * Measures the cost the event flows add to a service instance operation, as the number of
+ * registered flows of each kind grows. The service returns immediately, so the results
+ * reflect the assembly and subscription of the flows. The GC profiler reports the
+ * allocation per operation as {@code gc.alloc.rate.norm}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EventFlowsBenchmark {
+
+	@Param({ "0", "1", "4" })
+	private int flows;
+
+	private CreateServiceInstanceRequest request;
+
+	private ServiceInstanceEventService service;
+
+	@Setup
+	public void setup() {
+		List<CreateServiceInstanceInitializationFlow> initializationFlows = new ArrayList<>();
+		List<CreateServiceInstanceCompletionFlow> completionFlows = new ArrayList<>();
+		List<CreateServiceInstanceErrorFlow> errorFlows = new ArrayList<>();
+		for (int i = 0; i < this.flows; i++) {
+			initializationFlows.add(new CreateServiceInstanceInitializationFlow() {
+			});
+			completionFlows.add(new CreateServiceInstanceCompletionFlow() {
+			});
+			errorFlows.add(new CreateServiceInstanceErrorFlow() {
+			});
+		}
+		EventFlowRegistries registries = new EventFlowRegistries(
+				new CreateServiceInstanceEventFlowRegistry(initializationFlows, completionFlows, errorFlows),
+				new UpdateServiceInstanceEventFlowRegistry(null, null, null),
+				new DeleteServiceInstanceEventFlowRegistry(null, null, null),
+				new AsyncOperationServiceInstanceEventFlowRegistry(null, null, null),
+				new CreateServiceInstanceBindingEventFlowRegistry(null, null, null),
+				new DeleteServiceInstanceBindingEventFlowRegistry(null, null, null),
+				new AsyncOperationServiceInstanceBindingEventFlowRegistry(null, null, null));
+		Mono<CreateServiceInstanceResponse> response = Mono.just(CreateServiceInstanceResponse.builder().build());
+		this.service = new ServiceInstanceEventService(new ServiceInstanceService() {
+			@Override
+			public Mono<CreateServiceInstanceResponse> createServiceInstance(CreateServiceInstanceRequest request) {
+				return response;
+			}
+
+			@Override
+			public Mono<DeleteServiceInstanceResponse> deleteServiceInstance(DeleteServiceInstanceRequest request) {
+				return Mono.empty();
+			}
+		}, registries);
+		this.request = CreateServiceInstanceRequest.builder()
+			.serviceDefinitionId("service-id")
+			.planId("plan-id")
+			.serviceInstanceId("service-instance-id")
+			.build();
+	}
+
+	@Benchmark
+	public CreateServiceInstanceResponse createServiceInstance() {
+		return this.service.createServiceInstance(this.request).block();
+	}
+
+}
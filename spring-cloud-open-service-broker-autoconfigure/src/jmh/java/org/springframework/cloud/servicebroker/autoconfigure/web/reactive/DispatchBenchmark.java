@@ -0,0 +1,187 @@
+/*
+ * Copyright 2002-2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.servicebroker.autoconfigure.web.reactive;
+
+import java.util.concurrent.TimeUnit;
+
+import jakarta.validation.Validation;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import reactor.core.publisher.Mono;
+
+import org.springframework.cloud.servicebroker.controller.CatalogController;
+import org.springframework.cloud.servicebroker.controller.ServiceBrokerRouterFunction;
+import org.springframework.cloud.servicebroker.controller.ServiceBrokerWebFluxExceptionHandler;
+import org.springframework.cloud.servicebroker.controller.ServiceInstanceBindingController;
+import org.springframework.cloud.servicebroker.controller.ServiceInstanceController;
+import org.springframework.cloud.servicebroker.model.catalog.Catalog;
+import org.springframework.cloud.servicebroker.model.catalog.Plan;
+import org.springframework.cloud.servicebroker.model.catalog.ServiceDefinition;
+import org.springframework.cloud.servicebroker.model.instance.CreateServiceInstanceRequest;
+import org.springframework.cloud.servicebroker.model.instance.CreateServiceInstanceResponse;
+import org.springframework.cloud.servicebroker.model.instance.DeleteServiceInstanceRequest;
+import org.springframework.cloud.servicebroker.model.instance.DeleteServiceInstanceResponse;
+import org.springframework.cloud.servicebroker.model.instance.GetServiceInstanceRequest;
+import org.springframework.cloud.servicebroker.model.instance.GetServiceInstanceResponse;
+import org.springframework.cloud.servicebroker.service.CatalogService;
+import org.springframework.cloud.servicebroker.service.ServiceInstanceBindingService;
+import org.springframework.cloud.servicebroker.service.ServiceInstanceService;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+/**
+ * Compares the cost of dispatching service broker requests to the annotated controllers
+ * with the cost of dispatching them through the {@link ServiceBrokerRouterFunction}. The
+ * services return immediately, so the results reflect request mapping, argument
+ * resolution, and response writing.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DispatchBenchmark {
+
+	private static final String INSTANCE_URL = "/v2/service_instances/service-instance-id";
+
+	private static final String CREATE_REQUEST_BODY = "{\"service_id\":\"service-id\",\"plan_id\":\"plan-id\","
+			+ "\"organization_guid\":\"org-guid\",\"space_guid\":\"space-guid\"}";
+
+	@Param({ "annotated", "functional" })
+	private String dispatch;
+
+	private WebTestClient client;
+
+	@Setup
+	public void setup() {
+		CatalogService catalogService = new StubCatalogService();
+		CatalogController catalogController = new CatalogController(catalogService);
+		ServiceInstanceController serviceInstanceController = new ServiceInstanceController(catalogService,
+				new StubServiceInstanceService());
+		ServiceInstanceBindingController serviceInstanceBindingController = new ServiceInstanceBindingController(
+				catalogService, new ServiceInstanceBindingService() {
+				});
+		ServiceBrokerWebFluxExceptionHandler exceptionHandler = new ServiceBrokerWebFluxExceptionHandler();
+		if ("functional".equals(this.dispatch)) {
+			this.client = WebTestClient
+				.bindToRouterFunction(new ServiceBrokerRouterFunction(catalogController, serviceInstanceController,
+						serviceInstanceBindingController, Validation.buildDefaultValidatorFactory().getValidator(),
+						exceptionHandler, null))
+				.build();
+		}
+		else {
+			this.client = WebTestClient
+				.bindToController(catalogController, serviceInstanceController, serviceInstanceBindingController)
+				.controllerAdvice(exceptionHandler)
+				.build();
+		}
+	}
+
+	@Benchmark
+	public Object getServiceInstance() {
+		return this.client.get()
+			.uri(INSTANCE_URL)
+			.accept(MediaType.APPLICATION_JSON)
+			.exchange()
+			.expectStatus()
+			.isOk()
+			.expectBody()
+			.returnResult();
+	}
+
+	@Benchmark
+	public Object createServiceInstance() {
+		return this.client.put()
+			.uri(INSTANCE_URL)
+			.contentType(MediaType.APPLICATION_JSON)
+			.bodyValue(CREATE_REQUEST_BODY)
+			.accept(MediaType.APPLICATION_JSON)
+			.exchange()
+			.expectStatus()
+			.isCreated()
+			.expectBody()
+			.returnResult();
+	}
+
+	@Benchmark
+	public Object deleteServiceInstance() {
+		return this.client.delete()
+			.uri(INSTANCE_URL + "?service_id=service-id&plan_id=plan-id")
+			.accept(MediaType.APPLICATION_JSON)
+			.exchange()
+			.expectStatus()
+			.isOk()
+			.expectBody()
+			.returnResult();
+	}
+
+	private static final class StubCatalogService implements CatalogService {
+
+		private final ServiceDefinition serviceDefinition = ServiceDefinition.builder()
+			.id("service-id")
+			.name("service")
+			.description("Service")
+			.plans(Plan.builder().id("plan-id").name("plan").description("Plan").build())
+			.build();
+
+		private final Catalog catalog = Catalog.builder().serviceDefinitions(this.serviceDefinition).build();
+
+		@Override
+		public Mono<Catalog> getCatalog() {
+			return Mono.just(this.catalog);
+		}
+
+		@Override
+		public Mono<ServiceDefinition> getServiceDefinition(String serviceId) {
+			if (this.serviceDefinition.getId().equals(serviceId)) {
+				return Mono.just(this.serviceDefinition);
+			}
+			return Mono.empty();
+		}
+
+	}
+
+	private static final class StubServiceInstanceService implements ServiceInstanceService {
+
+		@Override
+		public Mono<CreateServiceInstanceResponse> createServiceInstance(CreateServiceInstanceRequest request) {
+			return Mono.just(CreateServiceInstanceResponse.builder().build());
+		}
+
+		@Override
+		public Mono<GetServiceInstanceResponse> getServiceInstance(GetServiceInstanceRequest request) {
+			return Mono.just(GetServiceInstanceResponse.builder().dashboardUrl("https://dashboard.local").build());
+		}
+
+		@Override
+		public Mono<DeleteServiceInstanceResponse> deleteServiceInstance(DeleteServiceInstanceRequest request) {
+			return Mono.just(DeleteServiceInstanceResponse.builder().build());
+		}
+
+	}
+
+}
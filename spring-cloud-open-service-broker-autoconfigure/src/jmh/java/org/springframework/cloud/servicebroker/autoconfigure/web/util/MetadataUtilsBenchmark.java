@@ -0,0 +1,135 @@
+/*
+ * Copyright 2002-2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.servicebroker.autoconfigure.web.util;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.context.properties.source.MapConfigurationPropertySource;
+import org.springframework.cloud.servicebroker.autoconfigure.web.ServiceBrokerProperties;
+
+/**
+ * Measures the cost of normalizing catalog metadata as the number of plans and the depth
+ * of their metadata and schemas grow. The {@code bindAndConvertCatalog} benchmark
+ * includes property binding, which approximates the catalog share of auto-configuration
+ * startup time.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MetadataUtilsBenchmark {
+
+	private static final String PREFIX = "spring.cloud.openservicebroker";
+
+	@Param({ "10", "100", "1000" })
+	private int plans;
+
+	@Param({ "2", "6" })
+	private int depth;
+
+	private List<Map<String, Object>> metadata;
+
+	private MapConfigurationPropertySource propertySource;
+
+	@Setup
+	public void setup() {
+		this.metadata = new ArrayList<>(this.plans);
+		Map<String, Object> properties = new HashMap<>();
+		properties.put(PREFIX + ".catalog.services[0].id", "service-one-id");
+		properties.put(PREFIX + ".catalog.services[0].name", "service-one");
+		properties.put(PREFIX + ".catalog.services[0].description", "Service One");
+		for (int i = 0; i < this.plans; i++) {
+			Map<String, Object> parameters = numberedTree(this.depth);
+			this.metadata.add(parameters);
+			String plan = PREFIX + ".catalog.services[0].plans[" + i + "]";
+			properties.put(plan + ".id", "plan-" + i + "-id");
+			properties.put(plan + ".name", "plan-" + i);
+			properties.put(plan + ".description", "Plan " + i);
+			flatten(plan + ".metadata.properties", parameters, properties);
+			flatten(plan + ".schemas.service-instance.create.parameters", parameters, properties);
+		}
+		this.propertySource = new MapConfigurationPropertySource(properties);
+	}
+
+	@Benchmark
+	public void convertMetadata(Blackhole blackhole) {
+		for (Map<String, Object> parameters : this.metadata) {
+			blackhole.consume(MetadataUtils.convertMap(parameters));
+		}
+	}
+
+	@Benchmark
+	public Object bindAndConvertCatalog() {
+		return new Binder(this.propertySource).bind(PREFIX, ServiceBrokerProperties.class)
+			.get()
+			.getCatalog()
+			.toModel();
+	}
+
+	private static Map<String, Object> numberedTree(int depth) {
+		Map<String, Object> node = new HashMap<>();
+		node.put("type", "object");
+		node.put("description", "level " + depth);
+		Map<String, Object> required = new HashMap<>();
+		for (int i = 0; i < 4; i++) {
+			required.put(String.valueOf(i), "field" + i);
+		}
+		node.put("required", required);
+		if (depth > 0) {
+			Map<String, Object> items = new HashMap<>();
+			for (int i = 0; i < 3; i++) {
+				items.put(String.valueOf(i), numberedTree(depth - 1));
+			}
+			node.put("items", items);
+		}
+		return node;
+	}
+
+	@SuppressWarnings("unchecked")
+	private static void flatten(String prefix, Map<String, Object> node, Map<String, Object> properties) {
+		node.forEach((key, value) -> {
+			String name = prefix + "." + key;
+			if (value instanceof Map) {
+				flatten(name, (Map<String, Object>) value, properties);
+			}
+			else {
+				properties.put(name, value);
+			}
+		});
+	}
+
+}
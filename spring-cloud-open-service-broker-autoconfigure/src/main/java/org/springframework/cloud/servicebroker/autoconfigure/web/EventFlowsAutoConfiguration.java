@@ -27,6 +27,7 @@ import org.springframework.cloud.servicebroker.service.events.CreateServiceInsta
 import org.springframework.cloud.servicebroker.service.events.CreateServiceInstanceEventFlowRegistry;
 import org.springframework.cloud.servicebroker.service.events.DeleteServiceInstanceBindingEventFlowRegistry;
 import org.springframework.cloud.servicebroker.service.events.DeleteServiceInstanceEventFlowRegistry;
+import org.springframework.cloud.servicebroker.service.events.DetachedFlowExecutor;
 import org.springframework.cloud.servicebroker.service.events.EventFlowRegistries;
 import org.springframework.cloud.servicebroker.service.events.UpdateServiceInstanceEventFlowRegistry;
 import org.springframework.cloud.servicebroker.service.events.flows.AsyncOperationServiceInstanceBindingCompletionFlow;
@@ -180,6 +181,17 @@ public class EventFlowsAutoConfiguration {
 				errorFlows);
 	}
 
+	/**
+	 * Conditionally create a new {@link DetachedFlowExecutor} bean for flows that use the
+	 * detached execution strategy.
+	 * @return the bean
+	 */
+	@Bean
+	@ConditionalOnMissingBean(DetachedFlowExecutor.class)
+	public DetachedFlowExecutor detachedFlowExecutor() {
+		return new DetachedFlowExecutor();
+	}
+
 	/**
 	 * Conditionally create a new {@link EventFlowRegistries} bean.
 	 * @param createInstanceRegistry the create instance flow registry
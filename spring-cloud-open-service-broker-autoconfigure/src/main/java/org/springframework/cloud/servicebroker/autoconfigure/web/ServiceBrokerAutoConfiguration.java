@@ -16,30 +16,62 @@
 
 package org.springframework.cloud.servicebroker.autoconfigure.web;
 
+import java.io.IOException;
+import java.io.InputStream;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.convert.DurationStyle;
 import org.springframework.cloud.servicebroker.autoconfigure.web.exception.CatalogDefinitionDoesNotExistException;
 import org.springframework.cloud.servicebroker.model.catalog.Catalog;
+import org.springframework.cloud.servicebroker.service.AsyncOperationExecutor;
+import org.springframework.cloud.servicebroker.service.AsyncOperationTracker;
 import org.springframework.cloud.servicebroker.service.BeanCatalogService;
 import org.springframework.cloud.servicebroker.service.CatalogService;
 import org.springframework.cloud.servicebroker.service.NonBindableServiceInstanceBindingService;
+import org.springframework.cloud.servicebroker.service.ParameterSchemaValidator;
 import org.springframework.cloud.servicebroker.service.ServiceInstanceBindingService;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.core.io.Resource;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.util.ClassUtils;
+import org.springframework.util.StringUtils;
 
 /**
  * {@link EnableAutoConfiguration Auto-configuration} for the service broker
  * implementation beans.
  * <p>
  * Provides a default {@link CatalogService} bean if a {@link Catalog} bean is provided. A
- * catalog may be defined in external configuration, or via a Spring bean.
+ * catalog may be defined in external configuration, in a pre-compiled JSON resource
+ * referenced by {@literal spring.cloud.openservicebroker.catalog-location}, or via a
+ * Spring bean.
  * <p>
  * Provides a {@link NonBindableServiceInstanceBindingService} if a
  * {@link ServiceInstanceBindingService} is not provided, indicating that the service
  * broker provides no bindable services.
+ * <p>
+ * Provides a {@link ParameterSchemaValidator} if
+ * {@literal spring.cloud.openservicebroker.validate-parameters} is enabled, so that
+ * request parameters are checked against the plan schemas in the catalog. The schemas of
+ * a {@link Catalog} bean are compiled at startup.
+ * <p>
+ * Provides an {@link AsyncOperationTracker} if
+ * {@literal spring.cloud.openservicebroker.operation-tracking.enabled} is enabled, so
+ * that requests for the last operation of a service instance are answered by the
+ * framework, along with an {@link AsyncOperationExecutor} that runs the work of those
+ * operations.
  *
  * @author Scott Frederick
  * @author Roy Clarkson
@@ -48,6 +80,15 @@ import org.springframework.context.annotation.Configuration;
 @Configuration
 public class ServiceBrokerAutoConfiguration {
 
+	private static final String CATALOG_LOCATION_PROPERTY = "spring.cloud.openservicebroker.catalog-location";
+
+	private static final String CATALOG_PROPERTY = "spring.cloud.openservicebroker.catalog";
+
+	private static final String STALE_AFTER_PROPERTY = "spring.cloud.openservicebroker.operation-tracking."
+			+ "stale-after";
+
+	private static final String JSON_SCHEMA_FACTORY_CLASS = "com.networknt.schema.JsonSchemaFactory";
+
 	/**
 	 * Conditionally provides a {@link CatalogService} bean.
 	 * @param catalog the catalog
@@ -72,6 +113,57 @@ public class ServiceBrokerAutoConfiguration {
 		return new NonBindableServiceInstanceBindingService();
 	}
 
+	/**
+	 * Conditionally provides a {@link ParameterSchemaValidator} bean. If a
+	 * {@link Catalog} bean is available, the schemas of all of its plans are compiled
+	 * when the bean is created, so that an invalid schema fails application startup.
+	 * Validation requires {@literal com.networknt:json-schema-validator} on the
+	 * classpath.
+	 * @param catalog the catalog, if available
+	 * @return the bean
+	 */
+	@Bean
+	@ConditionalOnMissingBean(ParameterSchemaValidator.class)
+	@ConditionalOnProperty(name = "spring.cloud.openservicebroker.validate-parameters", havingValue = "true")
+	public ParameterSchemaValidator parameterSchemaValidator(ObjectProvider<Catalog> catalog) {
+		if (!ClassUtils.isPresent(JSON_SCHEMA_FACTORY_CLASS, getClass().getClassLoader())) {
+			throw new IllegalStateException("spring.cloud.openservicebroker.validate-parameters requires "
+					+ "com.networknt:json-schema-validator on the classpath");
+		}
+		ParameterSchemaValidator validator = new ParameterSchemaValidator();
+		catalog.ifAvailable(validator::compile);
+		return validator;
+	}
+
+	/**
+	 * Conditionally provides an {@link AsyncOperationTracker} bean.
+	 * @param staleAfter how long an operation in progress is answered by the tracker
+	 * after it was last reported on, or empty to answer it until it expires
+	 * @return the bean
+	 */
+	@Bean
+	@ConditionalOnMissingBean(AsyncOperationTracker.class)
+	@ConditionalOnProperty(name = "spring.cloud.openservicebroker.operation-tracking.enabled", havingValue = "true")
+	public AsyncOperationTracker asyncOperationTracker(@Value("${" + STALE_AFTER_PROPERTY + ":}") String staleAfter) {
+		AsyncOperationTracker tracker = new AsyncOperationTracker();
+		if (StringUtils.hasText(staleAfter)) {
+			tracker.setStaleAfter(DurationStyle.detectAndParse(staleAfter));
+		}
+		return tracker;
+	}
+
+	/**
+	 * Conditionally provides an {@link AsyncOperationExecutor} bean.
+	 * @param asyncOperationTracker the tracker the outcome of operations is reported to
+	 * @return the bean
+	 */
+	@Bean
+	@ConditionalOnMissingBean(AsyncOperationExecutor.class)
+	@ConditionalOnProperty(name = "spring.cloud.openservicebroker.operation-tracking.enabled", havingValue = "true")
+	public AsyncOperationExecutor asyncOperationExecutor(AsyncOperationTracker asyncOperationTracker) {
+		return new AsyncOperationExecutor(asyncOperationTracker);
+	}
+
 	/**
 	 * Provides a {@link Catalog} bean when catalog properties are available in external.
 	 * configuration
@@ -80,6 +172,7 @@ public class ServiceBrokerAutoConfiguration {
 	@ConditionalOnMissingBean({ Catalog.class, CatalogService.class })
 	@EnableConfigurationProperties(ServiceBrokerProperties.class)
 	@ConditionalOnProperty(prefix = "spring.cloud.openservicebroker.catalog.services[0]", name = "id")
+	@ConditionalOnExpression("'${" + CATALOG_LOCATION_PROPERTY + ":}' == ''")
 	protected static class CatalogPropertiesMinimalConfiguration {
 
 		private final ServiceBrokerProperties serviceBrokerProperties;
@@ -103,4 +196,43 @@ public class ServiceBrokerAutoConfiguration {
 
 	}
 
+	/**
+	 * Provides a {@link Catalog} bean from a pre-compiled JSON resource. Reading the
+	 * finished model avoids binding and converting the catalog through
+	 * {@link ServiceBrokerProperties} at startup, so startup fails if catalog properties
+	 * are configured alongside the resource.
+	 *
+	 * @see org.springframework.cloud.servicebroker.autoconfigure.web.util.CatalogCompiler
+	 */
+	@Configuration
+	@ConditionalOnMissingBean({ Catalog.class, CatalogService.class })
+	@ConditionalOnProperty(name = CATALOG_LOCATION_PROPERTY)
+	protected static class CatalogResourceConfiguration {
+
+		/**
+		 * Provide a {@link Catalog} bean.
+		 * @param catalogLocation the location of the catalog JSON resource
+		 * @param objectMapper the application's ObjectMapper, used to read the catalog
+		 * @param environment the environment, checked for catalog properties
+		 * @return the bean
+		 */
+		@Bean
+		public Catalog catalog(@Value("${" + CATALOG_LOCATION_PROPERTY + "}") Resource catalogLocation,
+				ObjectProvider<ObjectMapper> objectMapper, Environment environment) {
+			if (Binder.get(environment).bind(CATALOG_PROPERTY, Bindable.mapOf(String.class, Object.class)).isBound()) {
+				throw new IllegalStateException("Catalog properties under " + CATALOG_PROPERTY
+						+ " must not be configured when " + CATALOG_LOCATION_PROPERTY + " is set");
+			}
+			ObjectMapper mapper = objectMapper.getIfAvailable();
+			try (InputStream inputStream = catalogLocation.getInputStream()) {
+				return ((mapper != null) ? mapper : Jackson2ObjectMapperBuilder.json().build()).readValue(inputStream,
+						Catalog.class);
+			}
+			catch (IOException ex) {
+				throw new IllegalStateException("Error reading catalog from " + catalogLocation.getDescription(), ex);
+			}
+		}
+
+	}
+
 }
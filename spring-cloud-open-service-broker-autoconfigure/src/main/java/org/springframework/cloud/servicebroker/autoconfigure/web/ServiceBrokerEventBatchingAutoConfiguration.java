@@ -0,0 +1,56 @@
+/*
+ * Copyright 2002-2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.servicebroker.autoconfigure.web;
+
+import org.springframework.boot.autoconfigure.AutoConfigureAfter;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.cloud.servicebroker.service.events.outbox.BatchingEventSink;
+import org.springframework.cloud.servicebroker.service.events.outbox.OperationEventFlows;
+import org.springframework.cloud.servicebroker.service.events.outbox.OutboxEventConsumer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * {@link EnableAutoConfiguration Auto-configuration} for delivering the completion and
+ * error events of service broker operations to the {@link OutboxEventConsumer} bean in
+ * batches. Enabled by setting
+ * {@literal spring.cloud.openservicebroker.event-batching.enabled} to {@literal true}. If
+ * the outbox is also enabled, the outbox is used instead.
+ *
+ * @see BatchingEventSink
+ */
+@Configuration
+@AutoConfigureAfter(ServiceBrokerOutboxAutoConfiguration.class)
+@ConditionalOnProperty(name = "spring.cloud.openservicebroker.event-batching.enabled", havingValue = "true")
+@ConditionalOnBean(OutboxEventConsumer.class)
+public class ServiceBrokerEventBatchingAutoConfiguration {
+
+	/**
+	 * Provide a {@link BatchingEventSink} bean, which the event flow registries pick up.
+	 * @param consumer the OutboxEventConsumer bean
+	 * @return the bean
+	 */
+	@Bean
+	@ConditionalOnMissingBean(OperationEventFlows.class)
+	public BatchingEventSink batchingEventSink(OutboxEventConsumer consumer) {
+		return new BatchingEventSink(consumer);
+	}
+
+}
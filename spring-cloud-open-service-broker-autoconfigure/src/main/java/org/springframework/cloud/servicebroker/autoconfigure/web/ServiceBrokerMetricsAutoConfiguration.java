@@ -0,0 +1,163 @@
+/*
+ * Copyright 2002-2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.servicebroker.autoconfigure.web;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.AutoConfigureAfter;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.cloud.servicebroker.controller.ServiceBrokerWebFluxExceptionHandler;
+import org.springframework.cloud.servicebroker.controller.ServiceBrokerWebMvcExceptionHandler;
+import org.springframework.cloud.servicebroker.observability.MicrometerServiceBrokerInstrumentation;
+import org.springframework.cloud.servicebroker.service.events.DetachedFlowExecutor;
+import org.springframework.cloud.servicebroker.service.events.outbox.BatchingEventSink;
+import org.springframework.cloud.servicebroker.service.events.outbox.OutboxEventFlows;
+import org.springframework.cloud.servicebroker.service.events.outbox.SegmentFileOutbox;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * {@link EnableAutoConfiguration Auto-configuration} for recording Micrometer metrics of
+ * the service broker operations when a {@link MeterRegistry} bean is available.
+ *
+ * @see MicrometerServiceBrokerInstrumentation
+ */
+@Configuration
+@AutoConfigureAfter(value = { EventFlowsAutoConfiguration.class, ServiceBrokerOutboxAutoConfiguration.class,
+		ServiceBrokerEventBatchingAutoConfiguration.class },
+		name = { "org.springframework.boot.actuate.autoconfigure.metrics.MetricsAutoConfiguration",
+				"org.springframework.boot.actuate.autoconfigure.metrics.CompositeMeterRegistryAutoConfiguration",
+				"org.springframework.boot.actuate.autoconfigure.metrics.export.simple."
+						+ "SimpleMetricsExportAutoConfiguration" })
+@ConditionalOnClass(MeterRegistry.class)
+@ConditionalOnBean(MeterRegistry.class)
+public class ServiceBrokerMetricsAutoConfiguration {
+
+	private static final String PERCENTILE_HISTOGRAM_PROPERTY = "spring.cloud.openservicebroker.metrics."
+			+ "percentile-histogram";
+
+	/**
+	 * Provide a {@link MicrometerServiceBrokerInstrumentation} bean for a WebFlux
+	 * application.
+	 * @param meterRegistry the MeterRegistry bean
+	 * @param percentileHistogram whether the operation timer publishes a percentile
+	 * histogram
+	 * @return the bean
+	 */
+	@Bean
+	@ConditionalOnMissingBean(MicrometerServiceBrokerInstrumentation.class)
+	@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+	public MicrometerServiceBrokerInstrumentation reactiveServiceBrokerInstrumentation(MeterRegistry meterRegistry,
+			@Value("${" + PERCENTILE_HISTOGRAM_PROPERTY + ":true}") boolean percentileHistogram) {
+		MicrometerServiceBrokerInstrumentation instrumentation = new MicrometerServiceBrokerInstrumentation(
+				meterRegistry, ServiceBrokerWebFluxExceptionHandler.class);
+		instrumentation.setPercentileHistogram(percentileHistogram);
+		return instrumentation;
+	}
+
+	/**
+	 * Provide a {@link MicrometerServiceBrokerInstrumentation} bean for a Spring MVC
+	 * application.
+	 * @param meterRegistry the MeterRegistry bean
+	 * @param percentileHistogram whether the operation timer publishes a percentile
+	 * histogram
+	 * @return the bean
+	 */
+	@Bean
+	@ConditionalOnMissingBean(MicrometerServiceBrokerInstrumentation.class)
+	@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+	public MicrometerServiceBrokerInstrumentation servletServiceBrokerInstrumentation(MeterRegistry meterRegistry,
+			@Value("${" + PERCENTILE_HISTOGRAM_PROPERTY + ":true}") boolean percentileHistogram) {
+		MicrometerServiceBrokerInstrumentation instrumentation = new MicrometerServiceBrokerInstrumentation(
+				meterRegistry, ServiceBrokerWebMvcExceptionHandler.class);
+		instrumentation.setPercentileHistogram(percentileHistogram);
+		return instrumentation;
+	}
+
+	/**
+	 * Provide a {@link MeterBinder} that reports the flows that are pending in, and were
+	 * dropped by, the {@link DetachedFlowExecutor}.
+	 * @param executor the DetachedFlowExecutor bean
+	 * @return the bean
+	 */
+	@Bean
+	@ConditionalOnBean(DetachedFlowExecutor.class)
+	public MeterBinder detachedFlowExecutorMetrics(DetachedFlowExecutor executor) {
+		return (registry) -> {
+			Gauge.builder("osb.flows.detached.pending", executor, DetachedFlowExecutor::getPendingCount)
+				.description("Detached event flows that are waiting or running")
+				.register(registry);
+			FunctionCounter.builder("osb.flows.detached.dropped", executor, DetachedFlowExecutor::getDroppedCount)
+				.description("Detached event flows that were dropped because the executor was full")
+				.register(registry);
+		};
+	}
+
+	/**
+	 * Provide a {@link MeterBinder} that reports the events that could not be stored by
+	 * the {@link OutboxEventFlows}.
+	 * @param outboxEventFlows the OutboxEventFlows bean
+	 * @return the bean
+	 */
+	@Bean
+	@ConditionalOnBean(OutboxEventFlows.class)
+	public MeterBinder outboxEventFlowsMetrics(OutboxEventFlows outboxEventFlows) {
+		return (registry) -> FunctionCounter
+			.builder("osb.outbox.append.failed", outboxEventFlows, OutboxEventFlows::getFailedCount)
+			.description("Operation events that could not be stored in the outbox")
+			.register(registry);
+	}
+
+	/**
+	 * Provide a {@link MeterBinder} that reports the events that could not be read from
+	 * the {@link SegmentFileOutbox} and were skipped.
+	 * @param outbox the SegmentFileOutbox bean
+	 * @return the bean
+	 */
+	@Bean
+	@ConditionalOnBean(SegmentFileOutbox.class)
+	public MeterBinder outboxMetrics(SegmentFileOutbox outbox) {
+		return (registry) -> FunctionCounter
+			.builder("osb.outbox.read.skipped", outbox, SegmentFileOutbox::getSkippedCount)
+			.description("Outbox events that could not be read and were moved to the dead letter directory")
+			.register(registry);
+	}
+
+	/**
+	 * Provide a {@link MeterBinder} that reports the events that were dropped by the
+	 * {@link BatchingEventSink}.
+	 * @param batchingEventSink the BatchingEventSink bean
+	 * @return the bean
+	 */
+	@Bean
+	@ConditionalOnBean(BatchingEventSink.class)
+	public MeterBinder batchingEventSinkMetrics(BatchingEventSink batchingEventSink) {
+		return (registry) -> FunctionCounter
+			.builder("osb.events.batching.dropped", batchingEventSink, BatchingEventSink::getDroppedCount)
+			.description("Operation events that were dropped because the batching buffer stayed full")
+			.register(registry);
+	}
+
+}
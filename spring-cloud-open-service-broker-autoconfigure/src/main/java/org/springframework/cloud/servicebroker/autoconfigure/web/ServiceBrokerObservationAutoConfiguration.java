@@ -0,0 +1,57 @@
+/*
+ * Copyright 2002-2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.servicebroker.autoconfigure.web;
+
+import io.micrometer.observation.ObservationRegistry;
+
+import org.springframework.boot.autoconfigure.AutoConfigureAfter;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.cloud.servicebroker.observability.ObservationServiceBrokerInstrumentation;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * {@link EnableAutoConfiguration Auto-configuration} for recording Micrometer
+ * observations of the service broker operations when an {@link ObservationRegistry} bean
+ * is available.
+ *
+ * @see ObservationServiceBrokerInstrumentation
+ */
+@Configuration
+@AutoConfigureAfter(name = "org.springframework.boot.actuate.autoconfigure.observation.ObservationAutoConfiguration")
+@ConditionalOnClass(ObservationRegistry.class)
+@ConditionalOnBean(ObservationRegistry.class)
+@ConditionalOnWebApplication
+public class ServiceBrokerObservationAutoConfiguration {
+
+	/**
+	 * Provide an {@link ObservationServiceBrokerInstrumentation} bean.
+	 * @param observationRegistry the ObservationRegistry bean
+	 * @return the bean
+	 */
+	@Bean
+	@ConditionalOnMissingBean(ObservationServiceBrokerInstrumentation.class)
+	public ObservationServiceBrokerInstrumentation observationServiceBrokerInstrumentation(
+			ObservationRegistry observationRegistry) {
+		return new ObservationServiceBrokerInstrumentation(observationRegistry);
+	}
+
+}
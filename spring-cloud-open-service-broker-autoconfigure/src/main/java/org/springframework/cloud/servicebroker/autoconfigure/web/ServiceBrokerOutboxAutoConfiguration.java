@@ -0,0 +1,101 @@
+/*
+ * Copyright 2002-2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.servicebroker.autoconfigure.web;
+
+import java.nio.file.Path;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.cloud.servicebroker.service.events.outbox.OutboxDispatcher;
+import org.springframework.cloud.servicebroker.service.events.outbox.OutboxEventConsumer;
+import org.springframework.cloud.servicebroker.service.events.outbox.OutboxEventFlows;
+import org.springframework.cloud.servicebroker.service.events.outbox.SegmentFileOutbox;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.util.StringUtils;
+
+/**
+ * {@link EnableAutoConfiguration Auto-configuration} for recording the completion and
+ * error events of service broker operations in a {@link SegmentFileOutbox} and delivering
+ * them to the {@link OutboxEventConsumer} bean. Enabled by setting
+ * {@literal spring.cloud.openservicebroker.outbox.enabled} to {@literal true}.
+ */
+@Configuration
+@ConditionalOnProperty(name = "spring.cloud.openservicebroker.outbox.enabled", havingValue = "true")
+@ConditionalOnBean(OutboxEventConsumer.class)
+public class ServiceBrokerOutboxAutoConfiguration {
+
+	private static final String DIRECTORY_PROPERTY = "spring.cloud.openservicebroker.outbox.directory";
+
+	private static final String FAIL_ON_APPEND_ERROR_PROPERTY = "spring.cloud.openservicebroker.outbox."
+			+ "fail-on-append-error";
+
+	/**
+	 * Provide a {@link SegmentFileOutbox} bean in the configured directory.
+	 * @param directory the directory of the segment files
+	 * @param objectMapper the application's ObjectMapper, used to write and read events
+	 * @return the bean
+	 * @throws IllegalStateException if no directory is configured
+	 */
+	@Bean
+	@ConditionalOnMissingBean(SegmentFileOutbox.class)
+	public SegmentFileOutbox serviceBrokerOutbox(@Value("${" + DIRECTORY_PROPERTY + ":}") String directory,
+			ObjectProvider<ObjectMapper> objectMapper) {
+		if (!StringUtils.hasText(directory)) {
+			throw new IllegalStateException(
+					DIRECTORY_PROPERTY + " must be set to a persistent directory when the outbox is enabled");
+		}
+		ObjectMapper mapper = objectMapper.getIfAvailable();
+		return (mapper != null)
+				? new SegmentFileOutbox(Path.of(directory), SegmentFileOutbox.DEFAULT_SEGMENT_SIZE, true, mapper)
+				: new SegmentFileOutbox(Path.of(directory));
+	}
+
+	/**
+	 * Provide the {@link OutboxEventFlows} bean, which the event flow registries pick up.
+	 * @param outbox the SegmentFileOutbox bean
+	 * @param failOnAppendError whether a failure to store an event fails the operation
+	 * @return the bean
+	 */
+	@Bean
+	@ConditionalOnMissingBean(OutboxEventFlows.class)
+	public OutboxEventFlows outboxEventFlows(SegmentFileOutbox outbox,
+			@Value("${" + FAIL_ON_APPEND_ERROR_PROPERTY + ":false}") boolean failOnAppendError) {
+		OutboxEventFlows flows = new OutboxEventFlows(outbox);
+		flows.setFailOnAppendError(failOnAppendError);
+		return flows;
+	}
+
+	/**
+	 * Provide an {@link OutboxDispatcher} bean that delivers the events in the outbox.
+	 * @param outbox the SegmentFileOutbox bean
+	 * @param consumer the OutboxEventConsumer bean
+	 * @return the bean
+	 */
+	@Bean
+	@ConditionalOnMissingBean(OutboxDispatcher.class)
+	public OutboxDispatcher outboxDispatcher(SegmentFileOutbox outbox, OutboxEventConsumer consumer) {
+		return new OutboxDispatcher(outbox, consumer);
+	}
+
+}
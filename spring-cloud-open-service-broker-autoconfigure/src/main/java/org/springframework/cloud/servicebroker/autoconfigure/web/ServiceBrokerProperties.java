@@ -16,6 +16,8 @@
 
 package org.springframework.cloud.servicebroker.autoconfigure.web;
 
+import java.time.Duration;
+
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.boot.context.properties.NestedConfigurationProperty;
 import org.springframework.validation.annotation.Validated;
@@ -34,6 +36,36 @@ public class ServiceBrokerProperties {
 	@NestedConfigurationProperty
 	private Catalog catalog;
 
+	/**
+	 * Whether to decode and validate the X-Broker-API-Originating-Identity header when a
+	 * request is received, instead of when the originating identity is first read.
+	 */
+	private boolean strictOriginatingIdentity;
+
+	/**
+	 * Where the service instance and binding services, and their event flows, are
+	 * invoked in a WebFlux application.
+	 */
+	private ExecutionMode executionMode = ExecutionMode.EVENT_LOOP;
+
+	/**
+	 * Whether concurrent last operation requests for the same service instance or binding
+	 * share one call to the service.
+	 */
+	private boolean coalesceLastOperations;
+
+	/**
+	 * How long a last operation response for a finished operation is reused when last
+	 * operation requests are coalesced. Zero disables reuse.
+	 */
+	private Duration lastOperationResultTimeToLive = Duration.ZERO;
+
+	/**
+	 * How long a shared call for the last operation may take before it fails when last
+	 * operation requests are coalesced. Zero disables the timeout.
+	 */
+	private Duration lastOperationCallTimeout = Duration.ofSeconds(60);
+
 	public String getApiVersion() {
 		return this.apiVersion;
 	}
@@ -50,4 +82,66 @@ public class ServiceBrokerProperties {
 		this.catalog = catalog;
 	}
 
+	public boolean isStrictOriginatingIdentity() {
+		return this.strictOriginatingIdentity;
+	}
+
+	public void setStrictOriginatingIdentity(boolean strictOriginatingIdentity) {
+		this.strictOriginatingIdentity = strictOriginatingIdentity;
+	}
+
+	public ExecutionMode getExecutionMode() {
+		return this.executionMode;
+	}
+
+	public void setExecutionMode(ExecutionMode executionMode) {
+		this.executionMode = executionMode;
+	}
+
+	public boolean isCoalesceLastOperations() {
+		return this.coalesceLastOperations;
+	}
+
+	public void setCoalesceLastOperations(boolean coalesceLastOperations) {
+		this.coalesceLastOperations = coalesceLastOperations;
+	}
+
+	public Duration getLastOperationResultTimeToLive() {
+		return this.lastOperationResultTimeToLive;
+	}
+
+	public void setLastOperationResultTimeToLive(Duration lastOperationResultTimeToLive) {
+		this.lastOperationResultTimeToLive = lastOperationResultTimeToLive;
+	}
+
+	public Duration getLastOperationCallTimeout() {
+		return this.lastOperationCallTimeout;
+	}
+
+	public void setLastOperationCallTimeout(Duration lastOperationCallTimeout) {
+		this.lastOperationCallTimeout = lastOperationCallTimeout;
+	}
+
+	/**
+	 * Where the service broker services are invoked.
+	 */
+	public enum ExecutionMode {
+
+		/**
+		 * Invoke the services on the thread that received the request.
+		 */
+		EVENT_LOOP,
+
+		/**
+		 * Invoke the services on the shared bounded elastic scheduler.
+		 */
+		BOUNDED_ELASTIC,
+
+		/**
+		 * Invoke each service call on a new virtual thread. Requires Java 21 or later.
+		 */
+		VIRTUAL_THREADS
+
+	}
+
 }
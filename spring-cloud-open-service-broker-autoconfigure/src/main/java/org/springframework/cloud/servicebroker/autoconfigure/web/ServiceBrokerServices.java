@@ -0,0 +1,117 @@
+/*
+ * Copyright 2002-2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.servicebroker.autoconfigure.web;
+
+import java.time.Duration;
+
+import org.springframework.cloud.servicebroker.service.AsyncOperationTracker;
+import org.springframework.cloud.servicebroker.service.CoalescingServiceInstanceBindingService;
+import org.springframework.cloud.servicebroker.service.CoalescingServiceInstanceService;
+import org.springframework.cloud.servicebroker.service.ParameterSchemaValidator;
+import org.springframework.cloud.servicebroker.service.ServiceInstanceBindingEventService;
+import org.springframework.cloud.servicebroker.service.ServiceInstanceBindingService;
+import org.springframework.cloud.servicebroker.service.ServiceInstanceEventService;
+import org.springframework.cloud.servicebroker.service.ServiceInstanceService;
+import org.springframework.cloud.servicebroker.service.TrackingServiceInstanceService;
+import org.springframework.cloud.servicebroker.service.ValidatingServiceInstanceBindingService;
+import org.springframework.cloud.servicebroker.service.ValidatingServiceInstanceService;
+import org.springframework.cloud.servicebroker.service.events.EventFlowRegistries;
+
+/**
+ * Decorates the {@link ServiceInstanceService} and {@link ServiceInstanceBindingService}
+ * beans with the features enabled by the {@link ServiceBrokerProperties}, in the same
+ * order for every web stack.
+ *
+ * <p>
+ * From the innermost, last operation calls are coalesced, operations are tracked, event
+ * flows are run, and request parameters are validated, so that an invalid request is
+ * rejected before any event flow or tracking takes place. Service calls and event flows
+ * are only wrapped for observation if the instrumentation observes steps.
+ */
+public final class ServiceBrokerServices {
+
+	private ServiceBrokerServices() {
+	}
+
+	/**
+	 * Decorate a {@link ServiceInstanceService}.
+	 * @param serviceInstanceService the service to decorate
+	 * @param eventFlowRegistries the event flow registries
+	 * @param parameterSchemaValidator the parameter validator, or {@literal null} if
+	 * parameter validation is disabled
+	 * @param asyncOperationTracker the operation tracker, or {@literal null} if operation
+	 * tracking is disabled
+	 * @param serviceBrokerProperties the service broker properties
+	 * @param observingSteps whether the instrumentation observes the steps of an
+	 * operation
+	 * @return the decorated service
+	 */
+	public static ServiceInstanceService serviceInstanceService(ServiceInstanceService serviceInstanceService,
+			EventFlowRegistries eventFlowRegistries, ParameterSchemaValidator parameterSchemaValidator,
+			AsyncOperationTracker asyncOperationTracker, ServiceBrokerProperties serviceBrokerProperties,
+			boolean observingSteps) {
+		ServiceInstanceService service = serviceInstanceService;
+		if (serviceBrokerProperties.isCoalesceLastOperations()) {
+			Duration timeToLive = serviceBrokerProperties.getLastOperationResultTimeToLive();
+			Duration callTimeout = serviceBrokerProperties.getLastOperationCallTimeout();
+			service = new CoalescingServiceInstanceService(service, timeToLive, callTimeout);
+		}
+		if (asyncOperationTracker != null) {
+			service = new TrackingServiceInstanceService(service, asyncOperationTracker);
+		}
+		ServiceInstanceEventService eventService = new ServiceInstanceEventService(service, eventFlowRegistries);
+		eventService.setObservingSteps(observingSteps);
+		eventFlowRegistries.setObservingSteps(observingSteps);
+		service = eventService;
+		if (parameterSchemaValidator != null) {
+			service = new ValidatingServiceInstanceService(service, parameterSchemaValidator);
+		}
+		return service;
+	}
+
+	/**
+	 * Decorate a {@link ServiceInstanceBindingService}.
+	 * @param serviceInstanceBindingService the service to decorate
+	 * @param eventFlowRegistries the event flow registries
+	 * @param parameterSchemaValidator the parameter validator, or {@literal null} if
+	 * parameter validation is disabled
+	 * @param serviceBrokerProperties the service broker properties
+	 * @param observingSteps whether the instrumentation observes the steps of an
+	 * operation
+	 * @return the decorated service
+	 */
+	public static ServiceInstanceBindingService serviceInstanceBindingService(
+			ServiceInstanceBindingService serviceInstanceBindingService, EventFlowRegistries eventFlowRegistries,
+			ParameterSchemaValidator parameterSchemaValidator, ServiceBrokerProperties serviceBrokerProperties,
+			boolean observingSteps) {
+		ServiceInstanceBindingService service = serviceInstanceBindingService;
+		if (serviceBrokerProperties.isCoalesceLastOperations()) {
+			Duration timeToLive = serviceBrokerProperties.getLastOperationResultTimeToLive();
+			Duration callTimeout = serviceBrokerProperties.getLastOperationCallTimeout();
+			service = new CoalescingServiceInstanceBindingService(service, timeToLive, callTimeout);
+		}
+		ServiceInstanceBindingEventService eventService = new ServiceInstanceBindingEventService(service,
+				eventFlowRegistries);
+		eventService.setObservingSteps(observingSteps);
+		service = eventService;
+		if (parameterSchemaValidator != null) {
+			service = new ValidatingServiceInstanceBindingService(service, parameterSchemaValidator);
+		}
+		return service;
+	}
+
+}
@@ -20,14 +20,13 @@ import java.nio.charset.StandardCharsets;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
-import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 import org.springframework.cloud.servicebroker.exception.ServiceBrokerApiVersionErrorMessage;
 import org.springframework.cloud.servicebroker.model.BrokerApiVersion;
 import org.springframework.cloud.servicebroker.model.error.ErrorMessage;
-import org.springframework.core.io.buffer.DefaultDataBufferFactory;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.server.reactive.ServerHttpResponse;
 import org.springframework.web.server.ServerWebExchange;
 import org.springframework.web.server.WebFilter;
@@ -39,14 +38,29 @@ import org.springframework.web.util.pattern.PathPatternParser;
  * {@link WebFilter} that configures checking for an appropriate service broker API
  * version.
  *
+ * <p>
+ * The path pattern is parsed and the error responses are encoded once, when the filter is
+ * created. Only the version provided by the platform is encoded for each rejected
+ * request.
+ *
  * @author Roy Clarkson
  */
 public class ApiVersionWebFilter implements WebFilter {
 
-	private static final String V2_API_PATH_PATTERN = "/v2/**";
+	private static final PathPattern V2_API_PATH_PATTERN = PathPatternParser.defaultInstance.parse("/v2/**");
+
+	private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+	private static final String PROVIDED_VERSION_PLACEHOLDER = "${provided-version}";
 
 	private final BrokerApiVersion version;
 
+	private final byte[] missingVersionBody;
+
+	private final byte[] unsupportedVersionPrefix;
+
+	private final byte[] unsupportedVersionSuffix;
+
 	/**
 	 * Construct a filter that disables API version validation.
 	 */
@@ -60,58 +74,94 @@ public class ApiVersionWebFilter implements WebFilter {
 	 * @param version the API version supported by the broker.
 	 */
 	public ApiVersionWebFilter(BrokerApiVersion version) {
-		this.version = version;
+		if (version == null || version.isAnyVersionAllowed()) {
+			this.version = null;
+			this.missingVersionBody = null;
+			this.unsupportedVersionPrefix = null;
+			this.unsupportedVersionSuffix = null;
+		}
+		else {
+			this.version = version;
+			this.missingVersionBody = toJson(version.getApiVersion(), null).getBytes(StandardCharsets.UTF_8);
+			String unsupportedVersionBody = toJson(version.getApiVersion(), PROVIDED_VERSION_PLACEHOLDER);
+			int placeholder = unsupportedVersionBody.lastIndexOf(PROVIDED_VERSION_PLACEHOLDER);
+			this.unsupportedVersionPrefix = unsupportedVersionBody.substring(0, placeholder)
+				.getBytes(StandardCharsets.UTF_8);
+			this.unsupportedVersionSuffix = unsupportedVersionBody
+				.substring(placeholder + PROVIDED_VERSION_PLACEHOLDER.length())
+				.getBytes(StandardCharsets.UTF_8);
+		}
 	}
 
 	/**
 	 * Process the web request and validate the API version in the header. If the API
-	 * version does not match, then set an HTTP 412 status and write the error message to
-	 * the response.
+	 * version is not supported, then set an HTTP 412 status and write the error message
+	 * to the response.
 	 * @param exchange {@inheritDoc}
 	 * @param chain {@inheritDoc}
 	 * @return {@inheritDoc}
 	 */
 	@Override
 	public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
-		PathPattern pathPattern = new PathPatternParser().parse(V2_API_PATH_PATTERN);
-		if (pathPattern.matches(exchange.getRequest().getPath()) && this.version != null && !anyVersionAllowed()) {
-			String requestedApiVersion = exchange.getRequest()
-				.getHeaders()
-				.getFirst(this.version.getBrokerApiVersionHeader());
-			ServerHttpResponse response = exchange.getResponse();
-			if (requestedApiVersion == null) {
-				response.setStatusCode(HttpStatus.BAD_REQUEST);
-				return writeResponse(response, requestedApiVersion);
-			}
-			else if (!this.version.getApiVersion().equals(requestedApiVersion)) {
-				response.setStatusCode(HttpStatus.PRECONDITION_FAILED);
-				return writeResponse(response, requestedApiVersion);
-			}
+		if (this.version == null || !V2_API_PATH_PATTERN.matches(exchange.getRequest().getPath())) {
+			return chain.filter(exchange);
 		}
-		return chain.filter(exchange);
+		String requestedApiVersion = exchange.getRequest()
+			.getHeaders()
+			.getFirst(this.version.getBrokerApiVersionHeader());
+		if (this.version.isSupported(requestedApiVersion)) {
+			return chain.filter(exchange);
+		}
+		ServerHttpResponse response = exchange.getResponse();
+		response.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+		if (requestedApiVersion == null) {
+			response.setStatusCode(HttpStatus.BAD_REQUEST);
+			return writeResponse(response, this.missingVersionBody);
+		}
+		response.setStatusCode(HttpStatus.PRECONDITION_FAILED);
+		byte[] providedVersion = toJsonStringContent(requestedApiVersion);
+		byte[] body = new byte[this.unsupportedVersionPrefix.length + providedVersion.length
+				+ this.unsupportedVersionSuffix.length];
+		System.arraycopy(this.unsupportedVersionPrefix, 0, body, 0, this.unsupportedVersionPrefix.length);
+		System.arraycopy(providedVersion, 0, body, this.unsupportedVersionPrefix.length, providedVersion.length);
+		System.arraycopy(this.unsupportedVersionSuffix, 0, body,
+				this.unsupportedVersionPrefix.length + providedVersion.length, this.unsupportedVersionSuffix.length);
+		return writeResponse(response, body);
 	}
 
-	private boolean anyVersionAllowed() {
-		return BrokerApiVersion.API_VERSION_ANY.equals(this.version.getApiVersion());
+	private Mono<Void> writeResponse(ServerHttpResponse response, byte[] body) {
+		return response.writeWith(Mono.just(response.bufferFactory().wrap(body)));
+	}
+
+	private static String toJson(String expectedApiVersion, String requestedApiVersion) {
+		String message = ServiceBrokerApiVersionErrorMessage.from(expectedApiVersion, requestedApiVersion).toString();
+		try {
+			return OBJECT_MAPPER.writeValueAsString(ErrorMessage.builder().message(message).build());
+		}
+		catch (JsonProcessingException ex) {
+			throw new IllegalStateException("Unable to encode API version error message", ex);
+		}
 	}
 
-	private Mono<Void> writeResponse(ServerHttpResponse response, String requestedApiVersion) {
-		String message = ServiceBrokerApiVersionErrorMessage.from(this.version.getApiVersion(), requestedApiVersion)
-			.toString();
-		return response.writeWith(Flux.just(response.bufferFactory()
-			.allocateBuffer(DefaultDataBufferFactory.DEFAULT_INITIAL_CAPACITY)
-			.write(toJson(ErrorMessage.builder().message(message).build()), StandardCharsets.UTF_8)));
+	// escapes the header value only if it contains characters other than printable ASCII
+	private static byte[] toJsonStringContent(String value) {
+		for (int i = 0; i < value.length(); i++) {
+			char c = value.charAt(i);
+			if (c < 0x20 || c > 0x7E || c == '"' || c == '\\') {
+				return escapeJsonStringContent(value);
+			}
+		}
+		return value.getBytes(StandardCharsets.US_ASCII);
 	}
 
-	private String toJson(ErrorMessage message) {
-		String json;
+	private static byte[] escapeJsonStringContent(String value) {
 		try {
-			json = new ObjectMapper().writeValueAsString(message);
+			String json = OBJECT_MAPPER.writeValueAsString(value);
+			return json.substring(1, json.length() - 1).getBytes(StandardCharsets.UTF_8);
 		}
 		catch (JsonProcessingException ex) {
-			json = "{}";
+			return new byte[0];
 		}
-		return json;
 	}
 
 }
@@ -0,0 +1,78 @@
+/*
+ * Copyright 2002-2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.servicebroker.autoconfigure.web.reactive;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import reactor.blockhound.BlockHound;
+import reactor.blockhound.BlockingMethod;
+import reactor.blockhound.BlockingOperationError;
+
+import org.springframework.beans.factory.InitializingBean;
+
+/**
+ * Installs BlockHound to report blocking calls that are made on a non-blocking thread,
+ * such as a Netty event loop. Instead of failing the call, as BlockHound does by default,
+ * each blocking call is logged as a warning together with the stack trace that led to
+ * it. This is intended as a development-time check that the service implementations and
+ * event flows do not block the event loop, for example to verify the configured
+ * execution mode.
+ *
+ * <p>
+ * BlockHound is installed once per JVM. On Java 13 and later, the JVM must be started
+ * with {@code -XX:+AllowRedefinitionToAddDeleteMethods}.
+ */
+public class BlockingCallDetector implements InitializingBean {
+
+	private static final Logger LOG = LoggerFactory.getLogger(BlockingCallDetector.class);
+
+	private static final AtomicBoolean INSTALLED = new AtomicBoolean();
+
+	private static final ThreadLocal<Boolean> REPORTING = ThreadLocal.withInitial(() -> Boolean.FALSE);
+
+	@Override
+	public void afterPropertiesSet() {
+		install();
+	}
+
+	/**
+	 * Install BlockHound, unless it was already installed by this class.
+	 */
+	public static void install() {
+		if (INSTALLED.compareAndSet(false, true)) {
+			BlockHound.builder().blockingMethodCallback(BlockingCallDetector::report).install();
+		}
+	}
+
+	private static void report(BlockingMethod method) {
+		// writing the log entry can itself block, which must not be reported again
+		if (REPORTING.get()) {
+			return;
+		}
+		REPORTING.set(Boolean.TRUE);
+		try {
+			LOG.warn("Blocking call to {} on non-blocking thread {}", method, Thread.currentThread().getName(),
+					new BlockingOperationError(method));
+		}
+		finally {
+			REPORTING.set(Boolean.FALSE);
+		}
+	}
+
+}
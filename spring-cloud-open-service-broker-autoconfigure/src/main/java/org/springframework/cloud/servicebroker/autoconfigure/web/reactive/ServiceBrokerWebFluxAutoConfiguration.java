@@ -16,44 +16,87 @@
 
 package org.springframework.cloud.servicebroker.autoconfigure.web.reactive;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.autoconfigure.AutoConfigureAfter;
 import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
 import org.springframework.boot.autoconfigure.web.reactive.WebFluxAutoConfiguration;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.system.JavaVersion;
 import org.springframework.cloud.servicebroker.autoconfigure.web.EventFlowsAutoConfiguration;
 import org.springframework.cloud.servicebroker.autoconfigure.web.ServiceBrokerAutoConfiguration;
+import org.springframework.cloud.servicebroker.autoconfigure.web.ServiceBrokerProperties;
+import org.springframework.cloud.servicebroker.autoconfigure.web.ServiceBrokerServices;
 import org.springframework.cloud.servicebroker.autoconfigure.web.exception.ServiceInstanceServiceBeanDoesNotExistException;
 import org.springframework.cloud.servicebroker.controller.CatalogController;
+import org.springframework.cloud.servicebroker.controller.ServiceBrokerRouterFunction;
 import org.springframework.cloud.servicebroker.controller.ServiceBrokerWebFluxExceptionHandler;
 import org.springframework.cloud.servicebroker.controller.ServiceInstanceBindingController;
 import org.springframework.cloud.servicebroker.controller.ServiceInstanceController;
+import org.springframework.cloud.servicebroker.observability.ServiceBrokerInstrumentation;
+import org.springframework.cloud.servicebroker.service.AsyncOperationTracker;
 import org.springframework.cloud.servicebroker.service.CatalogService;
-import org.springframework.cloud.servicebroker.service.ServiceInstanceBindingEventService;
+import org.springframework.cloud.servicebroker.service.ParameterSchemaValidator;
+import org.springframework.cloud.servicebroker.service.SchedulingServiceInstanceBindingService;
+import org.springframework.cloud.servicebroker.service.SchedulingServiceInstanceService;
 import org.springframework.cloud.servicebroker.service.ServiceInstanceBindingService;
-import org.springframework.cloud.servicebroker.service.ServiceInstanceEventService;
 import org.springframework.cloud.servicebroker.service.ServiceInstanceService;
 import org.springframework.cloud.servicebroker.service.events.EventFlowRegistries;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.VirtualThreadTaskExecutor;
 
 /**
  * {@link EnableAutoConfiguration Auto-configuration} for the service broker REST API
  * endpoints.
  *
+ * <p>
+ * Setting {@literal spring.cloud.openservicebroker.functional-endpoints} to
+ * {@literal true} serves the endpoints from a {@link ServiceBrokerRouterFunction} instead
+ * of registering the annotated controllers.
+ *
+ * <p>
+ * Setting {@literal spring.cloud.openservicebroker.execution-mode} to
+ * {@literal bounded-elastic} or {@literal virtual-threads} invokes the service instance
+ * and binding services, including their event flows, off the event loop, so that
+ * implementations that block do not need their own {@code subscribeOn}. Setting
+ * {@literal spring.cloud.openservicebroker.blocking-call-detection} to {@literal true}
+ * installs a {@link BlockingCallDetector} that reports blocking calls which still reach
+ * the event loop.
+ *
  * @author Roy Clarkson
  */
 @Configuration
 @AutoConfigureAfter({ WebFluxAutoConfiguration.class, ServiceBrokerAutoConfiguration.class,
 		EventFlowsAutoConfiguration.class })
+@EnableConfigurationProperties(ServiceBrokerProperties.class)
 @ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
-public class ServiceBrokerWebFluxAutoConfiguration {
+public class ServiceBrokerWebFluxAutoConfiguration implements DisposableBean {
+
+	private static final String FUNCTIONAL_ENDPOINTS_PROPERTY = "spring.cloud.openservicebroker.functional-endpoints";
 
 	private final CatalogService catalogService;
 
-	private final ServiceInstanceEventService serviceInstanceEventService;
+	private final ServiceInstanceService serviceInstanceService;
+
+	private final ServiceInstanceBindingService serviceInstanceBindingService;
 
-	private final ServiceInstanceBindingEventService serviceInstanceBindingEventService;
+	private final boolean strictOriginatingIdentity;
+
+	private final ServiceBrokerInstrumentation instrumentation;
+
+	private final Scheduler virtualThreadScheduler;
 
 	/**
 	 * Construct a new {@link ServiceBrokerWebFluxAutoConfiguration}.
@@ -61,26 +104,55 @@ public class ServiceBrokerWebFluxAutoConfiguration {
 	 * @param serviceInstanceService the ServiceInstanceService bean
 	 * @param serviceInstanceBindingService the ServiceInstanceBindingService bean
 	 * @param eventFlowRegistries the EventFlowRegistries bean
+	 * @param parameterSchemaValidator the ParameterSchemaValidator bean, if parameter
+	 * validation is enabled
+	 * @param asyncOperationTracker the AsyncOperationTracker bean, if operation tracking
+	 * is enabled
+	 * @param serviceBrokerProperties the service broker properties
+	 * @param instrumentation the ServiceBrokerInstrumentation beans
 	 */
 	protected ServiceBrokerWebFluxAutoConfiguration(CatalogService catalogService,
 			@Autowired(required = false) ServiceInstanceService serviceInstanceService,
-			ServiceInstanceBindingService serviceInstanceBindingService, EventFlowRegistries eventFlowRegistries) {
+			ServiceInstanceBindingService serviceInstanceBindingService, EventFlowRegistries eventFlowRegistries,
+			ObjectProvider<ParameterSchemaValidator> parameterSchemaValidator,
+			ObjectProvider<AsyncOperationTracker> asyncOperationTracker,
+			ServiceBrokerProperties serviceBrokerProperties,
+			ObjectProvider<ServiceBrokerInstrumentation> instrumentation) {
 		if (serviceInstanceService == null) {
 			throw new ServiceInstanceServiceBeanDoesNotExistException();
 		}
 		this.catalogService = catalogService;
-		this.serviceInstanceEventService = new ServiceInstanceEventService(serviceInstanceService, eventFlowRegistries);
-		this.serviceInstanceBindingEventService = new ServiceInstanceBindingEventService(serviceInstanceBindingService,
-				eventFlowRegistries);
+		this.instrumentation = ServiceBrokerInstrumentation.of(instrumentation.orderedStream().toList());
+		boolean observingSteps = this.instrumentation.isObservingSteps();
+		ServiceInstanceService instanceService = ServiceBrokerServices.serviceInstanceService(serviceInstanceService,
+				eventFlowRegistries, parameterSchemaValidator.getIfAvailable(), asyncOperationTracker.getIfAvailable(),
+				serviceBrokerProperties, observingSteps);
+		ServiceInstanceBindingService bindingService = ServiceBrokerServices.serviceInstanceBindingService(
+				serviceInstanceBindingService, eventFlowRegistries, parameterSchemaValidator.getIfAvailable(),
+				serviceBrokerProperties, observingSteps);
+		ServiceBrokerProperties.ExecutionMode executionMode = serviceBrokerProperties.getExecutionMode();
+		this.virtualThreadScheduler = (executionMode == ServiceBrokerProperties.ExecutionMode.VIRTUAL_THREADS)
+				? createVirtualThreadScheduler() : null;
+		Scheduler scheduler = (executionMode == ServiceBrokerProperties.ExecutionMode.BOUNDED_ELASTIC)
+				? Schedulers.boundedElastic() : this.virtualThreadScheduler;
+		if (scheduler != null) {
+			instanceService = new SchedulingServiceInstanceService(instanceService, scheduler);
+			bindingService = new SchedulingServiceInstanceBindingService(bindingService, scheduler);
+		}
+		this.serviceInstanceService = instanceService;
+		this.serviceInstanceBindingService = bindingService;
+		this.strictOriginatingIdentity = serviceBrokerProperties.isStrictOriginatingIdentity();
 	}
 
 	/**
 	 * Provide a {@link CatalogController} bean.
+	 * @param objectMapper the application's ObjectMapper, used to serialize the catalog
 	 * @return the bean
 	 */
 	@Bean
-	public CatalogController catalogController() {
-		return new CatalogController(this.catalogService);
+	@ConditionalOnProperty(name = FUNCTIONAL_ENDPOINTS_PROPERTY, havingValue = "false", matchIfMissing = true)
+	public CatalogController catalogController(ObjectProvider<ObjectMapper> objectMapper) {
+		return createCatalogController(objectMapper);
 	}
 
 	/**
@@ -88,8 +160,9 @@ public class ServiceBrokerWebFluxAutoConfiguration {
 	 * @return the bean
 	 */
 	@Bean
+	@ConditionalOnProperty(name = FUNCTIONAL_ENDPOINTS_PROPERTY, havingValue = "false", matchIfMissing = true)
 	public ServiceInstanceController serviceInstanceController() {
-		return new ServiceInstanceController(this.catalogService, this.serviceInstanceEventService);
+		return createServiceInstanceController();
 	}
 
 	/**
@@ -97,8 +170,71 @@ public class ServiceBrokerWebFluxAutoConfiguration {
 	 * @return the bean
 	 */
 	@Bean
+	@ConditionalOnProperty(name = FUNCTIONAL_ENDPOINTS_PROPERTY, havingValue = "false", matchIfMissing = true)
 	public ServiceInstanceBindingController serviceInstanceBindingController() {
-		return new ServiceInstanceBindingController(this.catalogService, this.serviceInstanceBindingEventService);
+		return createServiceInstanceBindingController();
+	}
+
+	/**
+	 * Provide a {@link ServiceBrokerRouterFunction} bean that serves the service broker
+	 * API in place of the annotated controllers.
+	 * @param validator the Bean Validation validator, if one is available
+	 * @param objectMapper the application's ObjectMapper, used to serialize the catalog
+	 * @param exceptionHandler the ServiceBrokerWebFluxExceptionHandler bean
+	 * @param basePath the path prefix of the service broker API
+	 * @return the bean
+	 */
+	@Bean
+	@ConditionalOnProperty(name = FUNCTIONAL_ENDPOINTS_PROPERTY, havingValue = "true")
+	public ServiceBrokerRouterFunction serviceBrokerRouterFunction(ObjectProvider<Validator> validator,
+			ObjectProvider<ObjectMapper> objectMapper, ServiceBrokerWebFluxExceptionHandler exceptionHandler,
+			@Value("${spring.cloud.openservicebroker.base-path:}") String basePath) {
+		return new ServiceBrokerRouterFunction(createCatalogController(objectMapper), createServiceInstanceController(),
+				createServiceInstanceBindingController(),
+				validator.getIfUnique(() -> Validation.buildDefaultValidatorFactory().getValidator()),
+				exceptionHandler, basePath);
+	}
+
+	private static Scheduler createVirtualThreadScheduler() {
+		JavaVersion javaVersion = JavaVersion.getJavaVersion();
+		if (javaVersion.isOlderThan(JavaVersion.TWENTY_ONE)) {
+			throw new IllegalStateException("The virtual-threads execution mode requires Java 21 or later, "
+					+ "but the application is running on Java " + javaVersion);
+		}
+		return Schedulers.fromExecutor(new VirtualThreadTaskExecutor("service-broker-"));
+	}
+
+	/**
+	 * Dispose of the scheduler that invokes the services on virtual threads, if one was
+	 * created. The shared bounded elastic scheduler is left to Reactor.
+	 */
+	@Override
+	public void destroy() {
+		if (this.virtualThreadScheduler != null) {
+			this.virtualThreadScheduler.dispose();
+		}
+	}
+
+	private CatalogController createCatalogController(ObjectProvider<ObjectMapper> objectMapper) {
+		ObjectMapper mapper = objectMapper.getIfAvailable();
+		return (mapper != null) ? new CatalogController(this.catalogService, mapper)
+				: new CatalogController(this.catalogService);
+	}
+
+	private ServiceInstanceController createServiceInstanceController() {
+		ServiceInstanceController controller = new ServiceInstanceController(this.catalogService,
+				this.serviceInstanceService);
+		controller.setStrictOriginatingIdentity(this.strictOriginatingIdentity);
+		controller.setInstrumentation(this.instrumentation);
+		return controller;
+	}
+
+	private ServiceInstanceBindingController createServiceInstanceBindingController() {
+		ServiceInstanceBindingController controller = new ServiceInstanceBindingController(this.catalogService,
+				this.serviceInstanceBindingService);
+		controller.setStrictOriginatingIdentity(this.strictOriginatingIdentity);
+		controller.setInstrumentation(this.instrumentation);
+		return controller;
 	}
 
 	/**
@@ -119,4 +255,24 @@ public class ServiceBrokerWebFluxAutoConfiguration {
 		return new RequestIdentityWebFilter();
 	}
 
+	/**
+	 * Provides a {@link BlockingCallDetector} when BlockHound is available and blocking
+	 * call detection is enabled.
+	 */
+	@Configuration
+	@ConditionalOnClass(name = "reactor.blockhound.BlockHound")
+	@ConditionalOnProperty(name = "spring.cloud.openservicebroker.blocking-call-detection", havingValue = "true")
+	protected static class BlockingCallDetectionConfiguration {
+
+		/**
+		 * Provide a {@link BlockingCallDetector} bean.
+		 * @return the bean
+		 */
+		@Bean
+		public BlockingCallDetector blockingCallDetector() {
+			return new BlockingCallDetector();
+		}
+
+	}
+
 }
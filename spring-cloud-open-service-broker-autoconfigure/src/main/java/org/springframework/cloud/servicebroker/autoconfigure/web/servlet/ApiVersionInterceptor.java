@@ -48,35 +48,33 @@ public class ApiVersionInterceptor implements HandlerInterceptor {
 	 */
 	public ApiVersionInterceptor(BrokerApiVersion version) {
 		super();
-		this.version = version;
+		this.version = (version != null && !version.isAnyVersionAllowed()) ? version : null;
 	}
 
 	/**
-	 * Compares the service broker API version header to the supported version.
+	 * Compares the service broker API version header to the supported versions. The
+	 * exceptions thrown for unsupported versions do not fill in a stack trace.
 	 * @param request {@inheritDoc}
 	 * @param response {@inheritDoc}
 	 * @param handler {@inheritDoc}
-	 * @throws ServiceBrokerApiVersionException if the API version header value does not
-	 * match the version supported by the broker
+	 * @throws ServiceBrokerApiVersionException if the API version header value is not
+	 * supported by the broker
+	 * @throws ServiceBrokerApiVersionMissingException if the API version header is
+	 * missing
 	 */
 	@Override
 	public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
-		if (this.version != null && !anyVersionAllowed()) {
-			String apiVersion = request.getHeader(this.version.getBrokerApiVersionHeader());
-
-			if (apiVersion == null) {
-				throw new ServiceBrokerApiVersionMissingException(this.version.getApiVersion());
-			}
-
-			if (!this.version.getApiVersion().equals(apiVersion)) {
-				throw new ServiceBrokerApiVersionException(this.version.getApiVersion(), apiVersion);
-			}
+		if (this.version == null) {
+			return true;
 		}
-		return true;
-	}
-
-	private boolean anyVersionAllowed() {
-		return BrokerApiVersion.API_VERSION_ANY.equals(this.version.getApiVersion());
+		String apiVersion = request.getHeader(this.version.getBrokerApiVersionHeader());
+		if (this.version.isSupported(apiVersion)) {
+			return true;
+		}
+		if (apiVersion == null) {
+			throw new ServiceBrokerApiVersionMissingException(this.version.getApiVersion(), false);
+		}
+		throw new ServiceBrokerApiVersionException(this.version.getApiVersion(), apiVersion, false);
 	}
 
 }
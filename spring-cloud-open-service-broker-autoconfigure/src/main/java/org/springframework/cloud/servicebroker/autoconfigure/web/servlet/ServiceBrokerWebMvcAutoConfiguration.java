@@ -16,22 +16,30 @@
 
 package org.springframework.cloud.servicebroker.autoconfigure.web.servlet;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.autoconfigure.AutoConfigureAfter;
 import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
 import org.springframework.boot.autoconfigure.web.servlet.WebMvcAutoConfiguration;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.cloud.servicebroker.autoconfigure.web.EventFlowsAutoConfiguration;
 import org.springframework.cloud.servicebroker.autoconfigure.web.ServiceBrokerAutoConfiguration;
+import org.springframework.cloud.servicebroker.autoconfigure.web.ServiceBrokerProperties;
+import org.springframework.cloud.servicebroker.autoconfigure.web.ServiceBrokerServices;
 import org.springframework.cloud.servicebroker.autoconfigure.web.exception.ServiceInstanceServiceBeanDoesNotExistException;
 import org.springframework.cloud.servicebroker.controller.CatalogController;
 import org.springframework.cloud.servicebroker.controller.ServiceBrokerWebMvcExceptionHandler;
 import org.springframework.cloud.servicebroker.controller.ServiceInstanceBindingController;
 import org.springframework.cloud.servicebroker.controller.ServiceInstanceController;
+import org.springframework.cloud.servicebroker.observability.ServiceBrokerInstrumentation;
+import org.springframework.cloud.servicebroker.service.AsyncOperationTracker;
 import org.springframework.cloud.servicebroker.service.CatalogService;
-import org.springframework.cloud.servicebroker.service.ServiceInstanceBindingEventService;
+import org.springframework.cloud.servicebroker.service.ParameterSchemaValidator;
 import org.springframework.cloud.servicebroker.service.ServiceInstanceBindingService;
-import org.springframework.cloud.servicebroker.service.ServiceInstanceEventService;
 import org.springframework.cloud.servicebroker.service.ServiceInstanceService;
 import org.springframework.cloud.servicebroker.service.events.EventFlowRegistries;
 import org.springframework.context.annotation.Bean;
@@ -41,20 +49,30 @@ import org.springframework.context.annotation.Configuration;
  * {@link EnableAutoConfiguration Auto-configuration} for the service broker REST API
  * endpoints.
  *
+ * <p>
+ * Setting {@literal spring.cloud.openservicebroker.synchronous-dispatch} to
+ * {@literal true} writes controller results that are already available on the request
+ * thread instead of starting an async dispatch for them.
+ *
  * @author Benjamin Ihrig
  * @author Roy Clarkson
  */
 @Configuration
 @AutoConfigureAfter({ WebMvcAutoConfiguration.class, ServiceBrokerAutoConfiguration.class,
 		EventFlowsAutoConfiguration.class })
+@EnableConfigurationProperties(ServiceBrokerProperties.class)
 @ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 public class ServiceBrokerWebMvcAutoConfiguration {
 
 	private final CatalogService catalogService;
 
-	private final ServiceInstanceEventService serviceInstanceEventService;
+	private final ServiceInstanceService serviceInstanceService;
+
+	private final ServiceInstanceBindingService serviceInstanceBindingService;
 
-	private final ServiceInstanceBindingEventService serviceInstanceBindingEventService;
+	private final boolean strictOriginatingIdentity;
+
+	private final ServiceBrokerInstrumentation instrumentation;
 
 	/**
 	 * Construct a new {@link ServiceBrokerWebMvcAutoConfiguration}.
@@ -62,26 +80,47 @@ public class ServiceBrokerWebMvcAutoConfiguration {
 	 * @param serviceInstanceService the ServiceInstanceService bean
 	 * @param serviceInstanceBindingService the ServiceInstanceBindingService bean
 	 * @param eventFlowRegistries the EventFlowRegistries bean
+	 * @param parameterSchemaValidator the ParameterSchemaValidator bean, if parameter
+	 * validation is enabled
+	 * @param asyncOperationTracker the AsyncOperationTracker bean, if operation tracking
+	 * is enabled
+	 * @param serviceBrokerProperties the service broker properties
+	 * @param instrumentation the ServiceBrokerInstrumentation beans
 	 */
 	protected ServiceBrokerWebMvcAutoConfiguration(CatalogService catalogService,
 			@Autowired(required = false) ServiceInstanceService serviceInstanceService,
-			ServiceInstanceBindingService serviceInstanceBindingService, EventFlowRegistries eventFlowRegistries) {
+			ServiceInstanceBindingService serviceInstanceBindingService, EventFlowRegistries eventFlowRegistries,
+			ObjectProvider<ParameterSchemaValidator> parameterSchemaValidator,
+			ObjectProvider<AsyncOperationTracker> asyncOperationTracker,
+			ServiceBrokerProperties serviceBrokerProperties,
+			ObjectProvider<ServiceBrokerInstrumentation> instrumentation) {
 		if (serviceInstanceService == null) {
 			throw new ServiceInstanceServiceBeanDoesNotExistException();
 		}
 		this.catalogService = catalogService;
-		this.serviceInstanceEventService = new ServiceInstanceEventService(serviceInstanceService, eventFlowRegistries);
-		this.serviceInstanceBindingEventService = new ServiceInstanceBindingEventService(serviceInstanceBindingService,
-				eventFlowRegistries);
+		this.instrumentation = ServiceBrokerInstrumentation.of(instrumentation.orderedStream().toList());
+		boolean observingSteps = this.instrumentation.isObservingSteps();
+		ServiceInstanceService instanceService = ServiceBrokerServices.serviceInstanceService(serviceInstanceService,
+				eventFlowRegistries, parameterSchemaValidator.getIfAvailable(), asyncOperationTracker.getIfAvailable(),
+				serviceBrokerProperties, observingSteps);
+		ServiceInstanceBindingService bindingService = ServiceBrokerServices.serviceInstanceBindingService(
+				serviceInstanceBindingService, eventFlowRegistries, parameterSchemaValidator.getIfAvailable(),
+				serviceBrokerProperties, observingSteps);
+		this.serviceInstanceService = instanceService;
+		this.serviceInstanceBindingService = bindingService;
+		this.strictOriginatingIdentity = serviceBrokerProperties.isStrictOriginatingIdentity();
 	}
 
 	/**
 	 * Provide a {@link CatalogController} bean.
+	 * @param objectMapper the application's ObjectMapper, used to serialize the catalog
 	 * @return the bean
 	 */
 	@Bean
-	public CatalogController catalogController() {
-		return new CatalogController(this.catalogService);
+	public CatalogController catalogController(ObjectProvider<ObjectMapper> objectMapper) {
+		ObjectMapper mapper = objectMapper.getIfAvailable();
+		return (mapper != null) ? new CatalogController(this.catalogService, mapper)
+				: new CatalogController(this.catalogService);
 	}
 
 	/**
@@ -90,7 +129,11 @@ public class ServiceBrokerWebMvcAutoConfiguration {
 	 */
 	@Bean
 	public ServiceInstanceController serviceInstanceController() {
-		return new ServiceInstanceController(this.catalogService, this.serviceInstanceEventService);
+		ServiceInstanceController controller = new ServiceInstanceController(this.catalogService,
+				this.serviceInstanceService);
+		controller.setStrictOriginatingIdentity(this.strictOriginatingIdentity);
+		controller.setInstrumentation(this.instrumentation);
+		return controller;
 	}
 
 	/**
@@ -99,7 +142,11 @@ public class ServiceBrokerWebMvcAutoConfiguration {
 	 */
 	@Bean
 	public ServiceInstanceBindingController serviceInstanceBindingController() {
-		return new ServiceInstanceBindingController(this.catalogService, this.serviceInstanceBindingEventService);
+		ServiceInstanceBindingController controller = new ServiceInstanceBindingController(this.catalogService,
+				this.serviceInstanceBindingService);
+		controller.setStrictOriginatingIdentity(this.strictOriginatingIdentity);
+		controller.setInstrumentation(this.instrumentation);
+		return controller;
 	}
 
 	/**
@@ -111,6 +158,16 @@ public class ServiceBrokerWebMvcAutoConfiguration {
 		return new ServiceBrokerWebMvcExceptionHandler();
 	}
 
+	/**
+	 * Provide a {@link SynchronousResultHandlerPostProcessor} bean.
+	 * @return the bean
+	 */
+	@Bean
+	@ConditionalOnProperty(name = "spring.cloud.openservicebroker.synchronous-dispatch", havingValue = "true")
+	public static SynchronousResultHandlerPostProcessor synchronousResultHandlerPostProcessor() {
+		return new SynchronousResultHandlerPostProcessor();
+	}
+
 	/**
 	 * Provide a {@link RequestIdentityInterceptor} bean.
 	 * @return the bean
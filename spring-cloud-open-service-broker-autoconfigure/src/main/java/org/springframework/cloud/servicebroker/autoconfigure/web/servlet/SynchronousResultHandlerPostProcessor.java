@@ -0,0 +1,66 @@
+/*
+ * Copyright 2002-2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.servicebroker.autoconfigure.web.servlet;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.web.method.support.HandlerMethodReturnValueHandler;
+import org.springframework.web.servlet.mvc.method.annotation.DeferredResultMethodReturnValueHandler;
+import org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandlerAdapter;
+
+/**
+ * A {@link BeanPostProcessor} that registers a
+ * {@link SynchronousResultReturnValueHandler} ahead of the default return value handlers
+ * of a {@link RequestMappingHandlerAdapter}, so that it is used instead of the reactive
+ * type support for the service broker controllers.
+ */
+public class SynchronousResultHandlerPostProcessor implements BeanPostProcessor {
+
+	@Override
+	public Object postProcessAfterInitialization(Object bean, String beanName) {
+		if (bean instanceof RequestMappingHandlerAdapter adapter) {
+			register(adapter);
+		}
+		return bean;
+	}
+
+	private void register(RequestMappingHandlerAdapter adapter) {
+		List<HandlerMethodReturnValueHandler> handlers = adapter.getReturnValueHandlers();
+		if (handlers == null) {
+			return;
+		}
+		HandlerMethodReturnValueHandler deferredResultHandler = null;
+		for (HandlerMethodReturnValueHandler handler : handlers) {
+			if (handler instanceof SynchronousResultReturnValueHandler) {
+				return;
+			}
+			if (handler instanceof DeferredResultMethodReturnValueHandler) {
+				deferredResultHandler = handler;
+			}
+		}
+		if (deferredResultHandler == null) {
+			return;
+		}
+		List<HandlerMethodReturnValueHandler> registered = new ArrayList<>(handlers.size() + 1);
+		registered.add(new SynchronousResultReturnValueHandler(handlers, deferredResultHandler));
+		registered.addAll(handlers);
+		adapter.setReturnValueHandlers(registered);
+	}
+
+}
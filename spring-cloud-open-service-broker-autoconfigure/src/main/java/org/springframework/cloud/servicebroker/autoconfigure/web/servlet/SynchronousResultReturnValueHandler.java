@@ -0,0 +1,210 @@
+/*
+ * Copyright 2002-2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.servicebroker.autoconfigure.web.servlet;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Type;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import reactor.core.publisher.BaseSubscriber;
+import reactor.core.publisher.Mono;
+
+import org.springframework.cloud.servicebroker.controller.BaseController;
+import org.springframework.core.MethodParameter;
+import org.springframework.core.ResolvableType;
+import org.springframework.util.Assert;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.method.support.HandlerMethodReturnValueHandler;
+import org.springframework.web.method.support.HandlerMethodReturnValueHandlerComposite;
+import org.springframework.web.method.support.ModelAndViewContainer;
+
+/**
+ * A {@link HandlerMethodReturnValueHandler} for the {@link Mono} results of the service
+ * broker controllers that avoids an async dispatch when the result is already available.
+ *
+ * <p>
+ * The {@link Mono} is subscribed to on the request thread. If it completes before the
+ * subscription returns, as it does when the services return {@code Mono.just(...)}, the
+ * value is written by the handler that would otherwise write it after the async
+ * dispatch, and an error is thrown to the configured exception handlers. Otherwise, the
+ * request is switched to async processing with a {@link DeferredResult} that is completed
+ * by the same subscription.
+ *
+ * @see SynchronousResultHandlerPostProcessor
+ */
+public class SynchronousResultReturnValueHandler implements HandlerMethodReturnValueHandler {
+
+	private final HandlerMethodReturnValueHandlerComposite resultHandlers;
+
+	private final HandlerMethodReturnValueHandler deferredResultHandler;
+
+	private final ConcurrentMap<Method, MethodParameter> resultTypes = new ConcurrentHashMap<>();
+
+	/**
+	 * Construct a new {@link SynchronousResultReturnValueHandler}.
+	 * @param resultHandlers the handlers used to write a value that is available
+	 * immediately
+	 * @param deferredResultHandler the handler used to start async processing for a
+	 * {@link DeferredResult}
+	 */
+	public SynchronousResultReturnValueHandler(List<HandlerMethodReturnValueHandler> resultHandlers,
+			HandlerMethodReturnValueHandler deferredResultHandler) {
+		Assert.notNull(deferredResultHandler, "deferredResultHandler must not be null");
+		this.resultHandlers = new HandlerMethodReturnValueHandlerComposite().addHandlers(resultHandlers);
+		this.deferredResultHandler = deferredResultHandler;
+	}
+
+	@Override
+	public boolean supportsReturnType(MethodParameter returnType) {
+		return Mono.class.isAssignableFrom(returnType.getParameterType())
+				&& BaseController.class.isAssignableFrom(returnType.getContainingClass());
+	}
+
+	@Override
+	public void handleReturnValue(Object returnValue, MethodParameter returnType, ModelAndViewContainer mavContainer,
+			NativeWebRequest webRequest) throws Exception {
+		if (returnValue == null) {
+			mavContainer.setRequestHandled(true);
+			return;
+		}
+		ResultSubscriber subscriber = new ResultSubscriber();
+		((Mono<?>) returnValue).subscribe(subscriber);
+		DeferredResult<Object> deferredResult = subscriber.deferIfPending();
+		if (deferredResult != null) {
+			this.deferredResultHandler.handleReturnValue(deferredResult, returnType, mavContainer, webRequest);
+			return;
+		}
+		Throwable error = subscriber.getError();
+		if (error instanceof Exception ex) {
+			throw ex;
+		}
+		if (error != null) {
+			throw (Error) error;
+		}
+		this.resultHandlers.handleReturnValue(subscriber.getValue(), getResultType(returnType), mavContainer,
+				webRequest);
+	}
+
+	private MethodParameter getResultType(MethodParameter returnType) {
+		Method method = returnType.getMethod();
+		if (method == null) {
+			return new ResultMethodParameter(returnType);
+		}
+		return this.resultTypes.computeIfAbsent(method, (key) -> new ResultMethodParameter(returnType));
+	}
+
+	/**
+	 * Receives the result of the {@link Mono} and either holds it for the request thread
+	 * or, once async processing has started, completes the {@link DeferredResult}.
+	 */
+	private static final class ResultSubscriber extends BaseSubscriber<Object> {
+
+		private Object value;
+
+		private Throwable error;
+
+		private boolean done;
+
+		private DeferredResult<Object> deferredResult;
+
+		@Override
+		protected void hookOnNext(Object value) {
+			this.value = value;
+		}
+
+		@Override
+		protected void hookOnComplete() {
+			complete(this.value, null);
+		}
+
+		@Override
+		protected void hookOnError(Throwable throwable) {
+			complete(null, throwable);
+		}
+
+		private synchronized void complete(Object value, Throwable error) {
+			this.done = true;
+			this.value = value;
+			this.error = error;
+			if (this.deferredResult != null) {
+				if (error != null) {
+					this.deferredResult.setErrorResult(error);
+				}
+				else {
+					this.deferredResult.setResult(value);
+				}
+			}
+		}
+
+		synchronized DeferredResult<Object> deferIfPending() {
+			if (this.done) {
+				return null;
+			}
+			this.deferredResult = new DeferredResult<>();
+			this.deferredResult.onCompletion(this::dispose);
+			return this.deferredResult;
+		}
+
+		synchronized Object getValue() {
+			return this.value;
+		}
+
+		synchronized Throwable getError() {
+			return this.error;
+		}
+
+	}
+
+	/**
+	 * A {@link MethodParameter} for the value emitted by the {@link Mono} that a handler
+	 * method returns, so that it is written as if it were returned directly.
+	 */
+	private static final class ResultMethodParameter extends MethodParameter {
+
+		private final ResolvableType resultType;
+
+		ResultMethodParameter(MethodParameter returnType) {
+			super(returnType);
+			this.resultType = ResolvableType.forMethodParameter(returnType).getGeneric();
+		}
+
+		private ResultMethodParameter(ResultMethodParameter original) {
+			super(original);
+			this.resultType = original.resultType;
+		}
+
+		@Override
+		public Class<?> getParameterType() {
+			return this.resultType.toClass();
+		}
+
+		@Override
+		public Type getGenericParameterType() {
+			return this.resultType.getType();
+		}
+
+		@Override
+		public ResultMethodParameter clone() {
+			return new ResultMethodParameter(this);
+		}
+
+	}
+
+}
@@ -0,0 +1,102 @@
+/*
+ * Copyright 2002-2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.servicebroker.autoconfigure.web.util;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.context.properties.source.ConfigurationPropertySources;
+import org.springframework.boot.env.PropertiesPropertySourceLoader;
+import org.springframework.boot.env.PropertySourceLoader;
+import org.springframework.boot.env.YamlPropertySourceLoader;
+import org.springframework.cloud.servicebroker.autoconfigure.web.ServiceBrokerProperties;
+import org.springframework.cloud.servicebroker.model.catalog.Catalog;
+import org.springframework.core.env.PropertySource;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+/**
+ * Compiles a catalog defined with {@literal spring.cloud.openservicebroker.catalog}
+ * properties in a YAML or properties file into the JSON representation of the
+ * {@link Catalog} model. The output can be referenced at runtime with
+ * {@literal spring.cloud.openservicebroker.catalog-location}, which skips binding the
+ * catalog properties and converting their metadata during application startup.
+ *
+ * <p>
+ * Intended to run as part of a build, for example from a Gradle {@literal JavaExec} task
+ * with the input file and the output file as arguments.
+ */
+public final class CatalogCompiler {
+
+	private static final String PROPERTY_PREFIX = "spring.cloud.openservicebroker";
+
+	private CatalogCompiler() {
+	}
+
+	/**
+	 * Compile a catalog file.
+	 * @param args the input YAML or properties file and the output JSON file
+	 * @throws IOException if the input cannot be read or the output cannot be written
+	 */
+	public static void main(String[] args) throws IOException {
+		if (args.length != 2) {
+			throw new IllegalArgumentException("Usage: CatalogCompiler <input.yml|input.properties> <output.json>");
+		}
+		Path output = Paths.get(args[1]);
+		if (output.getParent() != null) {
+			Files.createDirectories(output.getParent());
+		}
+		Files.write(output, compile(new FileSystemResource(args[0])));
+	}
+
+	/**
+	 * Compile the catalog properties in the provided resource into catalog JSON.
+	 * @param resource a YAML or properties resource
+	 * @return the UTF-8 encoded catalog JSON
+	 * @throws IOException if the resource cannot be read
+	 */
+	public static byte[] compile(Resource resource) throws IOException {
+		return Jackson2ObjectMapperBuilder.json().build().writeValueAsBytes(bindCatalog(resource));
+	}
+
+	private static Catalog bindCatalog(Resource resource) throws IOException {
+		List<PropertySource<?>> propertySources = getLoader(resource).load("catalog", resource);
+		Binder binder = new Binder(ConfigurationPropertySources.from(propertySources));
+		ServiceBrokerProperties properties = binder.bind(PROPERTY_PREFIX, ServiceBrokerProperties.class)
+			.orElseThrow(() -> new IllegalArgumentException(
+					"No " + PROPERTY_PREFIX + " properties found in " + resource.getDescription()));
+		if (properties.getCatalog() == null) {
+			throw new IllegalArgumentException(
+					"No " + PROPERTY_PREFIX + ".catalog properties found in " + resource.getDescription());
+		}
+		return properties.getCatalog().toModel();
+	}
+
+	private static PropertySourceLoader getLoader(Resource resource) {
+		String filename = (resource.getFilename() != null) ? resource.getFilename() : "";
+		if (filename.endsWith(".properties")) {
+			return new PropertiesPropertySourceLoader();
+		}
+		return new YamlPropertySourceLoader();
+	}
+
+}
@@ -25,6 +25,11 @@ import java.util.Map;
  * Internal class for marshaling abstract catalog metadata. Certain catalog metadata that
  * is defined in YAML properties needs to be adjusted to produce the expected JSON output.
  *
+ * <p>
+ * Maps are normalized in a single walk of the tree. Whether a map is a numbered map is
+ * decided while its entries are visited, by parsing each key in place, so no index
+ * strings are allocated and no map is probed repeatedly.
+ *
  * @author Roy Clarkson
  */
 public final class MetadataUtils {
@@ -51,8 +56,9 @@ public final class MetadataUtils {
 			// Spring YamlProcessor only provides String keys when loading yml
 			// https://github.com/spring-projects/spring-framework/blob/604361ee1f8bab4e4720e0fd1d18ca77eefc1b5f/spring-beans/src/main/java/org/springframework/beans/factory/config/YamlProcessor.java#L283-L287
 			Map<String, Object> valueMap = (Map<String, Object>) value;
-			if (isNumberedMap(valueMap)) {
-				convertedValue = convertNumberedMapToArray(valueMap);
+			Object[] items = toNumberedItems(valueMap);
+			if (items != null) {
+				convertedValue = convertNumberedItems(items);
 			}
 			else {
 				convertedValue = convertMap(valueMap);
@@ -69,16 +75,75 @@ public final class MetadataUtils {
 		return convertedValue;
 	}
 
-	private static List<Object> convertNumberedMapToArray(Map<String, Object> map) {
-		List<Object> list = new ArrayList<>(map.size());
-		for (int i = 0; map.get(Integer.toString(i)) != null; i++) {
-			Object arrayItem = map.get(Integer.toString(i));
-			if (arrayItem instanceof Map) {
+	/**
+	 * Visits the entries of a map once, placing each value at the index named by its key.
+	 * @param map the map to inspect
+	 * @return the values in index order if every key is a distinct index from
+	 * {@literal 0} to {@literal size - 1} with a non-null value, otherwise
+	 * {@literal null}
+	 */
+	private static Object[] toNumberedItems(Map<String, Object> map) {
+		int size = map.size();
+		if (size == 0) {
+			return null;
+		}
+		Object[] items = null;
+		for (Map.Entry<String, Object> entry : map.entrySet()) {
+			Object value = entry.getValue();
+			if (value == null) {
+				return null;
+			}
+			int index = parseIndex(entry.getKey(), size);
+			if (index < 0) {
+				return null;
+			}
+			if (items == null) {
+				items = new Object[size];
+			}
+			items[index] = value;
+		}
+		return items;
+	}
+
+	/**
+	 * Parses a key in the canonical form produced by {@link Integer#toString(int)}.
+	 * @param key the map key
+	 * @param size the size of the map, which bounds valid indices
+	 * @return the index, or {@literal -1} if the key is not a valid index
+	 */
+	private static int parseIndex(Object key, int size) {
+		if (!(key instanceof String text)) {
+			return -1;
+		}
+		int length = text.length();
+		if (length == 0 || (length > 1 && text.charAt(0) == '0')) {
+			return -1;
+		}
+		int index = 0;
+		for (int i = 0; i < length; i++) {
+			char c = text.charAt(i);
+			if (c < '0' || c > '9') {
+				return -1;
+			}
+			index = index * 10 + (c - '0');
+			if (index >= size) {
+				return -1;
+			}
+		}
+		return index;
+	}
+
+	private static List<Object> convertNumberedItems(Object[] items) {
+		List<Object> list = new ArrayList<>(items.length);
+		for (Object item : items) {
+			if (item instanceof Map) {
 				@SuppressWarnings("unchecked")
-				Map<String, Object> castedArrayItem = (Map<String, Object>) arrayItem;
-				arrayItem = convertMap(castedArrayItem);
+				Map<String, Object> castedItem = (Map<String, Object>) item;
+				list.add(convertMap(castedItem));
+			}
+			else {
+				list.add(item);
 			}
-			list.add(arrayItem);
 		}
 		return list;
 	}
@@ -89,14 +154,4 @@ public final class MetadataUtils {
 		return convertedList;
 	}
 
-	private static boolean isNumberedMap(Map<String, Object> map) {
-		int matchingKeyIndex = -1;
-		for (int i = 0; map.get(Integer.toString(i)) != null; i++) {
-			matchingKeyIndex = i;
-		}
-		boolean atLeastOneIntegerIndexFound = matchingKeyIndex >= 0;
-		boolean mapHasOnlyIntegerIndices = matchingKeyIndex == map.size() - 1;
-		return atLeastOneIntegerIndexFound && mapHasOnlyIntegerIndices;
-	}
-
 }
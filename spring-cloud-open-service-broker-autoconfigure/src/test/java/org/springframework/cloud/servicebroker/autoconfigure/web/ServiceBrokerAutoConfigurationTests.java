@@ -16,6 +16,9 @@
 
 package org.springframework.cloud.servicebroker.autoconfigure.web;
 
+import java.time.Duration;
+import java.util.Map;
+
 import org.junit.jupiter.api.Test;
 
 import org.springframework.beans.factory.UnsatisfiedDependencyException;
@@ -26,9 +29,17 @@ import org.springframework.boot.test.context.TestConfiguration;
 import org.springframework.boot.test.context.runner.ApplicationContextRunner;
 import org.springframework.cloud.servicebroker.autoconfigure.web.exception.CatalogDefinitionDoesNotExistException;
 import org.springframework.cloud.servicebroker.model.catalog.Catalog;
+import org.springframework.cloud.servicebroker.model.catalog.MethodSchema;
+import org.springframework.cloud.servicebroker.model.catalog.Plan;
+import org.springframework.cloud.servicebroker.model.catalog.Schemas;
+import org.springframework.cloud.servicebroker.model.catalog.ServiceDefinition;
+import org.springframework.cloud.servicebroker.model.catalog.ServiceInstanceSchema;
+import org.springframework.cloud.servicebroker.service.AsyncOperationExecutor;
+import org.springframework.cloud.servicebroker.service.AsyncOperationTracker;
 import org.springframework.cloud.servicebroker.service.BeanCatalogService;
 import org.springframework.cloud.servicebroker.service.CatalogService;
 import org.springframework.cloud.servicebroker.service.NonBindableServiceInstanceBindingService;
+import org.springframework.cloud.servicebroker.service.ParameterSchemaValidator;
 import org.springframework.cloud.servicebroker.service.ServiceInstanceBindingService;
 import org.springframework.cloud.servicebroker.service.ServiceInstanceService;
 import org.springframework.context.annotation.Bean;
@@ -158,6 +169,85 @@ class ServiceBrokerAutoConfigurationTests {
 			});
 	}
 
+	@Test
+	void servicesAreCreatedFromCatalogLocation() {
+		this.contextRunner.withUserConfiguration(MissingCatalogServiceConfiguration.class)
+			.withPropertyValues("spring.cloud.openservicebroker.catalog-location=classpath:catalog-compiled.json")
+			.run((context) -> {
+				assertThat(context).hasSingleBean(Catalog.class);
+				Catalog catalog = context.getBean(Catalog.class);
+				assertThat(catalog.getServiceDefinitions()).hasSize(1);
+				assertThat(catalog.getServiceDefinitions().get(0).getId()).isEqualTo("service-one-id");
+				assertThat(catalog.getServiceDefinitions().get(0).getPlans()).hasSize(1);
+				assertThat(catalog.getServiceDefinitions().get(0).getPlans().get(0).getId()).isEqualTo("plan-one-id");
+				assertThat(context).getBean(CatalogService.class).isExactlyInstanceOf(BeanCatalogService.class);
+			});
+	}
+
+	@Test
+	void catalogPropertiesFailStartupWhenCatalogLocationIsSet() {
+		this.contextRunner.withUserConfiguration(MissingCatalogServiceConfiguration.class)
+			.withPropertyValues("spring.cloud.openservicebroker.catalog-location=classpath:catalog-compiled.json",
+					"spring.cloud.openservicebroker.catalog.services[0].id=ignored-service-id")
+			.run((context) -> {
+				assertThat(context).hasFailed();
+				assertThat(context.getStartupFailure()).rootCause()
+					.isInstanceOf(IllegalStateException.class)
+					.hasMessageContaining("must not be configured");
+			});
+	}
+
+	@Test
+	void parameterSchemaValidatorIsCreatedWhenEnabled() {
+		this.contextRunner.withUserConfiguration(MinimalWithCatalogConfiguration.class)
+			.withPropertyValues("spring.cloud.openservicebroker.validate-parameters=true")
+			.run((context) -> assertThat(context).hasSingleBean(ParameterSchemaValidator.class));
+	}
+
+	@Test
+	void invalidPlanSchemaFailsStartupWhenParameterValidationIsEnabled() {
+		this.contextRunner.withUserConfiguration(InvalidSchemaCatalogConfiguration.class)
+			.withPropertyValues("spring.cloud.openservicebroker.validate-parameters=true")
+			.run((context) -> {
+				assertThat(context).hasFailed();
+				assertThat(context.getStartupFailure())
+					.hasStackTraceContaining("Invalid parameter schema for plan");
+			});
+	}
+
+	@Test
+	void parameterSchemaValidatorIsNotCreatedByDefault() {
+		this.contextRunner.withUserConfiguration(MinimalWithCatalogConfiguration.class)
+			.run((context) -> assertThat(context).doesNotHaveBean(ParameterSchemaValidator.class));
+	}
+
+	@Test
+	void asyncOperationTrackerIsCreatedWhenEnabled() {
+		this.contextRunner.withUserConfiguration(MinimalWithCatalogConfiguration.class)
+			.withPropertyValues("spring.cloud.openservicebroker.operation-tracking.enabled=true")
+			.run((context) -> {
+				assertThat(context).hasSingleBean(AsyncOperationTracker.class);
+				assertThat(context).hasSingleBean(AsyncOperationExecutor.class);
+			});
+	}
+
+	@Test
+	void asyncOperationTrackerIsConfiguredWithStalenessLimit() {
+		this.contextRunner.withUserConfiguration(MinimalWithCatalogConfiguration.class)
+			.withPropertyValues("spring.cloud.openservicebroker.operation-tracking.enabled=true",
+					"spring.cloud.openservicebroker.operation-tracking.stale-after=10m")
+			.run((context) -> assertThat(context.getBean(AsyncOperationTracker.class).getStaleAfter())
+				.isEqualTo(Duration.ofMinutes(10)));
+	}
+
+	@Test
+	void asyncOperationTrackerIsNotCreatedByDefault() {
+		this.contextRunner.withUserConfiguration(MinimalWithCatalogConfiguration.class).run((context) -> {
+			assertThat(context).doesNotHaveBean(AsyncOperationTracker.class);
+			assertThat(context).doesNotHaveBean(AsyncOperationExecutor.class);
+		});
+	}
+
 	@TestConfiguration
 	protected static class MinimalWithCatalogConfiguration {
 
@@ -173,6 +263,38 @@ class ServiceBrokerAutoConfigurationTests {
 
 	}
 
+	@TestConfiguration
+	protected static class InvalidSchemaCatalogConfiguration {
+
+		@Bean
+		protected Catalog catalog() {
+			return Catalog.builder()
+				.serviceDefinitions(ServiceDefinition.builder()
+					.id("service-id")
+					.name("service")
+					.description("Service")
+					.plans(Plan.builder()
+						.id("plan-id")
+						.name("plan")
+						.schemas(Schemas.builder()
+							.serviceInstanceSchema(ServiceInstanceSchema.builder()
+								.createMethodSchema(MethodSchema.builder()
+									.parameters(Map.of("type", "string", "pattern", "[a-z"))
+									.build())
+								.build())
+							.build())
+						.build())
+					.build())
+				.build();
+		}
+
+		@Bean
+		protected ServiceInstanceService serviceInstanceService() {
+			return new BasicServiceInstanceService();
+		}
+
+	}
+
 	@TestConfiguration
 	protected static class FullServicesWithCatalogConfiguration {
 
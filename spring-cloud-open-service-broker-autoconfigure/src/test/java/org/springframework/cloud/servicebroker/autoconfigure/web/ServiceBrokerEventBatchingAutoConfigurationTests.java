@@ -0,0 +1,85 @@
+/*
+ * Copyright 2002-2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.servicebroker.autoconfigure.web;
+
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import reactor.core.publisher.Mono;
+
+import org.springframework.boot.autoconfigure.AutoConfigurations;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+import org.springframework.cloud.servicebroker.service.events.CreateServiceInstanceBindingEventFlowRegistry;
+import org.springframework.cloud.servicebroker.service.events.outbox.BatchingEventSink;
+import org.springframework.cloud.servicebroker.service.events.outbox.OperationEventFlows;
+import org.springframework.cloud.servicebroker.service.events.outbox.OutboxEventConsumer;
+import org.springframework.cloud.servicebroker.service.events.outbox.OutboxEventFlows;
+import org.springframework.context.annotation.Bean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ServiceBrokerEventBatchingAutoConfigurationTests {
+
+	private final ApplicationContextRunner contextRunner = new ApplicationContextRunner()
+		.withConfiguration(AutoConfigurations.of(EventFlowsAutoConfiguration.class,
+				ServiceBrokerOutboxAutoConfiguration.class, ServiceBrokerEventBatchingAutoConfiguration.class))
+		.withUserConfiguration(ConsumerConfiguration.class);
+
+	@TempDir
+	Path directory;
+
+	@Test
+	void sinkIsNotCreatedByDefault() {
+		this.contextRunner.run((context) -> assertThat(context).doesNotHaveBean(BatchingEventSink.class));
+	}
+
+	@Test
+	void sinkIsAddedToRegistries() {
+		this.contextRunner.withPropertyValues("spring.cloud.openservicebroker.event-batching.enabled=true")
+			.run((context) -> {
+				assertThat(context).hasSingleBean(BatchingEventSink.class);
+				assertThat(context.getBean(BatchingEventSink.class).isRunning()).isTrue();
+				assertThat(context.getBean(CreateServiceInstanceBindingEventFlowRegistry.class).hasCompletionFlows())
+					.isTrue();
+			});
+	}
+
+	@Test
+	void outboxTakesPrecedence() {
+		this.contextRunner
+			.withPropertyValues("spring.cloud.openservicebroker.event-batching.enabled=true",
+					"spring.cloud.openservicebroker.outbox.enabled=true",
+					"spring.cloud.openservicebroker.outbox.directory=" + this.directory)
+			.run((context) -> {
+				assertThat(context).hasSingleBean(OperationEventFlows.class);
+				assertThat(context).hasSingleBean(OutboxEventFlows.class);
+			});
+	}
+
+	@TestConfiguration
+	static class ConsumerConfiguration {
+
+		@Bean
+		OutboxEventConsumer outboxEventConsumer() {
+			return (events) -> Mono.empty();
+		}
+
+	}
+
+}
@@ -0,0 +1,121 @@
+/*
+ * Copyright 2002-2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.servicebroker.autoconfigure.web;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import org.springframework.boot.autoconfigure.AutoConfigurations;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.test.context.runner.ReactiveWebApplicationContextRunner;
+import org.springframework.boot.test.context.runner.WebApplicationContextRunner;
+import org.springframework.cloud.servicebroker.autoconfigure.web.reactive.ServiceBrokerWebFluxAutoConfiguration;
+import org.springframework.cloud.servicebroker.autoconfigure.web.servlet.ServiceBrokerWebMvcAutoConfiguration;
+import org.springframework.cloud.servicebroker.controller.ServiceInstanceBindingController;
+import org.springframework.cloud.servicebroker.controller.ServiceInstanceController;
+import org.springframework.cloud.servicebroker.observability.MicrometerServiceBrokerInstrumentation;
+import org.springframework.cloud.servicebroker.observability.ServiceBrokerInstrumentation;
+import org.springframework.cloud.servicebroker.service.events.DetachedFlowExecutor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ServiceBrokerMetricsAutoConfigurationTests extends AbstractServiceBrokerWebAutoConfigurationTests {
+
+	@Test
+	void instrumentationIsCreatedForWebFluxWithMeterRegistry() {
+		new ReactiveWebApplicationContextRunner().withConfiguration(autoConfigurations())
+			.withUserConfiguration(FullServicesConfiguration.class, MeterRegistryConfiguration.class)
+			.run((context) -> {
+				assertThat(context).hasSingleBean(MicrometerServiceBrokerInstrumentation.class);
+				ServiceBrokerInstrumentation instrumentation = context.getBean(ServiceBrokerInstrumentation.class);
+				assertThat(ReflectionTestUtils.getField(context.getBean(ServiceInstanceController.class),
+						"instrumentation"))
+					.isSameAs(instrumentation);
+				assertThat(ReflectionTestUtils.getField(context.getBean(ServiceInstanceBindingController.class),
+						"instrumentation"))
+					.isSameAs(instrumentation);
+			});
+	}
+
+	@Test
+	void instrumentationIsCreatedForWebMvcWithMeterRegistry() {
+		new WebApplicationContextRunner().withConfiguration(autoConfigurations())
+			.withUserConfiguration(FullServicesConfiguration.class, MeterRegistryConfiguration.class)
+			.run((context) -> {
+				assertThat(context).hasSingleBean(MicrometerServiceBrokerInstrumentation.class);
+				assertThat(ReflectionTestUtils.getField(context.getBean(ServiceInstanceController.class),
+						"instrumentation"))
+					.isSameAs(context.getBean(ServiceBrokerInstrumentation.class));
+			});
+	}
+
+	@Test
+	void instrumentationIsNotCreatedWithoutMeterRegistry() {
+		new ReactiveWebApplicationContextRunner().withConfiguration(autoConfigurations())
+			.withUserConfiguration(FullServicesConfiguration.class)
+			.run((context) -> {
+				assertThat(context).doesNotHaveBean(ServiceBrokerInstrumentation.class);
+				assertThat(ReflectionTestUtils.getField(context.getBean(ServiceInstanceController.class),
+						"instrumentation"))
+					.isSameAs(ServiceBrokerInstrumentation.NONE);
+			});
+	}
+
+	@Test
+	void detachedFlowExecutorMetricsAreBound() {
+		new ReactiveWebApplicationContextRunner().withConfiguration(autoConfigurations())
+			.withUserConfiguration(FullServicesConfiguration.class, MeterRegistryConfiguration.class,
+					DetachedFlowExecutorConfiguration.class)
+			.run((context) -> {
+				MeterRegistry meterRegistry = context.getBean(MeterRegistry.class);
+				context.getBean(MeterBinder.class).bindTo(meterRegistry);
+				assertThat(meterRegistry.get("osb.flows.detached.pending").gauge().value()).isZero();
+				assertThat(meterRegistry.get("osb.flows.detached.dropped").functionCounter().count()).isZero();
+			});
+	}
+
+	@Override
+	protected AutoConfigurations autoConfigurations() {
+		return AutoConfigurations.of(ServiceBrokerMetricsAutoConfiguration.class,
+				ServiceBrokerWebFluxAutoConfiguration.class, ServiceBrokerWebMvcAutoConfiguration.class);
+	}
+
+	@TestConfiguration
+	static class MeterRegistryConfiguration {
+
+		@Bean
+		MeterRegistry meterRegistry() {
+			return new SimpleMeterRegistry();
+		}
+
+	}
+
+	@TestConfiguration
+	static class DetachedFlowExecutorConfiguration {
+
+		@Bean
+		DetachedFlowExecutor detachedFlowExecutor() {
+			return new DetachedFlowExecutor();
+		}
+
+	}
+
+}
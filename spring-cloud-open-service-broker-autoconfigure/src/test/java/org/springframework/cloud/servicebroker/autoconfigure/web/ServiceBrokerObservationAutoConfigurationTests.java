@@ -0,0 +1,100 @@
+/*
+ * Copyright 2002-2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.servicebroker.autoconfigure.web;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.micrometer.observation.ObservationRegistry;
+import org.junit.jupiter.api.Test;
+
+import org.springframework.boot.autoconfigure.AutoConfigurations;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.test.context.runner.ReactiveWebApplicationContextRunner;
+import org.springframework.cloud.servicebroker.autoconfigure.web.reactive.ServiceBrokerWebFluxAutoConfiguration;
+import org.springframework.cloud.servicebroker.autoconfigure.web.servlet.ServiceBrokerWebMvcAutoConfiguration;
+import org.springframework.cloud.servicebroker.controller.ServiceInstanceController;
+import org.springframework.cloud.servicebroker.observability.MicrometerServiceBrokerInstrumentation;
+import org.springframework.cloud.servicebroker.observability.ObservationServiceBrokerInstrumentation;
+import org.springframework.context.annotation.Bean;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ServiceBrokerObservationAutoConfigurationTests extends AbstractServiceBrokerWebAutoConfigurationTests {
+
+	@Test
+	void instrumentationIsCreatedWithObservationRegistry() {
+		new ReactiveWebApplicationContextRunner().withConfiguration(autoConfigurations())
+			.withUserConfiguration(FullServicesConfiguration.class, ObservationRegistryConfiguration.class)
+			.run((context) -> {
+				assertThat(context).hasSingleBean(ObservationServiceBrokerInstrumentation.class);
+				assertThat(ReflectionTestUtils.getField(context.getBean(ServiceInstanceController.class),
+						"instrumentation"))
+					.isSameAs(context.getBean(ObservationServiceBrokerInstrumentation.class));
+			});
+	}
+
+	@Test
+	void instrumentationsAreCombined() {
+		new ReactiveWebApplicationContextRunner().withConfiguration(autoConfigurations())
+			.withUserConfiguration(FullServicesConfiguration.class, ObservationRegistryConfiguration.class,
+					MeterRegistryConfiguration.class)
+			.run((context) -> {
+				assertThat(context).hasSingleBean(ObservationServiceBrokerInstrumentation.class)
+					.hasSingleBean(MicrometerServiceBrokerInstrumentation.class);
+				assertThat(ReflectionTestUtils.getField(context.getBean(ServiceInstanceController.class),
+						"instrumentation"))
+					.isNotSameAs(context.getBean(ObservationServiceBrokerInstrumentation.class))
+					.isNotSameAs(context.getBean(MicrometerServiceBrokerInstrumentation.class));
+			});
+	}
+
+	@Test
+	void instrumentationIsNotCreatedWithoutObservationRegistry() {
+		new ReactiveWebApplicationContextRunner().withConfiguration(autoConfigurations())
+			.withUserConfiguration(FullServicesConfiguration.class)
+			.run((context) -> assertThat(context).doesNotHaveBean(ObservationServiceBrokerInstrumentation.class));
+	}
+
+	@Override
+	protected AutoConfigurations autoConfigurations() {
+		return AutoConfigurations.of(ServiceBrokerObservationAutoConfiguration.class,
+				ServiceBrokerMetricsAutoConfiguration.class, ServiceBrokerWebFluxAutoConfiguration.class,
+				ServiceBrokerWebMvcAutoConfiguration.class);
+	}
+
+	@TestConfiguration
+	static class ObservationRegistryConfiguration {
+
+		@Bean
+		ObservationRegistry observationRegistry() {
+			return ObservationRegistry.create();
+		}
+
+	}
+
+	@TestConfiguration
+	static class MeterRegistryConfiguration {
+
+		@Bean
+		MeterRegistry meterRegistry() {
+			return new SimpleMeterRegistry();
+		}
+
+	}
+
+}
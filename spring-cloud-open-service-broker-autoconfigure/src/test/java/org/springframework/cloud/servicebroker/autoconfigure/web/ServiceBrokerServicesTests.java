@@ -0,0 +1,112 @@
+/*
+ * Copyright 2002-2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.servicebroker.autoconfigure.web;
+
+import java.time.Duration;
+
+import org.junit.jupiter.api.Test;
+
+import org.springframework.cloud.servicebroker.service.AsyncOperationTracker;
+import org.springframework.cloud.servicebroker.service.CoalescingServiceInstanceBindingService;
+import org.springframework.cloud.servicebroker.service.CoalescingServiceInstanceService;
+import org.springframework.cloud.servicebroker.service.ParameterSchemaValidator;
+import org.springframework.cloud.servicebroker.service.ServiceInstanceBindingEventService;
+import org.springframework.cloud.servicebroker.service.ServiceInstanceBindingService;
+import org.springframework.cloud.servicebroker.service.ServiceInstanceEventService;
+import org.springframework.cloud.servicebroker.service.ServiceInstanceService;
+import org.springframework.cloud.servicebroker.service.TrackingServiceInstanceService;
+import org.springframework.cloud.servicebroker.service.ValidatingServiceInstanceBindingService;
+import org.springframework.cloud.servicebroker.service.ValidatingServiceInstanceService;
+import org.springframework.cloud.servicebroker.service.events.EventFlowRegistries;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+class ServiceBrokerServicesTests {
+
+	private final EventFlowRegistries eventFlowRegistries = mock(EventFlowRegistries.class);
+
+	@Test
+	void serviceInstanceServiceIsDecoratedInOrder() {
+		ServiceInstanceService delegate = new BasicServiceInstanceService();
+
+		Object service = ServiceBrokerServices.serviceInstanceService(delegate, this.eventFlowRegistries,
+				new ParameterSchemaValidator(), new AsyncOperationTracker(), coalescingProperties(), false);
+
+		assertThat(service).isInstanceOf(ValidatingServiceInstanceService.class);
+		service = ReflectionTestUtils.getField(service, "service");
+		assertThat(service).isInstanceOf(ServiceInstanceEventService.class);
+		service = ReflectionTestUtils.getField(service, "service");
+		assertThat(service).isInstanceOf(TrackingServiceInstanceService.class);
+		service = ReflectionTestUtils.getField(service, "service");
+		assertThat(service).isInstanceOf(CoalescingServiceInstanceService.class);
+		assertThat(ReflectionTestUtils.getField(service, "service")).isSameAs(delegate);
+		Object lastOperations = ReflectionTestUtils.getField(service, "lastOperations");
+		assertThat(ReflectionTestUtils.getField(lastOperations, "timeout")).isEqualTo(Duration.ofSeconds(5));
+	}
+
+	@Test
+	void serviceInstanceBindingServiceIsDecoratedInOrder() {
+		ServiceInstanceBindingService delegate = new BasicServiceInstanceBindingService();
+
+		Object service = ServiceBrokerServices.serviceInstanceBindingService(delegate, this.eventFlowRegistries,
+				new ParameterSchemaValidator(), coalescingProperties(), false);
+
+		assertThat(service).isInstanceOf(ValidatingServiceInstanceBindingService.class);
+		service = ReflectionTestUtils.getField(service, "service");
+		assertThat(service).isInstanceOf(ServiceInstanceBindingEventService.class);
+		service = ReflectionTestUtils.getField(service, "service");
+		assertThat(service).isInstanceOf(CoalescingServiceInstanceBindingService.class);
+		assertThat(ReflectionTestUtils.getField(service, "service")).isSameAs(delegate);
+	}
+
+	@Test
+	void onlyEventFlowsAreAddedByDefault() {
+		ServiceInstanceService delegate = new BasicServiceInstanceService();
+
+		Object service = ServiceBrokerServices.serviceInstanceService(delegate, this.eventFlowRegistries, null, null,
+				new ServiceBrokerProperties(), false);
+
+		assertThat(service).isInstanceOf(ServiceInstanceEventService.class);
+		assertThat(ReflectionTestUtils.getField(service, "service")).isSameAs(delegate);
+		assertThat(ReflectionTestUtils.getField(service, "observingSteps")).isEqualTo(false);
+		verify(this.eventFlowRegistries).setObservingSteps(false);
+	}
+
+	@Test
+	void stepsAreObservedWhenInstrumentationObservesThem() {
+		Object service = ServiceBrokerServices.serviceInstanceService(new BasicServiceInstanceService(),
+				this.eventFlowRegistries, null, null, new ServiceBrokerProperties(), true);
+		Object bindingService = ServiceBrokerServices.serviceInstanceBindingService(
+				new BasicServiceInstanceBindingService(), this.eventFlowRegistries, null, new ServiceBrokerProperties(),
+				true);
+
+		assertThat(ReflectionTestUtils.getField(service, "observingSteps")).isEqualTo(true);
+		assertThat(ReflectionTestUtils.getField(bindingService, "observingSteps")).isEqualTo(true);
+		verify(this.eventFlowRegistries).setObservingSteps(true);
+	}
+
+	private static ServiceBrokerProperties coalescingProperties() {
+		ServiceBrokerProperties properties = new ServiceBrokerProperties();
+		properties.setCoalesceLastOperations(true);
+		properties.setLastOperationCallTimeout(Duration.ofSeconds(5));
+		return properties;
+	}
+
+}
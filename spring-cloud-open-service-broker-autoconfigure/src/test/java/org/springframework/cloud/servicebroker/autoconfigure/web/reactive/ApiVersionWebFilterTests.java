@@ -92,6 +92,39 @@ class ApiVersionWebFilterTests {
 		assertThat(this.exchange.getResponse().getStatusCode()).isEqualTo(HttpStatus.OK);
 	}
 
+	@Test
+	void versionInSupportedRange() {
+		setUpVersionResponse("2.15");
+		BrokerApiVersion brokerApiVersion = new BrokerApiVersion("header", "2.14-2.17");
+		ApiVersionWebFilter webFilter = new ApiVersionWebFilter(brokerApiVersion);
+		webFilter.filter(this.exchange, this.chain).block();
+		assertThat(this.exchange.getResponse().getStatusCode()).isEqualTo(HttpStatus.OK);
+	}
+
+	@Test
+	void versionOutsideSupportedRange() {
+		setUpVersionResponse("2.18");
+		BrokerApiVersion brokerApiVersion = new BrokerApiVersion("header", "2.14-2.17");
+		ApiVersionWebFilter webFilter = new ApiVersionWebFilter(brokerApiVersion);
+		webFilter.filter(this.exchange, this.chain).block();
+		assertThat(this.exchange.getResponse().getStatusCode()).isEqualTo(HttpStatus.PRECONDITION_FAILED);
+		assertThat(this.exchange.getResponse().getBodyAsString().block())
+			.isEqualTo("{\"description\":\"The provided service broker API version is not supported: "
+					+ "expected version=2.14-2.17, provided version=2.18\"}");
+	}
+
+	@Test
+	void providedVersionIsEscapedInResponse() {
+		setUpVersionResponse("\"9.9\"");
+		BrokerApiVersion brokerApiVersion = new BrokerApiVersion("header", "8.8");
+		ApiVersionWebFilter webFilter = new ApiVersionWebFilter(brokerApiVersion);
+		webFilter.filter(this.exchange, this.chain).block();
+		assertThat(this.exchange.getResponse().getStatusCode()).isEqualTo(HttpStatus.PRECONDITION_FAILED);
+		assertThat(this.exchange.getResponse().getBodyAsString().block())
+			.isEqualTo("{\"description\":\"The provided service broker API version is not supported: "
+					+ "expected version=8.8, provided version=\\\"9.9\\\"\"}");
+	}
+
 	private void setUpVersionResponse(String version) {
 		MockServerHttpRequest request;
 		if (version == null) {
@@ -0,0 +1,61 @@
+/*
+ * Copyright 2002-2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.servicebroker.autoconfigure.web.reactive;
+
+import org.junit.jupiter.api.Test;
+
+import org.springframework.http.MediaType;
+import org.springframework.test.context.TestPropertySource;
+
+@TestPropertySource(properties = { "spring.cloud.openservicebroker.base-path=/broker",
+		"spring.cloud.openservicebroker.functional-endpoints=true" })
+class FunctionalEndpointsBasePathIntegrationTests extends AbstractBasePathWebApplicationIntegrationTests {
+
+	@Test
+	void basePathFound() {
+		assertFound("/broker", null);
+	}
+
+	@Test
+	void basePathWithPlatformIdFound() {
+		assertFound("/broker/123", "123");
+	}
+
+	@Test
+	void noBasePathNotFound() {
+		assertNotFound("");
+	}
+
+	@Test
+	void basePathWithPrefixSegmentNotFound() {
+		assertNotFound("/api/broker");
+	}
+
+	@Test
+	void catalogFound() {
+		this.client.get()
+			.uri("/broker/v2/catalog")
+			.accept(MediaType.APPLICATION_JSON)
+			.exchange()
+			.expectStatus()
+			.isOk()
+			.expectBody()
+			.jsonPath("$.services[0].id")
+			.isEqualTo("default-service");
+	}
+
+}
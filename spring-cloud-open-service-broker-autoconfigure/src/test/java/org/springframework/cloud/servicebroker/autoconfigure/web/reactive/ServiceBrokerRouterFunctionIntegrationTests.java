@@ -0,0 +1,229 @@
+/*
+ * Copyright 2002-2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.servicebroker.autoconfigure.web.reactive;
+
+import jakarta.validation.Validation;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import org.springframework.cloud.servicebroker.autoconfigure.web.AbstractServiceInstanceControllerIntegrationTests;
+import org.springframework.cloud.servicebroker.controller.CatalogController;
+import org.springframework.cloud.servicebroker.controller.ServiceBrokerRouterFunction;
+import org.springframework.cloud.servicebroker.controller.ServiceBrokerWebFluxExceptionHandler;
+import org.springframework.cloud.servicebroker.controller.ServiceInstanceBindingController;
+import org.springframework.cloud.servicebroker.exception.ServiceBrokerCreateOperationInProgressException;
+import org.springframework.cloud.servicebroker.exception.ServiceDefinitionDoesNotExistException;
+import org.springframework.cloud.servicebroker.model.error.ErrorMessage;
+import org.springframework.cloud.servicebroker.model.instance.CreateServiceInstanceRequest;
+import org.springframework.cloud.servicebroker.model.instance.CreateServiceInstanceResponse;
+import org.springframework.cloud.servicebroker.model.instance.DeleteServiceInstanceRequest;
+import org.springframework.cloud.servicebroker.model.instance.DeleteServiceInstanceResponse;
+import org.springframework.cloud.servicebroker.model.instance.GetServiceInstanceRequest;
+import org.springframework.cloud.servicebroker.model.instance.GetServiceInstanceResponse;
+import org.springframework.cloud.servicebroker.service.ServiceInstanceBindingService;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.cloud.servicebroker.model.ServiceBrokerRequest.API_INFO_LOCATION_HEADER;
+import static org.springframework.cloud.servicebroker.model.ServiceBrokerRequest.ORIGINATING_IDENTITY_HEADER;
+
+@ExtendWith(MockitoExtension.class)
+class ServiceBrokerRouterFunctionIntegrationTests extends AbstractServiceInstanceControllerIntegrationTests {
+
+	private WebTestClient client;
+
+	@BeforeEach
+	void setUp() {
+		this.client = client(new ServiceBrokerWebFluxExceptionHandler());
+	}
+
+	@Test
+	void createServiceInstanceWithAsyncAndHeadersSucceeds() throws Exception {
+		setupCatalogService();
+
+		setupServiceInstanceService(CreateServiceInstanceResponse.builder().async(true).operation("task_10").build());
+
+		this.client.put()
+			.uri(buildCreateUpdateUrl(PLATFORM_INSTANCE_ID, true))
+			.contentType(MediaType.APPLICATION_JSON)
+			.bodyValue(this.createRequestBody)
+			.header(API_INFO_LOCATION_HEADER, API_INFO_LOCATION)
+			.header(ORIGINATING_IDENTITY_HEADER, buildOriginatingIdentityHeader())
+			.accept(MediaType.APPLICATION_JSON)
+			.exchange()
+			.expectStatus()
+			.isAccepted()
+			.expectBody()
+			.jsonPath("$.operation")
+			.isEqualTo("task_10");
+
+		CreateServiceInstanceRequest actualRequest = verifyCreateServiceInstance();
+		assertThat(actualRequest.isAsyncAccepted()).isEqualTo(true);
+		assertHeaderValuesSet(actualRequest);
+	}
+
+	@Test
+	void createServiceInstanceWithMissingFieldsFails() {
+		this.client.put()
+			.uri(buildCreateUpdateUrl())
+			.contentType(MediaType.APPLICATION_JSON)
+			.bodyValue("{}")
+			.accept(MediaType.APPLICATION_JSON)
+			.exchange()
+			.expectStatus()
+			.isBadRequest()
+			.expectBody()
+			.consumeWith((result) -> assertDescriptionContains(result, "serviceDefinitionId"));
+	}
+
+	@Test
+	void createServiceInstanceWithMismatchedContentTypeFails() {
+		this.client.put()
+			.uri(buildCreateUpdateUrl())
+			.contentType(MediaType.TEXT_PLAIN)
+			.bodyValue("")
+			.accept(MediaType.APPLICATION_JSON)
+			.exchange()
+			.expectStatus()
+			.isBadRequest()
+			.expectBody()
+			.consumeWith((result) -> assertDescriptionContains(result, "Content type 'text/plain' not supported"));
+	}
+
+	@Test
+	void createServiceInstanceWithOperationInProgressIsAccepted() {
+		setupCatalogService();
+
+		setupServiceInstanceService(new ServiceBrokerCreateOperationInProgressException("task_10"));
+
+		this.client.put()
+			.uri(buildCreateUpdateUrl())
+			.contentType(MediaType.APPLICATION_JSON)
+			.bodyValue(this.createRequestBody)
+			.accept(MediaType.APPLICATION_JSON)
+			.exchange()
+			.expectStatus()
+			.isAccepted()
+			.expectBody()
+			.jsonPath("$.operation")
+			.isEqualTo("task_10");
+	}
+
+	@Test
+	void getServiceInstanceSucceeds() throws Exception {
+		setupServiceInstanceService(GetServiceInstanceResponse.builder().build());
+
+		this.client.get()
+			.uri(buildGetUrl(PLATFORM_INSTANCE_ID))
+			.header(API_INFO_LOCATION_HEADER, API_INFO_LOCATION)
+			.header(ORIGINATING_IDENTITY_HEADER, buildOriginatingIdentityHeader())
+			.accept(MediaType.APPLICATION_JSON)
+			.exchange()
+			.expectStatus()
+			.isOk();
+
+		GetServiceInstanceRequest actualRequest = verifyGetServiceInstance();
+		assertHeaderValuesSet(actualRequest);
+	}
+
+	@Test
+	void deleteServiceInstanceSucceeds() {
+		setupCatalogService();
+
+		setupServiceInstanceService(DeleteServiceInstanceResponse.builder().build());
+
+		this.client.delete()
+			.uri(buildDeleteUrl())
+			.accept(MediaType.APPLICATION_JSON)
+			.exchange()
+			.expectStatus()
+			.isOk();
+
+		DeleteServiceInstanceRequest actualRequest = verifyDeleteServiceInstance();
+		assertThat(actualRequest.isAsyncAccepted()).isEqualTo(false);
+		assertThat(actualRequest.getPlan().getId()).isEqualTo("plan-three-id");
+		assertHeaderValuesNotSet(actualRequest);
+	}
+
+	@Test
+	void deleteServiceInstanceWithUnknownServiceDefinitionIdFails() {
+		setupCatalogService(null);
+
+		this.client.delete()
+			.uri(buildDeleteUrl())
+			.accept(MediaType.APPLICATION_JSON)
+			.exchange()
+			.expectStatus()
+			.isEqualTo(HttpStatus.BAD_REQUEST)
+			.expectBody()
+			.consumeWith((result) -> assertDescriptionContains(result,
+					String.format("id=%s", this.serviceDefinition.getId())));
+	}
+
+	@Test
+	void errorIsRenderedWithStatusOfOverriddenExceptionHandler() {
+		setupCatalogService(null);
+
+		client(new NotFoundExceptionHandler()).delete()
+			.uri(buildDeleteUrl())
+			.accept(MediaType.APPLICATION_JSON)
+			.exchange()
+			.expectStatus()
+			.isNotFound()
+			.expectBody()
+			.consumeWith((result) -> assertDescriptionContains(result,
+					String.format("id=%s", this.serviceDefinition.getId())));
+	}
+
+	@Test
+	void deleteServiceInstanceWithMissingQueryParamsFails() {
+		String url = buildDeleteUrl(null, false).replace("plan_id", "plan-1");
+
+		this.client.delete()
+			.uri(url)
+			.accept(MediaType.APPLICATION_JSON)
+			.exchange()
+			.expectStatus()
+			.isBadRequest()
+			.expectBody()
+			.consumeWith((result) -> assertDescriptionContains(result, "plan_id"));
+	}
+
+	private WebTestClient client(ServiceBrokerWebFluxExceptionHandler exceptionHandler) {
+		ServiceBrokerRouterFunction routerFunction = new ServiceBrokerRouterFunction(
+				new CatalogController(this.catalogService), this.controller,
+				new ServiceInstanceBindingController(this.catalogService, new ServiceInstanceBindingService() {
+				}), Validation.buildDefaultValidatorFactory().getValidator(), exceptionHandler, null);
+		return WebTestClient.bindToRouterFunction(routerFunction).build();
+	}
+
+	static class NotFoundExceptionHandler extends ServiceBrokerWebFluxExceptionHandler {
+
+		@Override
+		@ResponseStatus(HttpStatus.NOT_FOUND)
+		public ErrorMessage handleException(ServiceDefinitionDoesNotExistException ex) {
+			return super.handleException(ex);
+		}
+
+	}
+
+}
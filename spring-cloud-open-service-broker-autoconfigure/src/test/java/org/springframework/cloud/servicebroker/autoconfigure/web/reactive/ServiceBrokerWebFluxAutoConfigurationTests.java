@@ -16,7 +16,12 @@
 
 package org.springframework.cloud.servicebroker.autoconfigure.web.reactive;
 
+import java.util.concurrent.atomic.AtomicReference;
+
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledForJreRange;
+import org.junit.jupiter.api.condition.JRE;
+import reactor.core.scheduler.Scheduler;
 
 import org.springframework.beans.factory.BeanCreationException;
 import org.springframework.beans.factory.UnsatisfiedDependencyException;
@@ -24,9 +29,16 @@ import org.springframework.boot.test.context.runner.ReactiveWebApplicationContex
 import org.springframework.cloud.servicebroker.autoconfigure.web.AbstractServiceBrokerWebAutoConfigurationTests;
 import org.springframework.cloud.servicebroker.autoconfigure.web.exception.ServiceInstanceServiceBeanDoesNotExistException;
 import org.springframework.cloud.servicebroker.controller.CatalogController;
+import org.springframework.cloud.servicebroker.controller.ServiceBrokerRouterFunction;
 import org.springframework.cloud.servicebroker.controller.ServiceBrokerWebFluxExceptionHandler;
 import org.springframework.cloud.servicebroker.controller.ServiceInstanceBindingController;
 import org.springframework.cloud.servicebroker.controller.ServiceInstanceController;
+import org.springframework.cloud.servicebroker.service.CoalescingServiceInstanceBindingService;
+import org.springframework.cloud.servicebroker.service.CoalescingServiceInstanceService;
+import org.springframework.cloud.servicebroker.service.SchedulingServiceInstanceBindingService;
+import org.springframework.cloud.servicebroker.service.SchedulingServiceInstanceService;
+import org.springframework.cloud.servicebroker.service.ServiceInstanceEventService;
+import org.springframework.test.util.ReflectionTestUtils;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
@@ -47,6 +59,87 @@ class ServiceBrokerWebFluxAutoConfigurationTests extends AbstractServiceBrokerWe
 				.hasSingleBean(ServiceBrokerWebFluxExceptionHandler.class));
 	}
 
+	@Test
+	void routerFunctionIsCreatedWhenFunctionalEndpointsAreEnabled() {
+		webApplicationContextRunner().withUserConfiguration(FullServicesConfiguration.class)
+			.withPropertyValues("spring.cloud.openservicebroker.functional-endpoints=true")
+			.run((context) -> assertThat(context).hasSingleBean(ServiceBrokerRouterFunction.class)
+				.hasSingleBean(ServiceBrokerWebFluxExceptionHandler.class)
+				.doesNotHaveBean(CatalogController.class)
+				.doesNotHaveBean(ServiceInstanceController.class)
+				.doesNotHaveBean(ServiceInstanceBindingController.class));
+	}
+
+	@Test
+	void routerFunctionIsNotCreatedByDefault() {
+		webApplicationContextRunner().withUserConfiguration(FullServicesConfiguration.class)
+			.run((context) -> assertThat(context).doesNotHaveBean(ServiceBrokerRouterFunction.class));
+	}
+
+	@Test
+	void servicesAreInvokedOnEventLoopByDefault() {
+		webApplicationContextRunner().withUserConfiguration(FullServicesConfiguration.class)
+			.run((context) -> {
+				assertThat(ReflectionTestUtils.getField(context.getBean(ServiceInstanceController.class), "service"))
+					.isInstanceOf(ServiceInstanceEventService.class);
+				assertThat(context).doesNotHaveBean(BlockingCallDetector.class);
+			});
+	}
+
+	@Test
+	void servicesAreScheduledWithExecutionMode() {
+		webApplicationContextRunner().withUserConfiguration(FullServicesConfiguration.class)
+			.withPropertyValues("spring.cloud.openservicebroker.execution-mode=bounded-elastic")
+			.run((context) -> {
+				assertThat(ReflectionTestUtils.getField(context.getBean(ServiceInstanceController.class), "service"))
+					.isInstanceOf(SchedulingServiceInstanceService.class);
+				assertThat(ReflectionTestUtils.getField(context.getBean(ServiceInstanceBindingController.class),
+						"service"))
+					.isInstanceOf(SchedulingServiceInstanceBindingService.class);
+			});
+	}
+
+	@Test
+	@EnabledForJreRange(min = JRE.JAVA_21)
+	void virtualThreadSchedulerIsDisposedWithContext() {
+		AtomicReference<Scheduler> scheduler = new AtomicReference<>();
+		webApplicationContextRunner().withUserConfiguration(FullServicesConfiguration.class)
+			.withPropertyValues("spring.cloud.openservicebroker.execution-mode=virtual-threads")
+			.run((context) -> {
+				Object service = ReflectionTestUtils.getField(context.getBean(ServiceInstanceController.class),
+						"service");
+				scheduler.set((Scheduler) ReflectionTestUtils.getField(service, "scheduler"));
+				assertThat(scheduler.get().isDisposed()).isFalse();
+			});
+		assertThat(scheduler.get().isDisposed()).isTrue();
+	}
+
+	@Test
+	@EnabledForJreRange(max = JRE.JAVA_20)
+	void virtualThreadsFailStartupBeforeJava21() {
+		webApplicationContextRunner().withUserConfiguration(FullServicesConfiguration.class)
+			.withPropertyValues("spring.cloud.openservicebroker.execution-mode=virtual-threads")
+			.run((context) -> assertThat(context.getStartupFailure()).rootCause()
+				.isInstanceOf(IllegalStateException.class)
+				.hasMessageContaining("requires Java 21 or later"));
+	}
+
+	@Test
+	void lastOperationsAreCoalescedWhenEnabled() {
+		webApplicationContextRunner().withUserConfiguration(FullServicesConfiguration.class)
+			.withPropertyValues("spring.cloud.openservicebroker.coalesce-last-operations=true")
+			.run((context) -> {
+				Object service = ReflectionTestUtils.getField(context.getBean(ServiceInstanceController.class),
+						"service");
+				assertThat(ReflectionTestUtils.getField(service, "service"))
+					.isInstanceOf(CoalescingServiceInstanceService.class);
+				Object bindingService = ReflectionTestUtils
+					.getField(context.getBean(ServiceInstanceBindingController.class), "service");
+				assertThat(ReflectionTestUtils.getField(bindingService, "service"))
+					.isInstanceOf(CoalescingServiceInstanceBindingService.class);
+			});
+	}
+
 	@Test
 	void controllersAreNotCreatedWithMissingInstanceService() {
 		webApplicationContextRunner().withUserConfiguration(MissingServiceInstanceServiceConfiguration.class)
@@ -28,6 +28,7 @@ import org.springframework.cloud.servicebroker.model.BrokerApiVersion;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatException;
+import static org.assertj.core.api.Assertions.catchThrowable;
 import static org.mockito.BDDMockito.given;
 import static org.mockito.MockitoAnnotations.openMocks;
 
@@ -77,6 +78,26 @@ class ApiVersionInterceptorTests {
 			.isInstanceOf(ServiceBrokerApiVersionException.class);
 	}
 
+	@Test
+	void versionInSupportedRange() {
+		BrokerApiVersion brokerApiVersion = new BrokerApiVersion("header", "2.14-2.17");
+		given(this.request.getHeader("header")).willReturn("2.17");
+
+		ApiVersionInterceptor interceptor = new ApiVersionInterceptor(brokerApiVersion);
+		assertThat(interceptor.preHandle(this.request, this.response, null)).isTrue();
+	}
+
+	@Test
+	void versionOutsideSupportedRange() {
+		BrokerApiVersion brokerApiVersion = new BrokerApiVersion("header", "2.14-2.17");
+		given(this.request.getHeader("header")).willReturn("2.13");
+		ApiVersionInterceptor interceptor = new ApiVersionInterceptor(brokerApiVersion);
+		Throwable thrown = catchThrowable(() -> interceptor.preHandle(this.request, this.response, null));
+		assertThat(thrown).isInstanceOf(ServiceBrokerApiVersionException.class)
+			.hasMessageContaining("expected version=2.14-2.17, provided version=2.13");
+		assertThat(thrown.getStackTrace()).isEmpty();
+	}
+
 	@Test
 	void versionHeaderIsMissing() {
 		BrokerApiVersion brokerApiVersion = new BrokerApiVersion("header", "9.9");
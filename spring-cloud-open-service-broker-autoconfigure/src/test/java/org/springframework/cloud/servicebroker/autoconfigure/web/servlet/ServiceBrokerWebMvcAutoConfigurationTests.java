@@ -16,10 +16,13 @@
 
 package org.springframework.cloud.servicebroker.autoconfigure.web.servlet;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.Test;
 
 import org.springframework.beans.factory.BeanCreationException;
 import org.springframework.beans.factory.UnsatisfiedDependencyException;
+import org.springframework.boot.autoconfigure.AutoConfigurations;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
 import org.springframework.boot.test.context.runner.WebApplicationContextRunner;
 import org.springframework.cloud.servicebroker.autoconfigure.web.AbstractServiceBrokerWebAutoConfigurationTests;
 import org.springframework.cloud.servicebroker.autoconfigure.web.exception.ServiceInstanceServiceBeanDoesNotExistException;
@@ -27,6 +30,7 @@ import org.springframework.cloud.servicebroker.controller.CatalogController;
 import org.springframework.cloud.servicebroker.controller.ServiceBrokerWebMvcExceptionHandler;
 import org.springframework.cloud.servicebroker.controller.ServiceInstanceBindingController;
 import org.springframework.cloud.servicebroker.controller.ServiceInstanceController;
+import org.springframework.test.util.ReflectionTestUtils;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
@@ -47,6 +51,15 @@ class ServiceBrokerWebMvcAutoConfigurationTests extends AbstractServiceBrokerWeb
 				.hasSingleBean(ServiceBrokerWebMvcExceptionHandler.class));
 	}
 
+	@Test
+	void catalogControllerUsesApplicationObjectMapper() {
+		webApplicationContextRunner().withUserConfiguration(FullServicesConfiguration.class)
+			.withConfiguration(AutoConfigurations.of(JacksonAutoConfiguration.class))
+			.run((context) -> assertThat(
+					ReflectionTestUtils.getField(context.getBean(CatalogController.class), "objectMapper"))
+				.isSameAs(context.getBean(ObjectMapper.class)));
+	}
+
 	@Test
 	void controllersAreNotCreatedWithMissingInstanceService() {
 		webApplicationContextRunner().withUserConfiguration(MissingServiceInstanceServiceConfiguration.class)
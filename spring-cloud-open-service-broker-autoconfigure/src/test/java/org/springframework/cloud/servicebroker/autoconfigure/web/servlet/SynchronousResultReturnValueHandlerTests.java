@@ -0,0 +1,132 @@
+/*
+ * Copyright 2002-2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.servicebroker.autoconfigure.web.servlet;
+
+import java.lang.reflect.Method;
+import java.util.Collections;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import org.springframework.cloud.servicebroker.controller.CatalogController;
+import org.springframework.cloud.servicebroker.exception.ServiceBrokerInvalidParametersException;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.util.ReflectionUtils;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.method.support.HandlerMethodReturnValueHandler;
+import org.springframework.web.method.support.ModelAndViewContainer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+@ExtendWith(MockitoExtension.class)
+class SynchronousResultReturnValueHandlerTests {
+
+	@Mock
+	private HandlerMethodReturnValueHandler resultHandler;
+
+	@Mock
+	private HandlerMethodReturnValueHandler deferredResultHandler;
+
+	private SynchronousResultReturnValueHandler handler;
+
+	private MethodParameter returnType;
+
+	private ModelAndViewContainer mavContainer;
+
+	private NativeWebRequest webRequest;
+
+	@BeforeEach
+	void setUp() {
+		this.handler = new SynchronousResultReturnValueHandler(Collections.singletonList(this.resultHandler),
+				this.deferredResultHandler);
+		Method method = ReflectionUtils.findMethod(CatalogController.class, "getCatalog", HttpHeaders.class);
+		this.returnType = new MethodParameter(method, -1);
+		this.mavContainer = new ModelAndViewContainer();
+		this.webRequest = new ServletWebRequest(new MockHttpServletRequest());
+	}
+
+	@Test
+	void controllerMonoIsSupported() {
+		assertThat(this.handler.supportsReturnType(this.returnType)).isTrue();
+	}
+
+	@Test
+	void otherMonoIsNotSupported() {
+		Method method = ReflectionUtils.findMethod(Mono.class, "empty");
+		assertThat(this.handler.supportsReturnType(new MethodParameter(method, -1))).isFalse();
+	}
+
+	@Test
+	void resolvedValueIsWrittenSynchronously() throws Exception {
+		ResponseEntity<String> entity = ResponseEntity.ok("catalog");
+		given(this.resultHandler.supportsReturnType(any())).willReturn(true);
+
+		this.handler.handleReturnValue(Mono.just(entity), this.returnType, this.mavContainer, this.webRequest);
+
+		ArgumentCaptor<MethodParameter> resultType = ArgumentCaptor.forClass(MethodParameter.class);
+		verify(this.resultHandler).handleReturnValue(eq(entity), resultType.capture(), eq(this.mavContainer),
+				eq(this.webRequest));
+		assertThat(resultType.getValue().getParameterType()).isEqualTo(ResponseEntity.class);
+		verifyNoInteractions(this.deferredResultHandler);
+	}
+
+	@Test
+	void resolvedErrorIsThrown() {
+		Mono<ResponseEntity<String>> result = Mono.error(new ServiceBrokerInvalidParametersException("invalid"));
+
+		assertThatExceptionOfType(ServiceBrokerInvalidParametersException.class).isThrownBy(
+				() -> this.handler.handleReturnValue(result, this.returnType, this.mavContainer, this.webRequest));
+		verifyNoInteractions(this.resultHandler, this.deferredResultHandler);
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	void pendingValueIsDeferred() throws Exception {
+		Sinks.One<ResponseEntity<String>> sink = Sinks.one();
+
+		this.handler.handleReturnValue(sink.asMono(), this.returnType, this.mavContainer, this.webRequest);
+
+		ArgumentCaptor<DeferredResult<Object>> deferredResult = ArgumentCaptor.forClass(DeferredResult.class);
+		verify(this.deferredResultHandler).handleReturnValue(deferredResult.capture(), eq(this.returnType),
+				eq(this.mavContainer), eq(this.webRequest));
+		assertThat(deferredResult.getValue().hasResult()).isFalse();
+
+		ResponseEntity<String> entity = ResponseEntity.ok("catalog");
+		sink.tryEmitValue(entity);
+
+		assertThat(deferredResult.getValue().getResult()).isSameAs(entity);
+		verifyNoInteractions(this.resultHandler);
+	}
+
+}
@@ -0,0 +1,70 @@
+/*
+ * Copyright 2002-2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.servicebroker.autoconfigure.web.util;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.context.properties.source.ConfigurationPropertySources;
+import org.springframework.boot.env.YamlPropertySourceLoader;
+import org.springframework.cloud.servicebroker.autoconfigure.web.ServiceBrokerProperties;
+import org.springframework.cloud.servicebroker.model.catalog.Catalog;
+import org.springframework.core.io.ClassPathResource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CatalogCompilerTests {
+
+	@TempDir
+	Path tempDir;
+
+	@Test
+	void compiledCatalogMatchesBoundCatalog() throws Exception {
+		ClassPathResource resource = new ClassPathResource("catalog-full.yml");
+
+		byte[] json = CatalogCompiler.compile(resource);
+		Catalog compiled = new ObjectMapper().readValue(json, Catalog.class);
+
+		Binder binder = new Binder(
+				ConfigurationPropertySources.from(new YamlPropertySourceLoader().load("catalog", resource)));
+		Catalog bound = binder.bind("spring.cloud.openservicebroker", ServiceBrokerProperties.class)
+			.get()
+			.getCatalog()
+			.toModel();
+
+		assertThat(compiled.getServiceDefinitions()).hasSameSizeAs(bound.getServiceDefinitions());
+		assertThat(new ObjectMapper().readTree(json)).isEqualTo(new ObjectMapper().valueToTree(bound));
+	}
+
+	@Test
+	void compiledCatalogIsWritten() throws Exception {
+		Path output = this.tempDir.resolve("build/catalog.json");
+
+		CatalogCompiler.main(new String[] { new ClassPathResource("catalog-minimal.properties").getFile().getPath(),
+				output.toString() });
+
+		Catalog compiled = new ObjectMapper().readValue(Files.readAllBytes(output), Catalog.class);
+		assertThat(compiled.getServiceDefinitions()).hasSize(1);
+		assertThat(compiled.getServiceDefinitions().get(0).getId()).isEqualTo("service-one-id");
+	}
+
+}
@@ -0,0 +1,104 @@
+/*
+ * Copyright 2002-2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.servicebroker.autoconfigure.web.util;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class MetadataUtilsTests {
+
+	@Test
+	void numberedMapIsConvertedToList() {
+		Map<String, Object> converted = MetadataUtils.convertMap(Map.of("items", numbered("zero", "one", "two")));
+
+		assertThat(converted.get("items")).isEqualTo(List.of("zero", "one", "two"));
+	}
+
+	@Test
+	void numberedMapWithMoreThanTenItemsIsOrderedNumerically() {
+		Object[] values = new Object[12];
+		for (int i = 0; i < values.length; i++) {
+			values[i] = "item" + i;
+		}
+
+		Map<String, Object> converted = MetadataUtils.convertMap(Map.of("items", numbered(values)));
+
+		assertThat(converted.get("items")).isEqualTo(List.of(values));
+	}
+
+	@Test
+	void mapWithNonCanonicalIndexIsNotConverted() {
+		Map<String, Object> items = Map.of("0", "zero", "01", "one");
+
+		Map<String, Object> converted = MetadataUtils.convertMap(Map.of("items", items));
+
+		assertThat(converted.get("items")).isEqualTo(items);
+	}
+
+	@Test
+	void mapWithIndexOutOfRangeIsNotConverted() {
+		Map<String, Object> items = Map.of("0", "zero", "2", "two");
+
+		Map<String, Object> converted = MetadataUtils.convertMap(Map.of("items", items));
+
+		assertThat(converted.get("items")).isEqualTo(items);
+	}
+
+	@Test
+	void mapWithNullValueIsNotConverted() {
+		Map<String, Object> items = new HashMap<>();
+		items.put("0", "zero");
+		items.put("1", null);
+
+		Map<String, Object> converted = MetadataUtils.convertMap(Collections.singletonMap("items", items));
+
+		assertThat(converted.get("items")).isEqualTo(items);
+	}
+
+	@Test
+	void emptyMapIsNotConverted() {
+		Map<String, Object> converted = MetadataUtils.convertMap(Map.of("items", Map.of()));
+
+		assertThat(converted.get("items")).isEqualTo(Map.of());
+	}
+
+	@Test
+	void nestedNumberedMapsAreConverted() {
+		Map<String, Object> parameters = Map.of("required", numbered("name"), "items",
+				numbered(Map.of("enum", numbered("a", "b")), "plain"));
+
+		Map<String, Object> converted = MetadataUtils.convertMap(parameters);
+
+		assertThat(converted.get("required")).isEqualTo(List.of("name"));
+		assertThat(converted.get("items")).isEqualTo(List.of(Map.of("enum", List.of("a", "b")), "plain"));
+	}
+
+	private static Map<String, Object> numbered(Object... values) {
+		Map<String, Object> map = new HashMap<>();
+		for (int i = 0; i < values.length; i++) {
+			map.put(String.valueOf(i), values[i]);
+		}
+		return map;
+	}
+
+}
@@ -17,12 +17,16 @@
 package org.springframework.cloud.servicebroker.controller;
 
 import java.io.IOException;
+import java.time.Duration;
 import java.util.Base64;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.Objects;
+import java.util.function.BiConsumer;
 
 import com.fasterxml.jackson.core.type.TypeReference;
-import com.fasterxml.jackson.databind.ObjectMapper;
-import reactor.core.publisher.Flux;
+import com.fasterxml.jackson.databind.ObjectReader;
 import reactor.core.publisher.Mono;
 
 import org.springframework.cloud.servicebroker.exception.ServiceBrokerInvalidOriginatingIdentityException;
@@ -37,8 +41,14 @@ import org.springframework.cloud.servicebroker.model.PlatformContext;
 import org.springframework.cloud.servicebroker.model.ServiceBrokerRequest;
 import org.springframework.cloud.servicebroker.model.catalog.Plan;
 import org.springframework.cloud.servicebroker.model.catalog.ServiceDefinition;
+import org.springframework.cloud.servicebroker.observability.ServiceBrokerInstrumentation;
+import org.springframework.cloud.servicebroker.observability.ServiceBrokerObservations;
+import org.springframework.cloud.servicebroker.observability.ServiceBrokerOperation;
+import org.springframework.cloud.servicebroker.observability.ServiceBrokerOperationContext;
 import org.springframework.cloud.servicebroker.service.CatalogService;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
 
 /**
@@ -52,8 +62,24 @@ public class BaseController {
 
 	private static final int ORIGINATING_IDENTITY_HEADER_PARTS = 2;
 
+	private static final int ORIGINATING_IDENTITY_CACHE_SIZE = 256;
+
+	private static final ObjectReader ORIGINATING_IDENTITY_READER = Jackson2ObjectMapperBuilder.json()
+		.build()
+		.readerFor(new TypeReference<Map<String, Object>>() {
+		});
+
+	// Platforms send the same few identities in bursts of requests, to every controller,
+	// so one cache of parsed headers is shared by all controllers
+	private static final OriginatingIdentityCache ORIGINATING_IDENTITIES = new OriginatingIdentityCache(
+			ORIGINATING_IDENTITY_CACHE_SIZE);
+
 	protected CatalogService catalogService;
 
+	private boolean strictOriginatingIdentity;
+
+	private ServiceBrokerInstrumentation instrumentation = ServiceBrokerInstrumentation.NONE;
+
 	/**
 	 * Construct a new {@link BaseController}.
 	 * @param catalogService the catalog service
@@ -62,6 +88,71 @@ public class BaseController {
 		this.catalogService = catalogService;
 	}
 
+	/**
+	 * Set whether the {@literal X-Broker-API-Originating-Identity} header is decoded and
+	 * validated when the request is received. By default the header is decoded when the
+	 * service broker first reads the originating identity from the request, and a
+	 * malformed header is only reported at that point.
+	 * @param strictOriginatingIdentity true to decode the header for every request
+	 */
+	public void setStrictOriginatingIdentity(boolean strictOriginatingIdentity) {
+		this.strictOriginatingIdentity = strictOriginatingIdentity;
+	}
+
+	/**
+	 * Set the instrumentation that records the operations of this controller. By default
+	 * operations are not instrumented.
+	 * @param instrumentation the instrumentation
+	 */
+	public void setInstrumentation(ServiceBrokerInstrumentation instrumentation) {
+		this.instrumentation = (instrumentation != null) ? instrumentation : ServiceBrokerInstrumentation.NONE;
+	}
+
+	/**
+	 * Instrument the response of an operation with the configured
+	 * {@link ServiceBrokerInstrumentation}.
+	 * @param response the response
+	 * @param operation the operation
+	 * @param serviceDefinitionId the service definition ID
+	 * @param planId the plan ID
+	 * @param platformInstanceId the platform instance ID
+	 * @param serviceInstanceId the service instance ID
+	 * @param bindingId the binding ID, or null for service instance operations
+	 * @param requestIdentity identity of the request sent from the platform
+	 * @param <T> the type of the response body
+	 * @return the instrumented response
+	 */
+	protected <T> Mono<ResponseEntity<T>> instrument(Mono<ResponseEntity<T>> response, ServiceBrokerOperation operation,
+			String serviceDefinitionId, String planId, String platformInstanceId, String serviceInstanceId,
+			String bindingId, String requestIdentity) {
+		if (this.instrumentation == ServiceBrokerInstrumentation.NONE) {
+			return response;
+		}
+		ServiceBrokerOperationContext context = new ServiceBrokerOperationContext(operation, serviceDefinitionId,
+				planId, platformInstanceId, serviceInstanceId, bindingId, requestIdentity);
+		return this.instrumentation.instrument(context,
+				response.contextWrite((reactorContext) -> reactorContext.put(ServiceBrokerOperationContext.class,
+						context)));
+	}
+
+	/**
+	 * Record on the {@link ServiceBrokerOperationContext} of the operation being
+	 * instrumented, if any, that a service definition or plan it refers to was found in
+	 * the catalog.
+	 */
+	private <T> Mono<T> recordFound(Mono<T> lookup, BiConsumer<ServiceBrokerOperationContext, T> found) {
+		if (this.instrumentation == ServiceBrokerInstrumentation.NONE) {
+			return lookup;
+		}
+		return lookup.doOnEach((signal) -> {
+			if (signal.isOnNext()) {
+				signal.getContextView()
+					.<ServiceBrokerOperationContext>getOrEmpty(ServiceBrokerOperationContext.class)
+					.ifPresent((context) -> found.accept(context, signal.get()));
+			}
+		});
+	}
+
 	/**
 	 * Sets common headers for the request.
 	 * @param request the request in which to set the headers
@@ -77,7 +168,7 @@ public class BaseController {
 			String requestIdentity) {
 		request.setPlatformInstanceId(platformInstanceId);
 		request.setApiInfoLocation(apiInfoLocation);
-		request.setOriginatingIdentity(parseOriginatingIdentity(originatingIdentityString));
+		applyOriginatingIdentity(request, originatingIdentityString);
 		request.setRequestIdentity(requestIdentity);
 		return Mono.just(request);
 	}
@@ -109,7 +200,7 @@ public class BaseController {
 	 */
 	protected Mono<ServiceDefinition> getRequiredServiceDefinition(String serviceDefinitionId) {
 		return getServiceDefinition(serviceDefinitionId)
-			.switchIfEmpty(Mono.error(new ServiceDefinitionDoesNotExistException(serviceDefinitionId)));
+			.switchIfEmpty(Mono.error(() -> new ServiceDefinitionDoesNotExistException(serviceDefinitionId)));
 	}
 
 	/**
@@ -118,21 +209,31 @@ public class BaseController {
 	 * @return the Service Definition
 	 */
 	protected Mono<ServiceDefinition> getServiceDefinition(String serviceDefinitionId) {
-		return this.catalogService.getServiceDefinition(serviceDefinitionId);
+		Mono<ServiceDefinition> lookup = (this.instrumentation.isObservingSteps())
+				? ServiceBrokerObservations.observeCatalog("getServiceDefinition",
+						() -> this.catalogService.getServiceDefinition(serviceDefinitionId))
+				: this.catalogService.getServiceDefinition(serviceDefinitionId);
+		return recordFound(lookup, (context, serviceDefinition) -> {
+			if (Objects.equals(serviceDefinition.getId(), context.getServiceDefinitionId())) {
+				context.setServiceDefinitionFound(true);
+			}
+		});
 	}
 
 	/**
-	 * Find the Plan for the Service Definition and Plan ID, or empty if not found.
+	 * Find the Plan for the Service Definition and Plan ID, or empty if not found. The
+	 * plan is looked up in the index of the Service Definition's plans.
 	 * @param serviceDefinition the Service Definition
 	 * @param planId the plan ID
 	 * @return the Plan
 	 */
 	protected Mono<Plan> getServiceDefinitionPlan(ServiceDefinition serviceDefinition, String planId) {
-		return Mono.justOrEmpty(serviceDefinition)
-			.flatMap((serviceDef) -> Mono.justOrEmpty(serviceDef.getPlans())
-				.flatMap((plans) -> Flux.fromIterable(plans)
-					.filter((plan) -> plan.getId().equals(planId))
-					.singleOrEmpty()));
+		return recordFound(Mono.justOrEmpty((serviceDefinition != null) ? serviceDefinition.getPlan(planId) : null),
+				(context, plan) -> {
+					if (Objects.equals(plan.getId(), context.getPlanId())) {
+						context.setPlanFound(true);
+					}
+				});
 	}
 
 	/**
@@ -143,7 +244,29 @@ public class BaseController {
 	 */
 	protected Mono<Plan> getRequiredServiceDefinitionPlan(ServiceDefinition serviceDefinition, String planId) {
 		return getServiceDefinitionPlan(serviceDefinition, planId)
-			.switchIfEmpty(Mono.error(new ServiceDefinitionPlanDoesNotExistException(planId)));
+			.switchIfEmpty(Mono.error(() -> new ServiceDefinitionPlanDoesNotExistException(planId)));
+	}
+
+	/**
+	 * Sets the originating identity of the request from the header value. Unless strict
+	 * validation is enabled, the header is decoded when the originating identity is first
+	 * read from the request.
+	 * @param request the request in which to set the originating identity
+	 * @param originatingIdentityString identity of the user that initiated the request
+	 * from the platform
+	 * @param <T> the type of the request
+	 * @return the request
+	 */
+	protected <T extends ServiceBrokerRequest> T applyOriginatingIdentity(T request,
+			String originatingIdentityString) {
+		if (originatingIdentityString == null || this.strictOriginatingIdentity) {
+			request.setOriginatingIdentity(parseOriginatingIdentity(originatingIdentityString));
+		}
+		else {
+			request.setOriginatingIdentitySupplier(originatingIdentityString,
+					() -> parseOriginatingIdentity(originatingIdentityString));
+		}
+		return request;
 	}
 
 	/**
@@ -156,21 +279,24 @@ public class BaseController {
 		if (originatingIdentityString == null) {
 			return null;
 		}
+		OriginatingIdentity originatingIdentity;
+		synchronized (ORIGINATING_IDENTITIES) {
+			originatingIdentity = ORIGINATING_IDENTITIES.get(originatingIdentityString);
+		}
+		if (originatingIdentity == null) {
+			originatingIdentity = readOriginatingIdentity(originatingIdentityString);
+			synchronized (ORIGINATING_IDENTITIES) {
+				ORIGINATING_IDENTITIES.put(originatingIdentityString, originatingIdentity);
+			}
+		}
+		return originatingIdentity.toContext();
+	}
 
+	private OriginatingIdentity readOriginatingIdentity(String originatingIdentityString) {
 		String[] parts = splitOriginatingIdentityHeaderParts(originatingIdentityString);
-		String encodedProperties = decodeOriginatingIdentityHeader(parts[1]);
+		byte[] encodedProperties = decodeOriginatingIdentityHeader(parts[1]);
 		Map<String, Object> properties = parseOriginatingIdentityHeader(encodedProperties);
-		String platform = parts[0];
-
-		if (CloudFoundryContext.CLOUD_FOUNDRY_PLATFORM.equals(platform)) {
-			return CloudFoundryContext.builder().properties(properties).build();
-		}
-		else if (KubernetesContext.KUBERNETES_PLATFORM.equals(platform)) {
-			return KubernetesContext.builder().properties(properties).build();
-		}
-		else {
-			return PlatformContext.builder().platform(platform).properties(properties).build();
-		}
+		return new OriginatingIdentity(parts[0], properties);
 	}
 
 	private String[] splitOriginatingIdentityHeaderParts(String header) {
@@ -182,9 +308,9 @@ public class BaseController {
 		return parts;
 	}
 
-	private String decodeOriginatingIdentityHeader(String encodedProperties) {
+	private byte[] decodeOriginatingIdentityHeader(String encodedProperties) {
 		try {
-			return new String(Base64.getDecoder().decode(encodedProperties.getBytes()));
+			return Base64.getDecoder().decode(encodedProperties);
 		}
 		catch (IllegalArgumentException ex) {
 			throw new ServiceBrokerInvalidOriginatingIdentityException("Error decoding JSON properties from "
@@ -192,9 +318,9 @@ public class BaseController {
 		}
 	}
 
-	private Map<String, Object> parseOriginatingIdentityHeader(String encodedProperties) {
+	private Map<String, Object> parseOriginatingIdentityHeader(byte[] encodedProperties) {
 		try {
-			return readJsonFromString(encodedProperties);
+			return ORIGINATING_IDENTITY_READER.readValue(encodedProperties);
 		}
 		catch (IOException ex) {
 			throw new ServiceBrokerInvalidOriginatingIdentityException("Error parsing JSON properties from "
@@ -202,12 +328,6 @@ public class BaseController {
 		}
 	}
 
-	private Map<String, Object> readJsonFromString(String value) throws IOException {
-		ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
-		return objectMapper.readValue(value, new TypeReference<Map<String, Object>>() {
-		});
-	}
-
 	/**
 	 * If an asynchronous request is received, then return HTTP 202 Accepted, otherwise
 	 * HTTP 200 OK.
@@ -221,4 +341,75 @@ public class BaseController {
 		return HttpStatus.OK;
 	}
 
+	/**
+	 * Build a response to a request for the last operation, with a {@literal Retry-After}
+	 * header if the service broker provided a polling interval. The interval is rounded
+	 * up to whole seconds.
+	 * @param body the response body
+	 * @param status the HTTP status
+	 * @param retryAfter how long the platform should wait before polling again, or
+	 * {@literal null}
+	 * @param <T> the type of the response body
+	 * @return the response entity
+	 */
+	protected <T> ResponseEntity<T> getLastOperationResponseEntity(T body, HttpStatus status, Duration retryAfter) {
+		if (retryAfter == null || retryAfter.isNegative()) {
+			return new ResponseEntity<>(body, status);
+		}
+		long seconds = retryAfter.plusNanos(999_999_999L).getSeconds();
+		return ResponseEntity.status(status).header(HttpHeaders.RETRY_AFTER, Long.toString(seconds)).body(body);
+	}
+
+	/**
+	 * Parsed originating identity headers in least recently used order, limited to a
+	 * maximum size. Access must be synchronized on the map.
+	 */
+	private static final class OriginatingIdentityCache extends LinkedHashMap<String, OriginatingIdentity> {
+
+		private static final long serialVersionUID = 1L;
+
+		private final int maximumSize;
+
+		private OriginatingIdentityCache(int maximumSize) {
+			super(16, 0.75f, true);
+			this.maximumSize = maximumSize;
+		}
+
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<String, OriginatingIdentity> eldest) {
+			return size() > this.maximumSize;
+		}
+
+	}
+
+	/**
+	 * The parsed form of an originating identity header. A new {@link Context} is created
+	 * from it for each request, because a {@link Context} can be modified by the service
+	 * broker.
+	 */
+	private static final class OriginatingIdentity {
+
+		private final String platform;
+
+		private final Map<String, Object> properties;
+
+		private OriginatingIdentity(String platform, Map<String, Object> properties) {
+			this.platform = platform;
+			this.properties = Collections.unmodifiableMap(properties);
+		}
+
+		private Context toContext() {
+			if (CloudFoundryContext.CLOUD_FOUNDRY_PLATFORM.equals(this.platform)) {
+				return CloudFoundryContext.builder().properties(this.properties).build();
+			}
+			else if (KubernetesContext.KUBERNETES_PLATFORM.equals(this.platform)) {
+				return KubernetesContext.builder().properties(this.properties).build();
+			}
+			else {
+				return PlatformContext.builder().platform(this.platform).properties(this.properties).build();
+			}
+		}
+
+	}
+
 }
@@ -16,6 +16,10 @@
 
 package org.springframework.cloud.servicebroker.controller;
 
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import reactor.core.publisher.Mono;
@@ -23,8 +27,11 @@ import reactor.core.publisher.Mono;
 import org.springframework.cloud.servicebroker.annotation.ServiceBrokerRestController;
 import org.springframework.cloud.servicebroker.model.catalog.Catalog;
 import org.springframework.cloud.servicebroker.service.CatalogService;
+import org.springframework.cloud.servicebroker.service.SerializedCatalog;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestHeader;
 
@@ -43,16 +50,39 @@ public class CatalogController extends BaseController {
 
 	private static final Logger LOG = LoggerFactory.getLogger(CatalogController.class);
 
+	private final ObjectMapper objectMapper;
+
+	private final boolean staticCatalog;
+
+	private final AtomicReference<SerializedCatalog> serializedCatalog = new AtomicReference<>();
+
 	/**
 	 * Construct a new {@link CatalogController}.
 	 * @param service the catalog service
 	 */
 	public CatalogController(CatalogService service) {
+		this(service, Jackson2ObjectMapperBuilder.json().build());
+	}
+
+	/**
+	 * Construct a new {@link CatalogController}.
+	 * @param service the catalog service
+	 * @param objectMapper the object mapper used to pre-serialize the catalog
+	 */
+	public CatalogController(CatalogService service, ObjectMapper objectMapper) {
 		super(service);
+		this.objectMapper = objectMapper;
+		this.staticCatalog = service.isStaticCatalog();
 	}
 
 	/**
-	 * REST controller for getting a catalog.
+	 * REST controller for getting a catalog. If the {@link CatalogService} does not
+	 * provide a response entity itself and its catalog is known not to change between
+	 * requests, as indicated by {@link CatalogService#isStaticCatalog()} or by a
+	 * {@link SerializedCatalog}, the catalog is serialized once and served with a strong
+	 * ETag. Requests with a matching {@literal If-None-Match} header then receive a
+	 * {@literal 304 NOT MODIFIED} response. Other catalogs are serialized for each
+	 * request.
 	 * @param httpHeaders the headers
 	 * @return the catalog
 	 */
@@ -72,7 +102,35 @@ public class CatalogController extends BaseController {
 				}
 			})
 				.doOnError((e) -> LOG.error("Error retrieving catalog. error=" + e.getMessage(), e))
-				.flatMap((catalog) -> Mono.just(ResponseEntity.ok().body(catalog))));
+				.map((catalog) -> buildResponseEntity(catalog, httpHeaders)));
+	}
+
+	private ResponseEntity<Catalog> buildResponseEntity(Catalog catalog, HttpHeaders httpHeaders) {
+		if (catalog instanceof SerializedCatalog serializedCatalog) {
+			return buildResponseEntity(serializedCatalog, httpHeaders);
+		}
+		if (this.staticCatalog) {
+			return buildResponseEntity(getSerializedCatalog(catalog), httpHeaders);
+		}
+		return ResponseEntity.ok().body(catalog);
+	}
+
+	private SerializedCatalog getSerializedCatalog(Catalog catalog) {
+		SerializedCatalog cached = this.serializedCatalog.get();
+		if (cached != null && cached.isSerializationOf(catalog)) {
+			return cached;
+		}
+		SerializedCatalog serialized = SerializedCatalog.of(catalog, this.objectMapper);
+		this.serializedCatalog.set(serialized);
+		return serialized;
+	}
+
+	private ResponseEntity<Catalog> buildResponseEntity(SerializedCatalog catalog, HttpHeaders httpHeaders) {
+		List<String> ifNoneMatch = (httpHeaders != null) ? httpHeaders.get(HttpHeaders.IF_NONE_MATCH) : null;
+		if (ifNoneMatch != null && catalog.matchesIfNoneMatch(String.join(",", ifNoneMatch))) {
+			return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(catalog.getETag()).build();
+		}
+		return ResponseEntity.ok().eTag(catalog.getETag()).body(catalog);
 	}
 
 }
@@ -0,0 +1,392 @@
+/*
+ * Copyright 2002-2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.servicebroker.controller;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.lang.reflect.UndeclaredThrowableException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+import jakarta.validation.Validator;
+import reactor.core.publisher.Mono;
+
+import org.springframework.cloud.servicebroker.model.AsyncServiceBrokerRequest;
+import org.springframework.cloud.servicebroker.model.ServiceBrokerRequest;
+import org.springframework.cloud.servicebroker.model.binding.CreateServiceInstanceBindingRequest;
+import org.springframework.cloud.servicebroker.model.instance.CreateServiceInstanceRequest;
+import org.springframework.cloud.servicebroker.model.instance.UpdateServiceInstanceRequest;
+import org.springframework.core.MethodIntrospector;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.core.codec.DecodingException;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.util.ReflectionUtils;
+import org.springframework.util.StringUtils;
+import org.springframework.validation.BeanPropertyBindingResult;
+import org.springframework.validation.BindException;
+import org.springframework.validation.BindingResult;
+import org.springframework.validation.beanvalidation.SpringValidatorAdapter;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.method.annotation.ExceptionHandlerMethodResolver;
+import org.springframework.web.reactive.function.UnsupportedMediaTypeException;
+import org.springframework.web.reactive.function.server.HandlerFunction;
+import org.springframework.web.reactive.function.server.RequestPredicates;
+import org.springframework.web.reactive.function.server.RouterFunction;
+import org.springframework.web.reactive.function.server.RouterFunctions;
+import org.springframework.web.reactive.function.server.ServerRequest;
+import org.springframework.web.reactive.function.server.ServerResponse;
+import org.springframework.web.server.ServerWebInputException;
+import org.springframework.web.server.UnsupportedMediaTypeStatusException;
+
+/**
+ * A WebFlux {@link RouterFunction} that provides the complete service broker API as an
+ * alternative to registering the annotated controllers.
+ *
+ * <p>
+ * Path variables, query parameters, and headers are read directly from the
+ * {@link ServerRequest} and passed to the controllers, avoiding the reflective argument
+ * resolution of annotated handler methods, while request handling, logging, and event
+ * flows remain those of the controllers. Request bodies are validated with the provided
+ * {@link Validator}, and errors are rendered by the handler methods of the provided
+ * {@link ServiceBrokerWebFluxExceptionHandler} with the same status codes and messages
+ * as the annotated controllers. The {@code @ExceptionHandler} methods of the handler,
+ * including those added or overridden by a subclass, and their {@code @ResponseStatus}
+ * are read when the router function is created. The handler method for each type of
+ * error is resolved once, as it is for the annotated controllers, so no reflection is
+ * needed when an error occurs.
+ */
+public class ServiceBrokerRouterFunction implements RouterFunction<ServerResponse> {
+
+	private static final String PLATFORM_PATH_PREFIX = "/{platformInstanceId}";
+
+	private static final String CATALOG_PATH = "/v2/catalog";
+
+	private static final String SERVICE_INSTANCE_PATH = "/v2/service_instances/{instanceId}";
+
+	private static final String SERVICE_INSTANCE_BINDING_PATH = SERVICE_INSTANCE_PATH
+			+ "/service_bindings/{bindingId}";
+
+	private static final String LAST_OPERATION_PATH = "/last_operation";
+
+	private static final String OPERATION_PARAMETER = "operation";
+
+	private static final ErrorHandler NO_ERROR_HANDLER = new ErrorHandler(HttpStatus.INTERNAL_SERVER_ERROR,
+			(error) -> null);
+
+	private final CatalogController catalogController;
+
+	private final ServiceInstanceController serviceInstanceController;
+
+	private final ServiceInstanceBindingController serviceInstanceBindingController;
+
+	private final SpringValidatorAdapter validator;
+
+	private final ExceptionHandlerMethodResolver exceptionHandlerMethods;
+
+	private final Map<Method, ErrorHandler> errorHandlers;
+
+	private final Map<Class<? extends Throwable>, ErrorHandler> resolvedErrorHandlers = new ConcurrentHashMap<>();
+
+	private final RouterFunction<ServerResponse> routes;
+
+	/**
+	 * Construct a new {@link ServiceBrokerRouterFunction}.
+	 * @param catalogController the controller for the catalog API
+	 * @param serviceInstanceController the controller for the service instances API
+	 * @param serviceInstanceBindingController the controller for the service bindings API
+	 * @param validator the validator for request bodies
+	 * @param exceptionHandler the handler that renders errors, whose exception handler
+	 * methods may declare only the exception as a parameter
+	 * @param basePath the path prefix of all endpoints, or {@literal null} for none
+	 */
+	public ServiceBrokerRouterFunction(CatalogController catalogController,
+			ServiceInstanceController serviceInstanceController,
+			ServiceInstanceBindingController serviceInstanceBindingController, Validator validator,
+			ServiceBrokerWebFluxExceptionHandler exceptionHandler, String basePath) {
+		this.catalogController = catalogController;
+		this.serviceInstanceController = serviceInstanceController;
+		this.serviceInstanceBindingController = serviceInstanceBindingController;
+		this.validator = new SpringValidatorAdapter(validator);
+		this.exceptionHandlerMethods = new ExceptionHandlerMethodResolver(exceptionHandler.getClass());
+		this.errorHandlers = createErrorHandlers(exceptionHandler);
+		this.routes = buildRoutes(basePath);
+	}
+
+	@Override
+	public Mono<HandlerFunction<ServerResponse>> route(ServerRequest request) {
+		return this.routes.route(request);
+	}
+
+	@Override
+	public void accept(RouterFunctions.Visitor visitor) {
+		this.routes.accept(visitor);
+	}
+
+	private RouterFunction<ServerResponse> buildRoutes(String basePath) {
+		RouterFunctions.Builder builder = RouterFunctions.route();
+		for (String prefix : new String[] { "", PLATFORM_PATH_PREFIX }) {
+			builder.GET(prefix + CATALOG_PATH, this::getCatalog)
+				.PUT(prefix + SERVICE_INSTANCE_PATH, this::createServiceInstance)
+				.GET(prefix + SERVICE_INSTANCE_PATH, this::getServiceInstance)
+				.GET(prefix + SERVICE_INSTANCE_PATH + LAST_OPERATION_PATH, this::getServiceInstanceLastOperation)
+				.PATCH(prefix + SERVICE_INSTANCE_PATH, this::updateServiceInstance)
+				.DELETE(prefix + SERVICE_INSTANCE_PATH, this::deleteServiceInstance)
+				.PUT(prefix + SERVICE_INSTANCE_BINDING_PATH, this::createServiceInstanceBinding)
+				.GET(prefix + SERVICE_INSTANCE_BINDING_PATH, this::getServiceInstanceBinding)
+				.GET(prefix + SERVICE_INSTANCE_BINDING_PATH + LAST_OPERATION_PATH,
+						this::getServiceInstanceBindingLastOperation)
+				.DELETE(prefix + SERVICE_INSTANCE_BINDING_PATH, this::deleteServiceInstanceBinding);
+		}
+		RouterFunction<ServerResponse> routes = builder.build();
+		if (StringUtils.hasLength(basePath)) {
+			return RouterFunctions.nest(RequestPredicates.path(basePath), routes);
+		}
+		return routes;
+	}
+
+	private Mono<ServerResponse> getCatalog(ServerRequest request) {
+		return respond(Mono.defer(() -> this.catalogController.getCatalog(request.headers().asHttpHeaders())));
+	}
+
+	private Mono<ServerResponse> createServiceInstance(ServerRequest request) {
+		return respond(readBody(request, CreateServiceInstanceRequest.class)
+			.flatMap((body) -> this.serviceInstanceController.createServiceInstance(request.pathVariables(),
+					instanceId(request), acceptsIncomplete(request), apiInfoLocation(request),
+					originatingIdentity(request), requestIdentity(request), body)));
+	}
+
+	private Mono<ServerResponse> getServiceInstance(ServerRequest request) {
+		return respond(Mono.defer(() -> this.serviceInstanceController.getServiceInstance(request.pathVariables(),
+				instanceId(request), queryParam(request, ServiceBrokerRequest.SERVICE_ID_PARAMETER),
+				queryParam(request, ServiceBrokerRequest.PLAN_ID_PARAMETER), apiInfoLocation(request),
+				originatingIdentity(request), requestIdentity(request))));
+	}
+
+	private Mono<ServerResponse> getServiceInstanceLastOperation(ServerRequest request) {
+		return respond(Mono.defer(() -> this.serviceInstanceController.getServiceInstanceLastOperation(
+				request.pathVariables(), instanceId(request),
+				queryParam(request, ServiceBrokerRequest.SERVICE_ID_PARAMETER),
+				queryParam(request, ServiceBrokerRequest.PLAN_ID_PARAMETER), queryParam(request, OPERATION_PARAMETER),
+				apiInfoLocation(request), originatingIdentity(request), requestIdentity(request))));
+	}
+
+	private Mono<ServerResponse> updateServiceInstance(ServerRequest request) {
+		return respond(readBody(request, UpdateServiceInstanceRequest.class)
+			.flatMap((body) -> this.serviceInstanceController.updateServiceInstance(request.pathVariables(),
+					instanceId(request), acceptsIncomplete(request), apiInfoLocation(request),
+					originatingIdentity(request), requestIdentity(request), body)));
+	}
+
+	private Mono<ServerResponse> deleteServiceInstance(ServerRequest request) {
+		return respond(Mono.defer(() -> this.serviceInstanceController.deleteServiceInstance(request.pathVariables(),
+				instanceId(request), requiredQueryParam(request, ServiceBrokerRequest.SERVICE_ID_PARAMETER),
+				requiredQueryParam(request, ServiceBrokerRequest.PLAN_ID_PARAMETER), acceptsIncomplete(request),
+				apiInfoLocation(request), originatingIdentity(request), requestIdentity(request))));
+	}
+
+	private Mono<ServerResponse> createServiceInstanceBinding(ServerRequest request) {
+		return respond(readBody(request, CreateServiceInstanceBindingRequest.class)
+			.flatMap((body) -> this.serviceInstanceBindingController.createServiceInstanceBinding(
+					request.pathVariables(), instanceId(request), bindingId(request), acceptsIncomplete(request),
+					apiInfoLocation(request), originatingIdentity(request), requestIdentity(request), body)));
+	}
+
+	private Mono<ServerResponse> getServiceInstanceBinding(ServerRequest request) {
+		return respond(Mono.defer(() -> this.serviceInstanceBindingController.getServiceInstanceBinding(
+				request.pathVariables(), instanceId(request), bindingId(request),
+				queryParam(request, ServiceBrokerRequest.SERVICE_ID_PARAMETER),
+				queryParam(request, ServiceBrokerRequest.PLAN_ID_PARAMETER), apiInfoLocation(request),
+				originatingIdentity(request), requestIdentity(request))));
+	}
+
+	private Mono<ServerResponse> getServiceInstanceBindingLastOperation(ServerRequest request) {
+		return respond(Mono.defer(() -> this.serviceInstanceBindingController.getServiceInstanceBindingLastOperation(
+				request.pathVariables(), instanceId(request), bindingId(request),
+				queryParam(request, ServiceBrokerRequest.SERVICE_ID_PARAMETER),
+				queryParam(request, ServiceBrokerRequest.PLAN_ID_PARAMETER), queryParam(request, OPERATION_PARAMETER),
+				apiInfoLocation(request), originatingIdentity(request), requestIdentity(request))));
+	}
+
+	private Mono<ServerResponse> deleteServiceInstanceBinding(ServerRequest request) {
+		return respond(Mono.defer(() -> this.serviceInstanceBindingController.deleteServiceInstanceBinding(
+				request.pathVariables(), instanceId(request), bindingId(request),
+				requiredQueryParam(request, ServiceBrokerRequest.SERVICE_ID_PARAMETER),
+				requiredQueryParam(request, ServiceBrokerRequest.PLAN_ID_PARAMETER), acceptsIncomplete(request),
+				apiInfoLocation(request), originatingIdentity(request), requestIdentity(request))));
+	}
+
+	private static String instanceId(ServerRequest request) {
+		return request.pathVariables().get(ServiceBrokerRequest.INSTANCE_ID_PATH_VARIABLE);
+	}
+
+	private static String bindingId(ServerRequest request) {
+		return request.pathVariables().get(ServiceBrokerRequest.BINDING_ID_PATH_VARIABLE);
+	}
+
+	private static boolean acceptsIncomplete(ServerRequest request) {
+		return Boolean.parseBoolean(queryParam(request, AsyncServiceBrokerRequest.ASYNC_REQUEST_PARAMETER));
+	}
+
+	private static String apiInfoLocation(ServerRequest request) {
+		return request.headers().firstHeader(ServiceBrokerRequest.API_INFO_LOCATION_HEADER);
+	}
+
+	private static String originatingIdentity(ServerRequest request) {
+		return request.headers().firstHeader(ServiceBrokerRequest.ORIGINATING_IDENTITY_HEADER);
+	}
+
+	private static String requestIdentity(ServerRequest request) {
+		return request.headers().firstHeader(ServiceBrokerRequest.REQUEST_IDENTITY_HEADER);
+	}
+
+	private static String queryParam(ServerRequest request, String name) {
+		return request.queryParams().getFirst(name);
+	}
+
+	private static String requiredQueryParam(ServerRequest request, String name) {
+		String value = queryParam(request, name);
+		if (value == null) {
+			throw new ServerWebInputException("Required query parameter '" + name + "' is not present.");
+		}
+		return value;
+	}
+
+	private <T> Mono<T> readBody(ServerRequest request, Class<T> type) {
+		return request.bodyToMono(type)
+			.onErrorMap(DecodingException.class,
+					(ex) -> new ServerWebInputException("Failed to read HTTP message", null, ex))
+			.onErrorMap(UnsupportedMediaTypeException.class,
+					(ex) -> new UnsupportedMediaTypeStatusException(ex.getContentType(), ex.getSupportedMediaTypes()))
+			.switchIfEmpty(Mono.error(() -> new ServerWebInputException("No request body")))
+			.flatMap(this::validate);
+	}
+
+	private <T> Mono<T> validate(T body) {
+		BindingResult result = new BeanPropertyBindingResult(body, "request");
+		this.validator.validate(body, result);
+		if (result.hasErrors()) {
+			return Mono.error(new BindException(result));
+		}
+		return Mono.just(body);
+	}
+
+	private Mono<ServerResponse> respond(Mono<? extends ResponseEntity<?>> response) {
+		return response.flatMap(this::toServerResponse).onErrorResume(this::handleException);
+	}
+
+	private Mono<ServerResponse> toServerResponse(ResponseEntity<?> entity) {
+		ServerResponse.BodyBuilder builder = ServerResponse.status(entity.getStatusCode())
+			.headers((headers) -> headers.addAll(entity.getHeaders()));
+		Object body = entity.getBody();
+		if (body == null) {
+			return builder.build();
+		}
+		if (entity.getHeaders().getContentType() == null) {
+			builder.contentType(MediaType.APPLICATION_JSON);
+		}
+		return builder.bodyValue(body);
+	}
+
+	private Mono<ServerResponse> handleException(Throwable error) {
+		ErrorHandler errorHandler = this.resolvedErrorHandlers.computeIfAbsent(error.getClass(),
+				this::resolveErrorHandler);
+		if (errorHandler == NO_ERROR_HANDLER) {
+			return Mono.error(error);
+		}
+		Object body = errorHandler.handler.apply(error);
+		if (body instanceof ResponseEntity<?> entity) {
+			return toServerResponse(entity);
+		}
+		ServerResponse.BodyBuilder builder = ServerResponse.status(errorHandler.status);
+		if (body == null) {
+			return builder.build();
+		}
+		return builder.contentType(MediaType.APPLICATION_JSON).bodyValue(body);
+	}
+
+	private ErrorHandler resolveErrorHandler(Class<? extends Throwable> errorType) {
+		Method method = this.exceptionHandlerMethods.resolveMethodByExceptionType(errorType);
+		return (method != null) ? this.errorHandlers.get(method) : NO_ERROR_HANDLER;
+	}
+
+	private static Map<Method, ErrorHandler> createErrorHandlers(ServiceBrokerWebFluxExceptionHandler handler) {
+		Map<Method, ErrorHandler> errorHandlers = new HashMap<>();
+		for (Method method : MethodIntrospector.selectMethods(handler.getClass(),
+				(ReflectionUtils.MethodFilter) (candidate) -> AnnotatedElementUtils.hasAnnotation(candidate,
+						ExceptionHandler.class))) {
+			ResponseStatus responseStatus = AnnotatedElementUtils.findMergedAnnotation(method, ResponseStatus.class);
+			HttpStatus status = (responseStatus != null) ? responseStatus.code() : HttpStatus.OK;
+			errorHandlers.put(method, new ErrorHandler(status, invoker(handler, method)));
+		}
+		return errorHandlers;
+	}
+
+	private static Function<Throwable, Object> invoker(Object handler, Method method) {
+		if (method.getParameterCount() > 1 || (method.getParameterCount() == 1
+				&& !Throwable.class.isAssignableFrom(method.getParameterTypes()[0]))) {
+			throw new IllegalStateException("Exception handler method " + method
+					+ " must declare no parameters or only the exception to be used by the router function");
+		}
+		MethodHandle methodHandle;
+		try {
+			ReflectionUtils.makeAccessible(method);
+			methodHandle = MethodHandles.lookup().unreflect(method).bindTo(handler);
+		}
+		catch (IllegalAccessException ex) {
+			throw new IllegalStateException("Exception handler method " + method + " is not accessible", ex);
+		}
+		if (method.getParameterCount() == 0) {
+			methodHandle = MethodHandles.dropArguments(methodHandle, 0, Throwable.class);
+		}
+		MethodHandle invoker = methodHandle.asType(MethodType.methodType(Object.class, Throwable.class));
+		return (error) -> {
+			try {
+				return invoker.invokeExact(error);
+			}
+			catch (RuntimeException | Error ex) {
+				throw ex;
+			}
+			catch (Throwable ex) {
+				throw new UndeclaredThrowableException(ex);
+			}
+		};
+	}
+
+	/**
+	 * The status and the function that renders the body of the response to an error.
+	 */
+	private static final class ErrorHandler {
+
+		private final HttpStatus status;
+
+		private final Function<Throwable, Object> handler;
+
+		private ErrorHandler(HttpStatus status, Function<Throwable, Object> handler) {
+			this.status = status;
+			this.handler = handler;
+		}
+
+	}
+
+}
@@ -24,6 +24,7 @@ import org.springframework.cloud.servicebroker.model.error.ErrorMessage;
 import org.springframework.core.Ordered;
 import org.springframework.core.annotation.Order;
 import org.springframework.http.HttpStatus;
+import org.springframework.validation.BindException;
 import org.springframework.web.bind.annotation.ControllerAdvice;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.ResponseBody;
@@ -61,6 +62,18 @@ public class ServiceBrokerWebFluxExceptionHandler extends ServiceBrokerException
 		return handleBindingException(ex, ex.getBindingResult());
 	}
 
+	/**
+	 * Handle a {@link BindException} raised when a request body read by
+	 * {@link ServiceBrokerRouterFunction} fails validation.
+	 * @param ex the exception
+	 * @return an error message
+	 */
+	@ExceptionHandler(BindException.class)
+	@ResponseStatus(HttpStatus.BAD_REQUEST)
+	public ErrorMessage handleException(BindException ex) {
+		return handleBindingException(ex, ex.getBindingResult());
+	}
+
 	/**
 	 * Handle a {@link ServerWebInputException}.
 	 * @param ex the exception
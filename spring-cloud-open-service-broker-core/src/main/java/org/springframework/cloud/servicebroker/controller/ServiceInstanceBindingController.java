@@ -38,6 +38,7 @@ import org.springframework.cloud.servicebroker.model.binding.GetServiceInstanceB
 import org.springframework.cloud.servicebroker.model.binding.GetServiceInstanceBindingResponse;
 import org.springframework.cloud.servicebroker.model.catalog.ServiceDefinition;
 import org.springframework.cloud.servicebroker.model.instance.OperationState;
+import org.springframework.cloud.servicebroker.observability.ServiceBrokerOperation;
 import org.springframework.cloud.servicebroker.service.CatalogService;
 import org.springframework.cloud.servicebroker.service.ServiceInstanceBindingService;
 import org.springframework.http.HttpStatus;
@@ -121,7 +122,8 @@ public class ServiceInstanceBindingController extends BaseController {
 			@RequestHeader(value = ServiceBrokerRequest.REQUEST_IDENTITY_HEADER,
 					required = false) String requestIdentity,
 			@Valid @RequestBody CreateServiceInstanceBindingRequest request) {
-		return getRequiredServiceDefinition(request.getServiceDefinitionId())
+		Mono<ResponseEntity<CreateServiceInstanceBindingResponse>> result = getRequiredServiceDefinition(
+				request.getServiceDefinitionId())
 			.flatMap((serviceDefinition) -> getRequiredServiceDefinitionPlan((serviceDefinition), request.getPlanId())
 				.map((plan) -> {
 					request.setPlan(plan);
@@ -157,6 +159,9 @@ public class ServiceInstanceBindingController extends BaseController {
 					.error(String.format(ERROR_RESPONSE, "creating", serviceInstanceId, bindingId, e.getMessage()), e)))
 			.map((response) -> new ResponseEntity<>(response, getCreateResponseCode(response)))
 			.switchIfEmpty(Mono.just(new ResponseEntity<>(HttpStatus.CREATED)));
+		return instrument(result, ServiceBrokerOperation.BIND, request.getServiceDefinitionId(),
+				request.getPlanId(), pathVariables.get(ServiceBrokerRequest.PLATFORM_INSTANCE_ID_VARIABLE),
+				serviceInstanceId, bindingId, requestIdentity);
 	}
 
 	private HttpStatus getCreateResponseCode(CreateServiceInstanceBindingResponse response) {
@@ -199,7 +204,7 @@ public class ServiceInstanceBindingController extends BaseController {
 					required = false) String originatingIdentityString,
 			@RequestHeader(value = ServiceBrokerRequest.REQUEST_IDENTITY_HEADER,
 					required = false) String requestIdentity) {
-		return Mono
+		Mono<ResponseEntity<GetServiceInstanceBindingResponse>> result = Mono
 			.just(GetServiceInstanceBindingRequest.builder()
 				.serviceInstanceId(serviceInstanceId)
 				.bindingId(bindingId)
@@ -207,9 +212,9 @@ public class ServiceInstanceBindingController extends BaseController {
 				.planId(planId)
 				.platformInstanceId(pathVariables.get(ServiceBrokerRequest.PLATFORM_INSTANCE_ID_VARIABLE))
 				.apiInfoLocation(apiInfoLocation)
-				.originatingIdentity(parseOriginatingIdentity(originatingIdentityString))
 				.requestIdentity(requestIdentity)
 				.build())
+			.map((request) -> applyOriginatingIdentity(request, originatingIdentityString))
 			.flatMap((req) -> this.service.getServiceInstanceBinding(req).doOnRequest((v) -> {
 				if (LOG.isInfoEnabled()) {
 					LOG.info(INFO_REQUEST, "Getting", req.getServiceInstanceId(), req.getBindingId());
@@ -238,6 +243,9 @@ public class ServiceInstanceBindingController extends BaseController {
 					return Mono.error(e);
 				}
 			});
+		return instrument(result, ServiceBrokerOperation.GET_BINDING, serviceDefinitionId, planId,
+				pathVariables.get(ServiceBrokerRequest.PLATFORM_INSTANCE_ID_VARIABLE), serviceInstanceId, bindingId,
+				requestIdentity);
 	}
 
 	/**
@@ -269,7 +277,7 @@ public class ServiceInstanceBindingController extends BaseController {
 					required = false) String originatingIdentityString,
 			@RequestHeader(value = ServiceBrokerRequest.REQUEST_IDENTITY_HEADER,
 					required = false) String requestIdentity) {
-		return Mono
+		Mono<ResponseEntity<GetLastServiceBindingOperationResponse>> result = Mono
 			.just(GetLastServiceBindingOperationRequest.builder()
 				.serviceDefinitionId(serviceDefinitionId)
 				.serviceInstanceId(serviceInstanceId)
@@ -278,9 +286,9 @@ public class ServiceInstanceBindingController extends BaseController {
 				.operation(operation)
 				.platformInstanceId(pathVariables.get(ServiceBrokerRequest.PLATFORM_INSTANCE_ID_VARIABLE))
 				.apiInfoLocation(apiInfoLocation)
-				.originatingIdentity(parseOriginatingIdentity(originatingIdentityString))
 				.requestIdentity(requestIdentity)
 				.build())
+			.map((request) -> applyOriginatingIdentity(request, originatingIdentityString))
 			.flatMap((request) -> this.service.getLastOperation(request).doOnRequest((v) -> {
 				if (LOG.isInfoEnabled()) {
 					LOG.info(INFO_REQUEST, "Getting last operation for", request.getServiceInstanceId(),
@@ -301,8 +309,11 @@ public class ServiceInstanceBindingController extends BaseController {
 						serviceInstanceId, bindingId, e.getMessage()), e)))
 			.flatMap((response) -> Mono
 				.just(response.getState().equals(OperationState.SUCCEEDED) && response.isDeleteOperation())
-				.flatMap((isSuccessfulDelete) -> Mono
-					.just(new ResponseEntity<>(response, isSuccessfulDelete ? HttpStatus.GONE : HttpStatus.OK))));
+				.flatMap((isSuccessfulDelete) -> Mono.just(getLastOperationResponseEntity(response,
+						isSuccessfulDelete ? HttpStatus.GONE : HttpStatus.OK, response.getRetryAfter()))));
+		return instrument(result, ServiceBrokerOperation.BINDING_LAST_OPERATION, serviceDefinitionId, planId,
+				pathVariables.get(ServiceBrokerRequest.PLATFORM_INSTANCE_ID_VARIABLE), serviceInstanceId, bindingId,
+				requestIdentity);
 	}
 
 	/**
@@ -334,7 +345,8 @@ public class ServiceInstanceBindingController extends BaseController {
 					required = false) String originatingIdentityString,
 			@RequestHeader(value = ServiceBrokerRequest.REQUEST_IDENTITY_HEADER,
 					required = false) String requestIdentity) {
-		return getRequiredServiceDefinition(serviceDefinitionId)
+		Mono<ResponseEntity<DeleteServiceInstanceBindingResponse>> result = getRequiredServiceDefinition(
+				serviceDefinitionId)
 			.switchIfEmpty(Mono.just(ServiceDefinition.builder().build()))
 			.flatMap((serviceDefinition) -> getRequiredServiceDefinitionPlan(serviceDefinition, planId)
 				.map(DeleteServiceInstanceBindingRequest.builder()::plan)
@@ -347,9 +359,9 @@ public class ServiceInstanceBindingController extends BaseController {
 					.asyncAccepted(acceptsIncomplete)
 					.platformInstanceId(pathVariables.get(ServiceBrokerRequest.PLATFORM_INSTANCE_ID_VARIABLE))
 					.apiInfoLocation(apiInfoLocation)
-					.originatingIdentity(parseOriginatingIdentity(originatingIdentityString))
 					.requestIdentity(requestIdentity)
 					.build()))
+			.map((request) -> applyOriginatingIdentity(request, originatingIdentityString))
 			.flatMap((req) -> this.service.deleteServiceInstanceBinding(req).doOnRequest((v) -> {
 				if (LOG.isInfoEnabled()) {
 					LOG.info(INFO_REQUEST, "Deleting", req.getServiceInstanceId(), req.getBindingId());
@@ -377,6 +389,9 @@ public class ServiceInstanceBindingController extends BaseController {
 					return Mono.error(e);
 				}
 			});
+		return instrument(result, ServiceBrokerOperation.UNBIND, serviceDefinitionId, planId,
+				pathVariables.get(ServiceBrokerRequest.PLATFORM_INSTANCE_ID_VARIABLE), serviceInstanceId, bindingId,
+				requestIdentity);
 	}
 
 }
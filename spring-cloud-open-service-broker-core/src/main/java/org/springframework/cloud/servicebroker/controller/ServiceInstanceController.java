@@ -38,6 +38,7 @@ import org.springframework.cloud.servicebroker.model.instance.GetServiceInstance
 import org.springframework.cloud.servicebroker.model.instance.OperationState;
 import org.springframework.cloud.servicebroker.model.instance.UpdateServiceInstanceRequest;
 import org.springframework.cloud.servicebroker.model.instance.UpdateServiceInstanceResponse;
+import org.springframework.cloud.servicebroker.observability.ServiceBrokerOperation;
 import org.springframework.cloud.servicebroker.service.CatalogService;
 import org.springframework.cloud.servicebroker.service.ServiceInstanceService;
 import org.springframework.http.HttpStatus;
@@ -117,7 +118,8 @@ public class ServiceInstanceController extends BaseController {
 			@RequestHeader(value = ServiceBrokerRequest.REQUEST_IDENTITY_HEADER,
 					required = false) String requestIdentity,
 			@Valid @RequestBody CreateServiceInstanceRequest request) {
-		return getRequiredServiceDefinition(request.getServiceDefinitionId())
+		Mono<ResponseEntity<CreateServiceInstanceResponse>> result = getRequiredServiceDefinition(
+				request.getServiceDefinitionId())
 			.flatMap((serviceDefinition) -> getRequiredServiceDefinitionPlan(serviceDefinition, request.getPlanId())
 				.map((plan) -> {
 					request.setPlan(plan);
@@ -151,6 +153,9 @@ public class ServiceInstanceController extends BaseController {
 					.error(String.format(ERROR_RESPONSE, "creating", serviceInstanceId, e.getMessage()), e)))
 			.map((response) -> new ResponseEntity<>(response, getCreateResponseCode(response)))
 			.switchIfEmpty(Mono.just(new ResponseEntity<>(HttpStatus.CREATED)));
+		return instrument(result, ServiceBrokerOperation.PROVISION, request.getServiceDefinitionId(),
+				request.getPlanId(), pathVariables.get(ServiceBrokerRequest.PLATFORM_INSTANCE_ID_VARIABLE),
+				serviceInstanceId, null, requestIdentity);
 	}
 
 	private HttpStatus getCreateResponseCode(CreateServiceInstanceResponse response) {
@@ -191,16 +196,16 @@ public class ServiceInstanceController extends BaseController {
 					required = false) String originatingIdentityString,
 			@RequestHeader(value = ServiceBrokerRequest.REQUEST_IDENTITY_HEADER,
 					required = false) String requestIdentity) {
-		return Mono
+		Mono<ResponseEntity<GetServiceInstanceResponse>> result = Mono
 			.just(GetServiceInstanceRequest.builder()
 				.serviceInstanceId(serviceInstanceId)
 				.serviceDefinitionId(serviceDefinitionId)
 				.planId(planId)
 				.platformInstanceId(pathVariables.get(ServiceBrokerRequest.PLATFORM_INSTANCE_ID_VARIABLE))
 				.apiInfoLocation(apiInfoLocation)
-				.originatingIdentity(parseOriginatingIdentity(originatingIdentityString))
 				.requestIdentity(requestIdentity)
 				.build())
+			.map((request) -> applyOriginatingIdentity(request, originatingIdentityString))
 			.flatMap((request) -> this.service.getServiceInstance(request).doOnRequest((v) -> {
 				if (LOG.isInfoEnabled()) {
 					LOG.info(INFO_REQUEST, "Getting", request.getServiceInstanceId());
@@ -228,6 +233,9 @@ public class ServiceInstanceController extends BaseController {
 					return Mono.error(e);
 				}
 			});
+		return instrument(result, ServiceBrokerOperation.GET_INSTANCE, serviceDefinitionId, planId,
+				pathVariables.get(ServiceBrokerRequest.PLATFORM_INSTANCE_ID_VARIABLE), serviceInstanceId, null,
+				requestIdentity);
 	}
 
 	/**
@@ -257,7 +265,7 @@ public class ServiceInstanceController extends BaseController {
 					required = false) String originatingIdentityString,
 			@RequestHeader(value = ServiceBrokerRequest.REQUEST_IDENTITY_HEADER,
 					required = false) String requestIdentity) {
-		return Mono
+		Mono<ResponseEntity<GetLastServiceOperationResponse>> result = Mono
 			.just(GetLastServiceOperationRequest.builder()
 				.serviceDefinitionId(serviceDefinitionId)
 				.serviceInstanceId(serviceInstanceId)
@@ -265,9 +273,9 @@ public class ServiceInstanceController extends BaseController {
 				.operation(operation)
 				.platformInstanceId(pathVariables.get(ServiceBrokerRequest.PLATFORM_INSTANCE_ID_VARIABLE))
 				.apiInfoLocation(apiInfoLocation)
-				.originatingIdentity(parseOriginatingIdentity(originatingIdentityString))
 				.requestIdentity(requestIdentity)
 				.build())
+			.map((request) -> applyOriginatingIdentity(request, originatingIdentityString))
 			.flatMap((request) -> this.service.getLastOperation(request).doOnRequest((v) -> {
 				if (LOG.isInfoEnabled()) {
 					LOG.info(INFO_REQUEST, "Getting last operation for", request.getServiceInstanceId());
@@ -289,7 +297,8 @@ public class ServiceInstanceController extends BaseController {
 			.map((response) -> {
 				boolean isSuccessfulDelete = OperationState.SUCCEEDED.equals(response.getState())
 						&& response.isDeleteOperation();
-				return new ResponseEntity<>(response, isSuccessfulDelete ? HttpStatus.GONE : HttpStatus.OK);
+				return getLastOperationResponseEntity(response, isSuccessfulDelete ? HttpStatus.GONE : HttpStatus.OK,
+						response.getRetryAfter());
 			})
 			.onErrorResume((e) -> {
 				if (e instanceof ServiceInstanceDoesNotExistException) {
@@ -302,6 +311,9 @@ public class ServiceInstanceController extends BaseController {
 					return Mono.error(e);
 				}
 			});
+		return instrument(result, ServiceBrokerOperation.INSTANCE_LAST_OPERATION, serviceDefinitionId, planId,
+				pathVariables.get(ServiceBrokerRequest.PLATFORM_INSTANCE_ID_VARIABLE), serviceInstanceId, null,
+				requestIdentity);
 	}
 
 	/**
@@ -331,7 +343,7 @@ public class ServiceInstanceController extends BaseController {
 					required = false) String originatingIdentityString,
 			@RequestHeader(value = ServiceBrokerRequest.REQUEST_IDENTITY_HEADER,
 					required = false) String requestIdentity) {
-		return getRequiredServiceDefinition(serviceDefinitionId)
+		Mono<ResponseEntity<DeleteServiceInstanceResponse>> result = getRequiredServiceDefinition(serviceDefinitionId)
 			.flatMap((serviceDefinition) -> getRequiredServiceDefinitionPlan(serviceDefinition, planId)
 				.map(DeleteServiceInstanceRequest.builder()::plan)
 				.map((builder) -> builder.serviceInstanceId(serviceInstanceId)
@@ -341,9 +353,9 @@ public class ServiceInstanceController extends BaseController {
 					.asyncAccepted(acceptsIncomplete)
 					.platformInstanceId(pathVariables.get(ServiceBrokerRequest.PLATFORM_INSTANCE_ID_VARIABLE))
 					.apiInfoLocation(apiInfoLocation)
-					.originatingIdentity(parseOriginatingIdentity(originatingIdentityString))
 					.requestIdentity(requestIdentity)
 					.build()))
+			.map((request) -> applyOriginatingIdentity(request, originatingIdentityString))
 			.flatMap((request) -> this.service.deleteServiceInstance(request).doOnRequest((v) -> {
 				if (LOG.isInfoEnabled()) {
 					LOG.info(INFO_REQUEST, "Deleting", request.getServiceInstanceId());
@@ -371,6 +383,9 @@ public class ServiceInstanceController extends BaseController {
 					return Mono.error(e);
 				}
 			});
+		return instrument(result, ServiceBrokerOperation.DEPROVISION, serviceDefinitionId, planId,
+				pathVariables.get(ServiceBrokerRequest.PLATFORM_INSTANCE_ID_VARIABLE), serviceInstanceId, null,
+				requestIdentity);
 	}
 
 	/**
@@ -398,7 +413,8 @@ public class ServiceInstanceController extends BaseController {
 			@RequestHeader(value = ServiceBrokerRequest.REQUEST_IDENTITY_HEADER,
 					required = false) String requestIdentity,
 			@Valid @RequestBody UpdateServiceInstanceRequest request) {
-		return getRequiredServiceDefinition(request.getServiceDefinitionId()).flatMap(
+		Mono<ResponseEntity<UpdateServiceInstanceResponse>> result = getRequiredServiceDefinition(
+				request.getServiceDefinitionId()).flatMap(
 				(serviceDefinition) -> getServiceDefinitionPlan(serviceDefinition, request.getPlanId()).map((plan) -> {
 					request.setPlan(plan);
 					return request;
@@ -430,6 +446,9 @@ public class ServiceInstanceController extends BaseController {
 					.error(String.format(ERROR_RESPONSE, "updating", serviceInstanceId, e.getMessage()), e)))
 			.map((response) -> new ResponseEntity<>(response, getAsyncResponseCode(response)))
 			.switchIfEmpty(Mono.just(new ResponseEntity<>(HttpStatus.OK)));
+		return instrument(result, ServiceBrokerOperation.UPDATE, request.getServiceDefinitionId(),
+				request.getPlanId(), pathVariables.get(ServiceBrokerRequest.PLATFORM_INSTANCE_ID_VARIABLE),
+				serviceInstanceId, null, requestIdentity);
 	}
 
 }
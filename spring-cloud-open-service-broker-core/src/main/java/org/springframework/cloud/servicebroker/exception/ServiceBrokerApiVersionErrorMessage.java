@@ -24,8 +24,10 @@ package org.springframework.cloud.servicebroker.exception;
  */
 public final class ServiceBrokerApiVersionErrorMessage {
 
-	private static final String MESSAGE_TEMPLATE = "The provided service broker API version is not supported: "
-			+ "expected version=%s, provided version=%s";
+	private static final String MESSAGE_PREFIX = "The provided service broker API version is not supported: "
+			+ "expected version=";
+
+	private static final String PROVIDED_VERSION = ", provided version=";
 
 	private final String message;
 
@@ -35,7 +37,7 @@ public final class ServiceBrokerApiVersionErrorMessage {
 	 * @param providedVersion the version provided by the platform
 	 */
 	private ServiceBrokerApiVersionErrorMessage(String expectedVersion, String providedVersion) {
-		this.message = String.format(MESSAGE_TEMPLATE, expectedVersion, providedVersion);
+		this.message = MESSAGE_PREFIX + expectedVersion + PROVIDED_VERSION + providedVersion;
 	}
 
 	@Override
@@ -39,6 +39,19 @@ public class ServiceBrokerApiVersionException extends ServiceBrokerException {
 		super(ServiceBrokerApiVersionErrorMessage.from(expectedVersion, providedVersion).toString());
 	}
 
+	/**
+	 * Construct an exception with the expected and provided versions, optionally without
+	 * a stack trace.
+	 * @param expectedVersion the version expected by the service broker
+	 * @param providedVersion the version provided by the platform
+	 * @param writableStackTrace whether the stack trace should be filled in
+	 */
+	public ServiceBrokerApiVersionException(String expectedVersion, String providedVersion,
+			boolean writableStackTrace) {
+		super(ServiceBrokerApiVersionErrorMessage.from(expectedVersion, providedVersion).toString(),
+				writableStackTrace);
+	}
+
 	/**
 	 * Construct an exception with an error code and the expected and provided versions.
 	 * @param errorCode a single word in camel case that uniquely identifies the error
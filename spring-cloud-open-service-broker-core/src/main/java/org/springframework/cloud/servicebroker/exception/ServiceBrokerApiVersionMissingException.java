@@ -37,6 +37,15 @@ public class ServiceBrokerApiVersionMissingException extends ServiceBrokerExcept
 		super(ServiceBrokerApiVersionErrorMessage.from(expectedVersion, "null").toString());
 	}
 
+	/**
+	 * Construct an exception with the expected version, optionally without a stack trace.
+	 * @param expectedVersion the version expected by the service broker
+	 * @param writableStackTrace whether the stack trace should be filled in
+	 */
+	public ServiceBrokerApiVersionMissingException(String expectedVersion, boolean writableStackTrace) {
+		super(ServiceBrokerApiVersionErrorMessage.from(expectedVersion, "null").toString(), writableStackTrace);
+	}
+
 	/**
 	 * Construct an exception with an error code and the expected version.
 	 * @param errorCode a single word in camel case that uniquely identifies the error
@@ -44,6 +44,18 @@ public class ServiceBrokerException extends RuntimeException {
 		this.errorMessage = new ErrorMessage(message);
 	}
 
+	/**
+	 * Construct an exception with the provided message, optionally without a stack trace.
+	 * Intended for exceptions that report a rejected request rather than a failure in the
+	 * service broker, where the stack trace carries no information.
+	 * @param message the exception message
+	 * @param writableStackTrace whether the stack trace should be filled in
+	 */
+	protected ServiceBrokerException(String message, boolean writableStackTrace) {
+		super(message, null, true, writableStackTrace);
+		this.errorMessage = new ErrorMessage(message);
+	}
+
 	/**
 	 * Construct an exception with the provided error code and message.
 	 * @param errorCode a single word in camel case that uniquely identifies the error
@@ -16,9 +16,21 @@
 
 package org.springframework.cloud.servicebroker.model;
 
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.util.StringUtils;
+
 /**
  * Object for configuring the version of the API supported by the service broker.
  *
+ * <p>
+ * The supported version can be a single version such as {@literal 2.16}, a range of
+ * versions such as {@literal 2.14-2.17}, or a comma-separated list of versions and
+ * ranges such as {@literal 2.13, 2.15-2.17}. Versions in the form
+ * {@literal major.minor} are compared numerically; any other value must match the
+ * version provided by the platform exactly.
+ *
  * @author Scott Frederick
  * @author Roy Clarkson
  */
@@ -39,28 +51,55 @@ public class BrokerApiVersion {
 	 */
 	public static final String API_VERSION_CURRENT = "2.16";
 
+	private static final int MAX_VERSION_COMPONENT = 0xFFFF;
+
 	private final String brokerApiVersionHeader;
 
 	private final String apiVersion;
 
+	private final boolean anyVersionAllowed;
+
+	/**
+	 * Inclusive lower and upper bounds of each supported range, as encoded by
+	 * parseVersion.
+	 */
+	private final int[] versionRanges;
+
+	private final String[] exactVersions;
+
 	/**
 	 * Specify the name of the service broker API version header and the API version
 	 * supported by the service broker.
 	 * @param apiVersionHeader the name of the HTTP header field expected to contain the
 	 * service broker API version of the service broker client
-	 * @param apiVersion the version of the service broker API supported by the broker; a
-	 * value of {@literal null} or {@literal API_VERSION_ANY} will disable API version
-	 * validation
+	 * @param apiVersion the version, range, or comma-separated list of versions and
+	 * ranges of the service broker API supported by the broker; a value of
+	 * {@literal null} or {@literal API_VERSION_ANY} will disable API version validation
 	 */
 	public BrokerApiVersion(String apiVersionHeader, String apiVersion) {
 		this.brokerApiVersionHeader = apiVersionHeader;
 		this.apiVersion = apiVersion;
+		this.anyVersionAllowed = (apiVersion == null || API_VERSION_ANY.equals(apiVersion));
+		List<int[]> ranges = new ArrayList<>();
+		List<String> exact = new ArrayList<>();
+		if (!this.anyVersionAllowed) {
+			for (String element : StringUtils.commaDelimitedListToStringArray(apiVersion)) {
+				parseSupportedVersion(element.trim(), ranges, exact);
+			}
+		}
+		this.versionRanges = new int[ranges.size() * 2];
+		for (int i = 0; i < ranges.size(); i++) {
+			this.versionRanges[i * 2] = ranges.get(i)[0];
+			this.versionRanges[i * 2 + 1] = ranges.get(i)[1];
+		}
+		this.exactVersions = exact.toArray(new String[0]);
 	}
 
 	/**
 	 * Specify the service broker API version supported by the service broker.
-	 * @param apiVersion the version of the broker API supported by the broker; a value of
-	 * {@literal null} or {@literal API_VERSION_ANY} will disable API version validation
+	 * @param apiVersion the version, range, or comma-separated list of versions and
+	 * ranges of the broker API supported by the broker; a value of {@literal null} or
+	 * {@literal API_VERSION_ANY} will disable API version validation
 	 */
 	public BrokerApiVersion(String apiVersion) {
 		this(DEFAULT_API_VERSION_HEADER, apiVersion);
@@ -89,4 +128,102 @@ public class BrokerApiVersion {
 		return this.brokerApiVersionHeader;
 	}
 
+	/**
+	 * Whether API version validation is disabled.
+	 * @return true if any API version, or none, is accepted
+	 */
+	public boolean isAnyVersionAllowed() {
+		return this.anyVersionAllowed;
+	}
+
+	/**
+	 * Whether the service broker supports the API version provided by the platform. The
+	 * provided version is compared without allocating, so that rejecting a request is as
+	 * cheap as accepting it.
+	 * @param requestedApiVersion the value of the API version header, or {@literal null}
+	 * if the header is missing
+	 * @return true if the version is supported
+	 */
+	public boolean isSupported(String requestedApiVersion) {
+		if (this.anyVersionAllowed) {
+			return true;
+		}
+		if (requestedApiVersion == null) {
+			return false;
+		}
+		if (this.versionRanges.length > 0) {
+			int version = parseVersion(requestedApiVersion);
+			if (version >= 0) {
+				for (int i = 0; i < this.versionRanges.length; i += 2) {
+					if (version >= this.versionRanges[i] && version <= this.versionRanges[i + 1]) {
+						return true;
+					}
+				}
+			}
+		}
+		for (String exactVersion : this.exactVersions) {
+			if (exactVersion.equals(requestedApiVersion)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private static void parseSupportedVersion(String element, List<int[]> ranges, List<String> exact) {
+		if (element.isEmpty()) {
+			return;
+		}
+		int version = parseVersion(element);
+		if (version >= 0) {
+			ranges.add(new int[] { version, version });
+			return;
+		}
+		int separator = element.indexOf('-');
+		if (separator > 0) {
+			String lower = element.substring(0, separator).trim();
+			String upper = element.substring(separator + 1).trim();
+			int lowerVersion = parseVersion(lower);
+			int upperVersion = parseVersion(upper);
+			if (lowerVersion >= 0 && upperVersion >= 0) {
+				if (lowerVersion > upperVersion) {
+					throw new IllegalArgumentException("Invalid API version range: " + element);
+				}
+				ranges.add(new int[] { lowerVersion, upperVersion });
+				return;
+			}
+		}
+		exact.add(element);
+	}
+
+	/**
+	 * Parse a version in the form {@literal major.minor} into a single comparable value.
+	 * @param value the version
+	 * @return the major version in the high and the minor version in the low 16 bits, or
+	 * {@literal -1} if the text is not a valid version
+	 */
+	private static int parseVersion(String value) {
+		int major = -1;
+		int current = -1;
+		for (int i = 0; i < value.length(); i++) {
+			char c = value.charAt(i);
+			if (c >= '0' && c <= '9') {
+				current = ((current < 0) ? 0 : current * 10) + (c - '0');
+				if (current > MAX_VERSION_COMPONENT) {
+					return -1;
+				}
+			}
+			else if (c == '.' && major < 0 && current >= 0) {
+				major = current;
+				current = -1;
+			}
+			else {
+				return -1;
+			}
+		}
+		if (major < 0 || current < 0) {
+			return -1;
+		}
+		return (major << 16) | current;
+	}
+
 }
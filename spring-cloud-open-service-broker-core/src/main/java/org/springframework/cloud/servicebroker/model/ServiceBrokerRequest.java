@@ -17,6 +17,7 @@
 package org.springframework.cloud.servicebroker.model;
 
 import java.util.Objects;
+import java.util.function.Supplier;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.databind.PropertyNamingStrategies;
@@ -77,6 +78,8 @@ public class ServiceBrokerRequest {
 
 	protected transient Context originatingIdentity;
 
+	private transient volatile LazyOriginatingIdentity lazyOriginatingIdentity;
+
 	protected transient String requestIdentity;
 
 	/**
@@ -160,7 +163,8 @@ public class ServiceBrokerRequest {
 	 */
 	@JsonIgnore // mapped as X-Broker-API-Originating-Identity Header
 	public Context getOriginatingIdentity() {
-		return this.originatingIdentity;
+		LazyOriginatingIdentity lazy = this.lazyOriginatingIdentity;
+		return (lazy != null) ? lazy.get() : this.originatingIdentity;
 	}
 
 	/**
@@ -171,6 +175,44 @@ public class ServiceBrokerRequest {
 	 */
 	public void setOriginatingIdentity(Context originatingIdentity) {
 		this.originatingIdentity = originatingIdentity;
+		this.lazyOriginatingIdentity = null;
+	}
+
+	/**
+	 * This method is intended to be used internally only. Defers creating the originating
+	 * identity until {@link #getOriginatingIdentity()} is first called, so that the
+	 * header is only decoded if the service broker uses it. The supplier is called at
+	 * most once, even by concurrent callers. If it throws an exception, the exception is
+	 * thrown from every call to {@link #getOriginatingIdentity()}. Until then, the
+	 * request is compared by the supplier.
+	 * @param originatingIdentitySupplier supplies the identity of the user that initiated
+	 * the request from the platform
+	 */
+	@JsonIgnore
+	public void setOriginatingIdentitySupplier(Supplier<Context> originatingIdentitySupplier) {
+		applyOriginatingIdentitySupplier(originatingIdentitySupplier, originatingIdentitySupplier);
+	}
+
+	/**
+	 * This method is intended to be used internally only. Defers creating the originating
+	 * identity from the {@literal X-Broker-API-Originating-Identity} header until
+	 * {@link #getOriginatingIdentity()} is first called, as
+	 * {@link #setOriginatingIdentitySupplier(Supplier)} does. The request is compared and
+	 * printed by the raw header, so that it is not decoded by {@link #equals(Object)},
+	 * {@link #hashCode()} or {@link #toString()}.
+	 * @param originatingIdentityHeader the raw header value
+	 * @param originatingIdentitySupplier supplies the identity parsed from the header
+	 */
+	@JsonIgnore
+	public void setOriginatingIdentitySupplier(String originatingIdentityHeader,
+			Supplier<Context> originatingIdentitySupplier) {
+		applyOriginatingIdentitySupplier(originatingIdentityHeader, originatingIdentitySupplier);
+	}
+
+	private void applyOriginatingIdentitySupplier(Object source, Supplier<Context> originatingIdentitySupplier) {
+		this.originatingIdentity = null;
+		this.lazyOriginatingIdentity = (originatingIdentitySupplier != null)
+				? new LazyOriginatingIdentity(source, originatingIdentitySupplier) : null;
 	}
 
 	/**
@@ -205,7 +247,7 @@ public class ServiceBrokerRequest {
 		ServiceBrokerRequest that = (ServiceBrokerRequest) o;
 		return that.canEqual(this) && Objects.equals(this.platformInstanceId, that.platformInstanceId)
 				&& Objects.equals(this.apiInfoLocation, that.apiInfoLocation)
-				&& Objects.equals(this.originatingIdentity, that.originatingIdentity)
+				&& Objects.equals(comparableOriginatingIdentity(), that.comparableOriginatingIdentity())
 				&& Objects.equals(this.requestIdentity, that.requestIdentity);
 	}
 
@@ -220,15 +262,74 @@ public class ServiceBrokerRequest {
 
 	@Override
 	public int hashCode() {
-		return Objects.hash(this.platformInstanceId, this.apiInfoLocation, this.originatingIdentity,
+		return Objects.hash(this.platformInstanceId, this.apiInfoLocation, comparableOriginatingIdentity(),
 				this.requestIdentity);
 	}
 
 	@Override
 	public String toString() {
 		return "ServiceBrokerRequest{" + "platformInstanceId='" + this.platformInstanceId + '\'' + ", apiInfoLocation='"
-				+ this.apiInfoLocation + '\'' + ", originatingIdentity=" + this.originatingIdentity + '\''
+				+ this.apiInfoLocation + '\'' + ", originatingIdentity=" + describeOriginatingIdentity() + '\''
 				+ ", requestIdentity=" + this.requestIdentity + '}';
 	}
 
+	/**
+	 * Get a value that identifies the originating identity for {@link #equals(Object)}
+	 * and {@link #hashCode()} without creating it from a supplier.
+	 */
+	private Object comparableOriginatingIdentity() {
+		LazyOriginatingIdentity lazy = this.lazyOriginatingIdentity;
+		return (lazy != null) ? lazy.source : this.originatingIdentity;
+	}
+
+	private Object describeOriginatingIdentity() {
+		LazyOriginatingIdentity lazy = this.lazyOriginatingIdentity;
+		return (lazy != null) ? lazy : this.originatingIdentity;
+	}
+
+	/**
+	 * An originating identity that is created on first use. The outcome, including a
+	 * failure, is kept, so the supplier is called at most once.
+	 */
+	private static final class LazyOriginatingIdentity {
+
+		private final Object source;
+
+		private Supplier<Context> supplier;
+
+		private Context value;
+
+		private RuntimeException failure;
+
+		private LazyOriginatingIdentity(Object source, Supplier<Context> supplier) {
+			this.source = source;
+			this.supplier = supplier;
+		}
+
+		synchronized Context get() {
+			if (this.supplier != null) {
+				try {
+					this.value = this.supplier.get();
+				}
+				catch (RuntimeException ex) {
+					this.failure = ex;
+				}
+				this.supplier = null;
+			}
+			if (this.failure != null) {
+				throw this.failure;
+			}
+			return this.value;
+		}
+
+		@Override
+		public synchronized String toString() {
+			if (this.supplier != null) {
+				return (this.source instanceof String) ? (String) this.source : "<not read>";
+			}
+			return (this.failure != null) ? "<invalid>" : String.valueOf(this.value);
+		}
+
+	}
+
 }
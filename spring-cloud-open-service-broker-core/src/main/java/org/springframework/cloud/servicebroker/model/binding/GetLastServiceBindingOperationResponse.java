@@ -16,6 +16,7 @@
 
 package org.springframework.cloud.servicebroker.model.binding;
 
+import java.time.Duration;
 import java.util.Objects;
 
 import com.fasterxml.jackson.annotation.JsonAutoDetect;
@@ -48,6 +49,8 @@ public class GetLastServiceBindingOperationResponse {
 
 	private final boolean deleteOperation;
 
+	private final Duration retryAfter;
+
 	/**
 	 * Construct a new {@link GetLastServiceBindingOperationResponse}.
 	 */
@@ -62,9 +65,22 @@ public class GetLastServiceBindingOperationResponse {
 	 * @param deleteOperation is delete operation
 	 */
 	public GetLastServiceBindingOperationResponse(OperationState state, String description, boolean deleteOperation) {
+		this(state, description, deleteOperation, null);
+	}
+
+	/**
+	 * Construct a new {@link GetLastServiceBindingOperationResponse}.
+	 * @param state the current state
+	 * @param description the description
+	 * @param deleteOperation is delete operation
+	 * @param retryAfter how long the platform should wait before polling again
+	 */
+	public GetLastServiceBindingOperationResponse(OperationState state, String description, boolean deleteOperation,
+			Duration retryAfter) {
 		this.state = state;
 		this.description = description;
 		this.deleteOperation = deleteOperation;
+		this.retryAfter = retryAfter;
 	}
 
 	/**
@@ -92,6 +108,16 @@ public class GetLastServiceBindingOperationResponse {
 		return this.deleteOperation;
 	}
 
+	/**
+	 * Get how long the platform should wait before polling for the state of the operation
+	 * again.
+	 * @return the duration, or {@literal null} if not provided
+	 */
+	@JsonIgnore
+	public Duration getRetryAfter() {
+		return this.retryAfter;
+	}
+
 	/**
 	 * Create a builder that provides a fluent API for constructing a
 	 * {@literal GetLastServiceBindingOperationResponse}.
@@ -111,18 +137,19 @@ public class GetLastServiceBindingOperationResponse {
 		}
 		GetLastServiceBindingOperationResponse that = (GetLastServiceBindingOperationResponse) o;
 		return this.deleteOperation == that.deleteOperation && this.state == that.state
-				&& Objects.equals(this.description, that.description);
+				&& Objects.equals(this.description, that.description)
+				&& Objects.equals(this.retryAfter, that.retryAfter);
 	}
 
 	@Override
 	public final int hashCode() {
-		return Objects.hash(this.state, this.description, this.deleteOperation);
+		return Objects.hash(this.state, this.description, this.deleteOperation, this.retryAfter);
 	}
 
 	@Override
 	public String toString() {
 		return "GetLastServiceBindingOperationResponse{" + "state=" + this.state + ", description='" + this.description
-				+ '\'' + ", deleteOperation=" + this.deleteOperation + '}';
+				+ '\'' + ", deleteOperation=" + this.deleteOperation + ", retryAfter=" + this.retryAfter + '}';
 	}
 
 	/**
@@ -137,6 +164,8 @@ public class GetLastServiceBindingOperationResponse {
 
 		private boolean deleteOperation;
 
+		private Duration retryAfter;
+
 		private GetLastServiceBindingOperationResponseBuilder() {
 		}
 
@@ -196,13 +225,29 @@ public class GetLastServiceBindingOperationResponse {
 			return this;
 		}
 
+		/**
+		 * Set how long the platform should wait before polling for the state of the
+		 * operation again. Can be {@literal null}.
+		 *
+		 * <p>
+		 * This value will set the {@literal Retry-After} header of the response to the
+		 * platform, in whole seconds.
+		 * @param retryAfter the duration
+		 * @return the builder
+		 */
+		public GetLastServiceBindingOperationResponseBuilder retryAfter(Duration retryAfter) {
+			this.retryAfter = retryAfter;
+			return this;
+		}
+
 		/**
 		 * Construct a {@link GetLastServiceBindingOperationResponse} from the provided
 		 * values.
 		 * @return the newly constructed {@literal GetLastServiceOperationResponse}
 		 */
 		public GetLastServiceBindingOperationResponse build() {
-			return new GetLastServiceBindingOperationResponse(this.state, this.description, this.deleteOperation);
+			return new GetLastServiceBindingOperationResponse(this.state, this.description, this.deleteOperation,
+					this.retryAfter);
 		}
 
 	}
@@ -75,6 +75,8 @@ public class ServiceDefinition {
 
 	private final DashboardClient dashboardClient;
 
+	private transient volatile PlanIndex planIndex;
+
 	/**
 	 * Construct a new {@link ServiceDefinition}.
 	 */
@@ -193,6 +195,42 @@ public class ServiceDefinition {
 		return this.plans;
 	}
 
+	/**
+	 * Find a plan of this service by ID. The plans are indexed by ID when this is first
+	 * called, so later calls do not scan the plans. If the plans were changed after they
+	 * were indexed, the index is rebuilt.
+	 * @param planId the plan ID
+	 * @return the plan, or {@literal null} if this service has no plan with the ID
+	 */
+	public Plan getPlan(String planId) {
+		if (this.plans == null) {
+			return null;
+		}
+		PlanIndex index = this.planIndex;
+		if (index == null || index.source != this.plans) {
+			indexPlans();
+			index = this.planIndex;
+		}
+		Plan plan = index.find(planId);
+		if (plan != null) {
+			return plan;
+		}
+		// A plan missing from the index may have been added to the plans since
+		for (Plan candidate : this.plans) {
+			if (Objects.equals(candidate.getId(), planId)) {
+				indexPlans();
+				return candidate;
+			}
+		}
+		return null;
+	}
+
+	private void indexPlans() {
+		if (this.plans != null) {
+			this.planIndex = new PlanIndex(this.plans);
+		}
+	}
+
 	/**
 	 * A list of tags to aid in categorizing and classifying services with similar
 	 * characteristics.
@@ -274,6 +312,35 @@ public class ServiceDefinition {
 				+ ", dashboardClient=" + this.dashboardClient + '}';
 	}
 
+	/**
+	 * The positions of the plans of a service by ID. A plan found in the index is checked
+	 * against the plans, so that a plan replaced in the list after it was indexed is not
+	 * returned.
+	 */
+	private static final class PlanIndex {
+
+		private final List<Plan> source;
+
+		private final Map<String, Integer> positions = new HashMap<>();
+
+		private PlanIndex(List<Plan> plans) {
+			this.source = plans;
+			for (int i = 0; i < plans.size(); i++) {
+				this.positions.putIfAbsent(plans.get(i).getId(), i);
+			}
+		}
+
+		private Plan find(String planId) {
+			Integer position = this.positions.get(planId);
+			if (position == null || position >= this.source.size()) {
+				return null;
+			}
+			Plan plan = this.source.get(position);
+			return (Objects.equals(plan.getId(), planId)) ? plan : null;
+		}
+
+	}
+
 	/**
 	 * Provides a fluent API for constructing a {@literal ServiceDefinition}.
 	 */
@@ -16,6 +16,7 @@
 
 package org.springframework.cloud.servicebroker.model.instance;
 
+import java.time.Duration;
 import java.util.Objects;
 
 import com.fasterxml.jackson.annotation.JsonAutoDetect;
@@ -53,6 +54,8 @@ public class GetLastServiceOperationResponse {
 
 	private final boolean deleteOperation;
 
+	private final Duration retryAfter;
+
 	/**
 	 * Construct a new {@link GetLastServiceOperationResponse}.
 	 */
@@ -83,11 +86,26 @@ public class GetLastServiceOperationResponse {
 	 */
 	public GetLastServiceOperationResponse(OperationState state, String description, Boolean instanceUsable,
 			Boolean updateRepeatable, boolean deleteOperation) {
+		this(state, description, instanceUsable, updateRepeatable, deleteOperation, null);
+	}
+
+	/**
+	 * Construct a new {@link GetLastServiceOperationResponse}.
+	 * @param state the current state
+	 * @param description the description
+	 * @param instanceUsable is the instance usable
+	 * @param updateRepeatable is the update repeatable
+	 * @param deleteOperation is delete operation
+	 * @param retryAfter how long the platform should wait before polling again
+	 */
+	public GetLastServiceOperationResponse(OperationState state, String description, Boolean instanceUsable,
+			Boolean updateRepeatable, boolean deleteOperation, Duration retryAfter) {
 		this.state = state;
 		this.description = description;
 		this.instanceUsable = instanceUsable;
 		this.updateRepeatable = updateRepeatable;
 		this.deleteOperation = deleteOperation;
+		this.retryAfter = retryAfter;
 	}
 
 	/**
@@ -132,6 +150,16 @@ public class GetLastServiceOperationResponse {
 		return this.deleteOperation;
 	}
 
+	/**
+	 * Get how long the platform should wait before polling for the state of the operation
+	 * again.
+	 * @return the duration, or {@literal null} if not provided
+	 */
+	@JsonIgnore
+	public Duration getRetryAfter() {
+		return this.retryAfter;
+	}
+
 	/**
 	 * Create a builder that provides a fluent API for constructing a
 	 * {@literal GetLastServiceOperationResponse}.
@@ -153,20 +181,20 @@ public class GetLastServiceOperationResponse {
 		return this.state == that.state && Objects.equals(this.description, that.description)
 				&& Objects.equals(this.instanceUsable, that.instanceUsable)
 				&& Objects.equals(this.updateRepeatable, that.updateRepeatable)
-				&& this.deleteOperation == that.deleteOperation;
+				&& this.deleteOperation == that.deleteOperation && Objects.equals(this.retryAfter, that.retryAfter);
 	}
 
 	@Override
 	public final int hashCode() {
 		return Objects.hash(this.state, this.description, this.instanceUsable, this.updateRepeatable,
-				this.deleteOperation);
+				this.deleteOperation, this.retryAfter);
 	}
 
 	@Override
 	public String toString() {
 		return "GetLastServiceOperationResponse{" + "state=" + this.state + ", description='" + this.description + '\''
 				+ ", instanceUsable=" + this.instanceUsable + '\'' + ", updateRepeatable=" + this.updateRepeatable
-				+ '\'' + ", deleteOperation=" + this.deleteOperation + '}';
+				+ '\'' + ", deleteOperation=" + this.deleteOperation + ", retryAfter=" + this.retryAfter + '}';
 	}
 
 	/**
@@ -184,6 +212,8 @@ public class GetLastServiceOperationResponse {
 
 		private boolean deleteOperation;
 
+		private Duration retryAfter;
+
 		private GetLastServiceOperationResponseBuilder() {
 		}
 
@@ -275,13 +305,28 @@ public class GetLastServiceOperationResponse {
 			return this;
 		}
 
+		/**
+		 * Set how long the platform should wait before polling for the state of the
+		 * operation again. Can be {@literal null}.
+		 *
+		 * <p>
+		 * This value will set the {@literal Retry-After} header of the response to the
+		 * platform, in whole seconds.
+		 * @param retryAfter the duration
+		 * @return the builder
+		 */
+		public GetLastServiceOperationResponseBuilder retryAfter(Duration retryAfter) {
+			this.retryAfter = retryAfter;
+			return this;
+		}
+
 		/**
 		 * Construct a {@link GetLastServiceOperationResponse} from the provided values.
 		 * @return the newly constructed {@literal GetLastServiceOperationResponse}
 		 */
 		public GetLastServiceOperationResponse build() {
 			return new GetLastServiceOperationResponse(this.state, this.description, this.instanceUsable,
-					this.updateRepeatable, this.deleteOperation);
+					this.updateRepeatable, this.deleteOperation, this.retryAfter);
 		}
 
 	}
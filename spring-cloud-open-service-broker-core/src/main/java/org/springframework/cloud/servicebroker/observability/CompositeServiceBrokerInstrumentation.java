@@ -0,0 +1,58 @@
+/*
+ * Copyright 2002-2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.servicebroker.observability;
+
+import java.util.List;
+
+import reactor.core.publisher.Mono;
+
+import org.springframework.http.ResponseEntity;
+
+/**
+ * A {@link ServiceBrokerInstrumentation} that applies several instrumentations.
+ *
+ * @see ServiceBrokerInstrumentation#of(List)
+ */
+class CompositeServiceBrokerInstrumentation implements ServiceBrokerInstrumentation {
+
+	private final ServiceBrokerInstrumentation[] instrumentations;
+
+	CompositeServiceBrokerInstrumentation(List<ServiceBrokerInstrumentation> instrumentations) {
+		this.instrumentations = instrumentations.toArray(new ServiceBrokerInstrumentation[0]);
+	}
+
+	@Override
+	public <T> Mono<ResponseEntity<T>> instrument(ServiceBrokerOperationContext context,
+			Mono<ResponseEntity<T>> response) {
+		Mono<ResponseEntity<T>> instrumented = response;
+		for (int i = this.instrumentations.length - 1; i >= 0; i--) {
+			instrumented = this.instrumentations[i].instrument(context, instrumented);
+		}
+		return instrumented;
+	}
+
+	@Override
+	public boolean isObservingSteps() {
+		for (ServiceBrokerInstrumentation instrumentation : this.instrumentations) {
+			if (instrumentation.isObservingSteps()) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+}
@@ -0,0 +1,213 @@
+/*
+ * Copyright 2002-2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.servicebroker.observability;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import io.micrometer.core.instrument.LongTaskTimer;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import reactor.core.publisher.Mono;
+
+import org.springframework.cloud.servicebroker.controller.ServiceBrokerExceptionHandler;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.ResponseEntity;
+import org.springframework.util.Assert;
+import org.springframework.web.ErrorResponse;
+import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.method.annotation.ExceptionHandlerMethodResolver;
+
+/**
+ * A {@link ServiceBrokerInstrumentation} that records Micrometer metrics for each service
+ * broker operation.
+ *
+ * <p>
+ * The {@value #REQUESTS_METRIC} timer records the latency of completed operations, tagged
+ * by operation, service definition ID, plan ID, HTTP status, and outcome. Its count is
+ * the number of operations with each outcome. The {@value #ACTIVE_REQUESTS_METRIC} long
+ * task timer records the operations that are in flight, tagged by operation. The timer
+ * publishes a percentile histogram, so that latency percentiles can be aggregated across
+ * instances, unless it is disabled with {@link #setPercentileHistogram(boolean)}.
+ *
+ * <p>
+ * The service definition ID and plan ID tags are each only set to the ID in the request
+ * if it was found in the catalog while the operation was processed, and are
+ * {@literal unknown} otherwise, including for operations that do not look them up. This
+ * way requests with arbitrary IDs cannot create an unbounded number of meters. For the
+ * same reason, the platform instance ID is not used as a tag.
+ *
+ * <p>
+ * When an operation fails with an exception, the status is the one the exception handler
+ * responds with, as declared by its {@link ResponseStatus} annotation.
+ */
+public class MicrometerServiceBrokerInstrumentation implements ServiceBrokerInstrumentation {
+
+	/**
+	 * The name of the timer for completed operations.
+	 */
+	public static final String REQUESTS_METRIC = "osb.requests";
+
+	/**
+	 * The name of the long task timer for operations in flight.
+	 */
+	public static final String ACTIVE_REQUESTS_METRIC = "osb.requests.active";
+
+	private static final String NONE = "none";
+
+	private static final String UNKNOWN = "UNKNOWN";
+
+	private static final String NOT_IN_CATALOG = "unknown";
+
+	private final MeterRegistry registry;
+
+	private final ExceptionHandlerMethodResolver exceptionHandlerMethodResolver;
+
+	private final ConcurrentMap<Class<? extends Throwable>, String> errorStatuses = new ConcurrentHashMap<>();
+
+	private boolean percentileHistogram = true;
+
+	/**
+	 * Construct a new {@link MicrometerServiceBrokerInstrumentation}.
+	 * @param registry the registry to record metrics in
+	 * @param exceptionHandlerType the type of the exception handler that produces error
+	 * responses
+	 */
+	public MicrometerServiceBrokerInstrumentation(MeterRegistry registry,
+			Class<? extends ServiceBrokerExceptionHandler> exceptionHandlerType) {
+		Assert.notNull(registry, "registry must not be null");
+		Assert.notNull(exceptionHandlerType, "exceptionHandlerType must not be null");
+		this.registry = registry;
+		this.exceptionHandlerMethodResolver = new ExceptionHandlerMethodResolver(exceptionHandlerType);
+	}
+
+	/**
+	 * Set whether the {@value #REQUESTS_METRIC} timer publishes a percentile histogram.
+	 * Defaults to {@literal true}.
+	 * @param percentileHistogram false to publish only the count, total, and maximum
+	 */
+	public void setPercentileHistogram(boolean percentileHistogram) {
+		this.percentileHistogram = percentileHistogram;
+	}
+
+	@Override
+	public <T> Mono<ResponseEntity<T>> instrument(ServiceBrokerOperationContext context,
+			Mono<ResponseEntity<T>> response) {
+		return Mono.defer(() -> {
+			Recording recording = new Recording(context);
+			return response.doOnSuccess((entity) -> recording.stop(statusOf(entity)))
+				.doOnError((ex) -> recording.stop(statusOf(ex)))
+				.doOnCancel(() -> recording.stop(UNKNOWN));
+		});
+	}
+
+	private static String catalogTag(String id, boolean found) {
+		if (id == null) {
+			return NONE;
+		}
+		return found ? id : NOT_IN_CATALOG;
+	}
+
+	private static String statusOf(ResponseEntity<?> entity) {
+		return (entity != null) ? String.valueOf(entity.getStatusCode().value()) : UNKNOWN;
+	}
+
+	private String statusOf(Throwable ex) {
+		if (ex instanceof ErrorResponse errorResponse) {
+			return String.valueOf(errorResponse.getStatusCode().value());
+		}
+		return this.errorStatuses.computeIfAbsent(ex.getClass(), this::resolveErrorStatus);
+	}
+
+	private String resolveErrorStatus(Class<? extends Throwable> exceptionType) {
+		Method method = this.exceptionHandlerMethodResolver.resolveMethodByExceptionType(exceptionType);
+		ResponseStatus responseStatus = (method != null)
+				? AnnotatedElementUtils.findMergedAnnotation(method, ResponseStatus.class) : null;
+		HttpStatus status = (responseStatus != null) ? responseStatus.code() : HttpStatus.INTERNAL_SERVER_ERROR;
+		return String.valueOf(status.value());
+	}
+
+	private static String outcomeOf(String status) {
+		if (UNKNOWN.equals(status)) {
+			return UNKNOWN;
+		}
+		HttpStatusCode statusCode = HttpStatusCode.valueOf(Integer.parseInt(status));
+		if (statusCode.is2xxSuccessful()) {
+			return "SUCCESS";
+		}
+		if (statusCode.is4xxClientError()) {
+			return "CLIENT_ERROR";
+		}
+		if (statusCode.is5xxServerError()) {
+			return "SERVER_ERROR";
+		}
+		if (statusCode.is3xxRedirection()) {
+			return "REDIRECTION";
+		}
+		return "INFORMATIONAL";
+	}
+
+	/**
+	 * The metrics of a single operation, which are stopped once when it completes, fails,
+	 * or is cancelled.
+	 */
+	private final class Recording {
+
+		private final ServiceBrokerOperationContext context;
+
+		private final Timer.Sample sample;
+
+		private final LongTaskTimer.Sample activeSample;
+
+		private final AtomicBoolean stopped = new AtomicBoolean();
+
+		private Recording(ServiceBrokerOperationContext context) {
+			MeterRegistry registry = MicrometerServiceBrokerInstrumentation.this.registry;
+			this.context = context;
+			this.activeSample = LongTaskTimer.builder(ACTIVE_REQUESTS_METRIC)
+				.description("Service broker operations in flight")
+				.tag("operation", context.getOperation().getValue())
+				.register(registry)
+				.start();
+			this.sample = Timer.start(registry);
+		}
+
+		void stop(String status) {
+			if (!this.stopped.compareAndSet(false, true)) {
+				return;
+			}
+			this.activeSample.stop();
+			Tags tags = Tags.of("operation", this.context.getOperation().getValue(), "service_id",
+					catalogTag(this.context.getServiceDefinitionId(), this.context.isServiceDefinitionFound()),
+					"plan_id", catalogTag(this.context.getPlanId(), this.context.isPlanFound()));
+			this.sample.stop(Timer.builder(REQUESTS_METRIC)
+				.description("Completed service broker operations")
+				.publishPercentileHistogram(MicrometerServiceBrokerInstrumentation.this.percentileHistogram)
+				.tags(tags)
+				.tag("status", status)
+				.tag("outcome", outcomeOf(status))
+				.register(MicrometerServiceBrokerInstrumentation.this.registry));
+		}
+
+	}
+
+}
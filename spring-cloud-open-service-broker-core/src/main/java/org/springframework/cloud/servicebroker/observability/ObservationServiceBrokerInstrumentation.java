@@ -0,0 +1,95 @@
+/*
+ * Copyright 2002-2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.servicebroker.observability;
+
+import io.micrometer.common.KeyValues;
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
+import reactor.core.publisher.Mono;
+
+import org.springframework.http.ResponseEntity;
+import org.springframework.util.Assert;
+
+/**
+ * A {@link ServiceBrokerInstrumentation} that records a Micrometer {@link Observation}
+ * for each service broker operation, for example to produce a tracing span.
+ *
+ * <p>
+ * The {@value #REQUEST_OBSERVATION} observation is a child of the observation of the HTTP
+ * request, if any, and has a low cardinality key value for the operation, and high
+ * cardinality key values for the service definition ID, plan ID, platform instance ID,
+ * service instance ID, binding ID, and the {@literal X-Broker-API-Request-Identity}
+ * header. The IDs are taken from the request before they are checked against the catalog,
+ * so they are kept out of the low cardinality key values that observation handlers may
+ * turn into metric tags. The catalog lookups, event flows, and service calls of the
+ * operation are observed as its children, as described in
+ * {@link ServiceBrokerObservations}.
+ */
+public class ObservationServiceBrokerInstrumentation implements ServiceBrokerInstrumentation {
+
+	/**
+	 * The name of the observation of a service broker operation.
+	 */
+	public static final String REQUEST_OBSERVATION = "osb.request";
+
+	private static final String NONE = "none";
+
+	private final ObservationRegistry registry;
+
+	/**
+	 * Construct a new {@link ObservationServiceBrokerInstrumentation}.
+	 * @param registry the registry to record observations in
+	 */
+	public ObservationServiceBrokerInstrumentation(ObservationRegistry registry) {
+		Assert.notNull(registry, "registry must not be null");
+		this.registry = registry;
+	}
+
+	@Override
+	public boolean isObservingSteps() {
+		return true;
+	}
+
+	@Override
+	public <T> Mono<ResponseEntity<T>> instrument(ServiceBrokerOperationContext context,
+			Mono<ResponseEntity<T>> response) {
+		return Mono.deferContextual((contextView) -> {
+			Observation parent = contextView.getOrDefault(ServiceBrokerObservations.OBSERVATION_CONTEXT_KEY,
+					this.registry.getCurrentObservation());
+			Observation observation = Observation.createNotStarted(REQUEST_OBSERVATION, this.registry)
+				.contextualName("osb " + context.getOperation().getValue())
+				.lowCardinalityKeyValue("operation", context.getOperation().getValue())
+				.highCardinalityKeyValues(KeyValues.of("service_id", valueOrNone(context.getServiceDefinitionId()),
+						"plan_id", valueOrNone(context.getPlanId()), "platform_instance_id",
+						valueOrNone(context.getPlatformInstanceId()), "service_instance_id",
+						valueOrNone(context.getServiceInstanceId()), "binding_id", valueOrNone(context.getBindingId()),
+						"request_identity", valueOrNone(context.getRequestIdentity())))
+				.parentObservation(parent)
+				.start();
+			return response.doOnError(observation::error)
+				.doFinally((signal) -> observation.stop())
+				.contextWrite((reactorContext) -> reactorContext
+					.put(ServiceBrokerObservations.OBSERVATION_CONTEXT_KEY, observation)
+					.put(ServiceBrokerObservations.REGISTRY_CONTEXT_KEY, this.registry));
+		});
+	}
+
+	private static String valueOrNone(String value) {
+		return (value != null) ? value : NONE;
+	}
+
+}
@@ -0,0 +1,81 @@
+/*
+ * Copyright 2002-2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.servicebroker.observability;
+
+import java.util.List;
+
+import reactor.core.publisher.Mono;
+
+import org.springframework.http.ResponseEntity;
+
+/**
+ * Instruments the responses of the service broker controllers, for example to record
+ * metrics or traces.
+ */
+public interface ServiceBrokerInstrumentation {
+
+	/**
+	 * An instrumentation that returns the response unchanged.
+	 */
+	ServiceBrokerInstrumentation NONE = new ServiceBrokerInstrumentation() {
+
+		@Override
+		public <T> Mono<ResponseEntity<T>> instrument(ServiceBrokerOperationContext context,
+				Mono<ResponseEntity<T>> response) {
+			return response;
+		}
+
+	};
+
+	/**
+	 * Instrument the response of a service broker operation. The returned {@link Mono}
+	 * must emit the same result as the provided response.
+	 * @param context the operation
+	 * @param response the response of the controller
+	 * @param <T> the type of the response body
+	 * @return the instrumented response
+	 */
+	<T> Mono<ResponseEntity<T>> instrument(ServiceBrokerOperationContext context, Mono<ResponseEntity<T>> response);
+
+	/**
+	 * Indicate whether this instrumentation observes the steps of an operation, as
+	 * described in {@link ServiceBrokerObservations}. If not, the controllers, services,
+	 * and event flow registries do not wrap the steps for observation.
+	 * @return true if the steps of an operation are observed, false by default
+	 */
+	default boolean isObservingSteps() {
+		return false;
+	}
+
+	/**
+	 * Combine instrumentations. The first instrumentation observes the response as
+	 * instrumented by the ones that follow it.
+	 * @param instrumentations the instrumentations
+	 * @return an instrumentation that applies each of the provided instrumentations, or
+	 * {@link #NONE} if none are provided
+	 */
+	static ServiceBrokerInstrumentation of(List<ServiceBrokerInstrumentation> instrumentations) {
+		if (instrumentations.isEmpty()) {
+			return NONE;
+		}
+		if (instrumentations.size() == 1) {
+			return instrumentations.get(0);
+		}
+		return new CompositeServiceBrokerInstrumentation(instrumentations);
+	}
+
+}
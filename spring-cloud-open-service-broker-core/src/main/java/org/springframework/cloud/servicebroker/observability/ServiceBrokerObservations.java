@@ -0,0 +1,163 @@
+/*
+ * Copyright 2002-2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.servicebroker.observability;
+
+import java.util.function.Supplier;
+
+import io.micrometer.common.KeyValues;
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
+import reactor.core.publisher.Mono;
+
+import org.springframework.util.ClassUtils;
+
+/**
+ * Observes the steps of a service broker operation, such as resolving a service
+ * definition from the catalog, running an event flow, or calling a service, as children
+ * of the observation of the operation.
+ *
+ * <p>
+ * A step is only observed while the operation is observed by an
+ * {@link ObservationServiceBrokerInstrumentation}. Otherwise, and when Micrometer is not
+ * on the classpath, the step is invoked when the returned {@link Mono} is subscribed to,
+ * and the names of the step are not created. The framework only wraps a step for
+ * observation if an instrumentation that observes steps is configured, as described in
+ * {@link ServiceBrokerInstrumentation#isObservingSteps()}.
+ */
+public final class ServiceBrokerObservations {
+
+	/**
+	 * The name of the observation of a catalog lookup.
+	 */
+	public static final String CATALOG_OBSERVATION = "osb.catalog";
+
+	/**
+	 * The name of the observation of an event flow.
+	 */
+	public static final String FLOW_OBSERVATION = "osb.flow";
+
+	/**
+	 * The name of the observation of a service call.
+	 */
+	public static final String SERVICE_OBSERVATION = "osb.service";
+
+	/**
+	 * The Reactor context key of the current observation, the same key as used by
+	 * Micrometer's {@code ObservationThreadLocalAccessor}.
+	 */
+	static final String OBSERVATION_CONTEXT_KEY = "micrometer.observation";
+
+	/**
+	 * The Reactor context key of the registry of the operation being observed.
+	 */
+	static final String REGISTRY_CONTEXT_KEY = ServiceBrokerObservations.class.getName() + ".registry";
+
+	private static final boolean OBSERVATION_PRESENT = ClassUtils.isPresent("io.micrometer.observation.Observation",
+			ServiceBrokerObservations.class.getClassLoader());
+
+	private ServiceBrokerObservations() {
+	}
+
+	/**
+	 * Observe a lookup in the catalog.
+	 * @param method the name of the invoked catalog service method
+	 * @param lookup the lookup
+	 * @param <T> the type of the result
+	 * @return the result of the lookup
+	 */
+	public static <T> Mono<T> observeCatalog(String method, Supplier<Mono<T>> lookup) {
+		return observe(CATALOG_OBSERVATION, () -> new Step("catalog " + method, "method", method), lookup);
+	}
+
+	/**
+	 * Observe a call to a service instance or service instance binding service.
+	 * @param method the name of the invoked service method
+	 * @param call the call
+	 * @param <T> the type of the result
+	 * @return the result of the call
+	 */
+	public static <T> Mono<T> observeService(String method, Supplier<Mono<T>> call) {
+		return observe(SERVICE_OBSERVATION, () -> new Step("service " + method, "method", method), call);
+	}
+
+	/**
+	 * Observe the invocation of an event flow.
+	 * @param phase the phase of the operation the flow is registered for, such as
+	 * {@literal initialization}, {@literal completion}, or {@literal error}
+	 * @param flow the flow
+	 * @param invocation the invocation of the flow
+	 * @return the result of the invocation
+	 */
+	public static Mono<Void> observeFlow(String phase, Object flow, Supplier<Mono<Void>> invocation) {
+		return observe(FLOW_OBSERVATION, () -> {
+			String name = ClassUtils.getShortName(ClassUtils.getUserClass(flow));
+			return new Step(phase + " flow " + name, "phase", phase, "flow", name);
+		}, invocation);
+	}
+
+	private static <T> Mono<T> observe(String name, Supplier<Step> description, Supplier<Mono<T>> step) {
+		if (!OBSERVATION_PRESENT) {
+			return Mono.defer(step);
+		}
+		return ObservationSupport.observe(name, description, step);
+	}
+
+	/**
+	 * The contextual name and key values of an observed step, which are only created if
+	 * the step is observed.
+	 */
+	private static final class Step {
+
+		private final String contextualName;
+
+		private final String[] keyValues;
+
+		private Step(String contextualName, String... keyValues) {
+			this.contextualName = contextualName;
+			this.keyValues = keyValues;
+		}
+
+	}
+
+	/**
+	 * Isolates the use of Micrometer, so that it is only loaded when it is on the
+	 * classpath.
+	 */
+	private static final class ObservationSupport {
+
+		static <T> Mono<T> observe(String name, Supplier<Step> description, Supplier<Mono<T>> step) {
+			return Mono.deferContextual((contextView) -> {
+				ObservationRegistry registry = contextView.getOrDefault(REGISTRY_CONTEXT_KEY, null);
+				if (registry == null) {
+					return Mono.defer(step);
+				}
+				Step observed = description.get();
+				Observation observation = Observation.createNotStarted(name, registry)
+					.contextualName(observed.contextualName)
+					.lowCardinalityKeyValues(KeyValues.of(observed.keyValues))
+					.parentObservation(contextView.getOrDefault(OBSERVATION_CONTEXT_KEY, null))
+					.start();
+				return Mono.defer(step)
+					.doOnError(observation::error)
+					.doFinally((signal) -> observation.stop())
+					.contextWrite((context) -> context.put(OBSERVATION_CONTEXT_KEY, observation));
+			});
+		}
+
+	}
+
+}
@@ -0,0 +1,83 @@
+/*
+ * Copyright 2002-2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.servicebroker.observability;
+
+/**
+ * The service broker API operations that are instrumented.
+ */
+public enum ServiceBrokerOperation {
+
+	/**
+	 * Provision a service instance.
+	 */
+	PROVISION("provision"),
+
+	/**
+	 * Update a service instance.
+	 */
+	UPDATE("update"),
+
+	/**
+	 * Deprovision a service instance.
+	 */
+	DEPROVISION("deprovision"),
+
+	/**
+	 * Get a service instance.
+	 */
+	GET_INSTANCE("get_instance"),
+
+	/**
+	 * Get the last operation of a service instance.
+	 */
+	INSTANCE_LAST_OPERATION("instance_last_operation"),
+
+	/**
+	 * Create a service instance binding.
+	 */
+	BIND("bind"),
+
+	/**
+	 * Delete a service instance binding.
+	 */
+	UNBIND("unbind"),
+
+	/**
+	 * Get a service instance binding.
+	 */
+	GET_BINDING("get_binding"),
+
+	/**
+	 * Get the last operation of a service instance binding.
+	 */
+	BINDING_LAST_OPERATION("binding_last_operation");
+
+	private final String value;
+
+	ServiceBrokerOperation(String value) {
+		this.value = value;
+	}
+
+	/**
+	 * The name of the operation, as used in metric tags and trace names.
+	 * @return the name
+	 */
+	public String getValue() {
+		return this.value;
+	}
+
+}
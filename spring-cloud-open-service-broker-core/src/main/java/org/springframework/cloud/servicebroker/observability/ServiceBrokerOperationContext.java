@@ -0,0 +1,142 @@
+/*
+ * Copyright 2002-2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.servicebroker.observability;
+
+/**
+ * Describes a service broker operation that is being instrumented.
+ *
+ * @see ServiceBrokerInstrumentation
+ */
+public class ServiceBrokerOperationContext {
+
+	private final ServiceBrokerOperation operation;
+
+	private final String serviceDefinitionId;
+
+	private final String planId;
+
+	private final String platformInstanceId;
+
+	private final String serviceInstanceId;
+
+	private final String bindingId;
+
+	private final String requestIdentity;
+
+	private volatile boolean serviceDefinitionFound;
+
+	private volatile boolean planFound;
+
+	/**
+	 * Construct a new {@link ServiceBrokerOperationContext}.
+	 * @param operation the operation
+	 * @param serviceDefinitionId the service definition ID, if provided by the platform
+	 * @param planId the plan ID, if provided by the platform
+	 * @param platformInstanceId the platform instance ID, if provided by the platform
+	 * @param serviceInstanceId the service instance ID
+	 * @param bindingId the binding ID, for binding operations
+	 * @param requestIdentity the identity of the request, if provided by the platform
+	 */
+	public ServiceBrokerOperationContext(ServiceBrokerOperation operation, String serviceDefinitionId, String planId,
+			String platformInstanceId, String serviceInstanceId, String bindingId, String requestIdentity) {
+		this.operation = operation;
+		this.serviceDefinitionId = serviceDefinitionId;
+		this.planId = planId;
+		this.platformInstanceId = platformInstanceId;
+		this.serviceInstanceId = serviceInstanceId;
+		this.bindingId = bindingId;
+		this.requestIdentity = requestIdentity;
+	}
+
+	public ServiceBrokerOperation getOperation() {
+		return this.operation;
+	}
+
+	public String getServiceDefinitionId() {
+		return this.serviceDefinitionId;
+	}
+
+	public String getPlanId() {
+		return this.planId;
+	}
+
+	public String getPlatformInstanceId() {
+		return this.platformInstanceId;
+	}
+
+	public String getServiceInstanceId() {
+		return this.serviceInstanceId;
+	}
+
+	public String getBindingId() {
+		return this.bindingId;
+	}
+
+	public String getRequestIdentity() {
+		return this.requestIdentity;
+	}
+
+	/**
+	 * Set whether the service definition with the ID provided by the platform was found
+	 * in the catalog while the operation was processed.
+	 * @param serviceDefinitionFound true if the service definition was found
+	 */
+	public void setServiceDefinitionFound(boolean serviceDefinitionFound) {
+		this.serviceDefinitionFound = serviceDefinitionFound;
+	}
+
+	/**
+	 * Set whether the plan with the ID provided by the platform was found in the catalog
+	 * while the operation was processed.
+	 * @param planFound true if the plan was found
+	 */
+	public void setPlanFound(boolean planFound) {
+		this.planFound = planFound;
+	}
+
+	/**
+	 * Whether the service definition with the ID provided by the platform was found in
+	 * the catalog while the operation was processed.
+	 * @return true if the service definition was found
+	 */
+	public boolean isServiceDefinitionFound() {
+		return this.serviceDefinitionFound;
+	}
+
+	/**
+	 * Whether the plan with the ID provided by the platform was found in the catalog while
+	 * the operation was processed.
+	 * @return true if the plan was found
+	 */
+	public boolean isPlanFound() {
+		return this.planFound;
+	}
+
+	/**
+	 * Whether the service definition ID and plan ID that were provided by the platform
+	 * were found in the catalog. The IDs are only looked up by operations that need the
+	 * service definition or plan, and only once the operation has run, so this should be
+	 * read when the operation completes. The IDs of a request are not otherwise checked,
+	 * so they should only be used as metric tags when this is true.
+	 * @return true if the IDs that were provided are in the catalog
+	 */
+	public boolean isInCatalog() {
+		return (this.serviceDefinitionId == null || this.serviceDefinitionFound)
+				&& (this.planId == null || this.planFound);
+	}
+
+}
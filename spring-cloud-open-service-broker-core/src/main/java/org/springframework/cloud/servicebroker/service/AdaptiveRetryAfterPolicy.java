@@ -0,0 +1,124 @@
+/*
+ * Copyright 2002-2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.servicebroker.service;
+
+import java.time.Duration;
+
+import org.springframework.cloud.servicebroker.model.catalog.Plan;
+import org.springframework.util.Assert;
+
+/**
+ * Chooses how long the platform should wait before polling for the state of an
+ * asynchronous operation again, for the {@literal Retry-After} header of a response to a
+ * request for the last operation.
+ *
+ * <p>
+ * The interval grows with the age of the operation, so that short operations are polled
+ * often and long operations are polled rarely, and stays between a minimum and a maximum.
+ * If the plan declares a {@literal maximum_polling_duration}, the interval is also kept
+ * short enough for the platform to poll several times within that duration, and never
+ * extends past it.
+ *
+ * @see AsyncOperationTracker
+ */
+public class AdaptiveRetryAfterPolicy {
+
+	/**
+	 * The default shortest interval.
+	 */
+	public static final Duration DEFAULT_MINIMUM = Duration.ofSeconds(5);
+
+	/**
+	 * The default longest interval.
+	 */
+	public static final Duration DEFAULT_MAXIMUM = Duration.ofMinutes(5);
+
+	private static final Duration SHORTEST_INTERVAL = Duration.ofSeconds(1);
+
+	private static final int AGE_DIVISOR = 4;
+
+	private static final int POLLS_PER_MAXIMUM_POLLING_DURATION = 10;
+
+	private final Duration minimum;
+
+	private final Duration maximum;
+
+	/**
+	 * Construct a policy with the {@link #DEFAULT_MINIMUM default minimum} and
+	 * {@link #DEFAULT_MAXIMUM default maximum} intervals.
+	 */
+	public AdaptiveRetryAfterPolicy() {
+		this(DEFAULT_MINIMUM, DEFAULT_MAXIMUM);
+	}
+
+	/**
+	 * Construct a policy.
+	 * @param minimum the shortest interval
+	 * @param maximum the longest interval
+	 */
+	public AdaptiveRetryAfterPolicy(Duration minimum, Duration maximum) {
+		Assert.notNull(minimum, "minimum must not be null");
+		Assert.notNull(maximum, "maximum must not be null");
+		Assert.isTrue(!minimum.isNegative(), "minimum must not be negative");
+		Assert.isTrue(maximum.compareTo(minimum) >= 0, "maximum must not be less than minimum");
+		this.minimum = minimum;
+		this.maximum = maximum;
+	}
+
+	/**
+	 * Get the interval for an operation on a service instance or binding of a plan.
+	 * @param age how long ago the operation started
+	 * @param plan the plan, or {@literal null} if not known
+	 * @return the interval
+	 */
+	public Duration getRetryAfter(Duration age, Plan plan) {
+		return getRetryAfter(age, (plan != null) ? plan.getMaximumPollingDuration() : null);
+	}
+
+	/**
+	 * Get the interval for an operation.
+	 * @param age how long ago the operation started
+	 * @param maximumPollingDuration the maximum polling duration of the plan in seconds,
+	 * or {@literal null} if not declared
+	 * @return the interval
+	 */
+	public Duration getRetryAfter(Duration age, Integer maximumPollingDuration) {
+		Duration interval = clamp(age.dividedBy(AGE_DIVISOR), this.minimum, this.maximum);
+		if (maximumPollingDuration != null && maximumPollingDuration > 0) {
+			Duration deadline = Duration.ofSeconds(maximumPollingDuration);
+			interval = min(interval, max(deadline.dividedBy(POLLS_PER_MAXIMUM_POLLING_DURATION), SHORTEST_INTERVAL));
+			Duration remaining = deadline.minus(age);
+			if (remaining.compareTo(SHORTEST_INTERVAL) > 0) {
+				interval = min(interval, remaining);
+			}
+		}
+		return max(interval, SHORTEST_INTERVAL);
+	}
+
+	private static Duration clamp(Duration value, Duration minimum, Duration maximum) {
+		return min(max(value, minimum), maximum);
+	}
+
+	private static Duration min(Duration first, Duration second) {
+		return (first.compareTo(second) <= 0) ? first : second;
+	}
+
+	private static Duration max(Duration first, Duration second) {
+		return (first.compareTo(second) >= 0) ? first : second;
+	}
+
+}
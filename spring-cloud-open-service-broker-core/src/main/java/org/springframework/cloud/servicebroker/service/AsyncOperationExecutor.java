@@ -0,0 +1,506 @@
+/*
+ * Copyright 2002-2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.servicebroker.service;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.cloud.servicebroker.exception.ServiceBrokerUnavailableException;
+import org.springframework.cloud.servicebroker.model.catalog.Plan;
+import org.springframework.cloud.servicebroker.model.instance.CreateServiceInstanceRequest;
+import org.springframework.cloud.servicebroker.model.instance.DeleteServiceInstanceRequest;
+import org.springframework.cloud.servicebroker.model.instance.UpdateServiceInstanceRequest;
+import org.springframework.util.Assert;
+
+/**
+ * Runs the long-running work of asynchronous service instance operations and reports
+ * its outcome to an {@link AsyncOperationTracker}.
+ *
+ * <p>
+ * A {@link ServiceInstanceService} submits the work of an operation while handling the
+ * request to provision, update, or deprovision a service instance, and then returns an
+ * asynchronous response. When the work completes, the operation is reported as
+ * succeeded, with the value the work emitted, if any, as the description. When the work
+ * fails, the operation is reported as failed with the message of the error.
+ *
+ * <p>
+ * The number of operations that run at the same time is limited overall and for each
+ * plan. Operations that cannot run yet wait in a bounded queue, and a request whose
+ * operation cannot start while the queue is full is rejected with a
+ * {@link ServiceBrokerUnavailableException}, so that the platform tries again later.
+ * When a slot becomes free, it goes to the platform instance with the fewest running
+ * operations, and between those to the one that started an operation least recently,
+ * so that one platform cannot hold back the operations of another.
+ *
+ * <p>
+ * If the plan of an operation declares a {@link Plan#getMaximumPollingDuration()
+ * maximum polling duration}, the operation is reported as failed once that duration has
+ * passed since it was submitted, and its work is cancelled.
+ *
+ * <p>
+ * When the executor is destroyed, for example when the application context is closed,
+ * the work of running operations is cancelled, waiting operations are discarded, and
+ * later submissions are rejected. The outcome of these operations is not reported.
+ *
+ * @see AsyncOperationTracker
+ */
+public class AsyncOperationExecutor implements DisposableBean {
+
+	/**
+	 * The default maximum number of operations that run at the same time.
+	 */
+	public static final int DEFAULT_CONCURRENCY = 16;
+
+	/**
+	 * The default maximum number of operations for one plan that run at the same time.
+	 */
+	public static final int DEFAULT_PLAN_CONCURRENCY = 4;
+
+	/**
+	 * The default maximum number of operations that wait to run.
+	 */
+	public static final int DEFAULT_QUEUE_CAPACITY = 1000;
+
+	private final AsyncOperationTracker tracker;
+
+	private final int concurrency;
+
+	private final int planConcurrency;
+
+	private final int queueCapacity;
+
+	private final Scheduler scheduler;
+
+	private final Map<String, Integer> planConcurrencyLimits = new ConcurrentHashMap<>();
+
+	private final Map<String, Platform> platforms = new HashMap<>();
+
+	private final Map<String, Integer> runningByPlan = new HashMap<>();
+
+	private final Set<Operation> unfinished = new LinkedHashSet<>();
+
+	private boolean destroyed;
+
+	private long sequence;
+
+	private int waitingCount;
+
+	private int runningCount;
+
+	/**
+	 * Construct an executor with the default limits that runs operations on the bounded
+	 * elastic scheduler.
+	 * @param tracker the tracker to report the outcome of operations to
+	 */
+	public AsyncOperationExecutor(AsyncOperationTracker tracker) {
+		this(tracker, DEFAULT_CONCURRENCY, DEFAULT_PLAN_CONCURRENCY, DEFAULT_QUEUE_CAPACITY,
+				Schedulers.boundedElastic());
+	}
+
+	/**
+	 * Construct an executor.
+	 * @param tracker the tracker to report the outcome of operations to
+	 * @param concurrency the maximum number of operations that run at the same time
+	 * @param planConcurrency the maximum number of operations for one plan that run at
+	 * the same time, unless set for the plan with
+	 * {@link #setPlanConcurrency(String, int)}
+	 * @param queueCapacity the maximum number of operations that wait to run
+	 * @param scheduler the scheduler to run operations and enforce the maximum polling
+	 * duration on
+	 */
+	public AsyncOperationExecutor(AsyncOperationTracker tracker, int concurrency, int planConcurrency,
+			int queueCapacity, Scheduler scheduler) {
+		Assert.notNull(tracker, "tracker must not be null");
+		Assert.isTrue(concurrency > 0, "concurrency must be positive");
+		Assert.isTrue(planConcurrency > 0, "planConcurrency must be positive");
+		Assert.isTrue(queueCapacity >= 0, "queueCapacity must not be negative");
+		Assert.notNull(scheduler, "scheduler must not be null");
+		this.tracker = tracker;
+		this.concurrency = concurrency;
+		this.planConcurrency = planConcurrency;
+		this.queueCapacity = queueCapacity;
+		this.scheduler = scheduler;
+	}
+
+	/**
+	 * Set the maximum number of operations for a plan that run at the same time,
+	 * replacing the default for that plan.
+	 * @param planId the plan ID
+	 * @param concurrency the maximum number of operations
+	 */
+	public void setPlanConcurrency(String planId, int concurrency) {
+		Assert.notNull(planId, "planId must not be null");
+		Assert.isTrue(concurrency > 0, "concurrency must be positive");
+		this.planConcurrencyLimits.put(planId, concurrency);
+	}
+
+	/**
+	 * Submit the work of a request to provision a service instance.
+	 * @param request the request
+	 * @param work the work, which may emit a description of the outcome
+	 * @throws ServiceBrokerUnavailableException if too many operations are waiting to run
+	 */
+	public void submit(CreateServiceInstanceRequest request, Supplier<Mono<String>> work) {
+		submit(request.getServiceInstanceId(), request.getPlatformInstanceId(), request.getPlan(), work);
+	}
+
+	/**
+	 * Submit the work of a request to update a service instance.
+	 * @param request the request
+	 * @param work the work, which may emit a description of the outcome
+	 * @throws ServiceBrokerUnavailableException if too many operations are waiting to run
+	 */
+	public void submit(UpdateServiceInstanceRequest request, Supplier<Mono<String>> work) {
+		submit(request.getServiceInstanceId(), request.getPlatformInstanceId(), request.getPlan(), work);
+	}
+
+	/**
+	 * Submit the work of a request to deprovision a service instance.
+	 * @param request the request
+	 * @param work the work, which may emit a description of the outcome
+	 * @throws ServiceBrokerUnavailableException if too many operations are waiting to run
+	 */
+	public void submit(DeleteServiceInstanceRequest request, Supplier<Mono<String>> work) {
+		submit(request.getServiceInstanceId(), request.getPlatformInstanceId(), request.getPlan(), work);
+	}
+
+	/**
+	 * Submit the work of an operation on a service instance.
+	 * @param serviceInstanceId the service instance ID
+	 * @param platformInstanceId the platform instance ID, or {@literal null}
+	 * @param plan the plan of the service instance, or {@literal null}
+	 * @param work the work, which may emit a description of the outcome
+	 * @throws ServiceBrokerUnavailableException if too many operations are waiting to run,
+	 * or the executor has been destroyed
+	 */
+	public void submit(String serviceInstanceId, String platformInstanceId, Plan plan,
+			Supplier<Mono<String>> work) {
+		Assert.notNull(serviceInstanceId, "serviceInstanceId must not be null");
+		Assert.notNull(work, "work must not be null");
+		Operation operation = new Operation(serviceInstanceId, Objects.toString(platformInstanceId, ""),
+				(plan != null) ? plan.getId() : null, work);
+		List<Operation> started;
+		boolean rejected = false;
+		int waiting;
+		synchronized (this) {
+			if (this.destroyed) {
+				throw new ServiceBrokerUnavailableException("AsyncOperationExecutorDestroyed",
+						"The operation executor has been shut down");
+			}
+			Platform platform = this.platforms.computeIfAbsent(operation.platformInstanceId, (id) -> new Platform());
+			platform.waiting.add(operation);
+			this.waitingCount++;
+			started = takeRunnable();
+			if (!operation.running && this.waitingCount > this.queueCapacity) {
+				platform.waiting.remove(operation);
+				this.waitingCount--;
+				if (platform.running == 0 && platform.waiting.isEmpty()) {
+					this.platforms.remove(operation.platformInstanceId);
+				}
+				rejected = true;
+			}
+			else {
+				this.unfinished.add(operation);
+			}
+			waiting = this.waitingCount;
+		}
+		if (!rejected) {
+			scheduleDeadline(operation, (plan != null) ? plan.getMaximumPollingDuration() : null);
+		}
+		started.forEach(this::run);
+		if (rejected) {
+			throw new ServiceBrokerUnavailableException("AsyncOperationQueueFull",
+					waiting + " operations are waiting to run");
+		}
+	}
+
+	/**
+	 * The number of operations that are running.
+	 * @return the number of running operations
+	 */
+	public synchronized int getRunningCount() {
+		return this.runningCount;
+	}
+
+	/**
+	 * The number of operations that are waiting to run.
+	 * @return the number of waiting operations
+	 */
+	public synchronized int getWaitingCount() {
+		return this.waitingCount;
+	}
+
+	/**
+	 * Cancel the work of running operations, discard waiting operations, and reject later
+	 * submissions. The outcome of these operations is not reported.
+	 */
+	@Override
+	public void destroy() {
+		List<Disposable> disposables = new ArrayList<>();
+		synchronized (this) {
+			this.destroyed = true;
+			for (Operation operation : this.unfinished) {
+				operation.finished = true;
+				disposables.add(operation.deadline);
+				disposables.add(operation.subscription);
+			}
+			this.unfinished.clear();
+			this.platforms.clear();
+			this.runningByPlan.clear();
+			this.waitingCount = 0;
+			this.runningCount = 0;
+		}
+		disposables.forEach(AsyncOperationExecutor::dispose);
+	}
+
+	/**
+	 * Schedule the expiry of an operation once the maximum polling duration of its plan
+	 * has passed. The operation may already have been taken by another thread, so the
+	 * deadline is disposed if the operation finished before it was recorded.
+	 */
+	private void scheduleDeadline(Operation operation, Integer maximumPollingDuration) {
+		if (maximumPollingDuration == null) {
+			return;
+		}
+		Disposable deadline = this.scheduler.schedule(() -> expire(operation, maximumPollingDuration),
+				maximumPollingDuration, TimeUnit.SECONDS);
+		boolean finished;
+		synchronized (this) {
+			operation.deadline = deadline;
+			finished = operation.finished;
+		}
+		if (finished) {
+			deadline.dispose();
+		}
+	}
+
+	/**
+	 * Start as many waiting operations as the limits allow.
+	 */
+	private void dispatch() {
+		List<Operation> started;
+		synchronized (this) {
+			started = takeRunnable();
+		}
+		started.forEach(this::run);
+	}
+
+	/**
+	 * Take as many waiting operations as the limits allow. Must be called while holding
+	 * the lock.
+	 */
+	private List<Operation> takeRunnable() {
+		List<Operation> started = new ArrayList<>();
+		while (this.runningCount < this.concurrency) {
+			Operation operation = takeNext();
+			if (operation == null) {
+				break;
+			}
+			started.add(operation);
+		}
+		return started;
+	}
+
+	/**
+	 * Take the first operation that can run from the platform instance whose turn it is.
+	 */
+	private Operation takeNext() {
+		Platform next = null;
+		Operation candidate = null;
+		for (Platform platform : this.platforms.values()) {
+			if (next != null && !platform.precedes(next)) {
+				continue;
+			}
+			for (Operation operation : platform.waiting) {
+				if (canRun(operation)) {
+					next = platform;
+					candidate = operation;
+					break;
+				}
+			}
+		}
+		if (candidate == null) {
+			return null;
+		}
+		next.waiting.remove(candidate);
+		next.running++;
+		next.lastStarted = ++this.sequence;
+		this.waitingCount--;
+		this.runningCount++;
+		if (candidate.planId != null) {
+			this.runningByPlan.merge(candidate.planId, 1, Integer::sum);
+		}
+		candidate.running = true;
+		return candidate;
+	}
+
+	private boolean canRun(Operation operation) {
+		if (this.runningCount >= this.concurrency) {
+			return false;
+		}
+		if (operation.planId == null) {
+			return true;
+		}
+		int limit = this.planConcurrencyLimits.getOrDefault(operation.planId, this.planConcurrency);
+		return this.runningByPlan.getOrDefault(operation.planId, 0) < limit;
+	}
+
+	/**
+	 * Start the work of an operation, unless it has expired since it was taken. If it
+	 * expires while its work is being started, the work is cancelled.
+	 */
+	private void run(Operation operation) {
+		synchronized (this) {
+			if (operation.finished) {
+				return;
+			}
+		}
+		Disposable subscription = Mono.defer(operation.work)
+			.subscribeOn(this.scheduler)
+			.subscribe((description) -> operation.description = description,
+					(ex) -> finish(operation, false, ex.getMessage()),
+					() -> finish(operation, true, operation.description));
+		boolean finished;
+		synchronized (this) {
+			operation.subscription = subscription;
+			finished = operation.finished;
+		}
+		if (finished) {
+			subscription.dispose();
+		}
+	}
+
+	private static void dispose(Disposable disposable) {
+		if (disposable != null) {
+			disposable.dispose();
+		}
+	}
+
+	private void expire(Operation operation, int maximumPollingDuration) {
+		if (finish(operation, false, "Operation did not complete within " + maximumPollingDuration + " seconds")) {
+			Disposable subscription;
+			synchronized (this) {
+				subscription = operation.subscription;
+			}
+			if (subscription != null) {
+				subscription.dispose();
+			}
+		}
+	}
+
+	/**
+	 * Release the resources of an operation and report its outcome, unless it has already
+	 * finished.
+	 * @return whether the operation was finished by this call
+	 */
+	private boolean finish(Operation operation, boolean succeeded, String description) {
+		Disposable deadline;
+		synchronized (this) {
+			if (operation.finished) {
+				return false;
+			}
+			operation.finished = true;
+			this.unfinished.remove(operation);
+			deadline = operation.deadline;
+			Platform platform = this.platforms.get(operation.platformInstanceId);
+			if (operation.running) {
+				platform.running--;
+				this.runningCount--;
+				if (operation.planId != null) {
+					this.runningByPlan.computeIfPresent(operation.planId,
+							(id, count) -> (count > 1) ? count - 1 : null);
+				}
+			}
+			else if (platform.waiting.remove(operation)) {
+				this.waitingCount--;
+			}
+			if (platform.running == 0 && platform.waiting.isEmpty()) {
+				this.platforms.remove(operation.platformInstanceId);
+			}
+		}
+		dispose(deadline);
+		if (succeeded) {
+			this.tracker.reportSucceeded(operation.serviceInstanceId, description);
+		}
+		else {
+			this.tracker.reportFailed(operation.serviceInstanceId, description);
+		}
+		dispatch();
+		return true;
+	}
+
+	private static final class Platform {
+
+		private final ArrayDeque<Operation> waiting = new ArrayDeque<>();
+
+		private int running;
+
+		private long lastStarted;
+
+		boolean precedes(Platform other) {
+			return this.running < other.running
+					|| (this.running == other.running && this.lastStarted < other.lastStarted);
+		}
+
+	}
+
+	private static final class Operation {
+
+		private final String serviceInstanceId;
+
+		private final String platformInstanceId;
+
+		private final String planId;
+
+		private final Supplier<Mono<String>> work;
+
+		private boolean running;
+
+		private boolean finished;
+
+		private volatile String description;
+
+		private Disposable subscription;
+
+		private Disposable deadline;
+
+		private Operation(String serviceInstanceId, String platformInstanceId, String planId,
+				Supplier<Mono<String>> work) {
+			this.serviceInstanceId = serviceInstanceId;
+			this.platformInstanceId = platformInstanceId;
+			this.planId = planId;
+			this.work = work;
+		}
+
+	}
+
+}
@@ -0,0 +1,413 @@
+/*
+ * Copyright 2002-2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.servicebroker.service;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.springframework.cloud.servicebroker.model.instance.GetLastServiceOperationRequest;
+import org.springframework.cloud.servicebroker.model.instance.GetLastServiceOperationResponse;
+import org.springframework.cloud.servicebroker.model.instance.OperationState;
+import org.springframework.util.Assert;
+
+/**
+ * Records the asynchronous operations of service instances so that the platform's
+ * requests for the last operation can be answered without calling the
+ * {@link ServiceInstanceService}.
+ *
+ * <p>
+ * An operation is recorded when a {@link ServiceInstanceService} wrapped in a
+ * {@link TrackingServiceInstanceService} returns an asynchronous response to a request to
+ * provision, update, or deprovision a service instance. The service broker then reports
+ * the progress and the outcome of the operation by calling
+ * {@link #reportProgress(String, String)}, {@link #reportSucceeded(String, String)}, or
+ * {@link #reportFailed(String, String)}. Reports can be made as soon as the request
+ * reaches the {@link ServiceInstanceService}, before its response has been returned.
+ * While a request is processed, reports apply to the operation that the request may
+ * start, not to an earlier operation on the same service instance, and they are discarded
+ * if the request does not start an asynchronous operation.
+ *
+ * <p>
+ * Once an operation has succeeded or failed, further reports for it are ignored, and it
+ * is forgotten after the retention period. Operations that are in progress are kept
+ * until they are reported as finished, replaced by a later operation on the same
+ * service instance, or, if the plan has a maximum polling duration, that duration has
+ * passed. Forgotten operations are answered by the {@link ServiceInstanceService}.
+ *
+ * <p>
+ * An operation in progress that has not been reported on for longer than the
+ * {@link #setStaleAfter(Duration) staleness limit} is answered by the
+ * {@link ServiceInstanceService} as well, so that an operation whose reports stopped, for
+ * example because the work that made them was lost, is not reported as in progress
+ * forever. It stays tracked, and a later report makes the tracker answer it again.
+ *
+ * <p>
+ * The tracker holds its state in the memory of one process. Reports made in one
+ * application instance are not seen by another, so a service broker that runs more than
+ * one instance should continue to answer requests for the last operation in its
+ * {@link ServiceInstanceService}, which is called for the operations a tracker does not
+ * know.
+ *
+ * <p>
+ * At most a fixed number of service instances are tracked. When a new service instance
+ * would exceed that number, the service instance whose operation was least recently
+ * started, reported, or requested is forgotten.
+ *
+ * <p>
+ * Responses for operations that are in progress carry a
+ * {@link GetLastServiceOperationResponse#getRetryAfter() Retry-After} interval chosen by
+ * an {@link AdaptiveRetryAfterPolicy} from the age of the operation and the maximum
+ * polling duration of the plan.
+ *
+ * @see TrackingServiceInstanceService
+ */
+public class AsyncOperationTracker {
+
+	/**
+	 * The default time a finished operation is remembered.
+	 */
+	public static final Duration DEFAULT_RETENTION = Duration.ofHours(1);
+
+	private static final int DEFAULT_MAXIMUM_OPERATIONS = 10000;
+
+	private final TrackedOperations operations;
+
+	private final Duration retention;
+
+	private final Clock clock;
+
+	private volatile AdaptiveRetryAfterPolicy retryAfterPolicy = new AdaptiveRetryAfterPolicy();
+
+	private volatile Duration staleAfter;
+
+	/**
+	 * Construct a tracker that remembers finished operations for the
+	 * {@link #DEFAULT_RETENTION default retention period}.
+	 */
+	public AsyncOperationTracker() {
+		this(DEFAULT_RETENTION);
+	}
+
+	/**
+	 * Construct a tracker.
+	 * @param retention how long a finished operation is remembered
+	 */
+	public AsyncOperationTracker(Duration retention) {
+		this(retention, DEFAULT_MAXIMUM_OPERATIONS, Clock.systemUTC());
+	}
+
+	AsyncOperationTracker(Duration retention, int maximumOperations, Clock clock) {
+		Assert.notNull(retention, "retention must not be null");
+		Assert.isTrue(!retention.isNegative(), "retention must not be negative");
+		Assert.isTrue(maximumOperations > 0, "maximumOperations must be positive");
+		this.retention = retention;
+		this.operations = new TrackedOperations(maximumOperations);
+		this.clock = clock;
+	}
+
+	/**
+	 * Set the policy that chooses the {@literal Retry-After} interval of responses for
+	 * operations that are in progress.
+	 * @param retryAfterPolicy the policy, or {@literal null} to not provide an interval
+	 */
+	public void setRetryAfterPolicy(AdaptiveRetryAfterPolicy retryAfterPolicy) {
+		this.retryAfterPolicy = retryAfterPolicy;
+	}
+
+	/**
+	 * Get the policy that chooses the {@literal Retry-After} interval of responses for
+	 * operations that are in progress.
+	 * @return the policy, or {@literal null} if no interval is provided
+	 */
+	public AdaptiveRetryAfterPolicy getRetryAfterPolicy() {
+		return this.retryAfterPolicy;
+	}
+
+	/**
+	 * Set how long an operation in progress is answered by the tracker after it was
+	 * started or last reported on. Once that time has passed, requests for the last
+	 * operation are passed to the {@link ServiceInstanceService} until the operation is
+	 * reported on again.
+	 * @param staleAfter the staleness limit, or {@literal null} to answer operations in
+	 * progress until they expire
+	 */
+	public void setStaleAfter(Duration staleAfter) {
+		Assert.isTrue(staleAfter == null || (!staleAfter.isNegative() && !staleAfter.isZero()),
+				"staleAfter must be positive");
+		this.staleAfter = staleAfter;
+	}
+
+	/**
+	 * Get how long an operation in progress is answered by the tracker after it was
+	 * started or last reported on.
+	 * @return the staleness limit, or {@literal null} if there is none
+	 */
+	public Duration getStaleAfter() {
+		return this.staleAfter;
+	}
+
+	/**
+	 * Report that the current operation on a service instance is still in progress.
+	 * @param serviceInstanceId the service instance ID
+	 * @param description a description of the progress of the operation, or
+	 * {@literal null}
+	 * @return {@literal true} if the report was applied, {@literal false} if there is no
+	 * operation in progress for the service instance
+	 */
+	public boolean reportProgress(String serviceInstanceId, String description) {
+		return report(serviceInstanceId, OperationState.IN_PROGRESS, description);
+	}
+
+	/**
+	 * Report that the current operation on a service instance has succeeded.
+	 * @param serviceInstanceId the service instance ID
+	 * @param description a description of the outcome of the operation, or
+	 * {@literal null}
+	 * @return {@literal true} if the report was applied, {@literal false} if there is no
+	 * operation in progress for the service instance
+	 */
+	public boolean reportSucceeded(String serviceInstanceId, String description) {
+		return report(serviceInstanceId, OperationState.SUCCEEDED, description);
+	}
+
+	/**
+	 * Report that the current operation on a service instance has failed.
+	 * @param serviceInstanceId the service instance ID
+	 * @param description a description of the failure, or {@literal null}
+	 * @return {@literal true} if the report was applied, {@literal false} if there is no
+	 * operation in progress for the service instance
+	 */
+	public boolean reportFailed(String serviceInstanceId, String description) {
+		return report(serviceInstanceId, OperationState.FAILED, description);
+	}
+
+	/**
+	 * Get the state of the operation that a request for the last operation refers to.
+	 * @param request the request for the last operation
+	 * @return the state of the operation, or {@literal null} if the operation is not
+	 * tracked or is in progress and stale
+	 */
+	public GetLastServiceOperationResponse getLastOperation(GetLastServiceOperationRequest request) {
+		Instant now = this.clock.instant();
+		TrackedOperation operation;
+		synchronized (this.operations) {
+			TrackedInstance instance = this.operations.get(request.getServiceInstanceId());
+			operation = (instance != null) ? instance.current : null;
+			if (operation != null && operation.isExpired(now, this.retention)) {
+				instance.current = null;
+				if (instance.pending == null) {
+					this.operations.remove(request.getServiceInstanceId());
+				}
+				return null;
+			}
+		}
+		if (operation == null) {
+			return null;
+		}
+		if (request.getOperation() != null && operation.operation != null
+				&& !request.getOperation().equals(operation.operation)) {
+			return null;
+		}
+		if (operation.isStale(now, this.staleAfter)) {
+			return null;
+		}
+		AdaptiveRetryAfterPolicy policy = this.retryAfterPolicy;
+		Duration retryAfter = null;
+		if (policy != null && !operation.isFinished()) {
+			Duration age = Duration.between(operation.startedAt, now);
+			retryAfter = policy.getRetryAfter(age, operation.maximumPollingDuration);
+		}
+		return GetLastServiceOperationResponse.builder()
+			.operationState(operation.state)
+			.description(operation.description)
+			.deleteOperation(operation.deleteOperation)
+			.retryAfter(retryAfter)
+			.build();
+	}
+
+	/**
+	 * Prepare for a request to provision, update, or deprovision a service instance, so
+	 * that reports made while the request is processed are kept for the operation it may
+	 * start. An earlier operation stays in place until the new operation is recorded.
+	 * @param serviceInstanceId the service instance ID
+	 */
+	void begin(String serviceInstanceId) {
+		Instant now = this.clock.instant();
+		TrackedOperation pending = new TrackedOperation(null, false, null, OperationState.IN_PROGRESS, null, now, now);
+		synchronized (this.operations) {
+			this.operations.computeIfAbsent(serviceInstanceId, (id) -> new TrackedInstance()).pending = pending;
+		}
+	}
+
+	/**
+	 * Record that an asynchronous operation on a service instance has started, replacing
+	 * any previous operation on the same service instance. Reports made while the request
+	 * was processed are applied to the operation.
+	 * @param serviceInstanceId the service instance ID
+	 * @param operation the operation value returned to the platform, or {@literal null}
+	 * @param deleteOperation whether the operation deprovisions the service instance
+	 * @param maximumPollingDuration the maximum polling duration of the plan in seconds,
+	 * or {@literal null}
+	 */
+	void start(String serviceInstanceId, String operation, boolean deleteOperation, Integer maximumPollingDuration) {
+		Instant now = this.clock.instant();
+		synchronized (this.operations) {
+			TrackedInstance instance = this.operations.computeIfAbsent(serviceInstanceId,
+					(id) -> new TrackedInstance());
+			TrackedOperation pending = instance.pending;
+			instance.pending = null;
+			instance.current = (pending != null)
+					? new TrackedOperation(operation, deleteOperation, maximumPollingDuration, pending.state,
+							pending.description, pending.startedAt, pending.updated)
+					: new TrackedOperation(operation, deleteOperation, maximumPollingDuration,
+							OperationState.IN_PROGRESS, null, now, now);
+		}
+	}
+
+	/**
+	 * Forget the reports made while a request was processed, if the request did not
+	 * start an asynchronous operation.
+	 * @param serviceInstanceId the service instance ID
+	 */
+	void end(String serviceInstanceId) {
+		synchronized (this.operations) {
+			TrackedInstance instance = this.operations.get(serviceInstanceId);
+			if (instance != null) {
+				instance.pending = null;
+				if (instance.current == null) {
+					this.operations.remove(serviceInstanceId);
+				}
+			}
+		}
+	}
+
+	private boolean report(String serviceInstanceId, OperationState state, String description) {
+		Assert.notNull(serviceInstanceId, "serviceInstanceId must not be null");
+		Instant now = this.clock.instant();
+		synchronized (this.operations) {
+			TrackedInstance instance = this.operations.get(serviceInstanceId);
+			if (instance == null) {
+				return false;
+			}
+			TrackedOperation existing = (instance.pending != null) ? instance.pending : instance.current;
+			if (existing == null || existing.isFinished()) {
+				return false;
+			}
+			TrackedOperation reported = new TrackedOperation(existing.operation, existing.deleteOperation,
+					existing.maximumPollingDuration, state, description, existing.startedAt, now);
+			if (instance.pending != null) {
+				instance.pending = reported;
+			}
+			else {
+				instance.current = reported;
+			}
+			return true;
+		}
+	}
+
+	/**
+	 * Tracked operations by service instance ID in least recently used order, limited to
+	 * a maximum size. Access must be synchronized on the map.
+	 */
+	private static final class TrackedOperations extends LinkedHashMap<String, TrackedInstance> {
+
+		private static final long serialVersionUID = 1L;
+
+		private final int maximumSize;
+
+		private TrackedOperations(int maximumSize) {
+			super(16, 0.75f, true);
+			this.maximumSize = maximumSize;
+		}
+
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<String, TrackedInstance> eldest) {
+			return size() > this.maximumSize;
+		}
+
+	}
+
+	/**
+	 * The operation that was last started on a service instance, and the reports made
+	 * while a request for a new operation is processed.
+	 */
+	private static final class TrackedInstance {
+
+		private TrackedOperation current;
+
+		private TrackedOperation pending;
+
+	}
+
+	private static final class TrackedOperation {
+
+		private final String operation;
+
+		private final boolean deleteOperation;
+
+		private final Integer maximumPollingDuration;
+
+		private final OperationState state;
+
+		private final String description;
+
+		private final Instant startedAt;
+
+		private final Instant updated;
+
+		private TrackedOperation(String operation, boolean deleteOperation, Integer maximumPollingDuration,
+				OperationState state, String description, Instant startedAt, Instant updated) {
+			this.operation = operation;
+			this.deleteOperation = deleteOperation;
+			this.maximumPollingDuration = maximumPollingDuration;
+			this.state = state;
+			this.description = description;
+			this.startedAt = startedAt;
+			this.updated = updated;
+		}
+
+		boolean isFinished() {
+			return this.state != OperationState.IN_PROGRESS;
+		}
+
+		/**
+		 * Whether the operation should be forgotten: a finished operation once the
+		 * retention period has passed, and an operation in progress once the maximum
+		 * polling duration of the plan has passed.
+		 */
+		boolean isExpired(Instant now, Duration retention) {
+			if (isFinished()) {
+				return !now.isBefore(this.updated.plus(retention));
+			}
+			return this.maximumPollingDuration != null
+					&& !now.isBefore(this.startedAt.plusSeconds(this.maximumPollingDuration));
+		}
+
+		/**
+		 * Whether the operation is in progress and has not been reported on within the
+		 * staleness limit.
+		 */
+		boolean isStale(Instant now, Duration staleAfter) {
+			return staleAfter != null && !isFinished() && !now.isBefore(this.updated.plus(staleAfter));
+		}
+
+	}
+
+}
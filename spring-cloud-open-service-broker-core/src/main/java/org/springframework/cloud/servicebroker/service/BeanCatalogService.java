@@ -16,9 +16,6 @@
 
 package org.springframework.cloud.servicebroker.service;
 
-import java.util.HashMap;
-import java.util.Map;
-
 import reactor.core.publisher.Mono;
 
 import org.springframework.cloud.servicebroker.model.catalog.Catalog;
@@ -33,31 +30,29 @@ import org.springframework.cloud.servicebroker.model.catalog.ServiceDefinition;
  */
 public class BeanCatalogService implements CatalogService {
 
-	private final Catalog catalog;
-
-	private final Map<String, ServiceDefinition> serviceDefs = new HashMap<>();
+	private final CatalogSnapshot snapshot;
 
 	/**
 	 * Construct a service with the provided {@link Catalog bean}.
 	 * @param catalog the {@link Catalog} bean
 	 */
 	public BeanCatalogService(Catalog catalog) {
-		this.catalog = catalog;
-		initializeMap();
-	}
-
-	private void initializeMap() {
-		this.catalog.getServiceDefinitions().forEach((def) -> this.serviceDefs.put(def.getId(), def));
+		this.snapshot = new CatalogSnapshot(catalog);
 	}
 
 	@Override
 	public Mono<Catalog> getCatalog() {
-		return Mono.just(this.catalog);
+		return this.snapshot.getCatalogMono();
 	}
 
 	@Override
 	public Mono<ServiceDefinition> getServiceDefinition(final String serviceId) {
-		return Mono.justOrEmpty(this.serviceDefs.get(serviceId));
+		return this.snapshot.getServiceDefinition(serviceId);
+	}
+
+	@Override
+	public boolean isStaticCatalog() {
+		return true;
 	}
 
 }
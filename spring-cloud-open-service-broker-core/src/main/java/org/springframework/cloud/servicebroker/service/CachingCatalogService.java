@@ -0,0 +1,287 @@
+/*
+ * Copyright 2002-2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.servicebroker.service;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import org.springframework.cloud.servicebroker.model.catalog.Catalog;
+import org.springframework.cloud.servicebroker.model.catalog.ServiceDefinition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.util.Assert;
+
+/**
+ * A {@link CatalogService} that caches the results of another {@link CatalogService}.
+ * Intended for service brokers whose catalog is read from a remote service or a
+ * database, where every service broker request would otherwise look up the service
+ * definition from the source.
+ *
+ * <p>
+ * The catalog and each service definition are cached for a time-to-live. After it
+ * expires, the stale value continues to be returned for the stale-while-revalidate period
+ * while a single refresh is performed in the background. Once that period has also
+ * passed, callers wait for the refresh. Concurrent loads of the same value are coalesced,
+ * so the delegate sees at most one request per value at a time. A service definition ID
+ * the delegate does not know is cached as absent for the negative time-to-live. Once the
+ * maximum number of service definitions is cached, the least recently used one is
+ * discarded.
+ *
+ * <p>
+ * If a refresh fails, the error is returned to the callers waiting for it, and the
+ * previous value, if still within its stale-while-revalidate period, continues to be
+ * served.
+ */
+public class CachingCatalogService implements CatalogService {
+
+	private static final Logger LOG = LoggerFactory.getLogger(CachingCatalogService.class);
+
+	private static final int DEFAULT_MAXIMUM_SERVICE_DEFINITIONS = 1000;
+
+	private final CatalogService delegate;
+
+	private final Duration timeToLive;
+
+	private final Duration staleWhileRevalidate;
+
+	private final Duration negativeTimeToLive;
+
+	private final Clock clock;
+
+	private final CachedValue<Catalog> catalog;
+
+	private final ServiceDefinitionCache serviceDefinitions;
+
+	/**
+	 * Construct a service that caches values for the provided time-to-live, without a
+	 * stale-while-revalidate period. Unknown service definition IDs are cached for the
+	 * same time-to-live.
+	 * @param delegate the service to cache
+	 * @param timeToLive how long a loaded value is returned without a refresh
+	 */
+	public CachingCatalogService(CatalogService delegate, Duration timeToLive) {
+		this(delegate, timeToLive, Duration.ZERO, timeToLive);
+	}
+
+	/**
+	 * Construct a service.
+	 * @param delegate the service to cache
+	 * @param timeToLive how long a loaded value is returned without a refresh
+	 * @param staleWhileRevalidate how long after the time-to-live a stale value is still
+	 * returned while it is refreshed in the background
+	 * @param negativeTimeToLive how long an unknown service definition ID is remembered
+	 */
+	public CachingCatalogService(CatalogService delegate, Duration timeToLive, Duration staleWhileRevalidate,
+			Duration negativeTimeToLive) {
+		this(delegate, timeToLive, staleWhileRevalidate, negativeTimeToLive, DEFAULT_MAXIMUM_SERVICE_DEFINITIONS,
+				Clock.systemUTC());
+	}
+
+	CachingCatalogService(CatalogService delegate, Duration timeToLive, Duration staleWhileRevalidate,
+			Duration negativeTimeToLive, int maximumServiceDefinitions, Clock clock) {
+		Assert.notNull(delegate, "delegate CatalogService must not be null");
+		Assert.isTrue(!timeToLive.isNegative(), "timeToLive must not be negative");
+		Assert.isTrue(!staleWhileRevalidate.isNegative(), "staleWhileRevalidate must not be negative");
+		Assert.isTrue(!negativeTimeToLive.isNegative(), "negativeTimeToLive must not be negative");
+		Assert.isTrue(maximumServiceDefinitions > 0, "maximumServiceDefinitions must be positive");
+		this.delegate = delegate;
+		this.timeToLive = timeToLive;
+		this.staleWhileRevalidate = staleWhileRevalidate;
+		this.negativeTimeToLive = negativeTimeToLive;
+		this.serviceDefinitions = new ServiceDefinitionCache(maximumServiceDefinitions);
+		this.clock = clock;
+		this.catalog = new CachedValue<>(delegate::getCatalog);
+	}
+
+	@Override
+	public Mono<Catalog> getCatalog() {
+		return this.catalog.get();
+	}
+
+	@Override
+	public Mono<ServiceDefinition> getServiceDefinition(String serviceId) {
+		return Mono.defer(() -> getCachedServiceDefinition(serviceId).get());
+	}
+
+	@Override
+	public Mono<ResponseEntity<Catalog>> getResponseEntityCatalog(HttpHeaders httpHeaders) {
+		return this.delegate.getResponseEntityCatalog(httpHeaders);
+	}
+
+	@Override
+	public boolean isStaticCatalog() {
+		return this.delegate.isStaticCatalog();
+	}
+
+	/**
+	 * Discard all cached values. The next request for each value loads it from the
+	 * delegate.
+	 */
+	public void invalidate() {
+		this.catalog.invalidate();
+		synchronized (this.serviceDefinitions) {
+			this.serviceDefinitions.clear();
+		}
+	}
+
+	private CachedValue<ServiceDefinition> getCachedServiceDefinition(String serviceId) {
+		synchronized (this.serviceDefinitions) {
+			return this.serviceDefinitions.computeIfAbsent(serviceId,
+					(id) -> new CachedValue<>(() -> this.delegate.getServiceDefinition(id)));
+		}
+	}
+
+	/**
+	 * A single cached value and the load that is currently refreshing it, if any. A load
+	 * that started before the value was invalidated is returned to its callers but not
+	 * cached.
+	 *
+	 * @param <T> the type of the value
+	 */
+	private final class CachedValue<T> {
+
+		private final Supplier<Mono<T>> loader;
+
+		private final AtomicReference<Sinks.One<Entry<T>>> inFlight = new AtomicReference<>();
+
+		private final AtomicInteger generation = new AtomicInteger();
+
+		private volatile Entry<T> entry;
+
+		private CachedValue(Supplier<Mono<T>> loader) {
+			this.loader = loader;
+		}
+
+		Mono<T> get() {
+			return Mono.defer(() -> {
+				Entry<T> current = this.entry;
+				if (current != null) {
+					Instant now = CachingCatalogService.this.clock.instant();
+					if (now.isBefore(current.freshUntil)) {
+						return current.value;
+					}
+					if (now.isBefore(current.staleUntil)) {
+						load().subscribe(null, (ex) -> LOG.warn("Error refreshing cached catalog value", ex));
+						return current.value;
+					}
+				}
+				return load().flatMap(Entry::getValue);
+			});
+		}
+
+		synchronized void invalidate() {
+			this.generation.incrementAndGet();
+			this.entry = null;
+			this.inFlight.set(null);
+		}
+
+		private Mono<Entry<T>> load() {
+			int loadGeneration = this.generation.get();
+			Sinks.One<Entry<T>> sink = Sinks.one();
+			Sinks.One<Entry<T>> existing = this.inFlight.compareAndExchange(null, sink);
+			if (existing != null) {
+				return existing.asMono();
+			}
+			Mono.defer(this.loader)
+				.map(this::present)
+				.switchIfEmpty(Mono.fromSupplier(this::absent))
+				.subscribe((loaded) -> {
+					store(loadGeneration, loaded);
+					this.inFlight.compareAndSet(sink, null);
+					sink.tryEmitValue(loaded);
+				}, (ex) -> {
+					this.inFlight.compareAndSet(sink, null);
+					sink.tryEmitError(ex);
+				});
+			return sink.asMono();
+		}
+
+		private synchronized void store(int loadGeneration, Entry<T> loaded) {
+			if (this.generation.get() == loadGeneration) {
+				this.entry = loaded;
+			}
+		}
+
+		private Entry<T> present(T value) {
+			Instant freshUntil = CachingCatalogService.this.clock.instant()
+				.plus(CachingCatalogService.this.timeToLive);
+			return new Entry<>(Mono.just(value), freshUntil,
+					freshUntil.plus(CachingCatalogService.this.staleWhileRevalidate));
+		}
+
+		private Entry<T> absent() {
+			Instant freshUntil = CachingCatalogService.this.clock.instant()
+				.plus(CachingCatalogService.this.negativeTimeToLive);
+			return new Entry<>(Mono.empty(), freshUntil, freshUntil);
+		}
+
+	}
+
+	/**
+	 * Service definitions in least recently used order, limited to a maximum size. Access
+	 * must be synchronized on the map.
+	 */
+	private static final class ServiceDefinitionCache extends LinkedHashMap<String, CachedValue<ServiceDefinition>> {
+
+		private static final long serialVersionUID = 1L;
+
+		private final int maximumSize;
+
+		private ServiceDefinitionCache(int maximumSize) {
+			super(16, 0.75f, true);
+			this.maximumSize = maximumSize;
+		}
+
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<String, CachedValue<ServiceDefinition>> eldest) {
+			return size() > this.maximumSize;
+		}
+
+	}
+
+	private static final class Entry<T> {
+
+		private final Mono<T> value;
+
+		private final Instant freshUntil;
+
+		private final Instant staleUntil;
+
+		private Entry(Mono<T> value, Instant freshUntil, Instant staleUntil) {
+			this.value = value;
+			this.freshUntil = freshUntil;
+			this.staleUntil = staleUntil;
+		}
+
+		Mono<T> getValue() {
+			return this.value;
+		}
+
+	}
+
+}
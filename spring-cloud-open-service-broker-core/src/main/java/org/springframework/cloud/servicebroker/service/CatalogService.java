@@ -58,4 +58,15 @@ public interface CatalogService {
 		return Mono.empty();
 	}
 
+	/**
+	 * Indicate whether the catalog returned by {@link #getCatalog()} never changes during
+	 * the lifetime of this service. The {@link CatalogController} serializes a static
+	 * catalog once and serves it with an ETag. Decorating services should delegate to the
+	 * service they decorate.
+	 * @return true if the catalog is static, false by default
+	 */
+	default boolean isStaticCatalog() {
+		return false;
+	}
+
 }
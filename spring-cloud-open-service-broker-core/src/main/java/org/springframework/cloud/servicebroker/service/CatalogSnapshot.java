@@ -0,0 +1,59 @@
+/*
+ * Copyright 2002-2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.servicebroker.service;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import reactor.core.publisher.Mono;
+
+import org.springframework.cloud.servicebroker.model.catalog.Catalog;
+import org.springframework.cloud.servicebroker.model.catalog.ServiceDefinition;
+
+/**
+ * An immutable view of a {@link Catalog} with service definitions indexed by ID. All
+ * lookups return pre-built {@link Mono} instances, so reading from a snapshot neither
+ * locks nor allocates. The plans of each service definition are looked up with
+ * {@link ServiceDefinition#getPlan(String)}, which indexes them on first use.
+ */
+final class CatalogSnapshot {
+
+	private final Catalog catalog;
+
+	private final Mono<Catalog> catalogMono;
+
+	private final Map<String, Mono<ServiceDefinition>> serviceDefs = new HashMap<>();
+
+	CatalogSnapshot(Catalog catalog) {
+		this.catalog = catalog;
+		this.catalogMono = Mono.just(catalog);
+		catalog.getServiceDefinitions().forEach((def) -> this.serviceDefs.put(def.getId(), Mono.just(def)));
+	}
+
+	Catalog getCatalog() {
+		return this.catalog;
+	}
+
+	Mono<Catalog> getCatalogMono() {
+		return this.catalogMono;
+	}
+
+	Mono<ServiceDefinition> getServiceDefinition(String serviceId) {
+		return this.serviceDefs.getOrDefault(serviceId, Mono.empty());
+	}
+
+}
@@ -0,0 +1,143 @@
+/*
+ * Copyright 2002-2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.servicebroker.service;
+
+import java.time.Clock;
+import java.time.Duration;
+
+import reactor.core.publisher.Mono;
+
+import org.springframework.cloud.servicebroker.model.binding.CreateServiceInstanceBindingRequest;
+import org.springframework.cloud.servicebroker.model.binding.CreateServiceInstanceBindingResponse;
+import org.springframework.cloud.servicebroker.model.binding.DeleteServiceInstanceBindingRequest;
+import org.springframework.cloud.servicebroker.model.binding.DeleteServiceInstanceBindingResponse;
+import org.springframework.cloud.servicebroker.model.binding.GetLastServiceBindingOperationRequest;
+import org.springframework.cloud.servicebroker.model.binding.GetLastServiceBindingOperationResponse;
+import org.springframework.cloud.servicebroker.model.binding.GetServiceInstanceBindingRequest;
+import org.springframework.cloud.servicebroker.model.binding.GetServiceInstanceBindingResponse;
+import org.springframework.cloud.servicebroker.model.instance.OperationState;
+import org.springframework.util.Assert;
+
+/**
+ * Internal implementation of {@link ServiceInstanceBindingService} that shares one call
+ * to the wrapped service among concurrent requests for the last operation of the same
+ * service instance binding. Requests are considered the same when they have the same
+ * platform instance ID, service instance ID, binding ID, service definition ID, plan ID,
+ * and operation.
+ *
+ * <p>
+ * A response with a state of {@link OperationState#SUCCEEDED} or
+ * {@link OperationState#FAILED} can also be reused for identical requests for a
+ * time-to-live, since the state of a finished operation does not change. Reused
+ * responses for a binding are discarded when a request to create or delete it is
+ * received.
+ *
+ * @see CoalescingServiceInstanceService
+ */
+public class CoalescingServiceInstanceBindingService implements ServiceInstanceBindingService {
+
+	private final ServiceInstanceBindingService service;
+
+	private final SingleFlight<LastOperationKey, GetLastServiceBindingOperationResponse> lastOperations;
+
+	/**
+	 * Construct a new {@link CoalescingServiceInstanceBindingService} that does not reuse
+	 * responses.
+	 * @param serviceInstanceBindingService the service instance binding service
+	 */
+	public CoalescingServiceInstanceBindingService(ServiceInstanceBindingService serviceInstanceBindingService) {
+		this(serviceInstanceBindingService, Duration.ZERO);
+	}
+
+	/**
+	 * Construct a new {@link CoalescingServiceInstanceBindingService}.
+	 * @param serviceInstanceBindingService the service instance binding service
+	 * @param finishedOperationTimeToLive how long a response for a finished operation is
+	 * reused, or zero to not reuse responses
+	 */
+	public CoalescingServiceInstanceBindingService(ServiceInstanceBindingService serviceInstanceBindingService,
+			Duration finishedOperationTimeToLive) {
+		this(serviceInstanceBindingService, finishedOperationTimeToLive, SingleFlight.DEFAULT_TIMEOUT);
+	}
+
+	/**
+	 * Construct a new {@link CoalescingServiceInstanceBindingService}.
+	 * @param serviceInstanceBindingService the service instance binding service
+	 * @param finishedOperationTimeToLive how long a response for a finished operation is
+	 * reused, or zero to not reuse responses
+	 * @param callTimeout how long a shared call to the wrapped service may take before it
+	 * fails, or zero to not time out calls
+	 */
+	public CoalescingServiceInstanceBindingService(ServiceInstanceBindingService serviceInstanceBindingService,
+			Duration finishedOperationTimeToLive, Duration callTimeout) {
+		this(serviceInstanceBindingService, finishedOperationTimeToLive, callTimeout, Clock.systemUTC());
+	}
+
+	CoalescingServiceInstanceBindingService(ServiceInstanceBindingService serviceInstanceBindingService,
+			Duration finishedOperationTimeToLive, Clock clock) {
+		this(serviceInstanceBindingService, finishedOperationTimeToLive, SingleFlight.DEFAULT_TIMEOUT, clock);
+	}
+
+	CoalescingServiceInstanceBindingService(ServiceInstanceBindingService serviceInstanceBindingService,
+			Duration finishedOperationTimeToLive, Duration callTimeout, Clock clock) {
+		Assert.notNull(finishedOperationTimeToLive, "finishedOperationTimeToLive must not be null");
+		Assert.isTrue(!finishedOperationTimeToLive.isNegative(), "finishedOperationTimeToLive must not be negative");
+		Assert.notNull(callTimeout, "callTimeout must not be null");
+		Assert.isTrue(!callTimeout.isNegative(), "callTimeout must not be negative");
+		this.service = serviceInstanceBindingService;
+		this.lastOperations = new SingleFlight<>(LastOperationKey::getServiceInstanceId,
+				(response) -> response.getState() == OperationState.SUCCEEDED
+						|| response.getState() == OperationState.FAILED,
+				finishedOperationTimeToLive, callTimeout, clock);
+	}
+
+	@Override
+	public Mono<CreateServiceInstanceBindingResponse> createServiceInstanceBinding(
+			CreateServiceInstanceBindingRequest request) {
+		return Mono.defer(() -> {
+			forget(request.getServiceInstanceId(), request.getBindingId());
+			return this.service.createServiceInstanceBinding(request);
+		});
+	}
+
+	@Override
+	public Mono<GetServiceInstanceBindingResponse> getServiceInstanceBinding(GetServiceInstanceBindingRequest request) {
+		return this.service.getServiceInstanceBinding(request);
+	}
+
+	@Override
+	public Mono<GetLastServiceBindingOperationResponse> getLastOperation(
+			GetLastServiceBindingOperationRequest request) {
+		LastOperationKey key = new LastOperationKey(request.getPlatformInstanceId(), request.getServiceInstanceId(),
+				request.getBindingId(), request.getServiceDefinitionId(), request.getPlanId(), request.getOperation());
+		return this.lastOperations.execute(key, () -> this.service.getLastOperation(request));
+	}
+
+	@Override
+	public Mono<DeleteServiceInstanceBindingResponse> deleteServiceInstanceBinding(
+			DeleteServiceInstanceBindingRequest request) {
+		return Mono.defer(() -> {
+			forget(request.getServiceInstanceId(), request.getBindingId());
+			return this.service.deleteServiceInstanceBinding(request);
+		});
+	}
+
+	private void forget(String serviceInstanceId, String bindingId) {
+		this.lastOperations.forget(serviceInstanceId, (key) -> key.isForBinding(bindingId));
+	}
+
+}
@@ -0,0 +1,149 @@
+/*
+ * Copyright 2002-2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.servicebroker.service;
+
+import java.time.Clock;
+import java.time.Duration;
+
+import reactor.core.publisher.Mono;
+
+import org.springframework.cloud.servicebroker.model.instance.CreateServiceInstanceRequest;
+import org.springframework.cloud.servicebroker.model.instance.CreateServiceInstanceResponse;
+import org.springframework.cloud.servicebroker.model.instance.DeleteServiceInstanceRequest;
+import org.springframework.cloud.servicebroker.model.instance.DeleteServiceInstanceResponse;
+import org.springframework.cloud.servicebroker.model.instance.GetLastServiceOperationRequest;
+import org.springframework.cloud.servicebroker.model.instance.GetLastServiceOperationResponse;
+import org.springframework.cloud.servicebroker.model.instance.GetServiceInstanceRequest;
+import org.springframework.cloud.servicebroker.model.instance.GetServiceInstanceResponse;
+import org.springframework.cloud.servicebroker.model.instance.OperationState;
+import org.springframework.cloud.servicebroker.model.instance.UpdateServiceInstanceRequest;
+import org.springframework.cloud.servicebroker.model.instance.UpdateServiceInstanceResponse;
+import org.springframework.util.Assert;
+
+/**
+ * Internal implementation of {@link ServiceInstanceService} that shares one call to the
+ * wrapped service among concurrent requests for the last operation of the same service
+ * instance. Requests are considered the same when they have the same platform instance
+ * ID, service instance ID, service definition ID, plan ID, and operation.
+ *
+ * <p>
+ * A response with a state of {@link OperationState#SUCCEEDED} or
+ * {@link OperationState#FAILED} can also be reused for identical requests for a
+ * time-to-live, since the state of a finished operation does not change. Reused
+ * responses for a service instance are discarded when a request to provision, update,
+ * or deprovision it is received.
+ *
+ * @see CoalescingServiceInstanceBindingService
+ */
+public class CoalescingServiceInstanceService implements ServiceInstanceService {
+
+	private final ServiceInstanceService service;
+
+	private final SingleFlight<LastOperationKey, GetLastServiceOperationResponse> lastOperations;
+
+	/**
+	 * Construct a new {@link CoalescingServiceInstanceService} that does not reuse
+	 * responses.
+	 * @param serviceInstanceService the service instance service
+	 */
+	public CoalescingServiceInstanceService(ServiceInstanceService serviceInstanceService) {
+		this(serviceInstanceService, Duration.ZERO);
+	}
+
+	/**
+	 * Construct a new {@link CoalescingServiceInstanceService}.
+	 * @param serviceInstanceService the service instance service
+	 * @param finishedOperationTimeToLive how long a response for a finished operation is
+	 * reused, or zero to not reuse responses
+	 */
+	public CoalescingServiceInstanceService(ServiceInstanceService serviceInstanceService,
+			Duration finishedOperationTimeToLive) {
+		this(serviceInstanceService, finishedOperationTimeToLive, SingleFlight.DEFAULT_TIMEOUT);
+	}
+
+	/**
+	 * Construct a new {@link CoalescingServiceInstanceService}.
+	 * @param serviceInstanceService the service instance service
+	 * @param finishedOperationTimeToLive how long a response for a finished operation is
+	 * reused, or zero to not reuse responses
+	 * @param callTimeout how long a shared call to the wrapped service may take before it
+	 * fails, or zero to not time out calls
+	 */
+	public CoalescingServiceInstanceService(ServiceInstanceService serviceInstanceService,
+			Duration finishedOperationTimeToLive, Duration callTimeout) {
+		this(serviceInstanceService, finishedOperationTimeToLive, callTimeout, Clock.systemUTC());
+	}
+
+	CoalescingServiceInstanceService(ServiceInstanceService serviceInstanceService,
+			Duration finishedOperationTimeToLive, Clock clock) {
+		this(serviceInstanceService, finishedOperationTimeToLive, SingleFlight.DEFAULT_TIMEOUT, clock);
+	}
+
+	CoalescingServiceInstanceService(ServiceInstanceService serviceInstanceService,
+			Duration finishedOperationTimeToLive, Duration callTimeout, Clock clock) {
+		Assert.notNull(finishedOperationTimeToLive, "finishedOperationTimeToLive must not be null");
+		Assert.isTrue(!finishedOperationTimeToLive.isNegative(), "finishedOperationTimeToLive must not be negative");
+		Assert.notNull(callTimeout, "callTimeout must not be null");
+		Assert.isTrue(!callTimeout.isNegative(), "callTimeout must not be negative");
+		this.service = serviceInstanceService;
+		this.lastOperations = new SingleFlight<>(LastOperationKey::getServiceInstanceId,
+				(response) -> response.getState() == OperationState.SUCCEEDED
+						|| response.getState() == OperationState.FAILED,
+				finishedOperationTimeToLive, callTimeout, clock);
+	}
+
+	@Override
+	public Mono<CreateServiceInstanceResponse> createServiceInstance(CreateServiceInstanceRequest request) {
+		return Mono.defer(() -> {
+			forget(request.getServiceInstanceId());
+			return this.service.createServiceInstance(request);
+		});
+	}
+
+	@Override
+	public Mono<GetServiceInstanceResponse> getServiceInstance(GetServiceInstanceRequest request) {
+		return this.service.getServiceInstance(request);
+	}
+
+	@Override
+	public Mono<GetLastServiceOperationResponse> getLastOperation(GetLastServiceOperationRequest request) {
+		LastOperationKey key = new LastOperationKey(request.getPlatformInstanceId(), request.getServiceInstanceId(),
+				null, request.getServiceDefinitionId(), request.getPlanId(), request.getOperation());
+		return this.lastOperations.execute(key, () -> this.service.getLastOperation(request));
+	}
+
+	@Override
+	public Mono<DeleteServiceInstanceResponse> deleteServiceInstance(DeleteServiceInstanceRequest request) {
+		return Mono.defer(() -> {
+			forget(request.getServiceInstanceId());
+			return this.service.deleteServiceInstance(request);
+		});
+	}
+
+	@Override
+	public Mono<UpdateServiceInstanceResponse> updateServiceInstance(UpdateServiceInstanceRequest request) {
+		return Mono.defer(() -> {
+			forget(request.getServiceInstanceId());
+			return this.service.updateServiceInstance(request);
+		});
+	}
+
+	private void forget(String serviceInstanceId) {
+		this.lastOperations.forget(serviceInstanceId, (key) -> true);
+	}
+
+}
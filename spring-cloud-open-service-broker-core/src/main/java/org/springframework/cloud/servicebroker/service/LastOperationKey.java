@@ -0,0 +1,91 @@
+/*
+ * Copyright 2002-2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.servicebroker.service;
+
+import java.util.Objects;
+
+/**
+ * Identifies requests for the last operation of a service instance or a service instance
+ * binding that can share one call to the wrapped service.
+ *
+ * @see CoalescingServiceInstanceService
+ * @see CoalescingServiceInstanceBindingService
+ */
+final class LastOperationKey {
+
+	private final String platformInstanceId;
+
+	private final String serviceInstanceId;
+
+	private final String bindingId;
+
+	private final String serviceDefinitionId;
+
+	private final String planId;
+
+	private final String operation;
+
+	LastOperationKey(String platformInstanceId, String serviceInstanceId, String bindingId,
+			String serviceDefinitionId, String planId, String operation) {
+		this.platformInstanceId = platformInstanceId;
+		this.serviceInstanceId = serviceInstanceId;
+		this.bindingId = bindingId;
+		this.serviceDefinitionId = serviceDefinitionId;
+		this.planId = planId;
+		this.operation = operation;
+	}
+
+	/**
+	 * The ID of the service instance the key identifies requests for.
+	 * @return the service instance ID
+	 */
+	String getServiceInstanceId() {
+		return this.serviceInstanceId;
+	}
+
+	/**
+	 * Whether the key identifies requests for a binding of its service instance.
+	 * @param bindingId the binding ID
+	 * @return {@literal true} if the key refers to the binding
+	 */
+	boolean isForBinding(String bindingId) {
+		return Objects.equals(this.bindingId, bindingId);
+	}
+
+	@Override
+	public boolean equals(Object o) {
+		if (this == o) {
+			return true;
+		}
+		if (!(o instanceof LastOperationKey)) {
+			return false;
+		}
+		LastOperationKey that = (LastOperationKey) o;
+		return Objects.equals(this.platformInstanceId, that.platformInstanceId)
+				&& Objects.equals(this.serviceInstanceId, that.serviceInstanceId)
+				&& Objects.equals(this.bindingId, that.bindingId)
+				&& Objects.equals(this.serviceDefinitionId, that.serviceDefinitionId)
+				&& Objects.equals(this.planId, that.planId) && Objects.equals(this.operation, that.operation);
+	}
+
+	@Override
+	public int hashCode() {
+		return Objects.hash(this.platformInstanceId, this.serviceInstanceId, this.bindingId, this.serviceDefinitionId,
+				this.planId, this.operation);
+	}
+
+}
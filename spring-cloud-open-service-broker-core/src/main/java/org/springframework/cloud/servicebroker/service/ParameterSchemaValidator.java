@@ -0,0 +1,238 @@
+/*
+ * Copyright 2002-2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.servicebroker.service;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.networknt.schema.JsonSchema;
+import com.networknt.schema.JsonSchemaFactory;
+import com.networknt.schema.SpecVersion;
+import com.networknt.schema.SpecVersionDetector;
+import com.networknt.schema.ValidationMessage;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import org.springframework.cloud.servicebroker.exception.ServiceBrokerInvalidParametersException;
+import org.springframework.cloud.servicebroker.model.catalog.Catalog;
+import org.springframework.cloud.servicebroker.model.catalog.MethodSchema;
+import org.springframework.cloud.servicebroker.model.catalog.Plan;
+import org.springframework.cloud.servicebroker.model.catalog.Schemas;
+import org.springframework.cloud.servicebroker.model.catalog.ServiceDefinition;
+
+/**
+ * Validates request parameters against the JSON Schemas declared by a {@link Plan} in the
+ * catalog, using the {@literal com.networknt:json-schema-validator} library, which must
+ * be on the classpath.
+ *
+ * <p>
+ * The schemas of every plan in a catalog can be compiled up front with
+ * {@link #compile(Catalog)}, so that an invalid schema is reported when the catalog is
+ * loaded. Otherwise, the schemas of a plan are compiled the first time the plan is seen,
+ * and a plan whose schemas cannot be compiled is logged once and accepts any parameters
+ * rather than failing every request. A schema is validated against the draft declared by
+ * its {@literal $schema} keyword, or against draft-07 if it does not declare one. Plans
+ * without a schema for an operation accept any parameters.
+ *
+ * <p>
+ * Compiled schemas are cached by plan ID and reused while requests carry the same
+ * {@link Plan} instance, which is the case for a catalog that is held in memory. When a
+ * different instance is seen, for example from a reloaded catalog, its schemas are
+ * compared with the cached ones once, and compiled again only if they have changed.
+ */
+public class ParameterSchemaValidator {
+
+	private static final Logger LOG = LoggerFactory.getLogger(ParameterSchemaValidator.class);
+
+	private static final ObjectMapper MAPPER = JsonMapper.builder().build();
+
+	private final ConcurrentMap<String, PlanSchemas> plans = new ConcurrentHashMap<>();
+
+	/**
+	 * Compile the schemas of every plan in a catalog.
+	 * @param catalog the catalog
+	 * @throws IllegalArgumentException if the schema of a plan is not valid
+	 */
+	public void compile(Catalog catalog) {
+		for (ServiceDefinition serviceDefinition : catalog.getServiceDefinitions()) {
+			if (serviceDefinition.getPlans() == null) {
+				continue;
+			}
+			for (Plan plan : serviceDefinition.getPlans()) {
+				if (plan.getSchemas() != null) {
+					this.plans.put(plan.getId(), compile(plan));
+				}
+			}
+		}
+	}
+
+	/**
+	 * Validate the parameters of a request to create a service instance.
+	 * @param plan the plan of the service instance
+	 * @param parameters the request parameters
+	 * @throws ServiceBrokerInvalidParametersException if the parameters do not match the
+	 * schema
+	 */
+	public void validateCreateServiceInstance(Plan plan, Map<String, Object> parameters) {
+		validate(plan, parameters, PlanSchemas::getCreateServiceInstance);
+	}
+
+	/**
+	 * Validate the parameters of a request to update a service instance.
+	 * @param plan the plan of the service instance after the update
+	 * @param parameters the request parameters
+	 * @throws ServiceBrokerInvalidParametersException if the parameters do not match the
+	 * schema
+	 */
+	public void validateUpdateServiceInstance(Plan plan, Map<String, Object> parameters) {
+		validate(plan, parameters, PlanSchemas::getUpdateServiceInstance);
+	}
+
+	/**
+	 * Validate the parameters of a request to create a service instance binding.
+	 * @param plan the plan of the service instance
+	 * @param parameters the request parameters
+	 * @throws ServiceBrokerInvalidParametersException if the parameters do not match the
+	 * schema
+	 */
+	public void validateCreateServiceInstanceBinding(Plan plan, Map<String, Object> parameters) {
+		validate(plan, parameters, PlanSchemas::getCreateServiceInstanceBinding);
+	}
+
+	private void validate(Plan plan, Map<String, Object> parameters, Function<PlanSchemas, JsonSchema> operation) {
+		if (plan == null || plan.getSchemas() == null) {
+			return;
+		}
+		JsonSchema schema = operation.apply(getPlanSchemas(plan));
+		if (schema == null) {
+			return;
+		}
+		Set<ValidationMessage> violations = schema
+			.validate(MAPPER.valueToTree((parameters != null) ? parameters : Collections.emptyMap()));
+		if (!violations.isEmpty()) {
+			throw new ServiceBrokerInvalidParametersException(
+					violations.stream().map(ValidationMessage::getMessage).collect(Collectors.joining("; ")));
+		}
+	}
+
+	private PlanSchemas getPlanSchemas(Plan plan) {
+		PlanSchemas planSchemas = this.plans.get(plan.getId());
+		if (planSchemas != null && planSchemas.plan == plan) {
+			return planSchemas;
+		}
+		if (planSchemas != null && Objects.equals(planSchemas.schemas, plan.getSchemas())) {
+			planSchemas = planSchemas.forPlan(plan);
+		}
+		else {
+			try {
+				planSchemas = compile(plan);
+			}
+			catch (IllegalArgumentException ex) {
+				LOG.error(ex.getMessage() + "; parameters of the plan will not be validated", ex);
+				planSchemas = new PlanSchemas(plan, null, null, null);
+			}
+		}
+		this.plans.put(plan.getId(), planSchemas);
+		return planSchemas;
+	}
+
+	private static PlanSchemas compile(Plan plan) {
+		try {
+			return PlanSchemas.compile(plan);
+		}
+		catch (RuntimeException ex) {
+			throw new IllegalArgumentException(
+					"Invalid parameter schema for plan " + plan.getId() + ": " + ex.getMessage(), ex);
+		}
+	}
+
+	private static final class PlanSchemas {
+
+		private final Plan plan;
+
+		private final Schemas schemas;
+
+		private final JsonSchema createServiceInstance;
+
+		private final JsonSchema updateServiceInstance;
+
+		private final JsonSchema createServiceInstanceBinding;
+
+		private PlanSchemas(Plan plan, JsonSchema createServiceInstance, JsonSchema updateServiceInstance,
+				JsonSchema createServiceInstanceBinding) {
+			this.plan = plan;
+			this.schemas = plan.getSchemas();
+			this.createServiceInstance = createServiceInstance;
+			this.updateServiceInstance = updateServiceInstance;
+			this.createServiceInstanceBinding = createServiceInstanceBinding;
+		}
+
+		private static PlanSchemas compile(Plan plan) {
+			Schemas schemas = plan.getSchemas();
+			JsonSchema createServiceInstance = null;
+			JsonSchema updateServiceInstance = null;
+			if (schemas.getServiceInstanceSchema() != null) {
+				createServiceInstance = compile(schemas.getServiceInstanceSchema().getCreateMethodSchema());
+				updateServiceInstance = compile(schemas.getServiceInstanceSchema().getUpdateMethodSchema());
+			}
+			JsonSchema createServiceInstanceBinding = (schemas.getServiceBindingSchema() != null)
+					? compile(schemas.getServiceBindingSchema().getCreateMethodSchema()) : null;
+			return new PlanSchemas(plan, createServiceInstance, updateServiceInstance, createServiceInstanceBinding);
+		}
+
+		private static JsonSchema compile(MethodSchema methodSchema) {
+			if (methodSchema == null || methodSchema.getParameters() == null
+					|| methodSchema.getParameters().isEmpty()) {
+				return null;
+			}
+			JsonNode node = MAPPER.valueToTree(methodSchema.getParameters());
+			SpecVersion.VersionFlag version = SpecVersionDetector.detectOptionalVersion(node, false)
+				.orElse(SpecVersion.VersionFlag.V7);
+			JsonSchema schema = JsonSchemaFactory.getInstance(version).getSchema(node);
+			schema.initializeValidators();
+			return schema;
+		}
+
+		private PlanSchemas forPlan(Plan plan) {
+			return new PlanSchemas(plan, this.createServiceInstance, this.updateServiceInstance,
+					this.createServiceInstanceBinding);
+		}
+
+		JsonSchema getCreateServiceInstance() {
+			return this.createServiceInstance;
+		}
+
+		JsonSchema getUpdateServiceInstance() {
+			return this.updateServiceInstance;
+		}
+
+		JsonSchema getCreateServiceInstanceBinding() {
+			return this.createServiceInstanceBinding;
+		}
+
+	}
+
+}
@@ -0,0 +1,116 @@
+/*
+ * Copyright 2002-2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.servicebroker.service;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import reactor.core.publisher.Mono;
+
+import org.springframework.cloud.servicebroker.exception.ServiceBrokerException;
+import org.springframework.cloud.servicebroker.model.catalog.Catalog;
+import org.springframework.cloud.servicebroker.model.catalog.ServiceDefinition;
+import org.springframework.core.io.Resource;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+/**
+ * An implementation of the {@link CatalogService} whose {@link Catalog} can be replaced
+ * at runtime without restarting the service broker.
+ *
+ * <p>
+ * The catalog, its service definition and plan indexes, and its pre-serialized JSON
+ * representation are held together in an immutable snapshot. A reload builds a complete
+ * new snapshot and then publishes it with a single volatile write, so readers never take
+ * a lock and never observe a partially built index. Requests that already resolved a
+ * service definition or plan keep using the snapshot they started with.
+ *
+ * @see SerializedCatalog
+ */
+public class ReloadableCatalogService implements CatalogService {
+
+	private static final Logger LOG = LoggerFactory.getLogger(ReloadableCatalogService.class);
+
+	private final ObjectMapper objectMapper;
+
+	private volatile CatalogSnapshot snapshot;
+
+	/**
+	 * Construct a service with the provided initial {@link Catalog}.
+	 * @param catalog the initial catalog
+	 */
+	public ReloadableCatalogService(Catalog catalog) {
+		this(catalog, Jackson2ObjectMapperBuilder.json().build());
+	}
+
+	/**
+	 * Construct a service with the provided initial {@link Catalog}.
+	 * @param catalog the initial catalog
+	 * @param objectMapper the object mapper used to read catalog files and to
+	 * pre-serialize the catalog
+	 */
+	public ReloadableCatalogService(Catalog catalog, ObjectMapper objectMapper) {
+		this.objectMapper = objectMapper;
+		this.snapshot = createSnapshot(catalog);
+	}
+
+	/**
+	 * Replace the catalog. The new catalog is indexed and serialized before it becomes
+	 * visible to readers.
+	 * @param catalog the new catalog
+	 */
+	public void reload(Catalog catalog) {
+		this.snapshot = createSnapshot(catalog);
+		if (LOG.isInfoEnabled()) {
+			LOG.info("Reloaded catalog with {} service definitions", catalog.getServiceDefinitions().size());
+		}
+	}
+
+	/**
+	 * Replace the catalog with one read from a JSON resource. If the resource cannot be
+	 * read or parsed, the current catalog remains in place.
+	 * @param resource the resource containing the catalog in the JSON format returned by
+	 * the catalog endpoint
+	 */
+	public void reload(Resource resource) {
+		Catalog catalog;
+		try (InputStream inputStream = resource.getInputStream()) {
+			catalog = this.objectMapper.readValue(inputStream, Catalog.class);
+		}
+		catch (IOException ex) {
+			throw new ServiceBrokerException("Error reading catalog from " + resource.getDescription(), ex);
+		}
+		reload(catalog);
+	}
+
+	private CatalogSnapshot createSnapshot(Catalog catalog) {
+		return new CatalogSnapshot(SerializedCatalog.of(catalog, this.objectMapper));
+	}
+
+	@Override
+	public Mono<Catalog> getCatalog() {
+		return this.snapshot.getCatalogMono();
+	}
+
+	@Override
+	public Mono<ServiceDefinition> getServiceDefinition(String serviceId) {
+		return this.snapshot.getServiceDefinition(serviceId);
+	}
+
+}
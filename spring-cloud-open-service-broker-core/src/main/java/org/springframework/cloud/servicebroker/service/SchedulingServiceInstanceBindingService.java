@@ -0,0 +1,78 @@
+/*
+ * Copyright 2002-2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.servicebroker.service;
+
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+
+import org.springframework.cloud.servicebroker.model.binding.CreateServiceInstanceBindingRequest;
+import org.springframework.cloud.servicebroker.model.binding.CreateServiceInstanceBindingResponse;
+import org.springframework.cloud.servicebroker.model.binding.DeleteServiceInstanceBindingRequest;
+import org.springframework.cloud.servicebroker.model.binding.DeleteServiceInstanceBindingResponse;
+import org.springframework.cloud.servicebroker.model.binding.GetLastServiceBindingOperationRequest;
+import org.springframework.cloud.servicebroker.model.binding.GetLastServiceBindingOperationResponse;
+import org.springframework.cloud.servicebroker.model.binding.GetServiceInstanceBindingRequest;
+import org.springframework.cloud.servicebroker.model.binding.GetServiceInstanceBindingResponse;
+import org.springframework.util.Assert;
+
+/**
+ * Internal implementation of {@link ServiceInstanceBindingService} that invokes the
+ * wrapped service on a {@link Scheduler}.
+ *
+ * @see SchedulingServiceInstanceService
+ */
+public class SchedulingServiceInstanceBindingService implements ServiceInstanceBindingService {
+
+	private final ServiceInstanceBindingService service;
+
+	private final Scheduler scheduler;
+
+	/**
+	 * Construct a new {@link SchedulingServiceInstanceBindingService}.
+	 * @param service the service instance binding service
+	 * @param scheduler the scheduler to invoke the service on
+	 */
+	public SchedulingServiceInstanceBindingService(ServiceInstanceBindingService service, Scheduler scheduler) {
+		Assert.notNull(scheduler, "scheduler must not be null");
+		this.service = service;
+		this.scheduler = scheduler;
+	}
+
+	@Override
+	public Mono<CreateServiceInstanceBindingResponse> createServiceInstanceBinding(
+			CreateServiceInstanceBindingRequest request) {
+		return Mono.defer(() -> this.service.createServiceInstanceBinding(request)).subscribeOn(this.scheduler);
+	}
+
+	@Override
+	public Mono<GetServiceInstanceBindingResponse> getServiceInstanceBinding(GetServiceInstanceBindingRequest request) {
+		return Mono.defer(() -> this.service.getServiceInstanceBinding(request)).subscribeOn(this.scheduler);
+	}
+
+	@Override
+	public Mono<GetLastServiceBindingOperationResponse> getLastOperation(
+			GetLastServiceBindingOperationRequest request) {
+		return Mono.defer(() -> this.service.getLastOperation(request)).subscribeOn(this.scheduler);
+	}
+
+	@Override
+	public Mono<DeleteServiceInstanceBindingResponse> deleteServiceInstanceBinding(
+			DeleteServiceInstanceBindingRequest request) {
+		return Mono.defer(() -> this.service.deleteServiceInstanceBinding(request)).subscribeOn(this.scheduler);
+	}
+
+}
@@ -0,0 +1,83 @@
+/*
+ * Copyright 2002-2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.servicebroker.service;
+
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+
+import org.springframework.cloud.servicebroker.model.instance.CreateServiceInstanceRequest;
+import org.springframework.cloud.servicebroker.model.instance.CreateServiceInstanceResponse;
+import org.springframework.cloud.servicebroker.model.instance.DeleteServiceInstanceRequest;
+import org.springframework.cloud.servicebroker.model.instance.DeleteServiceInstanceResponse;
+import org.springframework.cloud.servicebroker.model.instance.GetLastServiceOperationRequest;
+import org.springframework.cloud.servicebroker.model.instance.GetLastServiceOperationResponse;
+import org.springframework.cloud.servicebroker.model.instance.GetServiceInstanceRequest;
+import org.springframework.cloud.servicebroker.model.instance.GetServiceInstanceResponse;
+import org.springframework.cloud.servicebroker.model.instance.UpdateServiceInstanceRequest;
+import org.springframework.cloud.servicebroker.model.instance.UpdateServiceInstanceResponse;
+import org.springframework.util.Assert;
+
+/**
+ * Internal implementation of {@link ServiceInstanceService} that invokes the wrapped
+ * service on a {@link Scheduler}. Both the call that creates the returned {@link Mono}
+ * and the subscription to it run on the scheduler, so a service that blocks, including
+ * the event flows of a wrapped {@link ServiceInstanceEventService}, does not block the
+ * thread that received the request.
+ */
+public class SchedulingServiceInstanceService implements ServiceInstanceService {
+
+	private final ServiceInstanceService service;
+
+	private final Scheduler scheduler;
+
+	/**
+	 * Construct a new {@link SchedulingServiceInstanceService}.
+	 * @param serviceInstanceService the service instance service
+	 * @param scheduler the scheduler to invoke the service on
+	 */
+	public SchedulingServiceInstanceService(ServiceInstanceService serviceInstanceService, Scheduler scheduler) {
+		Assert.notNull(scheduler, "scheduler must not be null");
+		this.service = serviceInstanceService;
+		this.scheduler = scheduler;
+	}
+
+	@Override
+	public Mono<CreateServiceInstanceResponse> createServiceInstance(CreateServiceInstanceRequest request) {
+		return Mono.defer(() -> this.service.createServiceInstance(request)).subscribeOn(this.scheduler);
+	}
+
+	@Override
+	public Mono<GetServiceInstanceResponse> getServiceInstance(GetServiceInstanceRequest request) {
+		return Mono.defer(() -> this.service.getServiceInstance(request)).subscribeOn(this.scheduler);
+	}
+
+	@Override
+	public Mono<GetLastServiceOperationResponse> getLastOperation(GetLastServiceOperationRequest request) {
+		return Mono.defer(() -> this.service.getLastOperation(request)).subscribeOn(this.scheduler);
+	}
+
+	@Override
+	public Mono<DeleteServiceInstanceResponse> deleteServiceInstance(DeleteServiceInstanceRequest request) {
+		return Mono.defer(() -> this.service.deleteServiceInstance(request)).subscribeOn(this.scheduler);
+	}
+
+	@Override
+	public Mono<UpdateServiceInstanceResponse> updateServiceInstance(UpdateServiceInstanceRequest request) {
+		return Mono.defer(() -> this.service.updateServiceInstance(request)).subscribeOn(this.scheduler);
+	}
+
+}
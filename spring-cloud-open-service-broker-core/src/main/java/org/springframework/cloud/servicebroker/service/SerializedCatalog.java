@@ -0,0 +1,154 @@
+/*
+ * Copyright 2002-2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.servicebroker.service;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.JsonSerializable;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.jsontype.TypeSerializer;
+
+import org.springframework.cloud.servicebroker.exception.ServiceBrokerException;
+import org.springframework.cloud.servicebroker.model.catalog.Catalog;
+
+/**
+ * A {@link Catalog} that has been serialized to JSON once, along with a strong ETag
+ * computed from a SHA-256 hash of the serialized content.
+ *
+ * <p>
+ * When written by Jackson, the pre-encoded JSON is copied directly to the output instead
+ * of serializing the catalog model again, so any Jackson-based HTTP message writer on
+ * either the WebFlux or WebMvc stack serves the cached bytes. The source catalog must not
+ * be modified after it has been serialized.
+ */
+public final class SerializedCatalog extends Catalog implements JsonSerializable {
+
+	private static final String HASH_ALGORITHM = "SHA-256";
+
+	private final Catalog source;
+
+	private final SerializedString json;
+
+	private final String eTag;
+
+	private SerializedCatalog(Catalog source, String json, String eTag) {
+		super(source.getServiceDefinitions());
+		this.source = source;
+		this.json = new SerializedString(json);
+		this.json.asUnquotedUTF8();
+		this.eTag = eTag;
+	}
+
+	/**
+	 * Serialize the provided {@link Catalog} using the provided {@link ObjectMapper}.
+	 * @param catalog the catalog to serialize
+	 * @param objectMapper the object mapper used to serialize the catalog
+	 * @return the serialized catalog
+	 */
+	public static SerializedCatalog of(Catalog catalog, ObjectMapper objectMapper) {
+		if (catalog instanceof SerializedCatalog serializedCatalog) {
+			return serializedCatalog;
+		}
+		try {
+			byte[] content = objectMapper.writeValueAsBytes(catalog);
+			return new SerializedCatalog(catalog, new String(content, StandardCharsets.UTF_8), computeETag(content));
+		}
+		catch (JsonProcessingException ex) {
+			throw new ServiceBrokerException("Error serializing catalog", ex);
+		}
+	}
+
+	private static String computeETag(byte[] content) {
+		try {
+			byte[] digest = MessageDigest.getInstance(HASH_ALGORITHM).digest(content);
+			return "\"" + HexFormat.of().formatHex(digest) + "\"";
+		}
+		catch (NoSuchAlgorithmException ex) {
+			throw new IllegalStateException("Every Java platform is required to support " + HASH_ALGORITHM, ex);
+		}
+	}
+
+	/**
+	 * Indicates whether this is the serialized form of the provided catalog instance.
+	 * @param catalog the catalog to check
+	 * @return true if the catalog is this instance or the one it was serialized from
+	 */
+	public boolean isSerializationOf(Catalog catalog) {
+		return this == catalog || this.source == catalog;
+	}
+
+	/**
+	 * The strong ETag of the serialized catalog, including the surrounding quotes.
+	 * @return the ETag
+	 */
+	public String getETag() {
+		return this.eTag;
+	}
+
+	/**
+	 * The serialized catalog as UTF-8 encoded JSON.
+	 * @return a copy of the serialized content
+	 */
+	public byte[] getContent() {
+		return this.json.asUnquotedUTF8().clone();
+	}
+
+	/**
+	 * Indicates whether an {@code If-None-Match} request header value matches the ETag
+	 * of the serialized catalog, using the weak comparison required for that header.
+	 * @param ifNoneMatch the raw header value, may be {@literal null}
+	 * @return true if the platform already holds the current representation
+	 */
+	public boolean matchesIfNoneMatch(String ifNoneMatch) {
+		if (ifNoneMatch == null) {
+			return false;
+		}
+		for (String candidate : ifNoneMatch.split(",")) {
+			String tag = candidate.trim();
+			if ("*".equals(tag)) {
+				return true;
+			}
+			if (tag.startsWith("W/")) {
+				tag = tag.substring(2);
+			}
+			if (this.eTag.equals(tag)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	@Override
+	public void serialize(JsonGenerator gen, SerializerProvider serializers) throws IOException {
+		gen.writeRawValue(this.json);
+	}
+
+	@Override
+	public void serializeWithType(JsonGenerator gen, SerializerProvider serializers, TypeSerializer typeSer)
+			throws IOException {
+		serialize(gen, serializers);
+	}
+
+}
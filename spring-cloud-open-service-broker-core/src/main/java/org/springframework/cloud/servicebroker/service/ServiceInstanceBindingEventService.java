@@ -16,6 +16,8 @@
 
 package org.springframework.cloud.servicebroker.service;
 
+import java.util.function.Supplier;
+
 import reactor.core.publisher.Mono;
 
 import org.springframework.cloud.servicebroker.model.binding.CreateServiceInstanceBindingRequest;
@@ -26,6 +28,7 @@ import org.springframework.cloud.servicebroker.model.binding.GetLastServiceBindi
 import org.springframework.cloud.servicebroker.model.binding.GetLastServiceBindingOperationResponse;
 import org.springframework.cloud.servicebroker.model.binding.GetServiceInstanceBindingRequest;
 import org.springframework.cloud.servicebroker.model.binding.GetServiceInstanceBindingResponse;
+import org.springframework.cloud.servicebroker.observability.ServiceBrokerObservations;
 import org.springframework.cloud.servicebroker.service.events.EventFlowRegistries;
 
 /**
@@ -40,6 +43,8 @@ public class ServiceInstanceBindingEventService implements ServiceInstanceBindin
 
 	private final EventFlowRegistries flows;
 
+	private boolean observingSteps;
+
 	/**
 	 * Construct a new {@link ServiceInstanceBindingEventService}.
 	 * @param service the service instance binding service
@@ -50,48 +55,47 @@ public class ServiceInstanceBindingEventService implements ServiceInstanceBindin
 		this.flows = flows;
 	}
 
+	/**
+	 * Set whether calls to the service are observed as steps of the service broker
+	 * operation. The service is called without observation by default.
+	 * @param observingSteps true if an instrumentation observes the steps of an operation
+	 * @see ServiceBrokerObservations
+	 */
+	public void setObservingSteps(boolean observingSteps) {
+		this.observingSteps = observingSteps;
+	}
+
 	@Override
 	public Mono<CreateServiceInstanceBindingResponse> createServiceInstanceBinding(
 			CreateServiceInstanceBindingRequest request) {
-		return this.flows.getCreateInstanceBindingRegistry()
-			.getInitializationFlows(request)
-			.then(this.service.createServiceInstanceBinding(request))
-			.onErrorResume(
-					(e) -> this.flows.getCreateInstanceBindingRegistry().getErrorFlows(request, e).then(Mono.error(e)))
-			.flatMap((response) -> this.flows.getCreateInstanceBindingRegistry()
-				.getCompletionFlows(request, response)
-				.then(Mono.just(response)));
+		Mono<CreateServiceInstanceBindingResponse> operation = observe("createServiceInstanceBinding",
+				() -> this.service.createServiceInstanceBinding(request));
+		return this.flows.getCreateInstanceBindingRegistry().applyFlows(request, operation);
 	}
 
 	@Override
 	public Mono<GetServiceInstanceBindingResponse> getServiceInstanceBinding(GetServiceInstanceBindingRequest request) {
-		return this.service.getServiceInstanceBinding(request);
+		return observe("getServiceInstanceBinding", () -> this.service.getServiceInstanceBinding(request));
 	}
 
 	@Override
 	public Mono<GetLastServiceBindingOperationResponse> getLastOperation(
 			GetLastServiceBindingOperationRequest request) {
-		return this.flows.getAsyncOperationBindingRegistry()
-			.getInitializationFlows(request)
-			.then(this.service.getLastOperation(request))
-			.onErrorResume(
-					(e) -> this.flows.getAsyncOperationBindingRegistry().getErrorFlows(request, e).then(Mono.error(e)))
-			.flatMap((response) -> this.flows.getAsyncOperationBindingRegistry()
-				.getCompletionFlows(request, response)
-				.then(Mono.just(response)));
+		Mono<GetLastServiceBindingOperationResponse> operation = observe("getLastOperation",
+				() -> this.service.getLastOperation(request));
+		return this.flows.getAsyncOperationBindingRegistry().applyFlows(request, operation);
 	}
 
 	@Override
 	public Mono<DeleteServiceInstanceBindingResponse> deleteServiceInstanceBinding(
 			DeleteServiceInstanceBindingRequest request) {
-		return this.flows.getDeleteInstanceBindingRegistry()
-			.getInitializationFlows(request)
-			.then(this.service.deleteServiceInstanceBinding(request))
-			.onErrorResume(
-					(e) -> this.flows.getDeleteInstanceBindingRegistry().getErrorFlows(request, e).then(Mono.error(e)))
-			.flatMap((response) -> this.flows.getDeleteInstanceBindingRegistry()
-				.getCompletionFlows(request, response)
-				.then(Mono.just(response)));
+		Mono<DeleteServiceInstanceBindingResponse> operation = observe("deleteServiceInstanceBinding",
+				() -> this.service.deleteServiceInstanceBinding(request));
+		return this.flows.getDeleteInstanceBindingRegistry().applyFlows(request, operation);
+	}
+
+	private <T> Mono<T> observe(String method, Supplier<Mono<T>> call) {
+		return (this.observingSteps) ? ServiceBrokerObservations.observeService(method, call) : call.get();
 	}
 
 }
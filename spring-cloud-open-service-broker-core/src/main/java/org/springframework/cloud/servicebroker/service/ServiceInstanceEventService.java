@@ -16,6 +16,8 @@
 
 package org.springframework.cloud.servicebroker.service;
 
+import java.util.function.Supplier;
+
 import reactor.core.publisher.Mono;
 
 import org.springframework.cloud.servicebroker.model.instance.CreateServiceInstanceRequest;
@@ -28,6 +30,7 @@ import org.springframework.cloud.servicebroker.model.instance.GetServiceInstance
 import org.springframework.cloud.servicebroker.model.instance.GetServiceInstanceResponse;
 import org.springframework.cloud.servicebroker.model.instance.UpdateServiceInstanceRequest;
 import org.springframework.cloud.servicebroker.model.instance.UpdateServiceInstanceResponse;
+import org.springframework.cloud.servicebroker.observability.ServiceBrokerObservations;
 import org.springframework.cloud.servicebroker.service.events.EventFlowRegistries;
 
 /**
@@ -42,6 +45,8 @@ public class ServiceInstanceEventService implements ServiceInstanceService {
 
 	private final EventFlowRegistries flows;
 
+	private boolean observingSteps;
+
 	/**
 	 * Constructs a new {@link ServiceInstanceEventService}.
 	 * @param serviceInstanceService the service instance service
@@ -53,53 +58,51 @@ public class ServiceInstanceEventService implements ServiceInstanceService {
 		this.flows = eventFlowRegistries;
 	}
 
+	/**
+	 * Set whether calls to the service are observed as steps of the service broker
+	 * operation. The service is called without observation by default.
+	 * @param observingSteps true if an instrumentation observes the steps of an operation
+	 * @see ServiceBrokerObservations
+	 */
+	public void setObservingSteps(boolean observingSteps) {
+		this.observingSteps = observingSteps;
+	}
+
 	@Override
 	public Mono<CreateServiceInstanceResponse> createServiceInstance(CreateServiceInstanceRequest request) {
-		return this.flows.getCreateInstanceRegistry()
-			.getInitializationFlows(request)
-			.then(this.service.createServiceInstance(request))
-			.onErrorResume((e) -> this.flows.getCreateInstanceRegistry().getErrorFlows(request, e).then(Mono.error(e)))
-			.flatMap((response) -> this.flows.getCreateInstanceRegistry()
-				.getCompletionFlows(request, response)
-				.then(Mono.just(response)));
+		Mono<CreateServiceInstanceResponse> operation = observe("createServiceInstance",
+				() -> this.service.createServiceInstance(request));
+		return this.flows.getCreateInstanceRegistry().applyFlows(request, operation);
 	}
 
 	@Override
 	public Mono<GetServiceInstanceResponse> getServiceInstance(GetServiceInstanceRequest request) {
-		return this.service.getServiceInstance(request);
+		return observe("getServiceInstance", () -> this.service.getServiceInstance(request));
 	}
 
 	@Override
 	public Mono<GetLastServiceOperationResponse> getLastOperation(GetLastServiceOperationRequest request) {
-		return this.flows.getAsyncOperationRegistry()
-			.getInitializationFlows(request)
-			.then(this.service.getLastOperation(request))
-			.onErrorResume((e) -> this.flows.getAsyncOperationRegistry().getErrorFlows(request, e).then(Mono.error(e)))
-			.flatMap((response) -> this.flows.getAsyncOperationRegistry()
-				.getCompletionFlows(request, response)
-				.then(Mono.just(response)));
+		Mono<GetLastServiceOperationResponse> operation = observe("getLastOperation",
+				() -> this.service.getLastOperation(request));
+		return this.flows.getAsyncOperationRegistry().applyFlows(request, operation);
 	}
 
 	@Override
 	public Mono<DeleteServiceInstanceResponse> deleteServiceInstance(DeleteServiceInstanceRequest request) {
-		return this.flows.getDeleteInstanceRegistry()
-			.getInitializationFlows(request)
-			.then(this.service.deleteServiceInstance(request))
-			.onErrorResume((e) -> this.flows.getDeleteInstanceRegistry().getErrorFlows(request, e).then(Mono.error(e)))
-			.flatMap((response) -> this.flows.getDeleteInstanceRegistry()
-				.getCompletionFlows(request, response)
-				.then(Mono.just(response)));
+		Mono<DeleteServiceInstanceResponse> operation = observe("deleteServiceInstance",
+				() -> this.service.deleteServiceInstance(request));
+		return this.flows.getDeleteInstanceRegistry().applyFlows(request, operation);
 	}
 
 	@Override
 	public Mono<UpdateServiceInstanceResponse> updateServiceInstance(UpdateServiceInstanceRequest request) {
-		return this.flows.getUpdateInstanceRegistry()
-			.getInitializationFlows(request)
-			.then(this.service.updateServiceInstance(request))
-			.onErrorResume((e) -> this.flows.getUpdateInstanceRegistry().getErrorFlows(request, e).then(Mono.error(e)))
-			.flatMap((response) -> this.flows.getUpdateInstanceRegistry()
-				.getCompletionFlows(request, response)
-				.then(Mono.just(response)));
+		Mono<UpdateServiceInstanceResponse> operation = observe("updateServiceInstance",
+				() -> this.service.updateServiceInstance(request));
+		return this.flows.getUpdateInstanceRegistry().applyFlows(request, operation);
+	}
+
+	private <T> Mono<T> observe(String method, Supplier<Mono<T>> call) {
+		return (this.observingSteps) ? ServiceBrokerObservations.observeService(method, call) : call.get();
 	}
 
 }
@@ -0,0 +1,244 @@
+/*
+ * Copyright 2002-2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.servicebroker.service;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.util.context.Context;
+
+/**
+ * Shares one call among concurrent requests for the same key, and optionally reuses the
+ * results that will not change for a time-to-live.
+ *
+ * <p>
+ * The call is made on behalf of all the requests that arrive while it is in flight, so it
+ * continues if the request that started it is cancelled. It runs with the context of the
+ * request that started it, and fails with a {@link java.util.concurrent.TimeoutException}
+ * if it does not finish within a timeout, if one is set, so that a call that never
+ * finishes does not hold up later requests.
+ *
+ * <p>
+ * Keys are kept in groups, such as all the keys of one service instance, so that the
+ * calls and results of a group can be forgotten without looking at the other groups.
+ * Once the maximum number of results are kept, the results of the least recently used
+ * groups are discarded.
+ *
+ * @param <K> the type of the key
+ * @param <V> the type of the result
+ */
+final class SingleFlight<K, V> {
+
+	/**
+	 * The default time a call may take before it fails.
+	 */
+	static final Duration DEFAULT_TIMEOUT = Duration.ofSeconds(60);
+
+	private static final int MAXIMUM_RESULTS = 1000;
+
+	private final Map<String, Group<K, V>> groups = new LinkedHashMap<>(16, 0.75f, true);
+
+	private final Function<K, String> group;
+
+	private final Predicate<V> reusable;
+
+	private final Duration timeToLive;
+
+	private final Duration timeout;
+
+	private final Clock clock;
+
+	private int resultCount;
+
+	/**
+	 * Construct a new {@link SingleFlight} with the {@link #DEFAULT_TIMEOUT default
+	 * timeout}.
+	 * @param group the group of a key
+	 * @param reusable whether a result can be reused by later requests
+	 * @param timeToLive how long a reusable result is reused, or zero to not reuse
+	 * results
+	 * @param clock the clock used to expire results
+	 */
+	SingleFlight(Function<K, String> group, Predicate<V> reusable, Duration timeToLive, Clock clock) {
+		this(group, reusable, timeToLive, DEFAULT_TIMEOUT, clock);
+	}
+
+	/**
+	 * Construct a new {@link SingleFlight}.
+	 * @param group the group of a key
+	 * @param reusable whether a result can be reused by later requests
+	 * @param timeToLive how long a reusable result is reused, or zero to not reuse
+	 * results
+	 * @param timeout how long a call may take before it fails, or zero to not time out
+	 * calls
+	 * @param clock the clock used to expire results
+	 */
+	SingleFlight(Function<K, String> group, Predicate<V> reusable, Duration timeToLive, Duration timeout,
+			Clock clock) {
+		this.group = group;
+		this.reusable = reusable;
+		this.timeToLive = timeToLive;
+		this.timeout = timeout;
+		this.clock = clock;
+	}
+
+	/**
+	 * Get the result for a key, joining the call that is in flight for the key if there
+	 * is one.
+	 * @param key the key
+	 * @param call the call to make if no call is in flight and no result can be reused
+	 * @return the result
+	 */
+	Mono<V> execute(K key, Supplier<Mono<V>> call) {
+		return Mono.deferContextual((context) -> {
+			String groupId = this.group.apply(key);
+			Call<V> flight;
+			synchronized (this.groups) {
+				Group<K, V> group = this.groups.computeIfAbsent(groupId, (id) -> new Group<>());
+				Result<V> result = group.results.get(key);
+				if (result != null) {
+					if (this.clock.instant().isBefore(result.expires)) {
+						return Mono.just(result.value);
+					}
+					group.results.remove(key);
+					this.resultCount--;
+				}
+				Call<V> existing = group.calls.get(key);
+				if (existing != null) {
+					return existing.sink.asMono();
+				}
+				flight = new Call<>();
+				group.calls.put(key, flight);
+			}
+			Mono<V> source = Mono.defer(call);
+			if (!this.timeout.isZero()) {
+				source = source.timeout(this.timeout);
+			}
+			source.subscribe((value) -> {
+				complete(groupId, key, flight, value);
+				flight.sink.tryEmitValue(value);
+			}, (ex) -> {
+				complete(groupId, key, flight, null);
+				flight.sink.tryEmitError(ex);
+			}, () -> {
+				complete(groupId, key, flight, null);
+				flight.sink.tryEmitEmpty();
+			}, Context.of(context));
+			return flight.sink.asMono();
+		});
+	}
+
+	/**
+	 * Stop reusing the results for the keys of a group that match a predicate. Calls in
+	 * flight for those keys still complete the requests that joined them, but their
+	 * results are not reused and later requests make a new call.
+	 * @param groupId the group of the keys
+	 * @param keys the predicate
+	 */
+	void forget(String groupId, Predicate<K> keys) {
+		synchronized (this.groups) {
+			Group<K, V> group = this.groups.get(groupId);
+			if (group == null) {
+				return;
+			}
+			group.calls.keySet().removeIf(keys);
+			int results = group.results.size();
+			group.results.keySet().removeIf(keys);
+			this.resultCount -= results - group.results.size();
+			if (group.isEmpty()) {
+				this.groups.remove(groupId);
+			}
+		}
+	}
+
+	private void complete(String groupId, K key, Call<V> flight, V value) {
+		boolean reuse = value != null && !this.timeToLive.isZero() && this.reusable.test(value);
+		Instant expires = (reuse) ? this.clock.instant().plus(this.timeToLive) : null;
+		synchronized (this.groups) {
+			Group<K, V> group = this.groups.get(groupId);
+			if (group == null || !group.calls.remove(key, flight)) {
+				// The call was forgotten while it was in flight
+				return;
+			}
+			if (reuse) {
+				group.results.put(key, new Result<>(value, expires));
+				this.resultCount++;
+				discardLeastRecentlyUsedResults();
+			}
+			else if (group.isEmpty()) {
+				this.groups.remove(groupId);
+			}
+		}
+	}
+
+	private void discardLeastRecentlyUsedResults() {
+		Iterator<Group<K, V>> eldest = this.groups.values().iterator();
+		while (this.resultCount > MAXIMUM_RESULTS && eldest.hasNext()) {
+			Group<K, V> group = eldest.next();
+			this.resultCount -= group.results.size();
+			group.results.clear();
+			if (group.calls.isEmpty()) {
+				eldest.remove();
+			}
+		}
+	}
+
+	/**
+	 * The calls in flight and the reusable results of the keys of a group.
+	 */
+	private static final class Group<K, V> {
+
+		private final Map<K, Call<V>> calls = new HashMap<>();
+
+		private final Map<K, Result<V>> results = new HashMap<>();
+
+		private boolean isEmpty() {
+			return this.calls.isEmpty() && this.results.isEmpty();
+		}
+
+	}
+
+	private static final class Call<V> {
+
+		private final Sinks.One<V> sink = Sinks.one();
+
+	}
+
+	private static final class Result<V> {
+
+		private final V value;
+
+		private final Instant expires;
+
+		private Result(V value, Instant expires) {
+			this.value = value;
+			this.expires = expires;
+		}
+
+	}
+
+}
@@ -0,0 +1,106 @@
+/*
+ * Copyright 2002-2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.servicebroker.service;
+
+import java.util.function.Supplier;
+
+import reactor.core.publisher.Mono;
+
+import org.springframework.cloud.servicebroker.model.AsyncServiceBrokerResponse;
+import org.springframework.cloud.servicebroker.model.catalog.Plan;
+import org.springframework.cloud.servicebroker.model.instance.CreateServiceInstanceRequest;
+import org.springframework.cloud.servicebroker.model.instance.CreateServiceInstanceResponse;
+import org.springframework.cloud.servicebroker.model.instance.DeleteServiceInstanceRequest;
+import org.springframework.cloud.servicebroker.model.instance.DeleteServiceInstanceResponse;
+import org.springframework.cloud.servicebroker.model.instance.GetLastServiceOperationRequest;
+import org.springframework.cloud.servicebroker.model.instance.GetLastServiceOperationResponse;
+import org.springframework.cloud.servicebroker.model.instance.GetServiceInstanceRequest;
+import org.springframework.cloud.servicebroker.model.instance.GetServiceInstanceResponse;
+import org.springframework.cloud.servicebroker.model.instance.UpdateServiceInstanceRequest;
+import org.springframework.cloud.servicebroker.model.instance.UpdateServiceInstanceResponse;
+
+/**
+ * Internal implementation of {@link ServiceInstanceService} that records the
+ * asynchronous operations started by the wrapped service in an
+ * {@link AsyncOperationTracker}, and answers requests for the last operation from the
+ * tracker. Requests for operations the tracker does not know are passed to the wrapped
+ * service.
+ *
+ * @see AsyncOperationTracker
+ */
+public class TrackingServiceInstanceService implements ServiceInstanceService {
+
+	private final ServiceInstanceService service;
+
+	private final AsyncOperationTracker tracker;
+
+	/**
+	 * Construct a new {@link TrackingServiceInstanceService}.
+	 * @param serviceInstanceService the service instance service
+	 * @param tracker the operation tracker
+	 */
+	public TrackingServiceInstanceService(ServiceInstanceService serviceInstanceService,
+			AsyncOperationTracker tracker) {
+		this.service = serviceInstanceService;
+		this.tracker = tracker;
+	}
+
+	@Override
+	public Mono<CreateServiceInstanceResponse> createServiceInstance(CreateServiceInstanceRequest request) {
+		return track(request.getServiceInstanceId(), false, request.getPlan(),
+				() -> this.service.createServiceInstance(request));
+	}
+
+	@Override
+	public Mono<GetServiceInstanceResponse> getServiceInstance(GetServiceInstanceRequest request) {
+		return this.service.getServiceInstance(request);
+	}
+
+	@Override
+	public Mono<GetLastServiceOperationResponse> getLastOperation(GetLastServiceOperationRequest request) {
+		return Mono.defer(() -> {
+			GetLastServiceOperationResponse response = this.tracker.getLastOperation(request);
+			return (response != null) ? Mono.just(response) : this.service.getLastOperation(request);
+		});
+	}
+
+	@Override
+	public Mono<DeleteServiceInstanceResponse> deleteServiceInstance(DeleteServiceInstanceRequest request) {
+		return track(request.getServiceInstanceId(), true, request.getPlan(),
+				() -> this.service.deleteServiceInstance(request));
+	}
+
+	@Override
+	public Mono<UpdateServiceInstanceResponse> updateServiceInstance(UpdateServiceInstanceRequest request) {
+		return track(request.getServiceInstanceId(), false, request.getPlan(),
+				() -> this.service.updateServiceInstance(request));
+	}
+
+	private <T extends AsyncServiceBrokerResponse> Mono<T> track(String serviceInstanceId, boolean deleteOperation,
+			Plan plan, Supplier<Mono<T>> operation) {
+		return Mono.defer(() -> {
+			this.tracker.begin(serviceInstanceId);
+			return operation.get();
+		}).doOnNext((response) -> {
+			if (response.isAsync()) {
+				this.tracker.start(serviceInstanceId, response.getOperation(), deleteOperation,
+						(plan != null) ? plan.getMaximumPollingDuration() : null);
+			}
+		}).doFinally((signal) -> this.tracker.end(serviceInstanceId));
+	}
+
+}
@@ -0,0 +1,104 @@
+/*
+ * Copyright 2002-2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.servicebroker.service;
+
+import reactor.core.publisher.Mono;
+
+import org.springframework.cloud.servicebroker.model.catalog.Plan;
+import org.springframework.cloud.servicebroker.model.catalog.ServiceDefinition;
+import org.springframework.cloud.servicebroker.model.instance.CreateServiceInstanceRequest;
+import org.springframework.cloud.servicebroker.model.instance.CreateServiceInstanceResponse;
+import org.springframework.cloud.servicebroker.model.instance.DeleteServiceInstanceRequest;
+import org.springframework.cloud.servicebroker.model.instance.DeleteServiceInstanceResponse;
+import org.springframework.cloud.servicebroker.model.instance.GetLastServiceOperationRequest;
+import org.springframework.cloud.servicebroker.model.instance.GetLastServiceOperationResponse;
+import org.springframework.cloud.servicebroker.model.instance.GetServiceInstanceRequest;
+import org.springframework.cloud.servicebroker.model.instance.GetServiceInstanceResponse;
+import org.springframework.cloud.servicebroker.model.instance.UpdateServiceInstanceRequest;
+import org.springframework.cloud.servicebroker.model.instance.UpdateServiceInstanceRequest.PreviousValues;
+import org.springframework.cloud.servicebroker.model.instance.UpdateServiceInstanceResponse;
+
+/**
+ * Internal implementation of {@link ServiceInstanceService} that validates the
+ * parameters of requests to provision and update service instances against the schemas
+ * of the requested plan before the requests reach the wrapped service. An update request
+ * that does not include a plan is validated against the plan in its previous values, if
+ * that plan is found in the service definition.
+ *
+ * @see ParameterSchemaValidator
+ */
+public class ValidatingServiceInstanceService implements ServiceInstanceService {
+
+	private final ServiceInstanceService service;
+
+	private final ParameterSchemaValidator validator;
+
+	/**
+	 * Construct a new {@link ValidatingServiceInstanceService}.
+	 * @param serviceInstanceService the service instance service
+	 * @param validator the parameter validator
+	 */
+	public ValidatingServiceInstanceService(ServiceInstanceService serviceInstanceService,
+			ParameterSchemaValidator validator) {
+		this.service = serviceInstanceService;
+		this.validator = validator;
+	}
+
+	@Override
+	public Mono<CreateServiceInstanceResponse> createServiceInstance(CreateServiceInstanceRequest request) {
+		return Mono.defer(() -> {
+			this.validator.validateCreateServiceInstance(request.getPlan(), request.getParameters());
+			return this.service.createServiceInstance(request);
+		});
+	}
+
+	@Override
+	public Mono<GetServiceInstanceResponse> getServiceInstance(GetServiceInstanceRequest request) {
+		return this.service.getServiceInstance(request);
+	}
+
+	@Override
+	public Mono<GetLastServiceOperationResponse> getLastOperation(GetLastServiceOperationRequest request) {
+		return this.service.getLastOperation(request);
+	}
+
+	@Override
+	public Mono<DeleteServiceInstanceResponse> deleteServiceInstance(DeleteServiceInstanceRequest request) {
+		return this.service.deleteServiceInstance(request);
+	}
+
+	@Override
+	public Mono<UpdateServiceInstanceResponse> updateServiceInstance(UpdateServiceInstanceRequest request) {
+		return Mono.defer(() -> {
+			this.validator.validateUpdateServiceInstance(getUpdatedPlan(request), request.getParameters());
+			return this.service.updateServiceInstance(request);
+		});
+	}
+
+	private static Plan getUpdatedPlan(UpdateServiceInstanceRequest request) {
+		if (request.getPlan() != null) {
+			return request.getPlan();
+		}
+		ServiceDefinition serviceDefinition = request.getServiceDefinition();
+		PreviousValues previousValues = request.getPreviousValues();
+		if (serviceDefinition == null || previousValues == null || previousValues.getPlanId() == null) {
+			return null;
+		}
+		return serviceDefinition.getPlan(previousValues.getPlanId());
+	}
+
+}
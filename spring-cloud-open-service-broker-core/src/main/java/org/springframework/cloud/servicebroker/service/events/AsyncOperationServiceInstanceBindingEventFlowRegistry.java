@@ -49,19 +49,19 @@ public class AsyncOperationServiceInstanceBindingEventFlowRegistry extends
 
 	@Override
 	public Flux<Void> getInitializationFlows(GetLastServiceBindingOperationRequest request) {
-		return getInitializationFlowsInternal().flatMap((flow) -> flow.initialize(request));
+		return executeInitializationFlows((flow) -> flow.initialize(request));
 	}
 
 	@Override
 	public Flux<Void> getCompletionFlows(GetLastServiceBindingOperationRequest request,
 			GetLastServiceBindingOperationResponse response) {
 
-		return getCompletionFlowsInternal().flatMap((flow) -> flow.complete(request, response));
+		return executeCompletionFlows((flow) -> flow.complete(request, response));
 	}
 
 	@Override
 	public Flux<Void> getErrorFlows(GetLastServiceBindingOperationRequest request, Throwable t) {
-		return getErrorFlowsInternal().flatMap((flow) -> flow.error(request, t));
+		return executeErrorFlows((flow) -> flow.error(request, t));
 	}
 
 }
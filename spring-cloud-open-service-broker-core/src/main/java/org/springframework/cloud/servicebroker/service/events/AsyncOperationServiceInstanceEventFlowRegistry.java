@@ -49,18 +49,18 @@ public class AsyncOperationServiceInstanceEventFlowRegistry extends
 
 	@Override
 	public Flux<Void> getInitializationFlows(GetLastServiceOperationRequest request) {
-		return getInitializationFlowsInternal().flatMap((flow) -> flow.initialize(request));
+		return executeInitializationFlows((flow) -> flow.initialize(request));
 	}
 
 	@Override
 	public Flux<Void> getCompletionFlows(GetLastServiceOperationRequest request,
 			GetLastServiceOperationResponse response) {
-		return getCompletionFlowsInternal().flatMap((flow) -> flow.complete(request, response));
+		return executeCompletionFlows((flow) -> flow.complete(request, response));
 	}
 
 	@Override
 	public Flux<Void> getErrorFlows(GetLastServiceOperationRequest request, Throwable t) {
-		return getErrorFlowsInternal().flatMap((flow) -> flow.error(request, t));
+		return executeErrorFlows((flow) -> flow.error(request, t));
 	}
 
 }
@@ -49,17 +49,17 @@ public class CreateServiceInstanceEventFlowRegistry extends
 
 	@Override
 	public Flux<Void> getInitializationFlows(CreateServiceInstanceRequest request) {
-		return getInitializationFlowsInternal().flatMap((flow) -> flow.initialize(request));
+		return executeInitializationFlows((flow) -> flow.initialize(request));
 	}
 
 	@Override
 	public Flux<Void> getCompletionFlows(CreateServiceInstanceRequest request, CreateServiceInstanceResponse response) {
-		return getCompletionFlowsInternal().flatMap((flow) -> flow.complete(request, response));
+		return executeCompletionFlows((flow) -> flow.complete(request, response));
 	}
 
 	@Override
 	public Flux<Void> getErrorFlows(CreateServiceInstanceRequest request, Throwable t) {
-		return getErrorFlowsInternal().flatMap((flow) -> flow.error(request, t));
+		return executeErrorFlows((flow) -> flow.error(request, t));
 	}
 
 }
@@ -0,0 +1,123 @@
+/*
+ * Copyright 2002-2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.servicebroker.service.events;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import org.springframework.util.Assert;
+
+/**
+ * Runs event flows that use the
+ * {@link FlowExecutionStrategy#detached(DetachedFlowExecutor) detached} strategy,
+ * separately from the service broker operation that triggered them. A flow is submitted
+ * when its stage of the operation runs, which may be before the HTTP response has been
+ * written.
+ *
+ * <p>
+ * The number of flows that are waiting or running is bounded by a capacity. A flow that
+ * is submitted while the executor is full is dropped and counted, so that slow flows
+ * cannot exhaust memory when the service broker is under load.
+ */
+public class DetachedFlowExecutor {
+
+	/**
+	 * The default maximum number of flows that are waiting or running.
+	 */
+	public static final int DEFAULT_CAPACITY = 1000;
+
+	private static final Logger LOG = LoggerFactory.getLogger(DetachedFlowExecutor.class);
+
+	private final int capacity;
+
+	private final Scheduler scheduler;
+
+	private final AtomicInteger pending = new AtomicInteger();
+
+	private final AtomicLong dropped = new AtomicLong();
+
+	/**
+	 * Construct an executor with the default capacity that runs flows on the bounded
+	 * elastic scheduler.
+	 */
+	public DetachedFlowExecutor() {
+		this(DEFAULT_CAPACITY, Schedulers.boundedElastic());
+	}
+
+	/**
+	 * Construct an executor.
+	 * @param capacity the maximum number of flows that are waiting or running
+	 * @param scheduler the scheduler to run the flows on
+	 */
+	public DetachedFlowExecutor(int capacity, Scheduler scheduler) {
+		Assert.isTrue(capacity > 0, "capacity must be positive");
+		Assert.notNull(scheduler, "scheduler must not be null");
+		this.capacity = capacity;
+		this.scheduler = scheduler;
+	}
+
+	/**
+	 * Run a flow, unless the executor is full.
+	 * @param invocation the invocation of the flow
+	 * @return true if the flow was accepted, false if it was dropped
+	 */
+	public boolean execute(Supplier<Mono<Void>> invocation) {
+		if (this.pending.incrementAndGet() > this.capacity) {
+			this.pending.decrementAndGet();
+			this.dropped.incrementAndGet();
+			LOG.warn("Dropping detached event flow because {} flows are already pending", this.capacity);
+			return false;
+		}
+		Mono.defer(invocation)
+			.subscribeOn(this.scheduler)
+			.doFinally((signal) -> this.pending.decrementAndGet())
+			.subscribe(null, (ex) -> LOG.warn("Error running detached event flow", ex));
+		return true;
+	}
+
+	/**
+	 * The maximum number of flows that are waiting or running.
+	 * @return the capacity
+	 */
+	public int getCapacity() {
+		return this.capacity;
+	}
+
+	/**
+	 * The number of flows that are waiting or running.
+	 * @return the number of pending flows
+	 */
+	public int getPendingCount() {
+		return this.pending.get();
+	}
+
+	/**
+	 * The number of flows that were dropped because the executor was full.
+	 * @return the number of dropped flows
+	 */
+	public long getDroppedCount() {
+		return this.dropped.get();
+	}
+
+}
@@ -64,6 +64,22 @@ public class EventFlowRegistries {
 		this.asyncOperationBindingRegistry = asyncOperationBindingRegistry;
 	}
 
+	/**
+	 * Set whether the flow invocations of every registry are observed as steps of the
+	 * service broker operation.
+	 * @param observingSteps true if an instrumentation observes the steps of an operation
+	 * @see EventFlowRegistry#setObservingSteps(boolean)
+	 */
+	public void setObservingSteps(boolean observingSteps) {
+		this.createInstanceRegistry.setObservingSteps(observingSteps);
+		this.updateInstanceRegistry.setObservingSteps(observingSteps);
+		this.deleteInstanceRegistry.setObservingSteps(observingSteps);
+		this.asyncOperationRegistry.setObservingSteps(observingSteps);
+		this.createInstanceBindingRegistry.setObservingSteps(observingSteps);
+		this.deleteInstanceBindingRegistry.setObservingSteps(observingSteps);
+		this.asyncOperationBindingRegistry.setObservingSteps(observingSteps);
+	}
+
 	public CreateServiceInstanceEventFlowRegistry getCreateInstanceRegistry() {
 		return this.createInstanceRegistry;
 	}
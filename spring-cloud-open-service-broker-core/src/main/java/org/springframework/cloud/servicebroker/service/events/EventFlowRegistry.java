@@ -16,16 +16,51 @@
 
 package org.springframework.cloud.servicebroker.service.events;
 
-import java.util.ArrayList;
+import java.time.Duration;
 import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Function;
+import java.util.function.Supplier;
 
-import org.apache.commons.collections.CollectionUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import reactor.core.Disposable;
+import reactor.core.Disposables;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import org.springframework.cloud.servicebroker.observability.ServiceBrokerObservations;
+import org.springframework.util.Assert;
+
 /**
  * Abstract class for defining an event flow registry.
  *
+ * <p>
+ * The registered flows of each kind are held in an immutable list that is replaced
+ * atomically when a flow is registered or unregistered, so that reading them for a
+ * request needs no locking or copying. Flows can be added and removed while requests are
+ * being processed; a request uses the flows that were registered when each of its stages
+ * started.
+ * {@link #applyFlows(Object, Mono)} only assembles the flows of the kinds that have
+ * registered flows, so that a registry without flows adds no cost to an operation.
+ *
+ * <p>
+ * The flows of a stage are run with the {@link FlowExecutionStrategy} of the registry,
+ * unless a flow provides its own by implementing {@link FlowExecutionStrategyProvider}.
+ * Flows that use different strategies are run one group after another, in the order in
+ * which the first flow of each group was registered. The groups are worked out when a
+ * flow is registered or unregistered and when the strategy of the registry is set, so a
+ * flow must return the same strategy from
+ * {@link FlowExecutionStrategyProvider#getExecutionStrategy()} each time.
+ *
+ * <p>
+ * Each flow can be limited by a {@link #setFlowTimeout(Duration) timeout}, after which
+ * it fails with a {@link java.util.concurrent.TimeoutException}. Failures are counted per
+ * flow, and a {@link #setCircuitBreaker(int, Duration) circuit breaker} can skip a flow
+ * that has failed repeatedly, so that a hung or failing flow does not hold up every
+ * operation.
+ *
  * @param <I> type of initialization flow
  * @param <C> type of completion flow
  * @param <E> type of error flow
@@ -35,11 +70,25 @@ import reactor.core.publisher.Mono;
  */
 public abstract class EventFlowRegistry<I, C, E, R, S> {
 
-	private final List<Mono<I>> initializationFlows = new ArrayList<>();
+	private static final Logger LOG = LoggerFactory.getLogger(EventFlowRegistry.class);
+
+	private final RegisteredFlows<I> initializationFlows;
+
+	private final RegisteredFlows<C> completionFlows;
+
+	private final RegisteredFlows<E> errorFlows;
 
-	private final List<Mono<C>> completionFlows = new ArrayList<>();
+	private volatile FlowExecutionStrategy executionStrategy = FlowExecutionStrategy.parallel();
 
-	private final List<Mono<E>> errorFlows = new ArrayList<>();
+	private final ConcurrentMap<Object, FlowCircuitBreaker> circuitBreakers = new ConcurrentHashMap<>();
+
+	private volatile Duration flowTimeout;
+
+	private volatile int failureThreshold;
+
+	private volatile Duration openDuration = Duration.ZERO;
+
+	private volatile boolean observingSteps;
 
 	/**
 	 * Construct a new {@link EventFlowRegistry}.
@@ -48,15 +97,99 @@ public abstract class EventFlowRegistry<I, C, E, R, S> {
 	 * @param errorFlows the error flows
 	 */
 	protected EventFlowRegistry(List<I> initializationFlows, List<C> completionFlows, List<E> errorFlows) {
-		if (CollectionUtils.isNotEmpty(initializationFlows)) {
-			initializationFlows.forEach((flow) -> this.initializationFlows.add(Mono.just(flow)));
-		}
-		if (CollectionUtils.isNotEmpty(completionFlows)) {
-			completionFlows.forEach((flow) -> this.completionFlows.add(Mono.just(flow)));
-		}
-		if (CollectionUtils.isNotEmpty(errorFlows)) {
-			errorFlows.forEach((flow) -> this.errorFlows.add(Mono.just(flow)));
-		}
+		this.initializationFlows = new RegisteredFlows<>(initializationFlows, this.executionStrategy);
+		this.completionFlows = new RegisteredFlows<>(completionFlows, this.executionStrategy);
+		this.errorFlows = new RegisteredFlows<>(errorFlows, this.executionStrategy);
+		addCircuitBreakers(this.initializationFlows.get());
+		addCircuitBreakers(this.completionFlows.get());
+		addCircuitBreakers(this.errorFlows.get());
+	}
+
+	/**
+	 * Set the strategy used to run the flows that do not provide their own. Defaults to
+	 * {@link FlowExecutionStrategy#parallel()}.
+	 * @param executionStrategy the strategy
+	 */
+	public void setExecutionStrategy(FlowExecutionStrategy executionStrategy) {
+		Assert.notNull(executionStrategy, "executionStrategy must not be null");
+		this.executionStrategy = executionStrategy;
+		this.initializationFlows.setDefaultStrategy(executionStrategy);
+		this.completionFlows.setDefaultStrategy(executionStrategy);
+		this.errorFlows.setDefaultStrategy(executionStrategy);
+	}
+
+	/**
+	 * The strategy used to run the flows that do not provide their own.
+	 * @return the strategy
+	 */
+	public FlowExecutionStrategy getExecutionStrategy() {
+		return this.executionStrategy;
+	}
+
+	/**
+	 * Set how long each flow may run before it fails with a
+	 * {@link java.util.concurrent.TimeoutException}. Flows are not limited by default.
+	 * @param flowTimeout the timeout, or {@literal null} for no timeout
+	 */
+	public void setFlowTimeout(Duration flowTimeout) {
+		Assert.isTrue(flowTimeout == null || flowTimeout.isPositive(), "flowTimeout must be positive");
+		this.flowTimeout = flowTimeout;
+	}
+
+	/**
+	 * The time each flow may run before it fails.
+	 * @return the timeout, or {@literal null} if flows are not limited
+	 */
+	public Duration getFlowTimeout() {
+		return this.flowTimeout;
+	}
+
+	/**
+	 * Skip a flow for the open duration after it has failed or timed out the provided
+	 * number of times in a row. Once the open duration has passed a single invocation of
+	 * the flow is let through as a trial: if it succeeds the flow is invoked again and
+	 * its count is reset, and if it fails the flow is skipped for another open duration.
+	 * The circuit breaker is disabled by default.
+	 * @param failureThreshold the number of failures in a row that open the circuit, or 0
+	 * to disable the circuit breaker
+	 * @param openDuration how long a flow is skipped
+	 */
+	public void setCircuitBreaker(int failureThreshold, Duration openDuration) {
+		Assert.isTrue(failureThreshold >= 0, "failureThreshold must not be negative");
+		Assert.notNull(openDuration, "openDuration must not be null");
+		Assert.isTrue(!openDuration.isNegative(), "openDuration must not be negative");
+		this.openDuration = openDuration;
+		this.failureThreshold = failureThreshold;
+	}
+
+	/**
+	 * Set whether flow invocations are observed as steps of the service broker
+	 * operation. Flows are invoked without observation by default.
+	 * @param observingSteps true if an instrumentation observes the steps of an operation
+	 * @see ServiceBrokerObservations
+	 */
+	public void setObservingSteps(boolean observingSteps) {
+		this.observingSteps = observingSteps;
+	}
+
+	/**
+	 * The number of times a flow has failed or timed out.
+	 * @param flow a registered flow
+	 * @return the number of failures
+	 */
+	public long getFailureCount(Object flow) {
+		FlowCircuitBreaker circuitBreaker = this.circuitBreakers.get(flow);
+		return (circuitBreaker != null) ? circuitBreaker.getFailureCount() : 0;
+	}
+
+	/**
+	 * Whether a flow is currently skipped because it has failed repeatedly.
+	 * @param flow a registered flow
+	 * @return true if the circuit of the flow is open
+	 */
+	public boolean isCircuitOpen(Object flow) {
+		FlowCircuitBreaker circuitBreaker = this.circuitBreakers.get(flow);
+		return circuitBreaker != null && circuitBreaker.isOpen(System.nanoTime());
 	}
 
 	/**
@@ -65,7 +198,17 @@ public abstract class EventFlowRegistry<I, C, E, R, S> {
 	 * @return an empty Mono
 	 */
 	public Mono<Void> addInitializationFlow(I object) {
-		return Mono.justOrEmpty(object).map((flow) -> this.initializationFlows.add(Mono.just(flow))).then();
+		return Mono.justOrEmpty(object).doOnNext((flow) -> register(this.initializationFlows, flow)).then();
+	}
+
+	/**
+	 * Register an initialization flow immediately.
+	 * @param flow the initialization flow
+	 * @return a handle that unregisters the flow when disposed
+	 */
+	public Disposable registerInitializationFlow(I flow) {
+		Assert.notNull(flow, "Initialization flow must not be null");
+		return register(this.initializationFlows, flow);
 	}
 
 	/**
@@ -76,11 +219,19 @@ public abstract class EventFlowRegistry<I, C, E, R, S> {
 	public abstract Flux<Void> getInitializationFlows(R request);
 
 	/**
-	 * Merges the initialization flows into a Flux.
+	 * Emits the registered initialization flows.
 	 * @return a Flux of initialization flows
 	 */
 	protected Flux<I> getInitializationFlowsInternal() {
-		return Flux.merge(this.initializationFlows);
+		return Flux.fromIterable(this.initializationFlows.get());
+	}
+
+	/**
+	 * Whether any initialization flows are registered.
+	 * @return true if at least one initialization flow is registered
+	 */
+	public boolean hasInitializationFlows() {
+		return !this.initializationFlows.isEmpty();
 	}
 
 	/**
@@ -89,7 +240,17 @@ public abstract class EventFlowRegistry<I, C, E, R, S> {
 	 * @return an empty Mono
 	 */
 	public Mono<Void> addCompletionFlow(C object) {
-		return Mono.justOrEmpty(object).map((flow) -> this.completionFlows.add(Mono.just(flow))).then();
+		return Mono.justOrEmpty(object).doOnNext((flow) -> register(this.completionFlows, flow)).then();
+	}
+
+	/**
+	 * Register a completion flow immediately.
+	 * @param flow the completion flow
+	 * @return a handle that unregisters the flow when disposed
+	 */
+	public Disposable registerCompletionFlow(C flow) {
+		Assert.notNull(flow, "Completion flow must not be null");
+		return register(this.completionFlows, flow);
 	}
 
 	/**
@@ -101,11 +262,19 @@ public abstract class EventFlowRegistry<I, C, E, R, S> {
 	public abstract Flux<Void> getCompletionFlows(R request, S response);
 
 	/**
-	 * Merges the completion flows into a Flux.
+	 * Emits the registered completion flows.
 	 * @return a Flux of completion flows
 	 */
 	protected Flux<C> getCompletionFlowsInternal() {
-		return Flux.merge(this.completionFlows);
+		return Flux.fromIterable(this.completionFlows.get());
+	}
+
+	/**
+	 * Whether any completion flows are registered.
+	 * @return true if at least one completion flow is registered
+	 */
+	public boolean hasCompletionFlows() {
+		return !this.completionFlows.isEmpty();
 	}
 
 	/**
@@ -114,7 +283,17 @@ public abstract class EventFlowRegistry<I, C, E, R, S> {
 	 * @return an empty Mono
 	 */
 	public Mono<Void> addErrorFlow(E object) {
-		return Mono.justOrEmpty(object).map((flow) -> this.errorFlows.add(Mono.just(flow))).then();
+		return Mono.justOrEmpty(object).doOnNext((flow) -> register(this.errorFlows, flow)).then();
+	}
+
+	/**
+	 * Register an error flow immediately.
+	 * @param flow the error flow
+	 * @return a handle that unregisters the flow when disposed
+	 */
+	public Disposable registerErrorFlow(E flow) {
+		Assert.notNull(flow, "Error flow must not be null");
+		return register(this.errorFlows, flow);
 	}
 
 	/**
@@ -126,11 +305,144 @@ public abstract class EventFlowRegistry<I, C, E, R, S> {
 	public abstract Flux<Void> getErrorFlows(R request, Throwable t);
 
 	/**
-	 * Merges the error flows into a Flux.
+	 * Emits the registered error flows.
 	 * @return a Flux of error flows
 	 */
 	protected Flux<E> getErrorFlowsInternal() {
-		return Flux.merge(this.errorFlows);
+		return Flux.fromIterable(this.errorFlows.get());
+	}
+
+	/**
+	 * Whether any error flows are registered.
+	 * @return true if at least one error flow is registered
+	 */
+	public boolean hasErrorFlows() {
+		return !this.errorFlows.isEmpty();
+	}
+
+	/**
+	 * Apply the registered flows to an operation. The initialization flows run before the
+	 * operation, the error flows run if the initialization flows or the operation fail,
+	 * and the completion flows run after the operation succeeds. Flows of a kind that has
+	 * no registered flows are not assembled, so the operation is returned unchanged if no
+	 * flows are registered.
+	 * @param request the service broker request
+	 * @param operation the operation
+	 * @return the operation with the registered flows applied
+	 */
+	public Mono<S> applyFlows(R request, Mono<S> operation) {
+		Mono<S> result = operation;
+		if (hasInitializationFlows()) {
+			result = getInitializationFlows(request).then(result);
+		}
+		if (hasErrorFlows()) {
+			result = result.onErrorResume((ex) -> getErrorFlows(request, ex).then(Mono.error(ex)));
+		}
+		if (hasCompletionFlows()) {
+			result = result.flatMap((response) -> getCompletionFlows(request, response).then(Mono.just(response)));
+		}
+		return result;
+	}
+
+	/**
+	 * Run the registered initialization flows with their execution strategies.
+	 * @param invocation the invocation of a flow
+	 * @return a Flux that completes when the flows have completed
+	 */
+	protected Flux<Void> executeInitializationFlows(Function<I, Mono<Void>> invocation) {
+		return executeFlows("initialization", this.initializationFlows, invocation);
+	}
+
+	/**
+	 * Run the registered completion flows with their execution strategies.
+	 * @param invocation the invocation of a flow
+	 * @return a Flux that completes when the flows have completed
+	 */
+	protected Flux<Void> executeCompletionFlows(Function<C, Mono<Void>> invocation) {
+		return executeFlows("completion", this.completionFlows, invocation);
+	}
+
+	/**
+	 * Run the registered error flows with their execution strategies.
+	 * @param invocation the invocation of a flow
+	 * @return a Flux that completes when the flows have completed
+	 */
+	protected Flux<Void> executeErrorFlows(Function<E, Mono<Void>> invocation) {
+		return executeFlows("error", this.errorFlows, invocation);
+	}
+
+	/**
+	 * Invoke a flow, observing the invocation as a step of the service broker operation
+	 * if {@link #setObservingSteps(boolean) enabled}.
+	 * @param phase the phase of the operation, such as {@literal initialization},
+	 * {@literal completion}, or {@literal error}
+	 * @param flow the flow
+	 * @param invocation the invocation of the flow
+	 * @return the result of the invocation
+	 * @see ServiceBrokerObservations#observeFlow(String, Object, Supplier)
+	 */
+	protected Mono<Void> invokeFlow(String phase, Object flow, Supplier<Mono<Void>> invocation) {
+		return (this.observingSteps) ? ServiceBrokerObservations.observeFlow(phase, flow, invocation)
+				: invocation.get();
+	}
+
+	private <F> Flux<Void> executeFlows(String phase, RegisteredFlows<F> flows, Function<F, Mono<Void>> invocation) {
+		List<RegisteredFlows.Group<F>> groups = flows.getGroups();
+		if (groups.isEmpty()) {
+			return Flux.empty();
+		}
+		Function<F, Mono<Void>> observed = (flow) -> invokeIsolated(phase, flow, invocation);
+		if (groups.size() == 1) {
+			RegisteredFlows.Group<F> group = groups.get(0);
+			return group.getStrategy().execute(group.getFlows(), observed);
+		}
+		return Flux.fromIterable(groups).concatMap((group) -> group.getStrategy().execute(group.getFlows(), observed));
+	}
+
+	private <F> Mono<Void> invokeIsolated(String phase, F flow, Function<F, Mono<Void>> invocation) {
+		FlowCircuitBreaker circuitBreaker = this.circuitBreakers.get(flow);
+		Duration timeout = this.flowTimeout;
+		Supplier<Mono<Void>> limited = () -> {
+			Mono<Void> result = invocation.apply(flow);
+			return (timeout != null) ? result.timeout(timeout) : result;
+		};
+		if (circuitBreaker == null) {
+			// the flow was unregistered after the stage read the registered flows
+			return invokeFlow(phase, flow, limited);
+		}
+		if (!circuitBreaker.tryAcquire(System.nanoTime())) {
+			return Mono.empty();
+		}
+		return invokeFlow(phase, flow, limited)
+			.doOnSuccess((result) -> circuitBreaker.recordSuccess())
+			.doOnError((ex) -> {
+				int threshold = this.failureThreshold;
+				if (circuitBreaker.recordFailure(System.nanoTime(), threshold, this.openDuration.toNanos())) {
+					LOG.warn("Skipping {} event flow {} for {} after {} failures in a row", phase, flow,
+							this.openDuration, threshold);
+				}
+			})
+			.doOnCancel(circuitBreaker::release);
+	}
+
+	private <F> Disposable register(RegisteredFlows<F> flows, F flow) {
+		Disposable registration = flows.register(flow);
+		this.circuitBreakers.computeIfAbsent(flow, (key) -> new FlowCircuitBreaker());
+		// the same flow can be registered more than once, so its failure history is only
+		// discarded once no registration of it is left
+		return Disposables.composite(registration, () -> this.circuitBreakers.computeIfPresent(flow,
+				(key, circuitBreaker) -> isRegistered(flow) ? circuitBreaker : null));
+	}
+
+	private void addCircuitBreakers(List<?> flows) {
+		for (Object flow : flows) {
+			this.circuitBreakers.computeIfAbsent(flow, (key) -> new FlowCircuitBreaker());
+		}
+	}
+
+	private boolean isRegistered(Object flow) {
+		return this.initializationFlows.contains(flow) || this.completionFlows.contains(flow)
+				|| this.errorFlows.contains(flow);
 	}
 
 }
@@ -0,0 +1,110 @@
+/*
+ * Copyright 2002-2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.servicebroker.service.events;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The failure history of a single registered flow. The circuit opens when the flow has
+ * failed a number of times in a row, and the flow is skipped while it is open. Once the
+ * open duration has passed the circuit is half-open: a single trial invocation is let
+ * through, and the flow is skipped until that trial has either succeeded, which closes
+ * the circuit, or failed, which opens it again.
+ */
+final class FlowCircuitBreaker {
+
+	private static final int CLOSED = 0;
+
+	private static final int OPEN = 1;
+
+	private static final int HALF_OPEN = 2;
+
+	private final AtomicInteger state = new AtomicInteger(CLOSED);
+
+	private final AtomicInteger consecutiveFailures = new AtomicInteger();
+
+	private final AtomicLong failures = new AtomicLong();
+
+	private volatile long openUntil;
+
+	/**
+	 * Whether the flow is skipped. A flow whose open duration has passed is not skipped,
+	 * as its next invocation is let through as a trial.
+	 * @param now the current value of {@link System#nanoTime()}
+	 * @return true if the circuit is open or a trial invocation is in progress
+	 */
+	boolean isOpen(long now) {
+		int current = this.state.get();
+		return current == HALF_OPEN || (current == OPEN && now - this.openUntil < 0);
+	}
+
+	/**
+	 * Acquire permission to invoke the flow. Once the open duration has passed only the
+	 * first caller is permitted, as the trial invocation.
+	 * @param now the current value of {@link System#nanoTime()}
+	 * @return true if the flow may be invoked
+	 */
+	boolean tryAcquire(long now) {
+		int current = this.state.get();
+		if (current == CLOSED) {
+			return true;
+		}
+		return current == OPEN && now - this.openUntil >= 0 && this.state.compareAndSet(OPEN, HALF_OPEN);
+	}
+
+	/**
+	 * Give up a permission without a result, for example because the invocation was
+	 * cancelled, so that a later invocation can be the trial.
+	 */
+	void release() {
+		this.state.compareAndSet(HALF_OPEN, OPEN);
+	}
+
+	void recordSuccess() {
+		this.consecutiveFailures.set(0);
+		this.state.set(CLOSED);
+	}
+
+	/**
+	 * Record a failure of the flow.
+	 * @param now the current value of {@link System#nanoTime()}
+	 * @param failureThreshold the number of failures in a row that open the circuit, or 0
+	 * to never open it
+	 * @param openDurationNanos how long the circuit stays open
+	 * @return true if the failure opened the circuit
+	 */
+	boolean recordFailure(long now, int failureThreshold, long openDurationNanos) {
+		this.failures.incrementAndGet();
+		int consecutive = this.consecutiveFailures.incrementAndGet();
+		if (failureThreshold <= 0) {
+			this.state.set(CLOSED);
+			return false;
+		}
+		if (this.state.get() == HALF_OPEN || consecutive >= failureThreshold) {
+			this.openUntil = now + openDurationNanos;
+			this.state.set(OPEN);
+			return true;
+		}
+		return false;
+	}
+
+	long getFailureCount() {
+		return this.failures.get();
+	}
+
+}
@@ -0,0 +1,193 @@
+/*
+ * Copyright 2002-2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.servicebroker.service.events;
+
+import java.util.List;
+import java.util.function.Function;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.util.concurrent.Queues;
+
+import org.springframework.util.Assert;
+
+/**
+ * Determines how the flows of one stage of a service broker operation are run.
+ *
+ * <p>
+ * A registry uses the strategy set with
+ * {@link EventFlowRegistry#setExecutionStrategy(FlowExecutionStrategy)}, which is
+ * {@link #parallel()} by default. A flow can choose its own strategy by implementing
+ * {@link FlowExecutionStrategyProvider}.
+ */
+public abstract class FlowExecutionStrategy {
+
+	private static final FlowExecutionStrategy SEQUENTIAL = new Sequential();
+
+	private static final FlowExecutionStrategy PARALLEL = new Parallel(Queues.SMALL_BUFFER_SIZE);
+
+	FlowExecutionStrategy() {
+	}
+
+	/**
+	 * Run the flows one after another, in the order they were registered. Each flow
+	 * starts when the previous one completes.
+	 * @return the strategy
+	 */
+	public static FlowExecutionStrategy sequential() {
+		return SEQUENTIAL;
+	}
+
+	/**
+	 * Run the flows concurrently. This is the default strategy of a registry.
+	 * @return the strategy
+	 */
+	public static FlowExecutionStrategy parallel() {
+		return PARALLEL;
+	}
+
+	/**
+	 * Run the flows concurrently, with at most the provided number of flows running at
+	 * the same time.
+	 * @param maxConcurrency the maximum number of flows that run at the same time
+	 * @return the strategy
+	 */
+	public static FlowExecutionStrategy parallel(int maxConcurrency) {
+		Assert.isTrue(maxConcurrency > 0, "maxConcurrency must be positive");
+		return new Parallel(maxConcurrency);
+	}
+
+	/**
+	 * Hand the flows to a {@link DetachedFlowExecutor} and continue the operation without
+	 * waiting for them. Errors of detached flows are logged and do not affect the
+	 * response, and flows are dropped if the executor is full.
+	 * <p>
+	 * The flows are handed over when the stage runs, not after the HTTP response has
+	 * been written. A detached completion flow can therefore start, and even finish,
+	 * before the platform has received the response, and must not rely on it having
+	 * done so.
+	 * @param executor the executor that runs the flows
+	 * @return the strategy
+	 */
+	public static FlowExecutionStrategy detached(DetachedFlowExecutor executor) {
+		Assert.notNull(executor, "executor must not be null");
+		return new Detached(executor);
+	}
+
+	/**
+	 * Run the flows.
+	 * @param flows the flows
+	 * @param invocation the invocation of a flow
+	 * @param <F> the type of flow
+	 * @return a Flux that completes when the flows the response waits for have completed
+	 */
+	abstract <F> Flux<Void> execute(List<F> flows, Function<F, Mono<Void>> invocation);
+
+	private static final class Sequential extends FlowExecutionStrategy {
+
+		@Override
+		<F> Flux<Void> execute(List<F> flows, Function<F, Mono<Void>> invocation) {
+			return Flux.fromIterable(flows).concatMap(invocation);
+		}
+
+		@Override
+		public String toString() {
+			return "sequential";
+		}
+
+	}
+
+	private static final class Parallel extends FlowExecutionStrategy {
+
+		private final int maxConcurrency;
+
+		private Parallel(int maxConcurrency) {
+			this.maxConcurrency = maxConcurrency;
+		}
+
+		@Override
+		<F> Flux<Void> execute(List<F> flows, Function<F, Mono<Void>> invocation) {
+			return Flux.fromIterable(flows).flatMap(invocation, this.maxConcurrency);
+		}
+
+		@Override
+		public boolean equals(Object o) {
+			if (this == o) {
+				return true;
+			}
+			if (!(o instanceof Parallel)) {
+				return false;
+			}
+			Parallel that = (Parallel) o;
+			return this.maxConcurrency == that.maxConcurrency;
+		}
+
+		@Override
+		public int hashCode() {
+			return Integer.hashCode(this.maxConcurrency);
+		}
+
+		@Override
+		public String toString() {
+			return "parallel(" + this.maxConcurrency + ")";
+		}
+
+	}
+
+	private static final class Detached extends FlowExecutionStrategy {
+
+		private final DetachedFlowExecutor executor;
+
+		private Detached(DetachedFlowExecutor executor) {
+			this.executor = executor;
+		}
+
+		@Override
+		<F> Flux<Void> execute(List<F> flows, Function<F, Mono<Void>> invocation) {
+			return Flux.defer(() -> {
+				for (F flow : flows) {
+					this.executor.execute(() -> invocation.apply(flow));
+				}
+				return Flux.empty();
+			});
+		}
+
+		@Override
+		public boolean equals(Object o) {
+			if (this == o) {
+				return true;
+			}
+			if (!(o instanceof Detached)) {
+				return false;
+			}
+			Detached that = (Detached) o;
+			return this.executor == that.executor;
+		}
+
+		@Override
+		public int hashCode() {
+			return System.identityHashCode(this.executor);
+		}
+
+		@Override
+		public String toString() {
+			return "detached";
+		}
+
+	}
+
+}
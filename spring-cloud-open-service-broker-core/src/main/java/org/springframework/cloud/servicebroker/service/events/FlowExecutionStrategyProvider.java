@@ -0,0 +1,31 @@
+/*
+ * Copyright 2002-2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.servicebroker.service.events;
+
+/**
+ * Implemented by an event flow that needs a different {@link FlowExecutionStrategy} than
+ * the one of the registry it is added to.
+ */
+public interface FlowExecutionStrategyProvider {
+
+	/**
+	 * The strategy to run this flow with.
+	 * @return the strategy
+	 */
+	FlowExecutionStrategy getExecutionStrategy();
+
+}
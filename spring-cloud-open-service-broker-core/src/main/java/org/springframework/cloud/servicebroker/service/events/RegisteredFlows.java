@@ -0,0 +1,199 @@
+/*
+ * Copyright 2002-2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.servicebroker.service.events;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import reactor.core.Disposable;
+
+/**
+ * The registered flows of one kind. The flows are held in an immutable snapshot that is
+ * replaced with compare-and-set when a flow is registered or unregistered, or when the
+ * default execution strategy changes, so reading the flows takes no lock and always sees
+ * a complete list.
+ *
+ * <p>
+ * Each snapshot also holds the flows grouped by their {@link FlowExecutionStrategy}, so
+ * that running a stage does not group the flows again. The strategy of a flow that
+ * implements {@link FlowExecutionStrategyProvider} is read when the snapshot is built.
+ *
+ * @param <T> the type of flow
+ */
+final class RegisteredFlows<T> {
+
+	private final AtomicReference<Snapshot<T>> snapshot;
+
+	RegisteredFlows(List<T> flows, FlowExecutionStrategy defaultStrategy) {
+		this.snapshot = new AtomicReference<>(
+				new Snapshot<>((flows != null) ? List.copyOf(flows) : List.of(), defaultStrategy));
+	}
+
+	List<T> get() {
+		return this.snapshot.get().flows;
+	}
+
+	/**
+	 * The flows grouped by execution strategy, in the order in which the first flow of
+	 * each group was registered.
+	 * @return the groups
+	 */
+	List<Group<T>> getGroups() {
+		return this.snapshot.get().groups;
+	}
+
+	boolean isEmpty() {
+		return this.snapshot.get().flows.isEmpty();
+	}
+
+	boolean contains(Object flow) {
+		for (T registered : this.snapshot.get().flows) {
+			if (registered == flow) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Register a flow.
+	 * @param flow the flow
+	 * @return a handle that unregisters the flow when disposed
+	 */
+	Disposable register(T flow) {
+		this.snapshot.updateAndGet((current) -> current.withFlows(append(current.flows, flow)));
+		return new Registration(flow);
+	}
+
+	/**
+	 * Set the strategy of the flows that do not provide their own, and group the flows
+	 * again.
+	 * @param defaultStrategy the strategy
+	 */
+	void setDefaultStrategy(FlowExecutionStrategy defaultStrategy) {
+		this.snapshot.updateAndGet((current) -> new Snapshot<>(current.flows, defaultStrategy));
+	}
+
+	private static <T> List<T> append(List<T> flows, T flow) {
+		List<T> appended = new ArrayList<>(flows.size() + 1);
+		appended.addAll(flows);
+		appended.add(flow);
+		return List.copyOf(appended);
+	}
+
+	private static <T> List<T> remove(List<T> flows, T flow) {
+		for (int i = 0; i < flows.size(); i++) {
+			if (flows.get(i) == flow) {
+				List<T> removed = new ArrayList<>(flows);
+				removed.remove(i);
+				return List.copyOf(removed);
+			}
+		}
+		return flows;
+	}
+
+	/**
+	 * Flows that are run with the same strategy.
+	 *
+	 * @param <T> the type of flow
+	 */
+	static final class Group<T> {
+
+		private final FlowExecutionStrategy strategy;
+
+		private final List<T> flows;
+
+		private Group(FlowExecutionStrategy strategy, List<T> flows) {
+			this.strategy = strategy;
+			this.flows = flows;
+		}
+
+		FlowExecutionStrategy getStrategy() {
+			return this.strategy;
+		}
+
+		List<T> getFlows() {
+			return this.flows;
+		}
+
+	}
+
+	private static final class Snapshot<T> {
+
+		private final List<T> flows;
+
+		private final FlowExecutionStrategy defaultStrategy;
+
+		private final List<Group<T>> groups;
+
+		private Snapshot(List<T> flows, FlowExecutionStrategy defaultStrategy) {
+			this.flows = flows;
+			this.defaultStrategy = defaultStrategy;
+			this.groups = group(flows, defaultStrategy);
+		}
+
+		private Snapshot<T> withFlows(List<T> flows) {
+			return (flows != this.flows) ? new Snapshot<>(flows, this.defaultStrategy) : this;
+		}
+
+		private static <T> List<Group<T>> group(List<T> flows, FlowExecutionStrategy defaultStrategy) {
+			Map<FlowExecutionStrategy, List<T>> groups = new LinkedHashMap<>();
+			for (T flow : flows) {
+				FlowExecutionStrategy strategy = null;
+				if (flow instanceof FlowExecutionStrategyProvider provider) {
+					strategy = provider.getExecutionStrategy();
+				}
+				groups.computeIfAbsent((strategy != null) ? strategy : defaultStrategy, (key) -> new ArrayList<>())
+					.add(flow);
+			}
+			List<Group<T>> grouped = new ArrayList<>(groups.size());
+			groups.forEach((strategy, members) -> grouped.add(new Group<>(strategy, List.copyOf(members))));
+			return List.copyOf(grouped);
+		}
+
+	}
+
+	private final class Registration implements Disposable {
+
+		private final T flow;
+
+		private final AtomicBoolean disposed = new AtomicBoolean();
+
+		private Registration(T flow) {
+			this.flow = flow;
+		}
+
+		@Override
+		public void dispose() {
+			if (this.disposed.compareAndSet(false, true)) {
+				RegisteredFlows.this.snapshot
+					.updateAndGet((current) -> current.withFlows(remove(current.flows, this.flow)));
+			}
+		}
+
+		@Override
+		public boolean isDisposed() {
+			return this.disposed.get();
+		}
+
+	}
+
+}
@@ -0,0 +1,319 @@
+/*
+ * Copyright 2002-2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.servicebroker.service.events.outbox;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.util.concurrent.Queues;
+
+import org.springframework.context.SmartLifecycle;
+import org.springframework.util.Assert;
+
+/**
+ * Completion and error flows that collect an {@link OutboxEvent} for every service
+ * instance and service instance binding that is created, updated, or deleted, and hand
+ * them to an {@link OutboxEventConsumer} in batches.
+ *
+ * <p>
+ * A batch is delivered when it reaches the maximum batch size, or when the maximum wait
+ * has passed since its first event, whichever comes first. Batches are delivered one at a
+ * time. Events wait in a bounded buffer while the consumer processes a batch; once the
+ * buffer is full, the flows wait until the consumer takes an event from the buffer,
+ * slowing down the operations that publish events until the consumer catches up. A flow
+ * waits at most the maximum publish wait; after that, the event is dropped, logged, and
+ * counted in {@link #getDroppedCount()}, so that a stalled consumer does not block
+ * operations indefinitely.
+ *
+ * <p>
+ * Events published before the sink is started, or after it is stopped, are buffered and
+ * delivered when it is started again. Stopping the sink delivers the events that are
+ * already buffered, waiting at most the {@link #setShutdownTimeout(Duration) shutdown
+ * timeout} for the consumer to process them.
+ *
+ * <p>
+ * Events are held in memory only. A batch the consumer fails to process is logged and
+ * discarded, and buffered events are lost if the process stops. Use
+ * {@link OutboxEventFlows} when events must not be lost.
+ */
+public class BatchingEventSink extends OperationEventFlows implements SmartLifecycle {
+
+	/**
+	 * The default maximum number of events in a batch.
+	 */
+	public static final int DEFAULT_MAX_BATCH_SIZE = 100;
+
+	/**
+	 * The default maximum time an event waits for its batch to be delivered.
+	 */
+	public static final Duration DEFAULT_MAX_WAIT = Duration.ofSeconds(1);
+
+	/**
+	 * The default number of events that can wait for delivery.
+	 */
+	public static final int DEFAULT_BUFFER_SIZE = 1024;
+
+	/**
+	 * The default maximum time a flow waits for space in the buffer.
+	 */
+	public static final Duration DEFAULT_MAX_PUBLISH_WAIT = Duration.ofSeconds(5);
+
+	/**
+	 * The default maximum time stopping the sink waits for the buffered events to be
+	 * delivered.
+	 */
+	public static final Duration DEFAULT_SHUTDOWN_TIMEOUT = Duration.ofSeconds(10);
+
+	private static final Logger LOG = LoggerFactory.getLogger(BatchingEventSink.class);
+
+	private final OutboxEventConsumer consumer;
+
+	private final int maxBatchSize;
+
+	private final Duration maxWait;
+
+	private final int bufferSize;
+
+	private final Duration maxPublishWait;
+
+	private final Object lock = new Object();
+
+	private final AtomicLong sequence = new AtomicLong();
+
+	private final AtomicLong droppedCount = new AtomicLong();
+
+	private final AtomicReference<Sinks.Empty<Void>> spaceAvailable = new AtomicReference<>();
+
+	private volatile Duration shutdownTimeout = DEFAULT_SHUTDOWN_TIMEOUT;
+
+	private Sinks.Many<OutboxEvent> events;
+
+	private volatile Disposable subscription;
+
+	private Mono<Void> delivered;
+
+	/**
+	 * Construct a sink with the default batch size, maximum wait, and buffer size.
+	 * @param consumer the consumer to deliver batches to
+	 */
+	public BatchingEventSink(OutboxEventConsumer consumer) {
+		this(consumer, DEFAULT_MAX_BATCH_SIZE, DEFAULT_MAX_WAIT, DEFAULT_BUFFER_SIZE);
+	}
+
+	/**
+	 * Construct a sink.
+	 * @param consumer the consumer to deliver batches to
+	 * @param maxBatchSize the maximum number of events in a batch
+	 * @param maxWait the maximum time an event waits for its batch to be delivered
+	 * @param bufferSize the number of events that can wait for delivery before
+	 * publishing waits
+	 */
+	public BatchingEventSink(OutboxEventConsumer consumer, int maxBatchSize, Duration maxWait, int bufferSize) {
+		this(consumer, maxBatchSize, maxWait, bufferSize, DEFAULT_MAX_PUBLISH_WAIT);
+	}
+
+	/**
+	 * Construct a sink.
+	 * @param consumer the consumer to deliver batches to
+	 * @param maxBatchSize the maximum number of events in a batch
+	 * @param maxWait the maximum time an event waits for its batch to be delivered
+	 * @param bufferSize the number of events that can wait for delivery before
+	 * publishing waits
+	 * @param maxPublishWait the maximum time a flow waits for space in the buffer before
+	 * the event is dropped
+	 */
+	public BatchingEventSink(OutboxEventConsumer consumer, int maxBatchSize, Duration maxWait, int bufferSize,
+			Duration maxPublishWait) {
+		Assert.notNull(consumer, "consumer must not be null");
+		Assert.isTrue(maxBatchSize > 0, "maxBatchSize must be positive");
+		Assert.isTrue(maxWait != null && maxWait.isPositive(), "maxWait must be positive");
+		Assert.isTrue(bufferSize >= maxBatchSize, "bufferSize must not be less than maxBatchSize");
+		Assert.isTrue(maxPublishWait != null && maxPublishWait.isPositive(), "maxPublishWait must be positive");
+		this.consumer = consumer;
+		this.maxBatchSize = maxBatchSize;
+		this.maxWait = maxWait;
+		this.bufferSize = bufferSize;
+		this.maxPublishWait = maxPublishWait;
+		this.events = createEvents();
+	}
+
+	/**
+	 * Set the maximum time stopping the sink waits for the buffered events to be
+	 * delivered. Once it has passed, the sink is reported as stopped and the remaining
+	 * events are delivered in the background. Defaults to
+	 * {@link #DEFAULT_SHUTDOWN_TIMEOUT}.
+	 * @param shutdownTimeout the timeout
+	 */
+	public void setShutdownTimeout(Duration shutdownTimeout) {
+		Assert.isTrue(shutdownTimeout != null && shutdownTimeout.isPositive(), "shutdownTimeout must be positive");
+		this.shutdownTimeout = shutdownTimeout;
+	}
+
+	@Override
+	protected Mono<Void> publish(OutboxEvent event) {
+		OutboxEvent sequenced = event.withSequence(this.sequence.incrementAndGet());
+		return Mono.defer(() -> tryPublish(sequenced))
+			.repeatWhenEmpty((attempts) -> attempts)
+			.then()
+			.timeout(this.maxPublishWait)
+			.onErrorResume(TimeoutException.class, (ex) -> {
+				drop(sequenced, "the buffer stayed full for " + this.maxPublishWait);
+				return Mono.empty();
+			});
+	}
+
+	/**
+	 * The number of events that were dropped because they could not be buffered.
+	 * @return the number of dropped events
+	 */
+	public long getDroppedCount() {
+		return this.droppedCount.get();
+	}
+
+	@Override
+	public synchronized void start() {
+		if (this.subscription == null) {
+			Sinks.Many<OutboxEvent> events;
+			synchronized (this.lock) {
+				events = this.events;
+			}
+			Sinks.Empty<Void> delivered = Sinks.empty();
+			this.delivered = delivered.asMono();
+			this.subscription = events.asFlux()
+				.doOnNext((event) -> signalSpaceAvailable())
+				.bufferTimeout(this.maxBatchSize, this.maxWait, true)
+				.concatMap((batch) -> this.consumer.accept(batch).onErrorResume((ex) -> {
+					LOG.warn("Error delivering a batch of {} events; discarding the batch", batch.size(), ex);
+					return Mono.empty();
+				}), 1)
+				.doFinally((signal) -> delivered.tryEmitEmpty())
+				.subscribe();
+		}
+	}
+
+	/**
+	 * Stop delivering events, and wait until the events that are already buffered have
+	 * been delivered, or the shutdown timeout has passed. Events published afterwards are
+	 * buffered until the sink is started again.
+	 */
+	@Override
+	public void stop() {
+		CountDownLatch stopped = new CountDownLatch(1);
+		stop(stopped::countDown);
+		try {
+			stopped.await();
+		}
+		catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	/**
+	 * Stop delivering events. The callback is run once the events that are already
+	 * buffered have been delivered, or the shutdown timeout has passed. Events published
+	 * afterwards are buffered until the sink is started again.
+	 * @param callback the callback to run once the sink has stopped
+	 */
+	@Override
+	public synchronized void stop(Runnable callback) {
+		if (this.subscription == null) {
+			callback.run();
+			return;
+		}
+		synchronized (this.lock) {
+			this.events.tryEmitComplete();
+			this.events = createEvents();
+		}
+		signalSpaceAvailable();
+		Duration timeout = this.shutdownTimeout;
+		Mono<Void> timedOut = Mono.fromRunnable(
+				() -> LOG.warn("Buffered events were not delivered within {}; continuing in the background", timeout));
+		this.delivered.timeout(timeout, timedOut).doFinally((signal) -> callback.run()).subscribe();
+		this.subscription = null;
+		this.delivered = null;
+	}
+
+	@Override
+	public boolean isRunning() {
+		return this.subscription != null;
+	}
+
+	private Sinks.Many<OutboxEvent> createEvents() {
+		return Sinks.many().unicast().onBackpressureBuffer(Queues.<OutboxEvent>get(this.bufferSize).get());
+	}
+
+	/**
+	 * Try to buffer an event.
+	 * @param event the event
+	 * @return a Mono that emits once the event has been buffered or dropped, or that
+	 * completes empty once the consumer takes an event from a full buffer, so that the
+	 * event is tried again
+	 */
+	private Mono<Boolean> tryPublish(OutboxEvent event) {
+		Sinks.EmitResult result = emit(event);
+		if (result == Sinks.EmitResult.FAIL_OVERFLOW) {
+			// wait for space before trying again, so that space freed in between is seen
+			Mono<Void> spaceAvailable = awaitSpaceAvailable();
+			result = emit(event);
+			if (result == Sinks.EmitResult.FAIL_OVERFLOW) {
+				return spaceAvailable.then(Mono.empty());
+			}
+		}
+		if (result.isFailure()) {
+			drop(event, "the buffer rejected it with " + result);
+		}
+		return Mono.just(Boolean.TRUE);
+	}
+
+	private Sinks.EmitResult emit(OutboxEvent event) {
+		synchronized (this.lock) {
+			return this.events.tryEmitNext(event);
+		}
+	}
+
+	/**
+	 * A signal, shared by all flows that wait for space in the buffer, that completes
+	 * when the consumer takes the next event from the buffer.
+	 * @return the signal
+	 */
+	private Mono<Void> awaitSpaceAvailable() {
+		return this.spaceAvailable.updateAndGet((current) -> (current != null) ? current : Sinks.empty()).asMono();
+	}
+
+	private void signalSpaceAvailable() {
+		if (this.spaceAvailable.get() != null) {
+			Sinks.Empty<Void> waiting = this.spaceAvailable.getAndSet(null);
+			if (waiting != null) {
+				waiting.tryEmitEmpty();
+			}
+		}
+	}
+
+	private void drop(OutboxEvent event, String reason) {
+		this.droppedCount.incrementAndGet();
+		LOG.warn("Dropping event {} because {}", event, reason);
+	}
+
+}
@@ -0,0 +1,158 @@
+/*
+ * Copyright 2002-2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.servicebroker.service.events.outbox;
+
+import reactor.core.publisher.Mono;
+
+import org.springframework.cloud.servicebroker.model.AsyncServiceBrokerResponse;
+import org.springframework.cloud.servicebroker.model.binding.CreateServiceInstanceBindingRequest;
+import org.springframework.cloud.servicebroker.model.binding.CreateServiceInstanceBindingResponse;
+import org.springframework.cloud.servicebroker.model.binding.DeleteServiceInstanceBindingRequest;
+import org.springframework.cloud.servicebroker.model.binding.DeleteServiceInstanceBindingResponse;
+import org.springframework.cloud.servicebroker.model.instance.CreateServiceInstanceRequest;
+import org.springframework.cloud.servicebroker.model.instance.CreateServiceInstanceResponse;
+import org.springframework.cloud.servicebroker.model.instance.DeleteServiceInstanceRequest;
+import org.springframework.cloud.servicebroker.model.instance.DeleteServiceInstanceResponse;
+import org.springframework.cloud.servicebroker.model.instance.UpdateServiceInstanceRequest;
+import org.springframework.cloud.servicebroker.model.instance.UpdateServiceInstanceResponse;
+import org.springframework.cloud.servicebroker.service.events.flows.CreateServiceInstanceBindingCompletionFlow;
+import org.springframework.cloud.servicebroker.service.events.flows.CreateServiceInstanceBindingErrorFlow;
+import org.springframework.cloud.servicebroker.service.events.flows.CreateServiceInstanceCompletionFlow;
+import org.springframework.cloud.servicebroker.service.events.flows.CreateServiceInstanceErrorFlow;
+import org.springframework.cloud.servicebroker.service.events.flows.DeleteServiceInstanceBindingCompletionFlow;
+import org.springframework.cloud.servicebroker.service.events.flows.DeleteServiceInstanceBindingErrorFlow;
+import org.springframework.cloud.servicebroker.service.events.flows.DeleteServiceInstanceCompletionFlow;
+import org.springframework.cloud.servicebroker.service.events.flows.DeleteServiceInstanceErrorFlow;
+import org.springframework.cloud.servicebroker.service.events.flows.UpdateServiceInstanceCompletionFlow;
+import org.springframework.cloud.servicebroker.service.events.flows.UpdateServiceInstanceErrorFlow;
+import org.springframework.cloud.servicebroker.service.events.outbox.OutboxEvent.Operation;
+import org.springframework.cloud.servicebroker.service.events.outbox.OutboxEvent.OutboxEventBuilder;
+import org.springframework.cloud.servicebroker.service.events.outbox.OutboxEvent.Phase;
+
+/**
+ * Base class for completion and error flows that publish an {@link OutboxEvent} for every
+ * service instance and service instance binding that is created, updated, or deleted.
+ * As a bean, an implementation is added to the create, update, and delete event flow
+ * registries.
+ *
+ * @see OutboxEventFlows
+ * @see BatchingEventSink
+ */
+public abstract class OperationEventFlows implements CreateServiceInstanceCompletionFlow,
+		CreateServiceInstanceErrorFlow, UpdateServiceInstanceCompletionFlow, UpdateServiceInstanceErrorFlow,
+		DeleteServiceInstanceCompletionFlow, DeleteServiceInstanceErrorFlow, CreateServiceInstanceBindingCompletionFlow,
+		CreateServiceInstanceBindingErrorFlow, DeleteServiceInstanceBindingCompletionFlow,
+		DeleteServiceInstanceBindingErrorFlow {
+
+	@Override
+	public Mono<Void> complete(CreateServiceInstanceRequest request, CreateServiceInstanceResponse response) {
+		return publish(completed(instanceEvent(Operation.CREATE_SERVICE_INSTANCE, request.getServiceInstanceId(),
+				request.getServiceDefinitionId(), request.getPlanId(), request.getPlatformInstanceId()), response));
+	}
+
+	@Override
+	public Mono<Void> error(CreateServiceInstanceRequest request, Throwable t) {
+		return publish(failed(instanceEvent(Operation.CREATE_SERVICE_INSTANCE, request.getServiceInstanceId(),
+				request.getServiceDefinitionId(), request.getPlanId(), request.getPlatformInstanceId()), t));
+	}
+
+	@Override
+	public Mono<Void> complete(UpdateServiceInstanceRequest request, UpdateServiceInstanceResponse response) {
+		return publish(completed(instanceEvent(Operation.UPDATE_SERVICE_INSTANCE, request.getServiceInstanceId(),
+				request.getServiceDefinitionId(), request.getPlanId(), request.getPlatformInstanceId()), response));
+	}
+
+	@Override
+	public Mono<Void> error(UpdateServiceInstanceRequest request, Throwable t) {
+		return publish(failed(instanceEvent(Operation.UPDATE_SERVICE_INSTANCE, request.getServiceInstanceId(),
+				request.getServiceDefinitionId(), request.getPlanId(), request.getPlatformInstanceId()), t));
+	}
+
+	@Override
+	public Mono<Void> complete(DeleteServiceInstanceRequest request, DeleteServiceInstanceResponse response) {
+		return publish(completed(instanceEvent(Operation.DELETE_SERVICE_INSTANCE, request.getServiceInstanceId(),
+				request.getServiceDefinitionId(), request.getPlanId(), request.getPlatformInstanceId()), response));
+	}
+
+	@Override
+	public Mono<Void> error(DeleteServiceInstanceRequest request, Throwable t) {
+		return publish(failed(instanceEvent(Operation.DELETE_SERVICE_INSTANCE, request.getServiceInstanceId(),
+				request.getServiceDefinitionId(), request.getPlanId(), request.getPlatformInstanceId()), t));
+	}
+
+	@Override
+	public Mono<Void> complete(CreateServiceInstanceBindingRequest request,
+			CreateServiceInstanceBindingResponse response) {
+		return publish(completed(instanceEvent(Operation.CREATE_SERVICE_INSTANCE_BINDING,
+				request.getServiceInstanceId(), request.getServiceDefinitionId(), request.getPlanId(),
+				request.getPlatformInstanceId())
+			.bindingId(request.getBindingId()), response));
+	}
+
+	@Override
+	public Mono<Void> error(CreateServiceInstanceBindingRequest request, Throwable t) {
+		return publish(failed(instanceEvent(Operation.CREATE_SERVICE_INSTANCE_BINDING, request.getServiceInstanceId(),
+				request.getServiceDefinitionId(), request.getPlanId(), request.getPlatformInstanceId())
+			.bindingId(request.getBindingId()), t));
+	}
+
+	@Override
+	public Mono<Void> complete(DeleteServiceInstanceBindingRequest request,
+			DeleteServiceInstanceBindingResponse response) {
+		return publish(completed(instanceEvent(Operation.DELETE_SERVICE_INSTANCE_BINDING,
+				request.getServiceInstanceId(), request.getServiceDefinitionId(), request.getPlanId(),
+				request.getPlatformInstanceId())
+			.bindingId(request.getBindingId()), response));
+	}
+
+	@Override
+	public Mono<Void> error(DeleteServiceInstanceBindingRequest request, Throwable t) {
+		return publish(failed(instanceEvent(Operation.DELETE_SERVICE_INSTANCE_BINDING, request.getServiceInstanceId(),
+				request.getServiceDefinitionId(), request.getPlanId(), request.getPlatformInstanceId())
+			.bindingId(request.getBindingId()), t));
+	}
+
+	/**
+	 * Publish an event of a completed or failed operation.
+	 * @param event the event
+	 * @return a Mono that completes when the operation may continue
+	 */
+	protected abstract Mono<Void> publish(OutboxEvent event);
+
+	private static OutboxEventBuilder instanceEvent(Operation operation, String serviceInstanceId,
+			String serviceDefinitionId, String planId, String platformInstanceId) {
+		return OutboxEvent.builder()
+			.operation(operation)
+			.serviceInstanceId(serviceInstanceId)
+			.serviceDefinitionId(serviceDefinitionId)
+			.planId(planId)
+			.platformInstanceId(platformInstanceId);
+	}
+
+	private static OutboxEvent completed(OutboxEventBuilder builder, AsyncServiceBrokerResponse response) {
+		builder.phase(Phase.COMPLETION);
+		if (response != null) {
+			builder.async(response.isAsync()).asyncOperation(response.getOperation());
+		}
+		return builder.build();
+	}
+
+	private static OutboxEvent failed(OutboxEventBuilder builder, Throwable t) {
+		return builder.phase(Phase.ERROR).error((t != null) ? t.getMessage() : null).build();
+	}
+
+}
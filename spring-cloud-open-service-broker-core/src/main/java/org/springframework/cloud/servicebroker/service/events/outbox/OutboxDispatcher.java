@@ -0,0 +1,143 @@
+/*
+ * Copyright 2002-2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.servicebroker.service.events.outbox;
+
+import java.time.Duration;
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import org.springframework.context.SmartLifecycle;
+import org.springframework.util.Assert;
+
+/**
+ * Delivers the events of a {@link SegmentFileOutbox} to an {@link OutboxEventConsumer}
+ * in the background.
+ *
+ * <p>
+ * While running, the dispatcher reads the events that follow the checkpoint in batches
+ * and hands each batch to the consumer. The checkpoint advances once the consumer has
+ * processed a batch. If the consumer fails, the batch is delivered again after the poll
+ * interval, so events are delivered at least once and in order.
+ */
+public class OutboxDispatcher implements SmartLifecycle {
+
+	/**
+	 * The default maximum number of events delivered in one batch.
+	 */
+	public static final int DEFAULT_BATCH_SIZE = 100;
+
+	/**
+	 * The default time to wait for new events once the outbox has been drained.
+	 */
+	public static final Duration DEFAULT_POLL_INTERVAL = Duration.ofSeconds(1);
+
+	private static final Logger LOG = LoggerFactory.getLogger(OutboxDispatcher.class);
+
+	private final SegmentFileOutbox outbox;
+
+	private final OutboxEventConsumer consumer;
+
+	private final int batchSize;
+
+	private final Duration pollInterval;
+
+	private volatile Disposable subscription;
+
+	/**
+	 * Construct a dispatcher with the default batch size and poll interval.
+	 * @param outbox the outbox to read events from
+	 * @param consumer the consumer to deliver events to
+	 */
+	public OutboxDispatcher(SegmentFileOutbox outbox, OutboxEventConsumer consumer) {
+		this(outbox, consumer, DEFAULT_BATCH_SIZE, DEFAULT_POLL_INTERVAL);
+	}
+
+	/**
+	 * Construct a dispatcher.
+	 * @param outbox the outbox to read events from
+	 * @param consumer the consumer to deliver events to
+	 * @param batchSize the maximum number of events delivered in one batch
+	 * @param pollInterval the time to wait for new events once the outbox has been
+	 * drained, or after a failed delivery
+	 */
+	public OutboxDispatcher(SegmentFileOutbox outbox, OutboxEventConsumer consumer, int batchSize,
+			Duration pollInterval) {
+		Assert.notNull(outbox, "outbox must not be null");
+		Assert.notNull(consumer, "consumer must not be null");
+		Assert.isTrue(batchSize > 0, "batchSize must be positive");
+		Assert.isTrue(pollInterval != null && pollInterval.isPositive(), "pollInterval must be positive");
+		this.outbox = outbox;
+		this.consumer = consumer;
+		this.batchSize = batchSize;
+		this.pollInterval = pollInterval;
+	}
+
+	/**
+	 * Deliver the next batch of events, if there are any.
+	 * @return the number of events delivered
+	 */
+	public Mono<Integer> dispatch() {
+		return Mono.fromCallable(() -> this.outbox.read(this.batchSize))
+			.subscribeOn(Schedulers.boundedElastic())
+			.flatMap((events) -> events.isEmpty() ? Mono.just(0) : deliver(events));
+	}
+
+	@Override
+	public synchronized void start() {
+		if (this.subscription == null) {
+			this.subscription = Mono.defer(this::drain)
+				.onErrorResume((ex) -> {
+					LOG.warn("Error delivering outbox events; retrying in {}", this.pollInterval, ex);
+					return Mono.empty();
+				})
+				.then(Mono.delay(this.pollInterval))
+				.repeat()
+				.subscribe();
+		}
+	}
+
+	@Override
+	public synchronized void stop() {
+		if (this.subscription != null) {
+			this.subscription.dispose();
+			this.subscription = null;
+		}
+	}
+
+	@Override
+	public boolean isRunning() {
+		return this.subscription != null;
+	}
+
+	private Mono<Void> drain() {
+		return dispatch().flatMap((count) -> (count < this.batchSize) ? Mono.<Void>empty() : drain());
+	}
+
+	private Mono<Integer> deliver(List<OutboxEvent> events) {
+		long last = events.get(events.size() - 1).getSequence();
+		return this.consumer.accept(events).then(Mono.fromCallable(() -> {
+			this.outbox.checkpoint(last);
+			return events.size();
+		}).subscribeOn(Schedulers.boundedElastic()));
+	}
+
+}
@@ -0,0 +1,400 @@
+/*
+ * Copyright 2002-2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.servicebroker.service.events.outbox;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * A completion or error event of a service broker operation, as stored in a
+ * {@link SegmentFileOutbox} or collected by a {@link BatchingEventSink}.
+ *
+ * <p>
+ * Only the identifiers and outcome of the operation are recorded. Request parameters and
+ * binding credentials are not written to the outbox.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class OutboxEvent {
+
+	private final long sequence;
+
+	private final Operation operation;
+
+	private final Phase phase;
+
+	private final String serviceInstanceId;
+
+	private final String bindingId;
+
+	private final String serviceDefinitionId;
+
+	private final String planId;
+
+	private final String platformInstanceId;
+
+	private final boolean async;
+
+	private final String asyncOperation;
+
+	private final String error;
+
+	private final long timestamp;
+
+	@JsonCreator
+	OutboxEvent(@JsonProperty("sequence") long sequence, @JsonProperty("operation") Operation operation,
+			@JsonProperty("phase") Phase phase, @JsonProperty("serviceInstanceId") String serviceInstanceId,
+			@JsonProperty("bindingId") String bindingId,
+			@JsonProperty("serviceDefinitionId") String serviceDefinitionId, @JsonProperty("planId") String planId,
+			@JsonProperty("platformInstanceId") String platformInstanceId, @JsonProperty("async") boolean async,
+			@JsonProperty("asyncOperation") String asyncOperation, @JsonProperty("error") String error,
+			@JsonProperty("timestamp") long timestamp) {
+		this.sequence = sequence;
+		this.operation = operation;
+		this.phase = phase;
+		this.serviceInstanceId = serviceInstanceId;
+		this.bindingId = bindingId;
+		this.serviceDefinitionId = serviceDefinitionId;
+		this.planId = planId;
+		this.platformInstanceId = platformInstanceId;
+		this.async = async;
+		this.asyncOperation = asyncOperation;
+		this.error = error;
+		this.timestamp = timestamp;
+	}
+
+	/**
+	 * The position of the event in the outbox. Sequences increase by one for each event
+	 * appended to an outbox.
+	 * @return the sequence
+	 */
+	public long getSequence() {
+		return this.sequence;
+	}
+
+	/**
+	 * The service broker operation the event was recorded for.
+	 * @return the operation
+	 */
+	public Operation getOperation() {
+		return this.operation;
+	}
+
+	/**
+	 * Whether the operation completed or failed.
+	 * @return the phase
+	 */
+	public Phase getPhase() {
+		return this.phase;
+	}
+
+	/**
+	 * The ID of the service instance.
+	 * @return the service instance ID
+	 */
+	public String getServiceInstanceId() {
+		return this.serviceInstanceId;
+	}
+
+	/**
+	 * The ID of the service instance binding, for binding operations.
+	 * @return the binding ID, or {@literal null}
+	 */
+	public String getBindingId() {
+		return this.bindingId;
+	}
+
+	/**
+	 * The ID of the service definition.
+	 * @return the service definition ID
+	 */
+	public String getServiceDefinitionId() {
+		return this.serviceDefinitionId;
+	}
+
+	/**
+	 * The ID of the plan.
+	 * @return the plan ID
+	 */
+	public String getPlanId() {
+		return this.planId;
+	}
+
+	/**
+	 * The ID of the platform instance that sent the request.
+	 * @return the platform instance ID
+	 */
+	public String getPlatformInstanceId() {
+		return this.platformInstanceId;
+	}
+
+	/**
+	 * Whether the operation was accepted to complete asynchronously.
+	 * @return true if the operation is asynchronous
+	 */
+	public boolean isAsync() {
+		return this.async;
+	}
+
+	/**
+	 * The operation value returned to the platform for an asynchronous operation.
+	 * @return the operation value, or {@literal null}
+	 */
+	public String getAsyncOperation() {
+		return this.asyncOperation;
+	}
+
+	/**
+	 * The message of the error, for error events.
+	 * @return the error message, or {@literal null}
+	 */
+	public String getError() {
+		return this.error;
+	}
+
+	/**
+	 * When the event was recorded, in milliseconds since the epoch.
+	 * @return the timestamp
+	 */
+	public long getTimestamp() {
+		return this.timestamp;
+	}
+
+	OutboxEvent withSequence(long sequence) {
+		return new OutboxEvent(sequence, this.operation, this.phase, this.serviceInstanceId, this.bindingId,
+				this.serviceDefinitionId, this.planId, this.platformInstanceId, this.async, this.asyncOperation,
+				this.error, this.timestamp);
+	}
+
+	/**
+	 * Create a builder that provides a fluent API for constructing an
+	 * {@literal OutboxEvent}.
+	 * @return the builder
+	 */
+	public static OutboxEventBuilder builder() {
+		return new OutboxEventBuilder();
+	}
+
+	@Override
+	public String toString() {
+		return "OutboxEvent{" + "sequence=" + this.sequence + ", operation=" + this.operation + ", phase=" + this.phase
+				+ ", serviceInstanceId='" + this.serviceInstanceId + "', bindingId='" + this.bindingId + "'}";
+	}
+
+	/**
+	 * The service broker operations that record events.
+	 */
+	public enum Operation {
+
+		/**
+		 * Create a service instance.
+		 */
+		CREATE_SERVICE_INSTANCE,
+
+		/**
+		 * Update a service instance.
+		 */
+		UPDATE_SERVICE_INSTANCE,
+
+		/**
+		 * Delete a service instance.
+		 */
+		DELETE_SERVICE_INSTANCE,
+
+		/**
+		 * Create a service instance binding.
+		 */
+		CREATE_SERVICE_INSTANCE_BINDING,
+
+		/**
+		 * Delete a service instance binding.
+		 */
+		DELETE_SERVICE_INSTANCE_BINDING
+
+	}
+
+	/**
+	 * The outcome of an operation.
+	 */
+	public enum Phase {
+
+		/**
+		 * The operation completed.
+		 */
+		COMPLETION,
+
+		/**
+		 * The operation failed.
+		 */
+		ERROR
+
+	}
+
+	/**
+	 * Provides a fluent API for constructing an {@link OutboxEvent}.
+	 */
+	public static final class OutboxEventBuilder {
+
+		private Operation operation;
+
+		private Phase phase;
+
+		private String serviceInstanceId;
+
+		private String bindingId;
+
+		private String serviceDefinitionId;
+
+		private String planId;
+
+		private String platformInstanceId;
+
+		private boolean async;
+
+		private String asyncOperation;
+
+		private String error;
+
+		private long timestamp = System.currentTimeMillis();
+
+		private OutboxEventBuilder() {
+		}
+
+		/**
+		 * The service broker operation.
+		 * @param operation the operation
+		 * @return the builder instance
+		 */
+		public OutboxEventBuilder operation(Operation operation) {
+			this.operation = operation;
+			return this;
+		}
+
+		/**
+		 * Whether the operation completed or failed.
+		 * @param phase the phase
+		 * @return the builder instance
+		 */
+		public OutboxEventBuilder phase(Phase phase) {
+			this.phase = phase;
+			return this;
+		}
+
+		/**
+		 * The ID of the service instance.
+		 * @param serviceInstanceId the service instance ID
+		 * @return the builder instance
+		 */
+		public OutboxEventBuilder serviceInstanceId(String serviceInstanceId) {
+			this.serviceInstanceId = serviceInstanceId;
+			return this;
+		}
+
+		/**
+		 * The ID of the service instance binding.
+		 * @param bindingId the binding ID
+		 * @return the builder instance
+		 */
+		public OutboxEventBuilder bindingId(String bindingId) {
+			this.bindingId = bindingId;
+			return this;
+		}
+
+		/**
+		 * The ID of the service definition.
+		 * @param serviceDefinitionId the service definition ID
+		 * @return the builder instance
+		 */
+		public OutboxEventBuilder serviceDefinitionId(String serviceDefinitionId) {
+			this.serviceDefinitionId = serviceDefinitionId;
+			return this;
+		}
+
+		/**
+		 * The ID of the plan.
+		 * @param planId the plan ID
+		 * @return the builder instance
+		 */
+		public OutboxEventBuilder planId(String planId) {
+			this.planId = planId;
+			return this;
+		}
+
+		/**
+		 * The ID of the platform instance that sent the request.
+		 * @param platformInstanceId the platform instance ID
+		 * @return the builder instance
+		 */
+		public OutboxEventBuilder platformInstanceId(String platformInstanceId) {
+			this.platformInstanceId = platformInstanceId;
+			return this;
+		}
+
+		/**
+		 * Whether the operation was accepted to complete asynchronously.
+		 * @param async true if the operation is asynchronous
+		 * @return the builder instance
+		 */
+		public OutboxEventBuilder async(boolean async) {
+			this.async = async;
+			return this;
+		}
+
+		/**
+		 * The operation value returned to the platform for an asynchronous operation.
+		 * @param asyncOperation the operation value
+		 * @return the builder instance
+		 */
+		public OutboxEventBuilder asyncOperation(String asyncOperation) {
+			this.asyncOperation = asyncOperation;
+			return this;
+		}
+
+		/**
+		 * The message of the error that failed the operation.
+		 * @param error the error message
+		 * @return the builder instance
+		 */
+		public OutboxEventBuilder error(String error) {
+			this.error = error;
+			return this;
+		}
+
+		/**
+		 * When the event was recorded. Defaults to the time the builder was created.
+		 * @param timestamp the timestamp in milliseconds since the epoch
+		 * @return the builder instance
+		 */
+		public OutboxEventBuilder timestamp(long timestamp) {
+			this.timestamp = timestamp;
+			return this;
+		}
+
+		/**
+		 * Construct an {@link OutboxEvent} from the provided values. The sequence is
+		 * assigned when the event is appended to an outbox.
+		 * @return the newly constructed {@literal OutboxEvent}
+		 */
+		public OutboxEvent build() {
+			return new OutboxEvent(0, this.operation, this.phase, this.serviceInstanceId, this.bindingId,
+					this.serviceDefinitionId, this.planId, this.platformInstanceId, this.async, this.asyncOperation,
+					this.error, this.timestamp);
+		}
+
+	}
+
+}
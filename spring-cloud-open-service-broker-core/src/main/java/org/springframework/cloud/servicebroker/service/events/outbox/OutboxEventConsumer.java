@@ -0,0 +1,43 @@
+/*
+ * Copyright 2002-2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.servicebroker.service.events.outbox;
+
+import java.util.List;
+
+import reactor.core.publisher.Mono;
+
+/**
+ * Receives batches of {@link OutboxEvent events}, either from an
+ * {@link OutboxDispatcher} or from a {@link BatchingEventSink}.
+ *
+ * <p>
+ * An {@link OutboxDispatcher} delivers events at least once. If the returned Mono fails,
+ * the same events are delivered again in a later batch, so an implementation should use
+ * {@link OutboxEvent#getSequence()} to recognize events it has already processed. A
+ * {@link BatchingEventSink} does not deliver a failed batch again.
+ */
+@FunctionalInterface
+public interface OutboxEventConsumer {
+
+	/**
+	 * Process a batch of events, in the order they were appended.
+	 * @param events the events
+	 * @return a Mono that completes when the events have been processed
+	 */
+	Mono<Void> accept(List<OutboxEvent> events);
+
+}
@@ -0,0 +1,104 @@
+/*
+ * Copyright 2002-2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.servicebroker.service.events.outbox;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import org.springframework.util.Assert;
+
+/**
+ * Completion and error flows that append an {@link OutboxEvent} to a
+ * {@link SegmentFileOutbox} for every service instance and service instance binding
+ * that is created, updated, or deleted.
+ *
+ * <p>
+ * The event is written on the bounded elastic scheduler, and the operation continues once
+ * the event is stored, so that the event is not lost if the process stops afterwards.
+ *
+ * <p>
+ * A failure to store the event, for example because the disk is full, is logged and
+ * counted in {@link #getFailedCount()}. By default the event is then dropped and the
+ * flow completes, because the flows run after the operation has been performed, and the
+ * platform would otherwise be told that an operation failed when it succeeded. If
+ * {@link #setFailOnAppendError(boolean) failOnAppendError} is set, the flow fails with
+ * the error instead, and so does the operation, although it has been performed. Set it
+ * when an operation must not succeed without its event, and the service broker can
+ * handle the platform retrying an operation that was already performed.
+ */
+public class OutboxEventFlows extends OperationEventFlows {
+
+	private static final Logger LOG = LoggerFactory.getLogger(OutboxEventFlows.class);
+
+	private final SegmentFileOutbox outbox;
+
+	private final AtomicLong failedCount = new AtomicLong();
+
+	private volatile boolean failOnAppendError;
+
+	/**
+	 * Construct the flows.
+	 * @param outbox the outbox to append events to
+	 */
+	public OutboxEventFlows(SegmentFileOutbox outbox) {
+		Assert.notNull(outbox, "outbox must not be null");
+		this.outbox = outbox;
+	}
+
+	/**
+	 * Set whether a failure to store an event fails the flow, and so the operation,
+	 * instead of dropping the event. Defaults to {@literal false}.
+	 * @param failOnAppendError whether to fail the flow
+	 */
+	public void setFailOnAppendError(boolean failOnAppendError) {
+		this.failOnAppendError = failOnAppendError;
+	}
+
+	/**
+	 * Whether a failure to store an event fails the flow, and so the operation.
+	 * @return true if the flow fails, false if the event is dropped
+	 */
+	public boolean isFailOnAppendError() {
+		return this.failOnAppendError;
+	}
+
+	@Override
+	protected Mono<Void> publish(OutboxEvent event) {
+		return Mono.fromRunnable(() -> this.outbox.append(event))
+			.subscribeOn(Schedulers.boundedElastic())
+			.then()
+			.onErrorResume((ex) -> {
+				this.failedCount.incrementAndGet();
+				LOG.error("Unable to record " + event.getOperation() + " event for service instance "
+						+ event.getServiceInstanceId() + " in the outbox", ex);
+				return (this.failOnAppendError) ? Mono.error(ex) : Mono.empty();
+			});
+	}
+
+	/**
+	 * The number of events that could not be stored in the outbox.
+	 * @return the number of failed events
+	 */
+	public long getFailedCount() {
+		return this.failedCount.get();
+	}
+
+}
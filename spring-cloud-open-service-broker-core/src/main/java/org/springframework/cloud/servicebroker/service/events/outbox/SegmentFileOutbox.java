@@ -0,0 +1,572 @@
+/*
+ * Copyright 2002-2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.servicebroker.service.events.outbox;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import org.springframework.util.Assert;
+
+/**
+ * An append-only outbox of {@link OutboxEvent events}, stored in segment files in a local
+ * directory.
+ *
+ * <p>
+ * Each event is written as one line of JSON to the active segment, which is rolled over
+ * to a new segment once it reaches the segment size. The sequence of the last delivered
+ * event is stored in a checkpoint file, and segments that only hold delivered events are
+ * deleted when the checkpoint advances. The checkpoint file is replaced atomically and
+ * synchronized to the storage device, along with the directory, so that it survives a
+ * power loss. When the outbox is opened, an incomplete event at the end of the active
+ * segment, left by a process that stopped while writing it, is discarded, and a
+ * checkpoint that cannot be read is treated as if no event was delivered, so events are
+ * delivered again rather than lost.
+ *
+ * <p>
+ * An event that cannot be read in the middle of a segment indicates that the segment is
+ * corrupt. Such an event is copied to a file in the {@value #DEAD_LETTER_DIRECTORY}
+ * directory of the outbox, an error is logged, and it is counted in
+ * {@link #getSkippedCount()}. Reading then continues with the event that follows it, so
+ * that one corrupt event does not stop delivery or keep the checkpoint from advancing.
+ *
+ * <p>
+ * The methods of this class perform blocking file I/O and must not be called on a
+ * non-blocking thread.
+ *
+ * @see OutboxDispatcher
+ */
+public class SegmentFileOutbox implements Closeable {
+
+	/**
+	 * The default size at which a segment is rolled over.
+	 */
+	public static final long DEFAULT_SEGMENT_SIZE = 8 * 1024 * 1024;
+
+	/**
+	 * The directory, within the outbox directory, of the events that cannot be read.
+	 */
+	public static final String DEAD_LETTER_DIRECTORY = "dead-letter";
+
+	private static final Logger LOG = LoggerFactory.getLogger(SegmentFileOutbox.class);
+
+	private static final String SEGMENT_PREFIX = "outbox-";
+
+	private static final String SEGMENT_SUFFIX = ".log";
+
+	private static final String CHECKPOINT_FILE = "checkpoint";
+
+	private final ObjectMapper objectMapper;
+
+	private final Path directory;
+
+	private final long segmentSize;
+
+	private final boolean sync;
+
+	private FileChannel activeSegment;
+
+	private long lastSequence;
+
+	private long checkpoint;
+
+	private ReadPosition readPosition;
+
+	private final AtomicLong skippedCount = new AtomicLong();
+
+	/**
+	 * Open an outbox with the default segment size that synchronizes every append to the
+	 * storage device.
+	 * @param directory the directory of the segment files, which is created if necessary
+	 */
+	public SegmentFileOutbox(Path directory) {
+		this(directory, DEFAULT_SEGMENT_SIZE, true);
+	}
+
+	/**
+	 * Open an outbox.
+	 * @param directory the directory of the segment files, which is created if necessary
+	 * @param segmentSize the size at which a segment is rolled over
+	 * @param sync whether every append is synchronized to the storage device before it
+	 * returns
+	 */
+	public SegmentFileOutbox(Path directory, long segmentSize, boolean sync) {
+		this(directory, segmentSize, sync, JsonMapper.builder().build());
+	}
+
+	/**
+	 * Open an outbox that writes and reads events with the provided {@link ObjectMapper}.
+	 * The mapper must be able to read the events that are already stored in the
+	 * directory, so its configuration should not change between runs of the application.
+	 * @param directory the directory of the segment files, which is created if necessary
+	 * @param segmentSize the size at which a segment is rolled over
+	 * @param sync whether every append is synchronized to the storage device before it
+	 * returns
+	 * @param objectMapper the mapper used to write and read events
+	 */
+	public SegmentFileOutbox(Path directory, long segmentSize, boolean sync, ObjectMapper objectMapper) {
+		Assert.notNull(directory, "directory must not be null");
+		Assert.isTrue(segmentSize > 0, "segmentSize must be positive");
+		Assert.notNull(objectMapper, "objectMapper must not be null");
+		this.directory = directory;
+		this.segmentSize = segmentSize;
+		this.sync = sync;
+		this.objectMapper = objectMapper;
+		try {
+			open();
+		}
+		catch (IOException ex) {
+			throw new UncheckedIOException("Unable to open outbox in " + directory, ex);
+		}
+	}
+
+	/**
+	 * Append an event. If the event cannot be written completely, the part that was
+	 * written is removed, so that it does not corrupt the events appended after it.
+	 * @param event the event
+	 * @return the sequence assigned to the event
+	 */
+	public synchronized long append(OutboxEvent event) {
+		long sequence = this.lastSequence + 1;
+		long validLength = -1;
+		try {
+			byte[] line = serialize(event.withSequence(sequence));
+			if (this.activeSegment.size() > 0 && this.activeSegment.size() + line.length > this.segmentSize) {
+				FileChannel previous = this.activeSegment;
+				this.activeSegment = openSegment(sequence);
+				closeSegment(previous, sequence);
+			}
+			validLength = this.activeSegment.size();
+			ByteBuffer buffer = ByteBuffer.wrap(line);
+			while (buffer.hasRemaining()) {
+				this.activeSegment.write(buffer);
+			}
+			if (this.sync) {
+				this.activeSegment.force(false);
+			}
+		}
+		catch (IOException ex) {
+			if (validLength >= 0) {
+				discardPartialAppend(validLength, ex);
+			}
+			throw new UncheckedIOException("Unable to append event to outbox in " + this.directory, ex);
+		}
+		this.lastSequence = sequence;
+		return sequence;
+	}
+
+	/**
+	 * Read the events that follow the checkpoint.
+	 * @param maxEvents the maximum number of events to read
+	 * @return the events, in the order they were appended
+	 */
+	public synchronized List<OutboxEvent> read(int maxEvents) {
+		List<OutboxEvent> events = new ArrayList<>();
+		if (this.lastSequence == this.checkpoint) {
+			return events;
+		}
+		try {
+			ReadPosition position = this.readPosition;
+			List<Long> segments = listSegments();
+			if (position == null || position.sequence != this.checkpoint || !segments.contains(position.segment)) {
+				position = new ReadPosition(findSegment(segments, this.checkpoint + 1), 0, this.checkpoint);
+			}
+			int index = segments.indexOf(position.segment);
+			while (index < segments.size() && events.size() < maxEvents) {
+				position = readSegment(position, maxEvents, events);
+				index++;
+				if (events.size() < maxEvents && index < segments.size()) {
+					position = new ReadPosition(segments.get(index), 0, position.sequence);
+				}
+			}
+			this.readPosition = position;
+		}
+		catch (IOException ex) {
+			throw new UncheckedIOException("Unable to read outbox in " + this.directory, ex);
+		}
+		return events;
+	}
+
+	/**
+	 * Record that the events up to and including the provided sequence have been
+	 * delivered, and delete the segments that only hold delivered events.
+	 * @param sequence the sequence of the last delivered event
+	 */
+	public synchronized void checkpoint(long sequence) {
+		Assert.isTrue(sequence <= this.lastSequence, "sequence must not be after the last appended event");
+		if (sequence <= this.checkpoint) {
+			return;
+		}
+		try {
+			Path temporary = this.directory.resolve(CHECKPOINT_FILE + ".tmp");
+			try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE,
+					StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+				ByteBuffer buffer = ByteBuffer.wrap(Long.toString(sequence).getBytes(StandardCharsets.UTF_8));
+				while (buffer.hasRemaining()) {
+					channel.write(buffer);
+				}
+				channel.force(true);
+			}
+			Files.move(temporary, this.directory.resolve(CHECKPOINT_FILE), StandardCopyOption.REPLACE_EXISTING,
+					StandardCopyOption.ATOMIC_MOVE);
+			syncDirectory();
+			this.checkpoint = sequence;
+			compact();
+		}
+		catch (IOException ex) {
+			throw new UncheckedIOException("Unable to write outbox checkpoint in " + this.directory, ex);
+		}
+	}
+
+	/**
+	 * The sequence of the last appended event.
+	 * @return the sequence, or 0 if no event was appended
+	 */
+	public synchronized long getLastSequence() {
+		return this.lastSequence;
+	}
+
+	/**
+	 * The sequence of the last delivered event.
+	 * @return the sequence, or 0 if no event was delivered
+	 */
+	public synchronized long getCheckpoint() {
+		return this.checkpoint;
+	}
+
+	/**
+	 * The number of events that could not be read and were moved to the
+	 * {@value #DEAD_LETTER_DIRECTORY} directory since the outbox was opened.
+	 * @return the number of skipped events
+	 */
+	public long getSkippedCount() {
+		return this.skippedCount.get();
+	}
+
+	@Override
+	public synchronized void close() throws IOException {
+		this.activeSegment.close();
+	}
+
+	private void open() throws IOException {
+		Files.createDirectories(this.directory);
+		this.checkpoint = readCheckpoint();
+		List<Long> segments = listSegments();
+		if (segments.isEmpty()) {
+			this.lastSequence = this.checkpoint;
+			this.activeSegment = openSegment(this.checkpoint + 1);
+			return;
+		}
+		long active = segments.get(segments.size() - 1);
+		Recovery recovery = recover(active);
+		this.lastSequence = Math.max(recovery.lastSequence, this.checkpoint);
+		this.activeSegment = openSegment(active);
+		if (recovery.validLength < this.activeSegment.size()) {
+			LOG.warn("Discarding incomplete event at the end of outbox segment {}", segmentPath(active));
+			this.activeSegment.truncate(recovery.validLength);
+		}
+	}
+
+	private long readCheckpoint() {
+		Path checkpointFile = this.directory.resolve(CHECKPOINT_FILE);
+		if (!Files.exists(checkpointFile)) {
+			return 0;
+		}
+		try {
+			return Long.parseLong(Files.readString(checkpointFile, StandardCharsets.UTF_8).trim());
+		}
+		catch (IOException | NumberFormatException ex) {
+			LOG.warn("Unable to read outbox checkpoint " + checkpointFile + ", delivering all stored events again",
+					ex);
+			return 0;
+		}
+	}
+
+	private Recovery recover(long segment) throws IOException {
+		long offset = 0;
+		long validLength = 0;
+		long corruptOffset = -1;
+		long lastSequence = segment - 1;
+		try (InputStream input = Files.newInputStream(segmentPath(segment))) {
+			LineReader reader = new LineReader(input);
+			byte[] line;
+			while ((line = reader.readLine()) != null) {
+				OutboxEvent event = deserialize(line);
+				if (event != null) {
+					validLength = offset + line.length + 1;
+					lastSequence = event.getSequence();
+				}
+				else if (corruptOffset < 0) {
+					corruptOffset = offset;
+				}
+				offset += line.length + 1;
+			}
+		}
+		if (corruptOffset >= 0 && corruptOffset < validLength) {
+			LOG.warn("Outbox segment {} holds an event that cannot be read at offset {}, "
+					+ "it is moved to the dead letter directory when the events are delivered", segmentPath(segment),
+					corruptOffset);
+		}
+		return new Recovery(validLength, lastSequence);
+	}
+
+	private ReadPosition readSegment(ReadPosition position, int maxEvents, List<OutboxEvent> events)
+			throws IOException {
+		long offset = position.offset;
+		long sequence = position.sequence;
+		try (FileChannel channel = FileChannel.open(segmentPath(position.segment), StandardOpenOption.READ)) {
+			channel.position(offset);
+			LineReader reader = new LineReader(Channels.newInputStream(channel));
+			byte[] line;
+			while (events.size() < maxEvents && (line = reader.readLine()) != null) {
+				OutboxEvent event = deserialize(line);
+				if (event == null) {
+					deadLetter(position.segment, offset, line);
+				}
+				else if (event.getSequence() > sequence) {
+					events.add(event);
+					sequence = event.getSequence();
+				}
+				offset += line.length + 1;
+			}
+		}
+		return new ReadPosition(position.segment, offset, sequence);
+	}
+
+	/**
+	 * Copy an event that cannot be read to the dead letter directory, unless it was
+	 * copied when the segment was read before.
+	 */
+	private void deadLetter(long segment, long offset, byte[] line) throws IOException {
+		Path deadLetters = this.directory.resolve(DEAD_LETTER_DIRECTORY);
+		Files.createDirectories(deadLetters);
+		Path file = deadLetters.resolve(String.format("%s%020d-%d%s", SEGMENT_PREFIX, segment, offset, SEGMENT_SUFFIX));
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE)) {
+			ByteBuffer buffer = ByteBuffer.wrap(line);
+			while (buffer.hasRemaining()) {
+				channel.write(buffer);
+			}
+			if (this.sync) {
+				channel.force(true);
+			}
+		}
+		catch (FileAlreadyExistsException ex) {
+			return;
+		}
+		if (this.sync) {
+			syncDirectory(deadLetters);
+		}
+		this.skippedCount.incrementAndGet();
+		LOG.error("Outbox segment {} holds an event that cannot be read at offset {}, skipping it and moving it to {}",
+				segmentPath(segment), offset, file);
+	}
+
+	private void discardPartialAppend(long validLength, IOException failure) {
+		try {
+			if (this.activeSegment.size() > validLength) {
+				this.activeSegment.truncate(validLength);
+			}
+		}
+		catch (IOException ex) {
+			failure.addSuppressed(ex);
+		}
+	}
+
+	private void compact() throws IOException {
+		List<Long> segments = listSegments();
+		for (int i = 0; i < segments.size() - 1; i++) {
+			if (segments.get(i + 1) - 1 > this.checkpoint) {
+				break;
+			}
+			Files.deleteIfExists(segmentPath(segments.get(i)));
+		}
+	}
+
+	private List<Long> listSegments() throws IOException {
+		try (Stream<Path> files = Files.list(this.directory)) {
+			return files.map((file) -> file.getFileName().toString())
+				.filter((name) -> name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX))
+				.map((name) -> Long.parseLong(name.substring(SEGMENT_PREFIX.length(),
+						name.length() - SEGMENT_SUFFIX.length())))
+				.sorted()
+				.toList();
+		}
+	}
+
+	private static long findSegment(List<Long> segments, long sequence) {
+		long found = segments.get(0);
+		for (long segment : segments) {
+			if (segment > sequence) {
+				break;
+			}
+			found = segment;
+		}
+		return found;
+	}
+
+	private FileChannel openSegment(long firstSequence) throws IOException {
+		Path path = segmentPath(firstSequence);
+		boolean created = !Files.exists(path);
+		FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+				StandardOpenOption.APPEND);
+		if (created && this.sync) {
+			syncDirectory();
+		}
+		return channel;
+	}
+
+	/**
+	 * Close a segment that was rolled over. Its events were already written, so a failure
+	 * to close it is logged rather than failing the append that rolled it over.
+	 */
+	private void closeSegment(FileChannel segment, long nextSequence) {
+		try {
+			segment.close();
+		}
+		catch (IOException ex) {
+			LOG.warn("Unable to close outbox segment preceding " + segmentPath(nextSequence), ex);
+		}
+	}
+
+	/**
+	 * Synchronize the directory, so that files created or renamed in it survive a power
+	 * loss. Some platforms do not support opening a directory, in which case this does
+	 * nothing.
+	 */
+	private void syncDirectory() {
+		syncDirectory(this.directory);
+	}
+
+	private static void syncDirectory(Path directory) {
+		try (FileChannel channel = FileChannel.open(directory, StandardOpenOption.READ)) {
+			channel.force(true);
+		}
+		catch (IOException ex) {
+			LOG.debug("Unable to synchronize outbox directory " + directory, ex);
+		}
+	}
+
+	private Path segmentPath(long firstSequence) {
+		return this.directory.resolve(String.format("%s%020d%s", SEGMENT_PREFIX, firstSequence, SEGMENT_SUFFIX));
+	}
+
+	private byte[] serialize(OutboxEvent event) throws JsonProcessingException {
+		byte[] json = this.objectMapper.writeValueAsBytes(event);
+		byte[] line = new byte[json.length + 1];
+		System.arraycopy(json, 0, line, 0, json.length);
+		line[json.length] = '\n';
+		return line;
+	}
+
+	private OutboxEvent deserialize(byte[] line) {
+		try {
+			return this.objectMapper.readValue(line, OutboxEvent.class);
+		}
+		catch (IOException ex) {
+			return null;
+		}
+	}
+
+	/**
+	 * Where the next read continues: an offset in a segment, following the event with the
+	 * given sequence.
+	 */
+	private static final class ReadPosition {
+
+		private final long segment;
+
+		private final long offset;
+
+		private final long sequence;
+
+		private ReadPosition(long segment, long offset, long sequence) {
+			this.segment = segment;
+			this.offset = offset;
+			this.sequence = sequence;
+		}
+
+	}
+
+	/**
+	 * Reads the lines of a segment as bytes, so that the offset of each line is exact
+	 * even if the line is not valid UTF-8.
+	 */
+	private static final class LineReader {
+
+		private final InputStream input;
+
+		private final ByteArrayOutputStream line = new ByteArrayOutputStream();
+
+		private LineReader(InputStream input) {
+			this.input = new BufferedInputStream(input);
+		}
+
+		/**
+		 * Read the next line.
+		 * @return the line without its line feed, or {@literal null} at the end of the
+		 * segment, in which case an incomplete line at the end is not returned
+		 */
+		private byte[] readLine() throws IOException {
+			this.line.reset();
+			int next;
+			while ((next = this.input.read()) != -1) {
+				if (next == '\n') {
+					return this.line.toByteArray();
+				}
+				this.line.write(next);
+			}
+			return null;
+		}
+
+	}
+
+	private static final class Recovery {
+
+		private final long validLength;
+
+		private final long lastSequence;
+
+		private Recovery(long validLength, long lastSequence) {
+			this.validLength = validLength;
+			this.lastSequence = lastSequence;
+		}
+
+	}
+
+}
@@ -17,8 +17,10 @@
 package org.springframework.cloud.servicebroker.controller;
 
 import java.util.Base64;
+import java.util.concurrent.atomic.AtomicReference;
 
 import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
 
 import org.springframework.cloud.servicebroker.exception.ServiceBrokerInvalidOriginatingIdentityException;
 import org.springframework.cloud.servicebroker.model.CloudFoundryContext;
@@ -26,6 +28,14 @@ import org.springframework.cloud.servicebroker.model.Context;
 import org.springframework.cloud.servicebroker.model.KubernetesContext;
 import org.springframework.cloud.servicebroker.model.PlatformContext;
 import org.springframework.cloud.servicebroker.model.ServiceBrokerRequest;
+import org.springframework.cloud.servicebroker.model.catalog.Catalog;
+import org.springframework.cloud.servicebroker.model.catalog.Plan;
+import org.springframework.cloud.servicebroker.model.catalog.ServiceDefinition;
+import org.springframework.cloud.servicebroker.observability.ServiceBrokerInstrumentation;
+import org.springframework.cloud.servicebroker.observability.ServiceBrokerOperation;
+import org.springframework.cloud.servicebroker.observability.ServiceBrokerOperationContext;
+import org.springframework.cloud.servicebroker.service.BeanCatalogService;
+import org.springframework.http.ResponseEntity;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatException;
@@ -84,6 +94,101 @@ class BaseControllerTests {
 		assertThat(context.getProperty("key2")).isEqualTo("value2");
 	}
 
+	@Test
+	void repeatedOriginatingIdentityCreatesIndependentContexts() {
+		String header = "cloudfoundry " + encode(JSON_STRING);
+		Context first = this.controller.validateOriginatingIdentity(header);
+		first.setProperties("key1", "changed");
+
+		Context second = this.controller.validateOriginatingIdentity(header);
+
+		assertThat(second).isNotSameAs(first).isInstanceOf(CloudFoundryContext.class);
+		assertThat(second.getProperty("key1")).isEqualTo("value1");
+		assertThat(second.getProperty("key2")).isEqualTo("value2");
+	}
+
+	@Test
+	void repeatedInvalidOriginatingIdentityThrowsException() {
+		String header = "platform " + encode("some-properties");
+		for (int i = 0; i < 2; i++) {
+			assertThatException().isThrownBy(() -> this.controller.validateOriginatingIdentity(header))
+				.isInstanceOf(ServiceBrokerInvalidOriginatingIdentityException.class);
+		}
+	}
+
+	@Test
+	void manyDistinctOriginatingIdentitiesAreParsed() {
+		for (int i = 0; i < 1000; i++) {
+			Context context = this.controller
+				.validateOriginatingIdentity("cloudfoundry " + encode("{\"user_id\":\"user-" + i + "\"}"));
+
+			assertThat(context.getProperty("user_id")).isEqualTo("user-" + i);
+		}
+	}
+
+	@Test
+	void malformedOriginatingIdentityIsReportedWhenRead() {
+		ServiceBrokerRequest request = this.controller.configureRequest("platform");
+
+		assertThat(request.toString()).contains("originatingIdentity=<invalid>");
+		assertThatException().isThrownBy(request::getOriginatingIdentity)
+			.isInstanceOf(ServiceBrokerInvalidOriginatingIdentityException.class);
+		assertThatException().isThrownBy(request::getOriginatingIdentity)
+			.isInstanceOf(ServiceBrokerInvalidOriginatingIdentityException.class);
+	}
+
+	@Test
+	void strictOriginatingIdentityIsValidatedWhenReceived() {
+		this.controller.setStrictOriginatingIdentity(true);
+
+		assertThatException().isThrownBy(() -> this.controller.configureRequest("platform"))
+			.isInstanceOf(ServiceBrokerInvalidOriginatingIdentityException.class);
+	}
+
+	@Test
+	void originatingIdentityIsParsedOnce() {
+		ServiceBrokerRequest request = this.controller.configureRequest("cloudfoundry " + encode(JSON_STRING));
+
+		assertThat(request.getOriginatingIdentity()).isSameAs(request.getOriginatingIdentity());
+	}
+
+	@Test
+	void operationIsInCatalogWhenItsServiceDefinitionAndPlanAreFound() {
+		assertThat(instrumentedContext("service-definition-id", "plan-id").isInCatalog()).isTrue();
+		assertThat(instrumentedContext("service-definition-id", "other-plan-id").isInCatalog()).isFalse();
+		assertThat(instrumentedContext("other-service-definition-id", "plan-id").isInCatalog()).isFalse();
+	}
+
+	private ServiceBrokerOperationContext instrumentedContext(String serviceDefinitionId, String planId) {
+		ServiceDefinition serviceDefinition = ServiceDefinition.builder()
+			.id("service-definition-id")
+			.plans(Plan.builder().id("plan-id").build())
+			.build();
+		BasicBaseController controller = new BasicBaseController(
+				new BeanCatalogService(Catalog.builder().serviceDefinitions(serviceDefinition).build()));
+		AtomicReference<ServiceBrokerOperationContext> instrumented = new AtomicReference<>();
+		controller.setInstrumentation(new ServiceBrokerInstrumentation() {
+
+			@Override
+			public <T> Mono<ResponseEntity<T>> instrument(ServiceBrokerOperationContext context,
+					Mono<ResponseEntity<T>> response) {
+				instrumented.set(context);
+				return response;
+			}
+
+		});
+		Mono<ResponseEntity<Void>> response = controller.getRequiredServiceDefinition(serviceDefinitionId)
+			.flatMap((definition) -> controller.getRequiredServiceDefinitionPlan(definition, planId))
+			.map((plan) -> ResponseEntity.ok().<Void>build())
+			.onErrorReturn(ResponseEntity.badRequest().build());
+
+		controller
+			.instrument(response, ServiceBrokerOperation.PROVISION, serviceDefinitionId, planId, null, "instance-id",
+					null, null)
+			.block();
+		return instrumented.get();
+	}
+
 	private String encode(String json) {
 		return Base64.getEncoder().encodeToString(json.getBytes());
 	}
@@ -94,7 +199,15 @@ class BaseControllerTests {
 			super(null);
 		}
 
+		BasicBaseController(BeanCatalogService catalogService) {
+			super(catalogService);
+		}
+
 		Context validateOriginatingIdentity(String originatingIdentityString) {
+			return configureRequest(originatingIdentityString).getOriginatingIdentity();
+		}
+
+		ServiceBrokerRequest configureRequest(String originatingIdentityString) {
 			ServiceBrokerRequest request = new ServiceBrokerRequest() {
 			};
 
@@ -102,7 +215,7 @@ class BaseControllerTests {
 					originatingIdentityString, "request-id")
 				.block();
 
-			return request.getOriginatingIdentity();
+			return request;
 		}
 
 	}
@@ -16,6 +16,8 @@
 
 package org.springframework.cloud.servicebroker.controller;
 
+import java.time.Duration;
+
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -24,7 +26,13 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import reactor.core.publisher.Mono;
 
 import org.springframework.cloud.servicebroker.model.catalog.Catalog;
+import org.springframework.cloud.servicebroker.service.BeanCatalogService;
+import org.springframework.cloud.servicebroker.service.CachingCatalogService;
 import org.springframework.cloud.servicebroker.service.CatalogService;
+import org.springframework.cloud.servicebroker.service.SerializedCatalog;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
@@ -55,4 +63,58 @@ class CatalogControllerTests {
 		assertThat(actualCatalog).isEqualTo(expectedCatalog);
 	}
 
+	@Test
+	void catalogIsReturnedWithETag() {
+		CatalogController controller = new CatalogController(new BeanCatalogService(Catalog.builder().build()));
+		ResponseEntity<Catalog> first = controller.getCatalog(new HttpHeaders()).block();
+		ResponseEntity<Catalog> second = controller.getCatalog(new HttpHeaders()).block();
+
+		assertThat(first.getStatusCode()).isEqualTo(HttpStatus.OK);
+		assertThat(first.getHeaders().getETag()).isNotNull();
+		assertThat(first.getBody()).isInstanceOf(SerializedCatalog.class);
+		assertThat(second.getBody()).isSameAs(first.getBody());
+	}
+
+	@Test
+	void catalogIsNotModifiedWithMatchingETag() {
+		CatalogController controller = new CatalogController(new BeanCatalogService(Catalog.builder().build()));
+		String eTag = controller.getCatalog(new HttpHeaders()).block().getHeaders().getETag();
+
+		HttpHeaders headers = new HttpHeaders();
+		headers.setIfNoneMatch(eTag);
+		ResponseEntity<Catalog> response = controller.getCatalog(headers).block();
+
+		assertThat(response.getStatusCode()).isEqualTo(HttpStatus.NOT_MODIFIED);
+		assertThat(response.getHeaders().getETag()).isEqualTo(eTag);
+		assertThat(response.getBody()).isNull();
+	}
+
+	@Test
+	void catalogOfDecoratedStaticServiceIsReturnedWithETag() {
+		CatalogController controller = new CatalogController(
+				new CachingCatalogService(new BeanCatalogService(Catalog.builder().build()), Duration.ofMinutes(1)));
+		ResponseEntity<Catalog> first = controller.getCatalog(new HttpHeaders()).block();
+		ResponseEntity<Catalog> second = controller.getCatalog(new HttpHeaders()).block();
+
+		assertThat(first.getHeaders().getETag()).isNotNull();
+		assertThat(first.getBody()).isInstanceOf(SerializedCatalog.class);
+		assertThat(second.getBody()).isSameAs(first.getBody());
+	}
+
+	@Test
+	void catalogFromOtherServiceIsNotPreSerialized() {
+		Catalog expectedCatalog = Catalog.builder().build();
+
+		given(this.catalogService.getCatalog()).willReturn(Mono.just(expectedCatalog));
+
+		given(this.catalogService.getResponseEntityCatalog(any())).willReturn(Mono.empty());
+
+		CatalogController controller = new CatalogController(this.catalogService);
+		ResponseEntity<Catalog> response = controller.getCatalog(new HttpHeaders()).block();
+
+		assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+		assertThat(response.getHeaders().getETag()).isNull();
+		assertThat(response.getBody()).isSameAs(expectedCatalog);
+	}
+
 }
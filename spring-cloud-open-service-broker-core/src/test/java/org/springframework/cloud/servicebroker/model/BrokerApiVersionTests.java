@@ -0,0 +1,101 @@
+/*
+ * Copyright 2002-2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.servicebroker.model;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+
+class BrokerApiVersionTests {
+
+	@Test
+	void anyVersionIsSupported() {
+		BrokerApiVersion version = new BrokerApiVersion();
+
+		assertThat(version.isAnyVersionAllowed()).isTrue();
+		assertThat(version.isSupported("2.13")).isTrue();
+		assertThat(version.isSupported(null)).isTrue();
+	}
+
+	@Test
+	void nullVersionDisablesValidation() {
+		BrokerApiVersion version = new BrokerApiVersion(null);
+
+		assertThat(version.isAnyVersionAllowed()).isTrue();
+		assertThat(version.isSupported("2.13")).isTrue();
+	}
+
+	@Test
+	void singleVersionIsSupported() {
+		BrokerApiVersion version = new BrokerApiVersion("2.16");
+
+		assertThat(version.isAnyVersionAllowed()).isFalse();
+		assertThat(version.isSupported("2.16")).isTrue();
+		assertThat(version.isSupported("2.15")).isFalse();
+		assertThat(version.isSupported("2.160")).isFalse();
+		assertThat(version.isSupported(null)).isFalse();
+	}
+
+	@Test
+	void rangeOfVersionsIsSupported() {
+		BrokerApiVersion version = new BrokerApiVersion("2.14-2.17");
+
+		assertThat(version.isSupported("2.13")).isFalse();
+		assertThat(version.isSupported("2.14")).isTrue();
+		assertThat(version.isSupported("2.15")).isTrue();
+		assertThat(version.isSupported("2.17")).isTrue();
+		assertThat(version.isSupported("2.18")).isFalse();
+		assertThat(version.isSupported("3.14")).isFalse();
+	}
+
+	@Test
+	void listOfVersionsAndRangesIsSupported() {
+		BrokerApiVersion version = new BrokerApiVersion("2.11, 2.14 - 2.15,3.0");
+
+		assertThat(version.isSupported("2.11")).isTrue();
+		assertThat(version.isSupported("2.12")).isFalse();
+		assertThat(version.isSupported("2.15")).isTrue();
+		assertThat(version.isSupported("3.0")).isTrue();
+	}
+
+	@Test
+	void malformedRequestedVersionIsNotSupported() {
+		BrokerApiVersion version = new BrokerApiVersion("2.14-2.17");
+
+		assertThat(version.isSupported("")).isFalse();
+		assertThat(version.isSupported("2")).isFalse();
+		assertThat(version.isSupported("2.")).isFalse();
+		assertThat(version.isSupported(".15")).isFalse();
+		assertThat(version.isSupported("2.15.1")).isFalse();
+		assertThat(version.isSupported("2.99999999")).isFalse();
+	}
+
+	@Test
+	void nonNumericVersionMustMatchExactly() {
+		BrokerApiVersion version = new BrokerApiVersion("expected-version");
+
+		assertThat(version.isSupported("expected-version")).isTrue();
+		assertThat(version.isSupported("other-version")).isFalse();
+	}
+
+	@Test
+	void reversedRangeIsRejected() {
+		assertThatIllegalArgumentException().isThrownBy(() -> new BrokerApiVersion("2.17-2.14"));
+	}
+
+}
@@ -16,10 +16,18 @@
 
 package org.springframework.cloud.servicebroker.model;
 
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
 import nl.jqno.equalsverifier.EqualsVerifier;
 import nl.jqno.equalsverifier.Warning;
 import org.junit.jupiter.api.Test;
 
+import org.springframework.cloud.servicebroker.exception.ServiceBrokerInvalidOriginatingIdentityException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
 class ServiceBrokerRequestTests {
 
 	@Test
@@ -32,4 +40,58 @@ class ServiceBrokerRequestTests {
 			.verify();
 	}
 
+	@Test
+	void equalsAndHashCodeDoNotThrowForInvalidOriginatingIdentity() {
+		ServiceBrokerRequest request = new ServiceBrokerRequest();
+		request.setOriginatingIdentitySupplier(() -> {
+			throw new ServiceBrokerInvalidOriginatingIdentityException("invalid");
+		});
+		ServiceBrokerRequest other = new ServiceBrokerRequest();
+		other.setOriginatingIdentitySupplier(() -> {
+			throw new ServiceBrokerInvalidOriginatingIdentityException("invalid");
+		});
+
+		assertThat(request).isEqualTo(request).isNotEqualTo(other);
+		assertThat(request.hashCode()).isEqualTo(request.hashCode());
+		assertThat(Set.of(request, other)).hasSize(2);
+		assertThatExceptionOfType(ServiceBrokerInvalidOriginatingIdentityException.class)
+			.isThrownBy(request::getOriginatingIdentity);
+	}
+
+	@Test
+	void requestsWithTheSameUnreadHeaderAreEqualWithoutDecodingIt() {
+		AtomicInteger reads = new AtomicInteger();
+		ServiceBrokerRequest request = new ServiceBrokerRequest();
+		request.setOriginatingIdentitySupplier("test-platform e30=", () -> {
+			reads.incrementAndGet();
+			return PlatformContext.builder().platform("test-platform").build();
+		});
+		ServiceBrokerRequest other = new ServiceBrokerRequest();
+		other.setOriginatingIdentitySupplier("test-platform e30=", () -> {
+			reads.incrementAndGet();
+			return PlatformContext.builder().platform("test-platform").build();
+		});
+
+		assertThat(request).isEqualTo(other).hasSameHashCodeAs(other);
+		assertThat(request.toString()).contains("test-platform e30=");
+		assertThat(reads).hasValue(0);
+	}
+
+	@Test
+	void failedOriginatingIdentityIsCreatedOnce() {
+		AtomicInteger reads = new AtomicInteger();
+		ServiceBrokerRequest request = new ServiceBrokerRequest();
+		request.setOriginatingIdentitySupplier(() -> {
+			reads.incrementAndGet();
+			throw new ServiceBrokerInvalidOriginatingIdentityException("invalid");
+		});
+
+		assertThatExceptionOfType(ServiceBrokerInvalidOriginatingIdentityException.class)
+			.isThrownBy(request::getOriginatingIdentity);
+		assertThatExceptionOfType(ServiceBrokerInvalidOriginatingIdentityException.class)
+			.isThrownBy(request::getOriginatingIdentity);
+		assertThat(request.toString()).contains("<invalid>");
+		assertThat(reads).hasValue(1);
+	}
+
 }
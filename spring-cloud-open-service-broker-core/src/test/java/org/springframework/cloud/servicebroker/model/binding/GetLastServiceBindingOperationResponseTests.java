@@ -16,6 +16,8 @@
 
 package org.springframework.cloud.servicebroker.model.binding;
 
+import java.time.Duration;
+
 import com.jayway.jsonpath.DocumentContext;
 import nl.jqno.equalsverifier.EqualsVerifier;
 import org.junit.jupiter.api.Test;
@@ -64,16 +66,19 @@ class GetLastServiceBindingOperationResponseTests {
 			.operationState(OperationState.SUCCEEDED)
 			.description("description")
 			.deleteOperation(true)
+			.retryAfter(Duration.ofSeconds(30))
 			.build();
 
 		assertThat(response.getState()).isEqualTo(OperationState.SUCCEEDED);
 		assertThat(response.getDescription()).isEqualTo("description");
 		assertThat(response.isDeleteOperation()).isEqualTo(true);
+		assertThat(response.getRetryAfter()).isEqualTo(Duration.ofSeconds(30));
 
 		DocumentContext json = JsonUtils.toJsonPath(response);
 
 		assertThat(json).hasPath("$.state").isEqualTo(OperationState.SUCCEEDED.toString());
 		assertThat(json).hasPath("$.description").isEqualTo("description");
+		assertThat(json).hasNoPath("$.retryAfter");
 	}
 
 	@Test
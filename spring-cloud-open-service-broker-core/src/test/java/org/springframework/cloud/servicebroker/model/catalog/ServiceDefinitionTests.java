@@ -16,7 +16,9 @@
 
 package org.springframework.cloud.servicebroker.model.catalog;
 
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 import com.jayway.jsonpath.DocumentContext;
@@ -133,6 +135,37 @@ class ServiceDefinitionTests {
 		assertThat(json).hasPath("$.dashboard_client");
 	}
 
+	@Test
+	void planIsFoundById() {
+		Plan planOne = Plan.builder().id("plan-one-id").build();
+		Plan planTwo = Plan.builder().id("plan-two-id").build();
+		List<Plan> plans = new ArrayList<>(List.of(planOne));
+		ServiceDefinition serviceDefinition = new ServiceDefinition("service-definition-id", "service-definition",
+				"Service Definition", false, null, null, null, null, plans, null, null, null, null);
+
+		assertThat(serviceDefinition.getPlan("plan-one-id")).isSameAs(planOne);
+		assertThat(serviceDefinition.getPlan("plan-two-id")).isNull();
+
+		plans.add(planTwo);
+		assertThat(serviceDefinition.getPlan("plan-two-id")).isSameAs(planTwo);
+		assertThat(JsonUtils.toJsonPath(serviceDefinition)).hasNoPath("$.plan_index");
+	}
+
+	@Test
+	void planReplacedAfterIndexingIsNotFound() {
+		Plan planOne = Plan.builder().id("plan-one-id").build();
+		Plan planTwo = Plan.builder().id("plan-two-id").build();
+		List<Plan> plans = new ArrayList<>(List.of(planOne));
+		ServiceDefinition serviceDefinition = new ServiceDefinition("service-definition-id", "service-definition",
+				"Service Definition", false, null, null, null, null, plans, null, null, null, null);
+		assertThat(serviceDefinition.getPlan("plan-one-id")).isSameAs(planOne);
+
+		plans.set(0, planTwo);
+
+		assertThat(serviceDefinition.getPlan("plan-one-id")).isNull();
+		assertThat(serviceDefinition.getPlan("plan-two-id")).isSameAs(planTwo);
+	}
+
 	@Test
 	void equalsAndHashCode() {
 		EqualsVerifier.forClass(ServiceDefinition.class).verify();
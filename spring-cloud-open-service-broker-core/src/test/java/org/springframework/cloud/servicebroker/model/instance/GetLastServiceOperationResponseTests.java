@@ -16,6 +16,8 @@
 
 package org.springframework.cloud.servicebroker.model.instance;
 
+import java.time.Duration;
+
 import com.jayway.jsonpath.DocumentContext;
 import nl.jqno.equalsverifier.EqualsVerifier;
 import org.junit.jupiter.api.Test;
@@ -74,6 +76,7 @@ class GetLastServiceOperationResponseTests {
 			.instanceUsable(false)
 			.updateRepeatable(false)
 			.deleteOperation(true)
+			.retryAfter(Duration.ofSeconds(30))
 			.build();
 
 		assertThat(response.getState()).isEqualTo(OperationState.SUCCEEDED);
@@ -81,6 +84,7 @@ class GetLastServiceOperationResponseTests {
 		assertThat(response.isInstanceUsable()).isFalse();
 		assertThat(response.isUpdateRepeatable()).isFalse();
 		assertThat(response.isDeleteOperation()).isTrue();
+		assertThat(response.getRetryAfter()).isEqualTo(Duration.ofSeconds(30));
 
 		DocumentContext json = JsonUtils.toJsonPath(response);
 
@@ -89,6 +93,7 @@ class GetLastServiceOperationResponseTests {
 		assertThat(json).hasPath("$.instance_usable").isEqualTo(false);
 		assertThat(json).hasPath("$.update_repeatable").isEqualTo(false);
 		assertThat(json).hasNoPath("$.delete_operation");
+		assertThat(json).hasNoPath("$.retry_after");
 	}
 
 	@Test
@@ -0,0 +1,203 @@
+/*
+ * Copyright 2002-2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.servicebroker.observability;
+
+import io.micrometer.core.instrument.LongTaskTimer;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.test.StepVerifier;
+
+import org.springframework.cloud.servicebroker.controller.ServiceBrokerWebFluxExceptionHandler;
+import org.springframework.cloud.servicebroker.exception.ServiceInstanceExistsException;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class MicrometerServiceBrokerInstrumentationTests {
+
+	private SimpleMeterRegistry registry;
+
+	private MicrometerServiceBrokerInstrumentation instrumentation;
+
+	@BeforeEach
+	void setUp() {
+		this.registry = new SimpleMeterRegistry();
+		this.instrumentation = new MicrometerServiceBrokerInstrumentation(this.registry,
+				ServiceBrokerWebFluxExceptionHandler.class);
+	}
+
+	@Test
+	void successfulOperationIsRecorded() {
+		StepVerifier
+			.create(this.instrumentation.instrument(context(),
+					Mono.just(ResponseEntity.status(HttpStatus.CREATED).body("body"))))
+			.expectNextCount(1)
+			.verifyComplete();
+
+		Timer timer = this.registry.find(MicrometerServiceBrokerInstrumentation.REQUESTS_METRIC)
+			.tag("operation", "provision")
+			.tag("service_id", "service-definition-id")
+			.tag("plan_id", "plan-id")
+			.tag("status", "201")
+			.tag("outcome", "SUCCESS")
+			.timer();
+		assertThat(timer).isNotNull();
+		assertThat(timer.count()).isEqualTo(1);
+		assertThat(timer.getId().getTag("platform_instance_id")).isNull();
+		assertThat(timer.takeSnapshot().histogramCounts()).isNotEmpty();
+	}
+
+	@Test
+	void percentileHistogramCanBeDisabled() {
+		this.instrumentation.setPercentileHistogram(false);
+		StepVerifier.create(this.instrumentation.instrument(context(), Mono.just(ResponseEntity.ok().build())))
+			.expectNextCount(1)
+			.verifyComplete();
+
+		Timer timer = this.registry.get(MicrometerServiceBrokerInstrumentation.REQUESTS_METRIC).timer();
+		assertThat(timer.takeSnapshot().histogramCounts()).isEmpty();
+	}
+
+	@Test
+	void idsThatAreNotInCatalogAreRecordedAsUnknown() {
+		ServiceBrokerOperationContext context = new ServiceBrokerOperationContext(ServiceBrokerOperation.PROVISION,
+				"random-service-id", "random-plan-id", "platform-id", "instance-id", null, "request-id");
+		StepVerifier.create(this.instrumentation.instrument(context, Mono.just(ResponseEntity.badRequest().build())))
+			.expectNextCount(1)
+			.verifyComplete();
+
+		Timer timer = this.registry.get(MicrometerServiceBrokerInstrumentation.REQUESTS_METRIC).timer();
+		assertThat(timer.getId().getTag("service_id")).isEqualTo("unknown");
+		assertThat(timer.getId().getTag("plan_id")).isEqualTo("unknown");
+	}
+
+	@Test
+	void serviceIdIsRecordedWhenOnlyThePlanIsNotInCatalog() {
+		ServiceBrokerOperationContext context = new ServiceBrokerOperationContext(ServiceBrokerOperation.PROVISION,
+				"service-definition-id", "random-plan-id", "platform-id", "instance-id", null, "request-id");
+		context.setServiceDefinitionFound(true);
+		StepVerifier.create(this.instrumentation.instrument(context, Mono.just(ResponseEntity.badRequest().build())))
+			.expectNextCount(1)
+			.verifyComplete();
+
+		Timer timer = this.registry.get(MicrometerServiceBrokerInstrumentation.REQUESTS_METRIC).timer();
+		assertThat(timer.getId().getTag("service_id")).isEqualTo("service-definition-id");
+		assertThat(timer.getId().getTag("plan_id")).isEqualTo("unknown");
+	}
+
+	@Test
+	void idsFoundWhileOperationRunsAreRecorded() {
+		ServiceBrokerOperationContext context = new ServiceBrokerOperationContext(ServiceBrokerOperation.PROVISION,
+				"service-definition-id", "plan-id", null, "instance-id", null, "request-id");
+		Mono<ResponseEntity<String>> response = Mono.fromSupplier(() -> {
+			context.setServiceDefinitionFound(true);
+			context.setPlanFound(true);
+			return ResponseEntity.ok().build();
+		});
+		StepVerifier.create(this.instrumentation.instrument(context, response)).expectNextCount(1).verifyComplete();
+
+		Timer timer = this.registry.get(MicrometerServiceBrokerInstrumentation.REQUESTS_METRIC).timer();
+		assertThat(timer.getId().getTag("service_id")).isEqualTo("service-definition-id");
+		assertThat(timer.getId().getTag("plan_id")).isEqualTo("plan-id");
+	}
+
+	@Test
+	void idsThatAreNotProvidedAreRecordedAsNone() {
+		ServiceBrokerOperationContext context = new ServiceBrokerOperationContext(
+				ServiceBrokerOperation.GET_INSTANCE, null, null, null, "instance-id", null, null);
+		StepVerifier.create(this.instrumentation.instrument(context, Mono.just(ResponseEntity.ok().build())))
+			.expectNextCount(1)
+			.verifyComplete();
+
+		Timer timer = this.registry.get(MicrometerServiceBrokerInstrumentation.REQUESTS_METRIC).timer();
+		assertThat(timer.getId().getTag("service_id")).isEqualTo("none");
+		assertThat(timer.getId().getTag("plan_id")).isEqualTo("none");
+	}
+
+	@Test
+	void failedOperationIsRecordedWithHandlerStatus() {
+		StepVerifier
+			.create(this.instrumentation.instrument(context(),
+					Mono.<ResponseEntity<String>>error(new ServiceInstanceExistsException("instance-id",
+							"service-definition-id"))))
+			.expectError(ServiceInstanceExistsException.class)
+			.verify();
+
+		Timer timer = this.registry.find(MicrometerServiceBrokerInstrumentation.REQUESTS_METRIC)
+			.tag("status", "409")
+			.tag("outcome", "CLIENT_ERROR")
+			.timer();
+		assertThat(timer).isNotNull();
+		assertThat(timer.count()).isEqualTo(1);
+	}
+
+	@Test
+	void unhandledErrorIsRecordedAsServerError() {
+		StepVerifier
+			.create(this.instrumentation.instrument(context(),
+					Mono.<ResponseEntity<String>>error(new IllegalStateException("failed"))))
+			.expectError(IllegalStateException.class)
+			.verify();
+
+		assertThat(this.registry.find(MicrometerServiceBrokerInstrumentation.REQUESTS_METRIC)
+			.tag("status", "500")
+			.tag("outcome", "SERVER_ERROR")
+			.timer()).isNotNull();
+	}
+
+	@Test
+	void operationInFlightIsActive() {
+		Sinks.One<ResponseEntity<String>> sink = Sinks.one();
+		this.instrumentation.instrument(context(), sink.asMono()).subscribe();
+
+		LongTaskTimer active = this.registry.get(MicrometerServiceBrokerInstrumentation.ACTIVE_REQUESTS_METRIC)
+			.tag("operation", "provision")
+			.longTaskTimer();
+		assertThat(active.activeTasks()).isEqualTo(1);
+
+		sink.tryEmitValue(ResponseEntity.accepted().build());
+		assertThat(active.activeTasks()).isZero();
+	}
+
+	@Test
+	void cancelledOperationIsRecordedAsUnknown() {
+		Sinks.One<ResponseEntity<String>> sink = Sinks.one();
+		this.instrumentation.instrument(context(), sink.asMono()).subscribe().dispose();
+
+		assertThat(this.registry.find(MicrometerServiceBrokerInstrumentation.REQUESTS_METRIC)
+			.tag("status", "UNKNOWN")
+			.tag("outcome", "UNKNOWN")
+			.timer()).isNotNull();
+		assertThat(this.registry.get(MicrometerServiceBrokerInstrumentation.ACTIVE_REQUESTS_METRIC)
+			.longTaskTimer()
+			.activeTasks()).isZero();
+	}
+
+	private static ServiceBrokerOperationContext context() {
+		ServiceBrokerOperationContext context = new ServiceBrokerOperationContext(ServiceBrokerOperation.PROVISION,
+				"service-definition-id", "plan-id", null, "instance-id", null, "request-id");
+		context.setServiceDefinitionFound(true);
+		context.setPlanFound(true);
+		return context;
+	}
+
+}
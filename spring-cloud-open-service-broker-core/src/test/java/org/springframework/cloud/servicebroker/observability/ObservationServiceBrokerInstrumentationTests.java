@@ -0,0 +1,140 @@
+/*
+ * Copyright 2002-2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.servicebroker.observability;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationHandler;
+import io.micrometer.observation.ObservationRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import org.springframework.cloud.servicebroker.exception.ServiceInstanceExistsException;
+import org.springframework.cloud.servicebroker.service.events.flows.CreateServiceInstanceInitializationFlow;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ObservationServiceBrokerInstrumentationTests {
+
+	private final List<Observation.Context> stopped = new CopyOnWriteArrayList<>();
+
+	private ObservationRegistry registry;
+
+	private ObservationServiceBrokerInstrumentation instrumentation;
+
+	@BeforeEach
+	void setUp() {
+		this.registry = ObservationRegistry.create();
+		this.registry.observationConfig().observationHandler(new RecordingHandler());
+		this.instrumentation = new ObservationServiceBrokerInstrumentation(this.registry);
+	}
+
+	@Test
+	void operationIsObservedWithRequestIdentity() {
+		StepVerifier
+			.create(this.instrumentation.instrument(context(),
+					Mono.just(ResponseEntity.status(HttpStatus.CREATED).body("body"))))
+			.expectNextCount(1)
+			.verifyComplete();
+
+		assertThat(this.stopped).hasSize(1);
+		Observation.Context request = this.stopped.get(0);
+		assertThat(request.getName()).isEqualTo(ObservationServiceBrokerInstrumentation.REQUEST_OBSERVATION);
+		assertThat(request.getLowCardinalityKeyValue("operation").getValue()).isEqualTo("provision");
+		assertThat(request.getLowCardinalityKeyValues()).hasSize(1);
+		assertThat(request.getHighCardinalityKeyValue("service_id").getValue()).isEqualTo("service-definition-id");
+		assertThat(request.getHighCardinalityKeyValue("plan_id").getValue()).isEqualTo("plan-id");
+		assertThat(request.getHighCardinalityKeyValue("platform_instance_id").getValue()).isEqualTo("none");
+		assertThat(request.getHighCardinalityKeyValue("service_instance_id").getValue()).isEqualTo("instance-id");
+		assertThat(request.getHighCardinalityKeyValue("request_identity").getValue()).isEqualTo("request-id");
+	}
+
+	@Test
+	void stepsAreObservedAsChildrenOfOperation() {
+		CreateServiceInstanceInitializationFlow flow = new CreateServiceInstanceInitializationFlow() {
+		};
+		Mono<ResponseEntity<String>> response = ServiceBrokerObservations
+			.observeCatalog("getServiceDefinition", () -> Mono.just("service-definition"))
+			.then(ServiceBrokerObservations.observeFlow("initialization", flow, () -> flow.initialize(null)))
+			.then(ServiceBrokerObservations.observeService("createServiceInstance", () -> Mono.just("created")))
+			.map((body) -> ResponseEntity.status(HttpStatus.CREATED).body(body));
+
+		StepVerifier.create(this.instrumentation.instrument(context(), response))
+			.expectNextCount(1)
+			.verifyComplete();
+
+		assertThat(this.stopped).extracting(Observation.Context::getName)
+			.containsExactly(ServiceBrokerObservations.CATALOG_OBSERVATION,
+					ServiceBrokerObservations.FLOW_OBSERVATION, ServiceBrokerObservations.SERVICE_OBSERVATION,
+					ObservationServiceBrokerInstrumentation.REQUEST_OBSERVATION);
+		Observation.Context request = this.stopped.get(3);
+		assertThat(this.stopped.subList(0, 3)).allSatisfy((step) -> assertThat(step.getParentObservation())
+			.isNotNull()
+			.satisfies((parent) -> assertThat(parent.getContextView()).isSameAs(request)));
+		assertThat(this.stopped.get(1).getLowCardinalityKeyValue("phase").getValue()).isEqualTo("initialization");
+		assertThat(this.stopped.get(2).getLowCardinalityKeyValue("method").getValue())
+			.isEqualTo("createServiceInstance");
+	}
+
+	@Test
+	void errorIsRecorded() {
+		Mono<ResponseEntity<String>> response = ServiceBrokerObservations.observeService("createServiceInstance",
+				() -> Mono.error(new ServiceInstanceExistsException("instance-id", "service-definition-id")));
+
+		StepVerifier.create(this.instrumentation.instrument(context(), response))
+			.expectError(ServiceInstanceExistsException.class)
+			.verify();
+
+		assertThat(this.stopped).hasSize(2)
+			.allSatisfy((context) -> assertThat(context.getError()).isInstanceOf(ServiceInstanceExistsException.class));
+	}
+
+	@Test
+	void stepsAreNotObservedOutsideOfOperation() {
+		StepVerifier.create(ServiceBrokerObservations.observeService("getServiceInstance", () -> Mono.just("found")))
+			.expectNext("found")
+			.verifyComplete();
+
+		assertThat(this.stopped).isEmpty();
+	}
+
+	private static ServiceBrokerOperationContext context() {
+		return new ServiceBrokerOperationContext(ServiceBrokerOperation.PROVISION, "service-definition-id", "plan-id",
+				null, "instance-id", null, "request-id");
+	}
+
+	private final class RecordingHandler implements ObservationHandler<Observation.Context> {
+
+		@Override
+		public void onStop(Observation.Context context) {
+			ObservationServiceBrokerInstrumentationTests.this.stopped.add(context);
+		}
+
+		@Override
+		public boolean supportsContext(Observation.Context context) {
+			return true;
+		}
+
+	}
+
+}
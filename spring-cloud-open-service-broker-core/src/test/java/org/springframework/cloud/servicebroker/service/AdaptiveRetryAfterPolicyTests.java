@@ -0,0 +1,65 @@
+/*
+ * Copyright 2002-2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.servicebroker.service;
+
+import java.time.Duration;
+
+import org.junit.jupiter.api.Test;
+
+import org.springframework.cloud.servicebroker.model.catalog.Plan;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AdaptiveRetryAfterPolicyTests {
+
+	private final AdaptiveRetryAfterPolicy policy = new AdaptiveRetryAfterPolicy(Duration.ofSeconds(5),
+			Duration.ofMinutes(5));
+
+	@Test
+	void newOperationIsPolledAtMinimumInterval() {
+		assertThat(this.policy.getRetryAfter(Duration.ZERO, (Plan) null)).isEqualTo(Duration.ofSeconds(5));
+	}
+
+	@Test
+	void intervalGrowsWithAge() {
+		assertThat(this.policy.getRetryAfter(Duration.ofMinutes(2), (Plan) null)).isEqualTo(Duration.ofSeconds(30));
+	}
+
+	@Test
+	void intervalIsLimitedToMaximum() {
+		assertThat(this.policy.getRetryAfter(Duration.ofHours(2), (Plan) null)).isEqualTo(Duration.ofMinutes(5));
+	}
+
+	@Test
+	void intervalAllowsSeveralPollsWithinMaximumPollingDuration() {
+		Plan plan = Plan.builder().id("plan-id").maximumPollingDuration(600).build();
+
+		assertThat(this.policy.getRetryAfter(Duration.ofHours(2), plan)).isEqualTo(Duration.ofMinutes(1));
+	}
+
+	@Test
+	void intervalDoesNotExtendPastMaximumPollingDuration() {
+		assertThat(this.policy.getRetryAfter(Duration.ofSeconds(590), 600)).isEqualTo(Duration.ofSeconds(10));
+		assertThat(this.policy.getRetryAfter(Duration.ofSeconds(598), 600)).isEqualTo(Duration.ofSeconds(2));
+	}
+
+	@Test
+	void intervalIsAtLeastOneSecond() {
+		assertThat(this.policy.getRetryAfter(Duration.ZERO, 5)).isEqualTo(Duration.ofSeconds(1));
+	}
+
+}
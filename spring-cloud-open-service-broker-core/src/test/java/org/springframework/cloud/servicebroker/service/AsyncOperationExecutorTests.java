@@ -0,0 +1,236 @@
+/*
+ * Copyright 2002-2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.servicebroker.service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.test.scheduler.VirtualTimeScheduler;
+
+import org.springframework.cloud.servicebroker.exception.ServiceBrokerUnavailableException;
+import org.springframework.cloud.servicebroker.model.catalog.Plan;
+import org.springframework.cloud.servicebroker.model.instance.GetLastServiceOperationRequest;
+import org.springframework.cloud.servicebroker.model.instance.GetLastServiceOperationResponse;
+import org.springframework.cloud.servicebroker.model.instance.OperationState;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+class AsyncOperationExecutorTests {
+
+	private final AsyncOperationTracker tracker = new AsyncOperationTracker();
+
+	private final Map<String, Sinks.One<String>> work = new HashMap<>();
+
+	private final List<String> started = new ArrayList<>();
+
+	private VirtualTimeScheduler scheduler;
+
+	@BeforeEach
+	void setUp() {
+		this.scheduler = VirtualTimeScheduler.create();
+	}
+
+	@AfterEach
+	void tearDown() {
+		this.scheduler.dispose();
+	}
+
+	@Test
+	void completedWorkIsReportedAsSucceeded() {
+		AsyncOperationExecutor executor = executor(2, 2, 2);
+
+		submit(executor, "instance-id", "platform", plan("plan-id", null), () -> Mono.just("done"));
+
+		GetLastServiceOperationResponse response = lastOperation("instance-id");
+		assertThat(response.getState()).isEqualTo(OperationState.SUCCEEDED);
+		assertThat(response.getDescription()).isEqualTo("done");
+		assertThat(executor.getRunningCount()).isZero();
+	}
+
+	@Test
+	void failedWorkIsReportedAsFailed() {
+		AsyncOperationExecutor executor = executor(2, 2, 2);
+
+		submit(executor, "instance-id", "platform", plan("plan-id", null),
+				() -> Mono.error(new IllegalStateException("quota exceeded")));
+
+		GetLastServiceOperationResponse response = lastOperation("instance-id");
+		assertThat(response.getState()).isEqualTo(OperationState.FAILED);
+		assertThat(response.getDescription()).isEqualTo("quota exceeded");
+	}
+
+	@Test
+	void operationsForPlanAreLimited() {
+		AsyncOperationExecutor executor = executor(4, 4, 4);
+		executor.setPlanConcurrency("plan-id", 1);
+
+		submit(executor, "instance-1", "platform", plan("plan-id", null));
+		submit(executor, "instance-2", "platform", plan("plan-id", null));
+		submit(executor, "instance-3", "platform", plan("other-plan-id", null));
+
+		assertThat(this.started).containsExactly("instance-1", "instance-3");
+		assertThat(executor.getWaitingCount()).isEqualTo(1);
+
+		complete("instance-1");
+		assertThat(this.started).containsExactly("instance-1", "instance-3", "instance-2");
+		assertThat(lastOperation("instance-1").getState()).isEqualTo(OperationState.SUCCEEDED);
+	}
+
+	@Test
+	void platformInstancesTakeTurns() {
+		AsyncOperationExecutor executor = executor(1, 1, 4);
+
+		submit(executor, "instance-1", "platform-a", plan("plan-id", null));
+		submit(executor, "instance-2", "platform-a", plan("plan-id", null));
+		submit(executor, "instance-3", "platform-a", plan("plan-id", null));
+		submit(executor, "instance-4", "platform-b", plan("plan-id", null));
+
+		complete("instance-1");
+		complete(this.started.get(1));
+		assertThat(this.started).containsExactly("instance-1", "instance-4", "instance-2");
+	}
+
+	@Test
+	void submissionIsRejectedWhenQueueIsFull() {
+		AsyncOperationExecutor executor = executor(1, 1, 1);
+
+		submit(executor, "instance-1", "platform", plan("plan-id", null));
+		submit(executor, "instance-2", "platform", plan("plan-id", null));
+
+		assertThatExceptionOfType(ServiceBrokerUnavailableException.class)
+			.isThrownBy(() -> submit(executor, "instance-3", "platform", plan("plan-id", null)));
+		assertThat(executor.getWaitingCount()).isEqualTo(1);
+	}
+
+	@Test
+	void submissionRunsWithoutQueueOnlyWhenItCanStart() {
+		AsyncOperationExecutor executor = executor(1, 1, 0);
+
+		submit(executor, "instance-1", "platform", plan("plan-id", null));
+
+		assertThatExceptionOfType(ServiceBrokerUnavailableException.class)
+			.isThrownBy(() -> submit(executor, "instance-2", "platform", plan("other-plan-id", null)));
+		assertThat(this.started).containsExactly("instance-1");
+		assertThat(executor.getWaitingCount()).isZero();
+
+		complete("instance-1");
+		submit(executor, "instance-3", "platform", plan("plan-id", null));
+		assertThat(this.started).containsExactly("instance-1", "instance-3");
+	}
+
+	@Test
+	void workDoesNotStartAfterOperationHasExpired() {
+		AsyncOperationExecutor executor = executor(1, 1, 1);
+
+		submit(executor, "instance-1", "platform", plan("plan-id", 0));
+
+		assertThat(lastOperation("instance-1").getState()).isEqualTo(OperationState.FAILED);
+		assertThat(this.started).isEmpty();
+		assertThat(executor.getRunningCount()).isZero();
+	}
+
+	@Test
+	void operationFailsAfterMaximumPollingDuration() {
+		AsyncOperationExecutor executor = executor(1, 1, 1);
+
+		submit(executor, "instance-1", "platform", plan("plan-id", 60));
+		submit(executor, "instance-2", "platform", plan("plan-id", 30));
+		this.scheduler.advanceTimeBy(Duration.ofSeconds(30));
+
+		assertThat(lastOperation("instance-2").getState()).isEqualTo(OperationState.FAILED);
+		assertThat(lastOperation("instance-1").getState()).isEqualTo(OperationState.IN_PROGRESS);
+		assertThat(executor.getWaitingCount()).isZero();
+
+		this.scheduler.advanceTimeBy(Duration.ofSeconds(30));
+		GetLastServiceOperationResponse response = lastOperation("instance-1");
+		assertThat(response.getState()).isEqualTo(OperationState.FAILED);
+		assertThat(response.getDescription()).isEqualTo("Operation did not complete within 60 seconds");
+		assertThat(executor.getRunningCount()).isZero();
+		assertThat(this.started).containsExactly("instance-1");
+	}
+
+	@Test
+	void destroyCancelsOperationsAndRejectsLaterSubmissions() {
+		AsyncOperationExecutor executor = executor(1, 1, 1);
+		AtomicBoolean cancelled = new AtomicBoolean();
+
+		submit(executor, "instance-1", "platform", plan("plan-id", 60),
+				() -> Mono.<String>never().doOnCancel(() -> cancelled.set(true)));
+		submit(executor, "instance-2", "platform", plan("plan-id", 60));
+		executor.destroy();
+
+		assertThat(cancelled).isTrue();
+		assertThat(executor.getRunningCount()).isZero();
+		assertThat(executor.getWaitingCount()).isZero();
+		this.scheduler.advanceTimeBy(Duration.ofSeconds(60));
+		assertThat(lastOperation("instance-1").getState()).isEqualTo(OperationState.IN_PROGRESS);
+		assertThat(this.started).isEmpty();
+		assertThatExceptionOfType(ServiceBrokerUnavailableException.class)
+			.isThrownBy(() -> submit(executor, "instance-3", "platform", plan("plan-id", null)));
+	}
+
+	private AsyncOperationExecutor executor(int concurrency, int planConcurrency, int queueCapacity) {
+		return new AsyncOperationExecutor(this.tracker, concurrency, planConcurrency, queueCapacity, this.scheduler);
+	}
+
+	private void submit(AsyncOperationExecutor executor, String serviceInstanceId, String platformInstanceId,
+			Plan plan) {
+		Sinks.One<String> sink = Sinks.one();
+		this.work.put(serviceInstanceId, sink);
+		submit(executor, serviceInstanceId, platformInstanceId, plan, () -> {
+			this.started.add(serviceInstanceId);
+			return sink.asMono();
+		});
+	}
+
+	private void submit(AsyncOperationExecutor executor, String serviceInstanceId, String platformInstanceId,
+			Plan plan, Supplier<Mono<String>> work) {
+		this.tracker.begin(serviceInstanceId);
+		this.tracker.start(serviceInstanceId, null, false, plan.getMaximumPollingDuration());
+		executor.submit(serviceInstanceId, platformInstanceId, plan, work);
+	}
+
+	private void complete(String serviceInstanceId) {
+		this.work.get(serviceInstanceId).tryEmitEmpty();
+	}
+
+	private GetLastServiceOperationResponse lastOperation(String serviceInstanceId) {
+		return this.tracker
+			.getLastOperation(GetLastServiceOperationRequest.builder().serviceInstanceId(serviceInstanceId).build());
+	}
+
+	private static Plan plan(String id, Integer maximumPollingDuration) {
+		return Plan.builder()
+			.id(id)
+			.name(id)
+			.description("Plan")
+			.maximumPollingDuration(maximumPollingDuration)
+			.build();
+	}
+
+}
@@ -20,6 +20,7 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
 import org.springframework.cloud.servicebroker.model.catalog.Catalog;
+import org.springframework.cloud.servicebroker.model.catalog.Plan;
 import org.springframework.cloud.servicebroker.model.catalog.ServiceDefinition;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -28,19 +29,26 @@ class BeanCatalogServiceTests {
 
 	private static final String SVC_DEF_ID = "svc-def-id";
 
+	private static final String PLAN_ID = "plan-id";
+
 	private BeanCatalogService service;
 
 	private Catalog catalog;
 
 	private ServiceDefinition serviceDefinition;
 
+	private Plan plan;
+
 	@BeforeEach
 	void setUp() {
+		this.plan = Plan.builder().id(PLAN_ID).name("plan-name").description("Plan Description").build();
+
 		this.serviceDefinition = ServiceDefinition.builder()
 			.id(SVC_DEF_ID)
 			.name("Name")
 			.description("Description")
 			.bindable(true)
+			.plans(this.plan)
 			.build();
 
 		this.catalog = Catalog.builder().serviceDefinitions(this.serviceDefinition).build();
@@ -63,4 +71,14 @@ class BeanCatalogServiceTests {
 		assertThat(this.service.getServiceDefinition("NOT_THERE").block()).isNull();
 	}
 
+	@Test
+	void serviceDefinitionPlanIsFound() {
+		assertThat(this.service.getServiceDefinition(SVC_DEF_ID).block().getPlan(PLAN_ID)).isEqualTo(this.plan);
+	}
+
+	@Test
+	void serviceDefinitionPlanIsNotFound() {
+		assertThat(this.service.getServiceDefinition(SVC_DEF_ID).block().getPlan("NOT_THERE")).isNull();
+	}
+
 }
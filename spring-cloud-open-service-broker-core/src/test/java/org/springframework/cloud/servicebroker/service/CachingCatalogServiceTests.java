@@ -0,0 +1,248 @@
+/*
+ * Copyright 2002-2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.servicebroker.service;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import org.springframework.cloud.servicebroker.model.catalog.Catalog;
+import org.springframework.cloud.servicebroker.model.catalog.Plan;
+import org.springframework.cloud.servicebroker.model.catalog.ServiceDefinition;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+class CachingCatalogServiceTests {
+
+	private static final Duration TTL = Duration.ofSeconds(30);
+
+	private static final Duration STALE = Duration.ofSeconds(60);
+
+	private static final Duration NEGATIVE_TTL = Duration.ofSeconds(5);
+
+	@Mock
+	private CatalogService delegate;
+
+	private MutableClock clock;
+
+	private CachingCatalogService service;
+
+	@BeforeEach
+	void setUp() {
+		this.clock = new MutableClock();
+		this.service = new CachingCatalogService(this.delegate, TTL, STALE, NEGATIVE_TTL, 2, this.clock);
+	}
+
+	@Test
+	void catalogIsLoadedOnceWithinTimeToLive() {
+		Catalog catalog = catalog("svc-def-id");
+		given(this.delegate.getCatalog()).willReturn(Mono.just(catalog));
+
+		assertThat(this.service.getCatalog().block()).isSameAs(catalog);
+		this.clock.advance(TTL.minusSeconds(1));
+		assertThat(this.service.getCatalog().block()).isSameAs(catalog);
+
+		verify(this.delegate, times(1)).getCatalog();
+	}
+
+	@Test
+	void staleCatalogIsServedWhileRefreshing() {
+		Catalog catalog = catalog("svc-def-id");
+		Catalog refreshed = catalog("other-svc-def-id");
+		given(this.delegate.getCatalog()).willReturn(Mono.just(catalog), Mono.just(refreshed));
+
+		assertThat(this.service.getCatalog().block()).isSameAs(catalog);
+		this.clock.advance(TTL.plusSeconds(1));
+		assertThat(this.service.getCatalog().block()).isSameAs(catalog);
+		assertThat(this.service.getCatalog().block()).isSameAs(refreshed);
+
+		verify(this.delegate, times(2)).getCatalog();
+	}
+
+	@Test
+	void expiredCatalogIsLoadedBeforeReturning() {
+		Catalog catalog = catalog("svc-def-id");
+		Catalog refreshed = catalog("other-svc-def-id");
+		given(this.delegate.getCatalog()).willReturn(Mono.just(catalog), Mono.just(refreshed));
+
+		assertThat(this.service.getCatalog().block()).isSameAs(catalog);
+		this.clock.advance(TTL.plus(STALE));
+		assertThat(this.service.getCatalog().block()).isSameAs(refreshed);
+	}
+
+	@Test
+	void concurrentLoadsAreCoalesced() {
+		Catalog catalog = catalog("svc-def-id");
+		Sinks.One<Catalog> source = Sinks.one();
+		given(this.delegate.getCatalog()).willReturn(source.asMono());
+
+		Mono<Catalog> first = this.service.getCatalog().cache();
+		Mono<Catalog> second = this.service.getCatalog().cache();
+		first.subscribe();
+		second.subscribe();
+		source.tryEmitValue(catalog);
+
+		assertThat(first.block()).isSameAs(catalog);
+		assertThat(second.block()).isSameAs(catalog);
+		verify(this.delegate, times(1)).getCatalog();
+	}
+
+	@Test
+	void failedLoadIsNotCached() {
+		Catalog catalog = catalog("svc-def-id");
+		given(this.delegate.getCatalog()).willReturn(Mono.error(new IllegalStateException("unavailable")),
+				Mono.just(catalog));
+
+		assertThatExceptionOfType(IllegalStateException.class).isThrownBy(() -> this.service.getCatalog().block());
+		assertThat(this.service.getCatalog().block()).isSameAs(catalog);
+	}
+
+	@Test
+	void serviceDefinitionIsCached() {
+		ServiceDefinition serviceDefinition = serviceDefinition("svc-def-id");
+		given(this.delegate.getServiceDefinition("svc-def-id")).willReturn(Mono.just(serviceDefinition));
+
+		assertThat(this.service.getServiceDefinition("svc-def-id").block()).isSameAs(serviceDefinition);
+		assertThat(this.service.getServiceDefinition("svc-def-id").block()).isSameAs(serviceDefinition);
+
+		verify(this.delegate, times(1)).getServiceDefinition("svc-def-id");
+	}
+
+	@Test
+	void unknownServiceDefinitionIsCachedForNegativeTimeToLive() {
+		given(this.delegate.getServiceDefinition("unknown-id")).willReturn(Mono.empty());
+
+		assertThat(this.service.getServiceDefinition("unknown-id").block()).isNull();
+		assertThat(this.service.getServiceDefinition("unknown-id").block()).isNull();
+		verify(this.delegate, times(1)).getServiceDefinition("unknown-id");
+
+		this.clock.advance(NEGATIVE_TTL);
+		assertThat(this.service.getServiceDefinition("unknown-id").block()).isNull();
+		verify(this.delegate, times(2)).getServiceDefinition("unknown-id");
+	}
+
+	@Test
+	void leastRecentlyUsedServiceDefinitionIsEvictedWhenFull() {
+		ServiceDefinition serviceDefinition = serviceDefinition("svc-def-id");
+		given(this.delegate.getServiceDefinition("svc-def-id")).willReturn(Mono.just(serviceDefinition));
+		given(this.delegate.getServiceDefinition("unknown-id")).willReturn(Mono.empty());
+		given(this.delegate.getServiceDefinition("other-unknown-id")).willReturn(Mono.empty());
+
+		this.service.getServiceDefinition("svc-def-id").block();
+		this.service.getServiceDefinition("unknown-id").block();
+		this.service.getServiceDefinition("svc-def-id").block();
+		this.service.getServiceDefinition("other-unknown-id").block();
+		this.service.getServiceDefinition("svc-def-id").block();
+		this.service.getServiceDefinition("unknown-id").block();
+
+		verify(this.delegate, times(1)).getServiceDefinition("svc-def-id");
+		verify(this.delegate, times(2)).getServiceDefinition("unknown-id");
+	}
+
+	@Test
+	void invalidateDiscardsCachedValues() {
+		Catalog catalog = catalog("svc-def-id");
+		given(this.delegate.getCatalog()).willReturn(Mono.just(catalog));
+
+		this.service.getCatalog().block();
+		this.service.invalidate();
+		this.service.getCatalog().block();
+
+		verify(this.delegate, times(2)).getCatalog();
+	}
+
+	@Test
+	void loaderThatThrowsDoesNotBlockLaterLoads() {
+		Catalog catalog = catalog("svc-def-id");
+		given(this.delegate.getCatalog()).willThrow(new IllegalStateException("unavailable"))
+			.willReturn(Mono.just(catalog));
+
+		assertThatExceptionOfType(IllegalStateException.class).isThrownBy(() -> this.service.getCatalog().block());
+		assertThat(this.service.getCatalog().block()).isSameAs(catalog);
+	}
+
+	@Test
+	void loadStartedBeforeInvalidateIsNotCached() {
+		Catalog stale = catalog("svc-def-id");
+		Catalog catalog = catalog("other-svc-def-id");
+		Sinks.One<Catalog> source = Sinks.one();
+		given(this.delegate.getCatalog()).willReturn(source.asMono(), Mono.just(catalog));
+
+		Mono<Catalog> first = this.service.getCatalog().cache();
+		first.subscribe();
+		this.service.invalidate();
+		source.tryEmitValue(stale);
+
+		assertThat(first.block()).isSameAs(stale);
+		assertThat(this.service.getCatalog().block()).isSameAs(catalog);
+		verify(this.delegate, times(2)).getCatalog();
+	}
+
+	private static Catalog catalog(String serviceId) {
+		return Catalog.builder().serviceDefinitions(serviceDefinition(serviceId)).build();
+	}
+
+	private static ServiceDefinition serviceDefinition(String serviceId) {
+		return ServiceDefinition.builder()
+			.id(serviceId)
+			.name("Name")
+			.description("Description")
+			.plans(Plan.builder().id("plan-id").name("plan").description("Plan").build())
+			.build();
+	}
+
+	private static final class MutableClock extends Clock {
+
+		private Instant instant = Instant.parse("2024-01-01T00:00:00Z");
+
+		void advance(Duration duration) {
+			this.instant = this.instant.plus(duration);
+		}
+
+		@Override
+		public ZoneId getZone() {
+			return ZoneOffset.UTC;
+		}
+
+		@Override
+		public Clock withZone(ZoneId zone) {
+			return this;
+		}
+
+		@Override
+		public Instant instant() {
+			return this.instant;
+		}
+
+	}
+
+}
@@ -0,0 +1,192 @@
+/*
+ * Copyright 2002-2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.servicebroker.service;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import org.springframework.cloud.servicebroker.model.binding.DeleteServiceInstanceBindingRequest;
+import org.springframework.cloud.servicebroker.model.binding.DeleteServiceInstanceBindingResponse;
+import org.springframework.cloud.servicebroker.model.binding.GetLastServiceBindingOperationRequest;
+import org.springframework.cloud.servicebroker.model.binding.GetLastServiceBindingOperationResponse;
+import org.springframework.cloud.servicebroker.model.instance.OperationState;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+class CoalescingServiceInstanceBindingServiceTests {
+
+	private static final Duration TTL = Duration.ofSeconds(10);
+
+	@Mock
+	private ServiceInstanceBindingService serviceInstanceBindingService;
+
+	private MutableClock clock;
+
+	private CoalescingServiceInstanceBindingService service;
+
+	@BeforeEach
+	void setUp() {
+		this.clock = new MutableClock();
+		this.service = new CoalescingServiceInstanceBindingService(this.serviceInstanceBindingService, TTL,
+				this.clock);
+	}
+
+	@Test
+	void concurrentRequestsAreCoalesced() {
+		GetLastServiceBindingOperationResponse response = response(OperationState.IN_PROGRESS);
+		Sinks.One<GetLastServiceBindingOperationResponse> source = Sinks.one();
+		given(this.serviceInstanceBindingService.getLastOperation(any())).willReturn(source.asMono());
+
+		Mono<GetLastServiceBindingOperationResponse> first = this.service.getLastOperation(request("binding-id"))
+			.cache();
+		Mono<GetLastServiceBindingOperationResponse> second = this.service.getLastOperation(request("binding-id"))
+			.cache();
+		first.subscribe();
+		second.subscribe();
+		source.tryEmitValue(response);
+
+		assertThat(first.block()).isSameAs(response);
+		assertThat(second.block()).isSameAs(response);
+		verify(this.serviceInstanceBindingService, times(1)).getLastOperation(any());
+	}
+
+	@Test
+	void requestsForDifferentBindingsAreNotCoalesced() {
+		Sinks.One<GetLastServiceBindingOperationResponse> source = Sinks.one();
+		given(this.serviceInstanceBindingService.getLastOperation(any())).willReturn(source.asMono(),
+				Mono.just(response(OperationState.IN_PROGRESS)));
+
+		this.service.getLastOperation(request("binding-id")).subscribe();
+		assertThat(this.service.getLastOperation(request("other-binding-id")).block()).isNotNull();
+
+		verify(this.serviceInstanceBindingService, times(2)).getLastOperation(any());
+	}
+
+	@Test
+	void finishedResponseIsReusedWithinTimeToLive() {
+		GetLastServiceBindingOperationResponse response = response(OperationState.SUCCEEDED);
+		given(this.serviceInstanceBindingService.getLastOperation(any())).willReturn(Mono.just(response));
+
+		assertThat(this.service.getLastOperation(request("binding-id")).block()).isSameAs(response);
+		this.clock.advance(TTL.minusSeconds(1));
+		assertThat(this.service.getLastOperation(request("binding-id")).block()).isSameAs(response);
+		verify(this.serviceInstanceBindingService, times(1)).getLastOperation(any());
+
+		this.clock.advance(Duration.ofSeconds(1));
+		assertThat(this.service.getLastOperation(request("binding-id")).block()).isSameAs(response);
+		verify(this.serviceInstanceBindingService, times(2)).getLastOperation(any());
+	}
+
+	@Test
+	void finishedResponseIsForgottenOnlyForDeletedBinding() {
+		given(this.serviceInstanceBindingService.getLastOperation(any()))
+			.willReturn(Mono.just(response(OperationState.SUCCEEDED)));
+		given(this.serviceInstanceBindingService.deleteServiceInstanceBinding(any()))
+			.willReturn(Mono.just(DeleteServiceInstanceBindingResponse.builder().build()));
+
+		this.service.getLastOperation(request("binding-id")).block();
+		this.service.getLastOperation(request("other-binding-id")).block();
+		this.service.deleteServiceInstanceBinding(delete("binding-id")).block();
+		this.service.getLastOperation(request("binding-id")).block();
+		this.service.getLastOperation(request("other-binding-id")).block();
+
+		verify(this.serviceInstanceBindingService, times(3)).getLastOperation(any());
+	}
+
+	@Test
+	void inFlightResponseIsNotReusedWhenBindingIsDeleted() {
+		Sinks.One<GetLastServiceBindingOperationResponse> source = Sinks.one();
+		given(this.serviceInstanceBindingService.getLastOperation(any())).willReturn(source.asMono(),
+				Mono.just(response(OperationState.IN_PROGRESS)));
+		given(this.serviceInstanceBindingService.deleteServiceInstanceBinding(any()))
+			.willReturn(Mono.just(DeleteServiceInstanceBindingResponse.builder().build()));
+
+		Mono<GetLastServiceBindingOperationResponse> first = this.service.getLastOperation(request("binding-id"))
+			.cache();
+		first.subscribe();
+		this.service.deleteServiceInstanceBinding(delete("binding-id")).block();
+		source.tryEmitValue(response(OperationState.SUCCEEDED));
+
+		assertThat(first.block().getState()).isEqualTo(OperationState.SUCCEEDED);
+		assertThat(this.service.getLastOperation(request("binding-id")).block().getState())
+			.isEqualTo(OperationState.IN_PROGRESS);
+		verify(this.serviceInstanceBindingService, times(2)).getLastOperation(any());
+	}
+
+	private static GetLastServiceBindingOperationRequest request(String bindingId) {
+		return GetLastServiceBindingOperationRequest.builder()
+			.serviceInstanceId("instance-id")
+			.bindingId(bindingId)
+			.serviceDefinitionId("service-definition-id")
+			.planId("plan-id")
+			.operation("operation-id")
+			.build();
+	}
+
+	private static DeleteServiceInstanceBindingRequest delete(String bindingId) {
+		return DeleteServiceInstanceBindingRequest.builder()
+			.serviceInstanceId("instance-id")
+			.bindingId(bindingId)
+			.build();
+	}
+
+	private static GetLastServiceBindingOperationResponse response(OperationState state) {
+		return GetLastServiceBindingOperationResponse.builder().operationState(state).build();
+	}
+
+	private static final class MutableClock extends Clock {
+
+		private Instant instant = Instant.parse("2024-01-01T00:00:00Z");
+
+		void advance(Duration duration) {
+			this.instant = this.instant.plus(duration);
+		}
+
+		@Override
+		public ZoneId getZone() {
+			return ZoneOffset.UTC;
+		}
+
+		@Override
+		public Clock withZone(ZoneId zone) {
+			return this;
+		}
+
+		@Override
+		public Instant instant() {
+			return this.instant;
+		}
+
+	}
+
+}
@@ -0,0 +1,210 @@
+/*
+ * Copyright 2002-2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.servicebroker.service;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import org.springframework.cloud.servicebroker.model.instance.GetLastServiceOperationRequest;
+import org.springframework.cloud.servicebroker.model.instance.GetLastServiceOperationResponse;
+import org.springframework.cloud.servicebroker.model.instance.OperationState;
+import org.springframework.cloud.servicebroker.model.instance.UpdateServiceInstanceRequest;
+import org.springframework.cloud.servicebroker.model.instance.UpdateServiceInstanceResponse;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+class CoalescingServiceInstanceServiceTests {
+
+	private static final Duration TTL = Duration.ofSeconds(10);
+
+	@Mock
+	private ServiceInstanceService serviceInstanceService;
+
+	private MutableClock clock;
+
+	private CoalescingServiceInstanceService service;
+
+	@BeforeEach
+	void setUp() {
+		this.clock = new MutableClock();
+		this.service = new CoalescingServiceInstanceService(this.serviceInstanceService, TTL, this.clock);
+	}
+
+	@Test
+	void concurrentRequestsAreCoalesced() {
+		GetLastServiceOperationResponse response = response(OperationState.IN_PROGRESS);
+		Sinks.One<GetLastServiceOperationResponse> source = Sinks.one();
+		given(this.serviceInstanceService.getLastOperation(any())).willReturn(source.asMono());
+
+		Mono<GetLastServiceOperationResponse> first = this.service.getLastOperation(request("operation-id")).cache();
+		Mono<GetLastServiceOperationResponse> second = this.service.getLastOperation(request("operation-id")).cache();
+		first.subscribe();
+		second.subscribe();
+		source.tryEmitValue(response);
+
+		assertThat(first.block()).isSameAs(response);
+		assertThat(second.block()).isSameAs(response);
+		verify(this.serviceInstanceService, times(1)).getLastOperation(any());
+	}
+
+	@Test
+	void requestsForDifferentOperationsAreNotCoalesced() {
+		Sinks.One<GetLastServiceOperationResponse> source = Sinks.one();
+		given(this.serviceInstanceService.getLastOperation(any())).willReturn(source.asMono(),
+				Mono.just(response(OperationState.IN_PROGRESS)));
+
+		this.service.getLastOperation(request("operation-id")).subscribe();
+		assertThat(this.service.getLastOperation(request("other-operation-id")).block()).isNotNull();
+
+		verify(this.serviceInstanceService, times(2)).getLastOperation(any());
+	}
+
+	@Test
+	void inProgressResponseIsNotReused() {
+		given(this.serviceInstanceService.getLastOperation(any()))
+			.willReturn(Mono.just(response(OperationState.IN_PROGRESS)));
+
+		this.service.getLastOperation(request("operation-id")).block();
+		this.service.getLastOperation(request("operation-id")).block();
+
+		verify(this.serviceInstanceService, times(2)).getLastOperation(any());
+	}
+
+	@Test
+	void finishedResponseIsReusedWithinTimeToLive() {
+		GetLastServiceOperationResponse response = response(OperationState.SUCCEEDED);
+		given(this.serviceInstanceService.getLastOperation(any())).willReturn(Mono.just(response));
+
+		assertThat(this.service.getLastOperation(request("operation-id")).block()).isSameAs(response);
+		this.clock.advance(TTL.minusSeconds(1));
+		assertThat(this.service.getLastOperation(request("operation-id")).block()).isSameAs(response);
+		verify(this.serviceInstanceService, times(1)).getLastOperation(any());
+
+		this.clock.advance(Duration.ofSeconds(1));
+		assertThat(this.service.getLastOperation(request("operation-id")).block()).isSameAs(response);
+		verify(this.serviceInstanceService, times(2)).getLastOperation(any());
+	}
+
+	@Test
+	void finishedResponseIsForgottenWhenInstanceIsUpdated() {
+		given(this.serviceInstanceService.getLastOperation(any()))
+			.willReturn(Mono.just(response(OperationState.SUCCEEDED)));
+		given(this.serviceInstanceService.updateServiceInstance(any()))
+			.willReturn(Mono.just(UpdateServiceInstanceResponse.builder().build()));
+
+		UpdateServiceInstanceRequest update = UpdateServiceInstanceRequest.builder()
+			.serviceInstanceId("instance-id")
+			.build();
+
+		this.service.getLastOperation(request("operation-id")).block();
+		this.service.updateServiceInstance(update).block();
+		this.service.getLastOperation(request("operation-id")).block();
+
+		verify(this.serviceInstanceService, times(2)).getLastOperation(any());
+	}
+
+	@Test
+	void inFlightResponseIsNotReusedWhenInstanceIsUpdated() {
+		Sinks.One<GetLastServiceOperationResponse> source = Sinks.one();
+		given(this.serviceInstanceService.getLastOperation(any())).willReturn(source.asMono(),
+				Mono.just(response(OperationState.IN_PROGRESS)));
+		given(this.serviceInstanceService.updateServiceInstance(any()))
+			.willReturn(Mono.just(UpdateServiceInstanceResponse.builder().build()));
+
+		UpdateServiceInstanceRequest update = UpdateServiceInstanceRequest.builder()
+			.serviceInstanceId("instance-id")
+			.build();
+
+		Mono<GetLastServiceOperationResponse> first = this.service.getLastOperation(request("operation-id")).cache();
+		first.subscribe();
+		this.service.updateServiceInstance(update).block();
+		source.tryEmitValue(response(OperationState.SUCCEEDED));
+
+		assertThat(first.block().getState()).isEqualTo(OperationState.SUCCEEDED);
+		assertThat(this.service.getLastOperation(request("operation-id")).block().getState())
+			.isEqualTo(OperationState.IN_PROGRESS);
+		verify(this.serviceInstanceService, times(2)).getLastOperation(any());
+	}
+
+	@Test
+	void errorIsSharedAndNotReused() {
+		given(this.serviceInstanceService.getLastOperation(any()))
+			.willReturn(Mono.error(new IllegalStateException("unavailable")),
+					Mono.just(response(OperationState.FAILED)));
+
+		assertThatExceptionOfType(IllegalStateException.class)
+			.isThrownBy(() -> this.service.getLastOperation(request("operation-id")).block());
+		assertThat(this.service.getLastOperation(request("operation-id")).block().getState())
+			.isEqualTo(OperationState.FAILED);
+	}
+
+	private static GetLastServiceOperationRequest request(String operation) {
+		return GetLastServiceOperationRequest.builder()
+			.serviceInstanceId("instance-id")
+			.serviceDefinitionId("service-definition-id")
+			.planId("plan-id")
+			.operation(operation)
+			.build();
+	}
+
+	private static GetLastServiceOperationResponse response(OperationState state) {
+		return GetLastServiceOperationResponse.builder().operationState(state).build();
+	}
+
+	private static final class MutableClock extends Clock {
+
+		private Instant instant = Instant.parse("2024-01-01T00:00:00Z");
+
+		void advance(Duration duration) {
+			this.instant = this.instant.plus(duration);
+		}
+
+		@Override
+		public ZoneId getZone() {
+			return ZoneOffset.UTC;
+		}
+
+		@Override
+		public Clock withZone(ZoneId zone) {
+			return this;
+		}
+
+		@Override
+		public Instant instant() {
+			return this.instant;
+		}
+
+	}
+
+}
@@ -0,0 +1,285 @@
+/*
+ * Copyright 2002-2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.servicebroker.service;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+
+import org.springframework.cloud.servicebroker.exception.ServiceBrokerInvalidParametersException;
+import org.springframework.cloud.servicebroker.model.catalog.Catalog;
+import org.springframework.cloud.servicebroker.model.catalog.MethodSchema;
+import org.springframework.cloud.servicebroker.model.catalog.Plan;
+import org.springframework.cloud.servicebroker.model.catalog.Schemas;
+import org.springframework.cloud.servicebroker.model.catalog.ServiceBindingSchema;
+import org.springframework.cloud.servicebroker.model.catalog.ServiceDefinition;
+import org.springframework.cloud.servicebroker.model.catalog.ServiceInstanceSchema;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+import static org.assertj.core.api.Assertions.assertThatNoException;
+
+class ParameterSchemaValidatorTests {
+
+	private static final Map<String, Object> SCHEMA = Map.of("$schema", "http://json-schema.org/draft-04/schema#",
+			"type", "object", "additionalProperties", false, "required", List.of("size"), "properties",
+			Map.of("size", Map.of("type", "string", "enum", List.of("small", "large")), "count",
+					Map.of("type", "integer", "minimum", 1, "maximum", 10), "name",
+					Map.of("type", "string", "pattern", "^[a-z]+$", "maxLength", 8), "tags",
+					Map.of("type", "array", "items", Map.of("$ref", "#/definitions/tag"), "uniqueItems", true)),
+			"definitions", Map.of("tag", Map.of("type", "string", "minLength", 1)));
+
+	private final ParameterSchemaValidator validator = new ParameterSchemaValidator();
+
+	@Test
+	void validParametersAreAccepted() {
+		Plan plan = plan(SCHEMA);
+
+		assertThatNoException().isThrownBy(() -> this.validator.validateCreateServiceInstance(plan,
+				Map.of("size", "small", "count", 3, "name", "abc", "tags", List.of("a", "b"))));
+	}
+
+	@Test
+	void missingRequiredParameterIsRejected() {
+		Plan plan = plan(SCHEMA);
+
+		assertThatExceptionOfType(ServiceBrokerInvalidParametersException.class)
+			.isThrownBy(() -> this.validator.validateCreateServiceInstance(plan, Map.of()))
+			.withMessageContaining("size");
+	}
+
+	@Test
+	void invalidParametersAreRejectedWithAllViolations() {
+		Plan plan = plan(SCHEMA);
+
+		assertThatExceptionOfType(ServiceBrokerInvalidParametersException.class)
+			.isThrownBy(() -> this.validator.validateCreateServiceInstance(plan,
+					Map.of("size", "medium", "count", 11, "name", "ABC", "tags", List.of("a", "a", ""), "other",
+							true)))
+			.withMessageContaining("$.size")
+			.withMessageContaining("$.count")
+			.withMessageContaining("$.name")
+			.withMessageContaining("$.tags")
+			.withMessageContaining("$.tags[2]")
+			.withMessageContaining("other");
+	}
+
+	@Test
+	void wrongTypeIsRejected() {
+		Plan plan = plan(SCHEMA);
+
+		assertThatExceptionOfType(ServiceBrokerInvalidParametersException.class)
+			.isThrownBy(() -> this.validator.validateCreateServiceInstance(plan, Map.of("size", 1)))
+			.withMessageContaining("$.size: integer found, string expected");
+	}
+
+	@Test
+	void updateAndBindingSchemasAreValidatedSeparately() {
+		Map<String, Object> bindingSchema = Map.of("type", "object", "properties",
+				Map.of("role", Map.of("oneOf", List.of(Map.of("const", "reader"), Map.of("const", "writer")))));
+		Plan plan = Plan.builder()
+			.id("plan-id")
+			.name("plan")
+			.schemas(Schemas.builder()
+				.serviceInstanceSchema(ServiceInstanceSchema.builder()
+					.createMethodSchema(MethodSchema.builder().parameters(SCHEMA).build())
+					.build())
+				.serviceBindingSchema(ServiceBindingSchema.builder()
+					.createMethodSchema(MethodSchema.builder().parameters(bindingSchema).build())
+					.build())
+				.build())
+			.build();
+
+		assertThatNoException().isThrownBy(() -> this.validator.validateUpdateServiceInstance(plan, Map.of()));
+		assertThatNoException()
+			.isThrownBy(() -> this.validator.validateCreateServiceInstanceBinding(plan, Map.of("role", "reader")));
+		assertThatExceptionOfType(ServiceBrokerInvalidParametersException.class)
+			.isThrownBy(() -> this.validator.validateCreateServiceInstanceBinding(plan, Map.of("role", "admin")))
+			.withMessageContaining("$.role");
+	}
+
+	@Test
+	void planWithoutSchemasAcceptsAnyParameters() {
+		Plan plan = Plan.builder().id("plan-id").name("plan").build();
+
+		assertThatNoException()
+			.isThrownBy(() -> this.validator.validateCreateServiceInstance(plan, Map.of("anything", "goes")));
+	}
+
+	@Test
+	void replacedPlanIsCompiledAgain() {
+		this.validator.validateCreateServiceInstance(plan(SCHEMA), Map.of("size", "small"));
+		Plan replacement = plan(Map.of("type", "object", "required", List.of("name")));
+
+		assertThatExceptionOfType(ServiceBrokerInvalidParametersException.class)
+			.isThrownBy(() -> this.validator.validateCreateServiceInstance(replacement, Map.of("size", "small")))
+			.withMessageContaining("name");
+	}
+
+	@Test
+	void equalPlanFromReloadedCatalogReusesCompiledSchemas() {
+		KeywordCountingSchema name = new KeywordCountingSchema(Map.of("type", "string"));
+		this.validator.validateCreateServiceInstance(plan(Map.of("properties", Map.of("name", name))),
+				Map.of("name", "abc"));
+
+		assertThatExceptionOfType(ServiceBrokerInvalidParametersException.class)
+			.isThrownBy(() -> this.validator
+				.validateCreateServiceInstance(plan(Map.of("properties", Map.of("name", name))), Map.of("name", 1)))
+			.withMessageContaining("$.name: integer found, string expected");
+		assertThat(name.keywordReads).isEqualTo(1);
+	}
+
+	@Test
+	void catalogWithValidSchemasIsCompiled() {
+		assertThatNoException().isThrownBy(() -> this.validator.compile(catalog(plan(SCHEMA))));
+	}
+
+	@Test
+	void unknownKeywordsAreIgnored() {
+		Plan plan = plan(Map.of("type", "object", "x-display-order", List.of("name"), "properties",
+				Map.of("name", Map.of("type", "string", "contentEncoding", "base64"))));
+
+		assertThatNoException().isThrownBy(() -> this.validator.compile(catalog(plan)));
+		assertThatNoException()
+			.isThrownBy(() -> this.validator.validateCreateServiceInstance(plan, Map.of("name", "abc")));
+	}
+
+	@Test
+	void patternPropertiesAreValidated() {
+		Plan plan = plan(Map.of("type", "object", "additionalProperties", false, "properties",
+				Map.of("name", Map.of("type", "string")), "patternProperties",
+				Map.of("^label-", Map.of("type", "string"))));
+
+		assertThatNoException().isThrownBy(() -> this.validator.validateCreateServiceInstance(plan,
+				Map.of("name", "abc", "label-team", "core")));
+		assertThatExceptionOfType(ServiceBrokerInvalidParametersException.class)
+			.isThrownBy(() -> this.validator.validateCreateServiceInstance(plan,
+					Map.of("label-team", 1, "other", "abc")))
+			.withMessageContaining("$.label-team: integer found, string expected")
+			.withMessageContaining("other");
+	}
+
+	@Test
+	void draft04DependenciesAreValidated() {
+		Plan plan = plan(Map.of("type", "object", "dependencies",
+				Map.of("password", List.of("username"), "port", Map.of("required", List.of("host")))));
+
+		assertThatNoException().isThrownBy(() -> this.validator.validateCreateServiceInstance(plan,
+				Map.of("username", "admin", "password", "secret")));
+		assertThatExceptionOfType(ServiceBrokerInvalidParametersException.class)
+			.isThrownBy(() -> this.validator.validateCreateServiceInstance(plan,
+					Map.of("password", "secret", "port", 5432)))
+			.withMessageContaining("username")
+			.withMessageContaining("host");
+	}
+
+	@Test
+	void additionalAndContainedItemsAreValidated() {
+		Plan plan = plan(Map.of("type", "object", "properties",
+				Map.of("endpoint", Map.of("type", "array", "items", List.of(Map.of("type", "string")),
+						"additionalItems", Map.of("type", "integer"), "contains", Map.of("const", 443)))));
+
+		assertThatNoException().isThrownBy(() -> this.validator.validateCreateServiceInstance(plan,
+				Map.of("endpoint", List.of("host", 80, 443))));
+		assertThatExceptionOfType(ServiceBrokerInvalidParametersException.class)
+			.isThrownBy(() -> this.validator.validateCreateServiceInstance(plan,
+					Map.of("endpoint", List.of("host", "80"))))
+			.withMessageContaining("$.endpoint[1]: string found, integer expected")
+			.withMessageContaining("$.endpoint");
+	}
+
+	@Test
+	void conditionalSchemaIsValidated() {
+		Plan plan = plan(Map.of("type", "object", "if",
+				Map.of("required", List.of("tier"), "properties", Map.of("tier", Map.of("const", "ha"))), "then",
+				Map.of("required", List.of("replicas")), "else",
+				Map.of("properties", Map.of("replicas", Map.of("maximum", 1)))));
+
+		assertThatNoException().isThrownBy(
+				() -> this.validator.validateCreateServiceInstance(plan, Map.of("tier", "ha", "replicas", 3)));
+		assertThatExceptionOfType(ServiceBrokerInvalidParametersException.class)
+			.isThrownBy(() -> this.validator.validateCreateServiceInstance(plan, Map.of("tier", "ha")))
+			.withMessageContaining("replicas");
+		assertThatExceptionOfType(ServiceBrokerInvalidParametersException.class)
+			.isThrownBy(() -> this.validator.validateCreateServiceInstance(plan, Map.of("replicas", 3)))
+			.withMessageContaining("$.replicas");
+	}
+
+	@Test
+	void invalidSchemaCompiledForARequestAcceptsAnyParameters() {
+		Plan plan = plan(Map.of("type", "object", "required", List.of("name"), "properties",
+				Map.of("name", Map.of("type", "string", "pattern", "[a-z"))));
+
+		assertThatNoException()
+			.isThrownBy(() -> this.validator.validateCreateServiceInstance(plan, Map.of("name", 1)));
+		assertThatNoException().isThrownBy(() -> this.validator.validateCreateServiceInstance(plan, Map.of()));
+	}
+
+	@Test
+	void invalidPatternIsRejectedWhenCatalogIsCompiled() {
+		Plan plan = plan(Map.of("type", "string", "pattern", "[a-z"));
+
+		assertThatIllegalArgumentException().isThrownBy(() -> this.validator.compile(catalog(plan)))
+			.withMessageContaining("Invalid parameter schema for plan plan-id");
+	}
+
+	private static Catalog catalog(Plan plan) {
+		return Catalog.builder()
+			.serviceDefinitions(ServiceDefinition.builder()
+				.id("service-id")
+				.name("service")
+				.description("Service")
+				.plans(plan)
+				.build())
+			.build();
+	}
+
+	private static Plan plan(Map<String, Object> createSchema) {
+		return Plan.builder()
+			.id("plan-id")
+			.name("plan")
+			.schemas(Schemas.builder()
+				.serviceInstanceSchema(ServiceInstanceSchema.builder()
+					.createMethodSchema(MethodSchema.builder().parameters(createSchema).build())
+					.build())
+				.build())
+			.build();
+	}
+
+	private static final class KeywordCountingSchema extends LinkedHashMap<String, Object> {
+
+		private static final long serialVersionUID = 1L;
+
+		private int keywordReads;
+
+		private KeywordCountingSchema(Map<String, Object> schema) {
+			super(schema);
+		}
+
+		@Override
+		public Set<Map.Entry<String, Object>> entrySet() {
+			this.keywordReads++;
+			return super.entrySet();
+		}
+
+	}
+
+}
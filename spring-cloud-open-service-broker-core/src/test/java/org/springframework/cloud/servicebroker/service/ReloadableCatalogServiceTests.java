@@ -0,0 +1,103 @@
+/*
+ * Copyright 2002-2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.servicebroker.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import org.springframework.cloud.servicebroker.exception.ServiceBrokerException;
+import org.springframework.cloud.servicebroker.model.catalog.Catalog;
+import org.springframework.cloud.servicebroker.model.catalog.Plan;
+import org.springframework.cloud.servicebroker.model.catalog.ServiceDefinition;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.io.ClassPathResource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+class ReloadableCatalogServiceTests {
+
+	private ReloadableCatalogService service;
+
+	private Catalog catalog;
+
+	@BeforeEach
+	void setUp() {
+		this.catalog = Catalog.builder()
+			.serviceDefinitions(ServiceDefinition.builder()
+				.id("svc-def-id")
+				.name("Name")
+				.description("Description")
+				.plans(Plan.builder().id("plan-id").name("plan").description("Plan").build())
+				.build())
+			.build();
+
+		this.service = new ReloadableCatalogService(this.catalog);
+	}
+
+	@Test
+	void initialCatalogIsServed() {
+		Catalog actual = this.service.getCatalog().block();
+
+		assertThat(actual).isEqualTo(this.catalog);
+		assertThat(actual).isInstanceOf(SerializedCatalog.class);
+		assertThat(this.service.getServiceDefinition("svc-def-id").block()).isNotNull();
+		assertThat(this.service.getServiceDefinition("svc-def-id").block().getPlan("plan-id")).isNotNull();
+	}
+
+	@Test
+	void catalogIsReplacedOnReload() {
+		Catalog previous = this.service.getCatalog().block();
+		Catalog replacement = Catalog.builder()
+			.serviceDefinitions(ServiceDefinition.builder()
+				.id("other-svc-def-id")
+				.name("Other")
+				.description("Other Description")
+				.plans(Plan.builder().id("other-plan-id").name("other-plan").description("Other Plan").build())
+				.build())
+			.build();
+
+		this.service.reload(replacement);
+
+		Catalog actual = this.service.getCatalog().block();
+		assertThat(actual).isEqualTo(replacement);
+		assertThat(((SerializedCatalog) actual).getETag()).isNotEqualTo(((SerializedCatalog) previous).getETag());
+		assertThat(this.service.getServiceDefinition("svc-def-id").block()).isNull();
+		assertThat(this.service.getServiceDefinition("other-svc-def-id").block().getPlan("other-plan-id")).isNotNull();
+	}
+
+	@Test
+	void catalogIsReloadedFromResource() {
+		this.service.reload(new ClassPathResource("catalog.json"));
+
+		Catalog actual = this.service.getCatalog().block();
+		assertThat(actual.getServiceDefinitions()).isNotEmpty();
+		ServiceDefinition serviceDefinition = actual.getServiceDefinitions().get(0);
+		assertThat(this.service.getServiceDefinition(serviceDefinition.getId()).block()).isEqualTo(serviceDefinition);
+	}
+
+	@Test
+	void invalidResourceKeepsCurrentCatalog() {
+		Catalog previous = this.service.getCatalog().block();
+
+		assertThatExceptionOfType(ServiceBrokerException.class)
+			.isThrownBy(() -> this.service.reload(new ByteArrayResource("not json".getBytes())));
+
+		assertThat(this.service.getCatalog().block()).isSameAs(previous);
+	}
+
+}
@@ -0,0 +1,109 @@
+/*
+ * Copyright 2002-2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.servicebroker.service;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+import reactor.test.StepVerifier;
+
+import org.springframework.cloud.servicebroker.model.binding.CreateServiceInstanceAppBindingResponse;
+import org.springframework.cloud.servicebroker.model.binding.CreateServiceInstanceBindingRequest;
+import org.springframework.cloud.servicebroker.model.instance.CreateServiceInstanceRequest;
+import org.springframework.cloud.servicebroker.model.instance.CreateServiceInstanceResponse;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+class SchedulingServiceInstanceServiceTests {
+
+	@Mock
+	private ServiceInstanceService serviceInstanceService;
+
+	@Mock
+	private ServiceInstanceBindingService serviceInstanceBindingService;
+
+	private Scheduler scheduler;
+
+	@BeforeEach
+	void setUp() {
+		this.scheduler = Schedulers.newSingle("service-broker-test");
+	}
+
+	@AfterEach
+	void tearDown() {
+		this.scheduler.dispose();
+	}
+
+	@Test
+	void serviceInstanceServiceIsInvokedOnScheduler() {
+		CreateServiceInstanceRequest request = CreateServiceInstanceRequest.builder().build();
+		AtomicReference<String> thread = new AtomicReference<>();
+		given(this.serviceInstanceService.createServiceInstance(request)).willAnswer((invocation) -> {
+			thread.set(Thread.currentThread().getName());
+			return Mono.just(CreateServiceInstanceResponse.builder().build());
+		});
+
+		StepVerifier
+			.create(new SchedulingServiceInstanceService(this.serviceInstanceService, this.scheduler)
+				.createServiceInstance(request))
+			.expectNextCount(1)
+			.verifyComplete();
+
+		assertThat(thread.get()).startsWith("service-broker-test");
+	}
+
+	@Test
+	void serviceInstanceServiceIsNotInvokedUntilSubscribed() {
+		CreateServiceInstanceRequest request = CreateServiceInstanceRequest.builder().build();
+
+		new SchedulingServiceInstanceService(this.serviceInstanceService, this.scheduler)
+			.createServiceInstance(request);
+
+		verify(this.serviceInstanceService, never()).createServiceInstance(request);
+	}
+
+	@Test
+	void serviceInstanceBindingServiceIsInvokedOnScheduler() {
+		CreateServiceInstanceBindingRequest request = CreateServiceInstanceBindingRequest.builder().build();
+		AtomicReference<String> thread = new AtomicReference<>();
+		given(this.serviceInstanceBindingService.createServiceInstanceBinding(request)).willAnswer((invocation) -> {
+			thread.set(Thread.currentThread().getName());
+			return Mono.just(CreateServiceInstanceAppBindingResponse.builder().build());
+		});
+
+		StepVerifier
+			.create(new SchedulingServiceInstanceBindingService(this.serviceInstanceBindingService, this.scheduler)
+				.createServiceInstanceBinding(request))
+			.expectNextCount(1)
+			.verifyComplete();
+
+		assertThat(thread.get()).startsWith("service-broker-test");
+	}
+
+}
@@ -0,0 +1,101 @@
+/*
+ * Copyright 2002-2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.servicebroker.service;
+
+import java.nio.charset.StandardCharsets;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import org.springframework.cloud.servicebroker.model.catalog.Catalog;
+import org.springframework.cloud.servicebroker.model.catalog.Plan;
+import org.springframework.cloud.servicebroker.model.catalog.ServiceDefinition;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SerializedCatalogTests {
+
+	private final ObjectMapper objectMapper = new ObjectMapper();
+
+	private Catalog catalog;
+
+	@BeforeEach
+	void setUp() {
+		this.catalog = Catalog.builder()
+			.serviceDefinitions(ServiceDefinition.builder()
+				.id("service-definition-id")
+				.name("service-definition")
+				.description("Service Definition")
+				.plans(Plan.builder().id("plan-id").name("plan").description("Plan").build())
+				.build())
+			.build();
+	}
+
+	@Test
+	void serializedCatalogWritesPreEncodedJson() throws Exception {
+		SerializedCatalog serializedCatalog = SerializedCatalog.of(this.catalog, this.objectMapper);
+
+		String expected = this.objectMapper.writeValueAsString(this.catalog);
+		assertThat(new String(serializedCatalog.getContent(), StandardCharsets.UTF_8)).isEqualTo(expected);
+		assertThat(this.objectMapper.writeValueAsString(serializedCatalog)).isEqualTo(expected);
+		assertThat(serializedCatalog).isEqualTo(this.catalog);
+	}
+
+	@Test
+	void eTagIsStrongAndStable() {
+		SerializedCatalog first = SerializedCatalog.of(this.catalog, this.objectMapper);
+		SerializedCatalog second = SerializedCatalog.of(Catalog.builder()
+			.serviceDefinitions(this.catalog.getServiceDefinitions())
+			.build(), this.objectMapper);
+
+		assertThat(first.getETag()).startsWith("\"").endsWith("\"").doesNotStartWith("W/");
+		assertThat(first.getETag()).isEqualTo(second.getETag());
+	}
+
+	@Test
+	void eTagChangesWithContent() {
+		SerializedCatalog first = SerializedCatalog.of(this.catalog, this.objectMapper);
+		SerializedCatalog second = SerializedCatalog.of(Catalog.builder().build(), this.objectMapper);
+
+		assertThat(first.getETag()).isNotEqualTo(second.getETag());
+	}
+
+	@Test
+	void serializationOfSourceIsRecognized() {
+		SerializedCatalog serializedCatalog = SerializedCatalog.of(this.catalog, this.objectMapper);
+
+		assertThat(serializedCatalog.isSerializationOf(this.catalog)).isTrue();
+		assertThat(serializedCatalog.isSerializationOf(serializedCatalog)).isTrue();
+		assertThat(serializedCatalog.isSerializationOf(Catalog.builder().build())).isFalse();
+		assertThat(SerializedCatalog.of(serializedCatalog, this.objectMapper)).isSameAs(serializedCatalog);
+	}
+
+	@Test
+	void ifNoneMatchIsCompared() {
+		SerializedCatalog serializedCatalog = SerializedCatalog.of(this.catalog, this.objectMapper);
+		String eTag = serializedCatalog.getETag();
+
+		assertThat(serializedCatalog.matchesIfNoneMatch(null)).isFalse();
+		assertThat(serializedCatalog.matchesIfNoneMatch("\"other\"")).isFalse();
+		assertThat(serializedCatalog.matchesIfNoneMatch(eTag)).isTrue();
+		assertThat(serializedCatalog.matchesIfNoneMatch("W/" + eTag)).isTrue();
+		assertThat(serializedCatalog.matchesIfNoneMatch("\"other\", " + eTag)).isTrue();
+		assertThat(serializedCatalog.matchesIfNoneMatch("*")).isTrue();
+	}
+
+}
@@ -0,0 +1,110 @@
+/*
+ * Copyright 2002-2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.servicebroker.service;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+import reactor.util.context.Context;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SingleFlightTests {
+
+	private final SingleFlight<String, String> singleFlight = new SingleFlight<>((key) -> key, (value) -> true,
+			Duration.ZERO, Duration.ofSeconds(5), Clock.systemUTC());
+
+	private final SingleFlight<String, String> reusingSingleFlight = new SingleFlight<>(
+			(key) -> key.substring(0, key.indexOf(':')), (value) -> true, Duration.ofMinutes(1), Clock.systemUTC());
+
+	private final AtomicInteger calls = new AtomicInteger();
+
+	@Test
+	void callThatDoesNotFinishTimesOutAndIsNotJoined() {
+		StepVerifier.withVirtualTime(() -> this.singleFlight.execute("key", Mono::never))
+			.expectSubscription()
+			.thenAwait(Duration.ofSeconds(5))
+			.expectError(TimeoutException.class)
+			.verify();
+
+		StepVerifier.create(this.singleFlight.execute("key", () -> Mono.just("value")))
+			.expectNext("value")
+			.verifyComplete();
+	}
+
+	@Test
+	void callIsNotTimedOutWhenTimeoutIsZero() {
+		SingleFlight<String, String> singleFlight = new SingleFlight<>((key) -> key, (value) -> true, Duration.ZERO,
+				Duration.ZERO, Clock.systemUTC());
+
+		StepVerifier.withVirtualTime(() -> singleFlight.execute("key", Mono::never))
+			.expectSubscription()
+			.expectNoEvent(Duration.ofMinutes(10))
+			.thenCancel()
+			.verify();
+	}
+
+	@Test
+	void callRunsWithContextOfRequest() {
+		StepVerifier
+			.create(this.singleFlight
+				.execute("key", () -> Mono.deferContextual((context) -> Mono.just(context.<String>get("name"))))
+				.contextWrite(Context.of("name", "value")))
+			.expectNext("value")
+			.verifyComplete();
+	}
+
+	@Test
+	void leastRecentlyUsedResultIsDiscardedWhenMaximumIsReached() {
+		for (int i = 0; i < 1000; i++) {
+			call("group-" + i + ":key");
+		}
+		call("group-0:key");
+		call("group-1000:key");
+		assertThat(this.calls).hasValue(1001);
+
+		call("group-0:key");
+		assertThat(this.calls).hasValue(1001);
+		call("group-1:key");
+		assertThat(this.calls).hasValue(1002);
+	}
+
+	@Test
+	void forgetDiscardsResultsOfGroupOnly() {
+		call("a:one");
+		call("a:two");
+		call("b:one");
+
+		this.reusingSingleFlight.forget("a", "a:one"::equals);
+
+		call("a:one");
+		call("a:two");
+		call("b:one");
+		assertThat(this.calls).hasValue(4);
+	}
+
+	private void call(String key) {
+		this.reusingSingleFlight.execute(key, () -> Mono.fromSupplier(() -> key + this.calls.incrementAndGet()))
+			.block();
+	}
+
+}
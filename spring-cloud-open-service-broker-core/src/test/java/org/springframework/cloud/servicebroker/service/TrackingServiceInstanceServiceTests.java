@@ -0,0 +1,362 @@
+/*
+ * Copyright 2002-2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.servicebroker.service;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import org.springframework.cloud.servicebroker.model.catalog.Plan;
+import org.springframework.cloud.servicebroker.model.instance.CreateServiceInstanceRequest;
+import org.springframework.cloud.servicebroker.model.instance.CreateServiceInstanceResponse;
+import org.springframework.cloud.servicebroker.model.instance.DeleteServiceInstanceRequest;
+import org.springframework.cloud.servicebroker.model.instance.DeleteServiceInstanceResponse;
+import org.springframework.cloud.servicebroker.model.instance.GetLastServiceOperationRequest;
+import org.springframework.cloud.servicebroker.model.instance.GetLastServiceOperationResponse;
+import org.springframework.cloud.servicebroker.model.instance.OperationState;
+import org.springframework.cloud.servicebroker.model.instance.UpdateServiceInstanceRequest;
+import org.springframework.cloud.servicebroker.model.instance.UpdateServiceInstanceResponse;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+class TrackingServiceInstanceServiceTests {
+
+	private static final String INSTANCE_ID = "service-instance-id";
+
+	@Mock
+	private ServiceInstanceService serviceInstanceService;
+
+	private AsyncOperationTracker tracker;
+
+	private TrackingServiceInstanceService service;
+
+	@BeforeEach
+	void setUp() {
+		this.tracker = new AsyncOperationTracker();
+		this.service = new TrackingServiceInstanceService(this.serviceInstanceService, this.tracker);
+	}
+
+	@Test
+	void asyncOperationIsAnsweredFromTracker() {
+		given(this.serviceInstanceService.createServiceInstance(any())).willReturn(Mono.just(asyncCreateResponse()));
+
+		StepVerifier.create(this.service.createServiceInstance(createRequest())).expectNextCount(1).verifyComplete();
+		assertThat(lastOperation().getState()).isEqualTo(OperationState.IN_PROGRESS);
+		assertThat(lastOperation().getRetryAfter()).isEqualTo(AdaptiveRetryAfterPolicy.DEFAULT_MINIMUM);
+
+		assertThat(this.tracker.reportProgress(INSTANCE_ID, "halfway")).isTrue();
+		assertThat(lastOperation().getDescription()).isEqualTo("halfway");
+
+		assertThat(this.tracker.reportSucceeded(INSTANCE_ID, "done")).isTrue();
+		GetLastServiceOperationResponse response = lastOperation();
+		assertThat(response.getState()).isEqualTo(OperationState.SUCCEEDED);
+		assertThat(response.getDescription()).isEqualTo("done");
+		assertThat(response.isDeleteOperation()).isFalse();
+		assertThat(response.getRetryAfter()).isNull();
+
+		verify(this.serviceInstanceService, never()).getLastOperation(any());
+	}
+
+	@Test
+	void reportMadeBeforeResponseIsKept() {
+		given(this.serviceInstanceService.createServiceInstance(any())).willReturn(Mono.fromSupplier(() -> {
+			this.tracker.reportSucceeded(INSTANCE_ID, "done");
+			return asyncCreateResponse();
+		}));
+
+		StepVerifier.create(this.service.createServiceInstance(createRequest())).expectNextCount(1).verifyComplete();
+
+		assertThat(lastOperation().getState()).isEqualTo(OperationState.SUCCEEDED);
+	}
+
+	@Test
+	void updateSubmittedWhileProvisionIsInProgressKeepsItsReports() {
+		given(this.serviceInstanceService.createServiceInstance(any())).willReturn(Mono.just(asyncCreateResponse()));
+		given(this.serviceInstanceService.updateServiceInstance(any())).willReturn(Mono.fromSupplier(() -> {
+			assertThat(lastOperation().getState()).isEqualTo(OperationState.IN_PROGRESS);
+			this.tracker.reportSucceeded(INSTANCE_ID, "updated");
+			return UpdateServiceInstanceResponse.builder().async(true).operation("update-operation-id").build();
+		}));
+
+		this.service.createServiceInstance(createRequest()).block();
+		this.service.updateServiceInstance(UpdateServiceInstanceRequest.builder()
+			.serviceInstanceId(INSTANCE_ID)
+			.build()).block();
+
+		GetLastServiceOperationResponse response = lastOperation("update-operation-id");
+		assertThat(response.getState()).isEqualTo(OperationState.SUCCEEDED);
+		assertThat(response.getDescription()).isEqualTo("updated");
+		assertThat(this.tracker.reportFailed(INSTANCE_ID, "failed")).isFalse();
+	}
+
+	@Test
+	void reportMadeWhileSynchronousRequestIsProcessedIsDiscarded() {
+		given(this.serviceInstanceService.createServiceInstance(any())).willReturn(Mono.just(asyncCreateResponse()));
+		given(this.serviceInstanceService.updateServiceInstance(any())).willReturn(Mono.fromSupplier(() -> {
+			this.tracker.reportFailed(INSTANCE_ID, "failed");
+			return UpdateServiceInstanceResponse.builder().build();
+		}));
+
+		this.service.createServiceInstance(createRequest()).block();
+		this.service.updateServiceInstance(UpdateServiceInstanceRequest.builder()
+			.serviceInstanceId(INSTANCE_ID)
+			.build()).block();
+
+		assertThat(lastOperation().getState()).isEqualTo(OperationState.IN_PROGRESS);
+	}
+
+	@Test
+	void reportsAfterOperationFinishedAreIgnored() {
+		given(this.serviceInstanceService.createServiceInstance(any())).willReturn(Mono.just(asyncCreateResponse()));
+
+		this.service.createServiceInstance(createRequest()).block();
+		this.tracker.reportFailed(INSTANCE_ID, "failed");
+
+		assertThat(this.tracker.reportSucceeded(INSTANCE_ID, "done")).isFalse();
+		assertThat(lastOperation().getState()).isEqualTo(OperationState.FAILED);
+	}
+
+	@Test
+	void asyncDeleteIsReportedAsDeleteOperation() {
+		given(this.serviceInstanceService.deleteServiceInstance(any()))
+			.willReturn(Mono.just(DeleteServiceInstanceResponse.builder().async(true).build()));
+
+		DeleteServiceInstanceRequest request = DeleteServiceInstanceRequest.builder()
+			.serviceInstanceId(INSTANCE_ID)
+			.build();
+		this.service.deleteServiceInstance(request).block();
+		this.tracker.reportSucceeded(INSTANCE_ID, null);
+
+		assertThat(lastOperation().isDeleteOperation()).isTrue();
+	}
+
+	@Test
+	void synchronousOperationIsNotTracked() {
+		GetLastServiceOperationResponse delegated = GetLastServiceOperationResponse.builder()
+			.operationState(OperationState.SUCCEEDED)
+			.build();
+		given(this.serviceInstanceService.createServiceInstance(any()))
+			.willReturn(Mono.just(CreateServiceInstanceResponse.builder().build()));
+		given(this.serviceInstanceService.getLastOperation(any())).willReturn(Mono.just(delegated));
+
+		this.service.createServiceInstance(createRequest()).block();
+
+		assertThat(this.tracker.reportSucceeded(INSTANCE_ID, "done")).isFalse();
+		assertThat(lastOperation()).isSameAs(delegated);
+	}
+
+	@Test
+	void otherOperationIsPassedOn() {
+		GetLastServiceOperationResponse delegated = GetLastServiceOperationResponse.builder()
+			.operationState(OperationState.FAILED)
+			.build();
+		given(this.serviceInstanceService.createServiceInstance(any())).willReturn(Mono.just(asyncCreateResponse()));
+		given(this.serviceInstanceService.getLastOperation(any())).willReturn(Mono.just(delegated));
+
+		this.service.createServiceInstance(createRequest()).block();
+
+		assertThat(this.service
+			.getLastOperation(GetLastServiceOperationRequest.builder()
+				.serviceInstanceId(INSTANCE_ID)
+				.operation("other-operation")
+				.build())
+			.block()).isSameAs(delegated);
+	}
+
+	@Test
+	void finishedOperationIsForgottenAfterRetention() {
+		this.tracker = new AsyncOperationTracker(Duration.ZERO);
+		this.service = new TrackingServiceInstanceService(this.serviceInstanceService, this.tracker);
+		GetLastServiceOperationResponse delegated = GetLastServiceOperationResponse.builder()
+			.operationState(OperationState.SUCCEEDED)
+			.build();
+		given(this.serviceInstanceService.createServiceInstance(any())).willReturn(Mono.just(asyncCreateResponse()));
+		given(this.serviceInstanceService.getLastOperation(any())).willReturn(Mono.just(delegated));
+
+		this.service.createServiceInstance(createRequest()).block();
+		this.tracker.reportSucceeded(INSTANCE_ID, "done");
+
+		assertThat(lastOperation()).isSameAs(delegated);
+	}
+
+	@Test
+	void inProgressOperationIsForgottenAfterMaximumPollingDuration() {
+		MutableClock clock = new MutableClock();
+		this.tracker = new AsyncOperationTracker(Duration.ZERO, 10, clock);
+		this.service = new TrackingServiceInstanceService(this.serviceInstanceService, this.tracker);
+		GetLastServiceOperationResponse delegated = GetLastServiceOperationResponse.builder()
+			.operationState(OperationState.FAILED)
+			.build();
+		given(this.serviceInstanceService.createServiceInstance(any())).willReturn(Mono.just(asyncCreateResponse()));
+		given(this.serviceInstanceService.getLastOperation(any())).willReturn(Mono.just(delegated));
+		Plan plan = Plan.builder().id("plan-id").maximumPollingDuration(20).build();
+
+		this.service.createServiceInstance(CreateServiceInstanceRequest.builder()
+			.serviceInstanceId(INSTANCE_ID)
+			.plan(plan)
+			.build()).block();
+		assertThat(lastOperation().getState()).isEqualTo(OperationState.IN_PROGRESS);
+
+		clock.advance(Duration.ofSeconds(20));
+		assertThat(lastOperation()).isSameAs(delegated);
+		assertThat(this.tracker.reportSucceeded(INSTANCE_ID, "done")).isFalse();
+	}
+
+	@Test
+	void staleInProgressOperationIsPassedOnUntilReportedAgain() {
+		MutableClock clock = new MutableClock();
+		this.tracker = new AsyncOperationTracker(Duration.ofMinutes(1), 10, clock);
+		this.tracker.setStaleAfter(Duration.ofMinutes(5));
+		this.service = new TrackingServiceInstanceService(this.serviceInstanceService, this.tracker);
+		GetLastServiceOperationResponse delegated = GetLastServiceOperationResponse.builder()
+			.operationState(OperationState.FAILED)
+			.build();
+		given(this.serviceInstanceService.createServiceInstance(any())).willReturn(Mono.just(asyncCreateResponse()));
+		given(this.serviceInstanceService.getLastOperation(any())).willReturn(Mono.just(delegated));
+
+		this.service.createServiceInstance(createRequest()).block();
+		clock.advance(Duration.ofMinutes(4));
+		assertThat(this.tracker.reportProgress(INSTANCE_ID, "half way")).isTrue();
+		clock.advance(Duration.ofMinutes(4));
+		assertThat(lastOperation().getDescription()).isEqualTo("half way");
+
+		clock.advance(Duration.ofMinutes(1));
+		assertThat(lastOperation()).isSameAs(delegated);
+
+		assertThat(this.tracker.reportSucceeded(INSTANCE_ID, "done")).isTrue();
+		assertThat(lastOperation().getState()).isEqualTo(OperationState.SUCCEEDED);
+	}
+
+	@Test
+	void outcomeReportedAfterMaximumPollingDurationIsKept() {
+		MutableClock clock = new MutableClock();
+		this.tracker = new AsyncOperationTracker(Duration.ofMinutes(1), 10, clock);
+		this.service = new TrackingServiceInstanceService(this.serviceInstanceService, this.tracker);
+		given(this.serviceInstanceService.createServiceInstance(any())).willReturn(Mono.just(asyncCreateResponse()));
+		Plan plan = Plan.builder().id("plan-id").maximumPollingDuration(20).build();
+
+		this.service.createServiceInstance(CreateServiceInstanceRequest.builder()
+			.serviceInstanceId(INSTANCE_ID)
+			.plan(plan)
+			.build()).block();
+		clock.advance(Duration.ofSeconds(20));
+
+		assertThat(this.tracker.reportFailed(INSTANCE_ID, "timed out")).isTrue();
+		assertThat(lastOperation().getState()).isEqualTo(OperationState.FAILED);
+	}
+
+	@Test
+	void leastRecentlyUsedOperationIsForgottenAtCapacity() {
+		this.tracker = new AsyncOperationTracker(AsyncOperationTracker.DEFAULT_RETENTION, 1, Clock.systemUTC());
+		this.service = new TrackingServiceInstanceService(this.serviceInstanceService, this.tracker);
+		given(this.serviceInstanceService.createServiceInstance(any())).willReturn(Mono.just(asyncCreateResponse()));
+
+		this.service.createServiceInstance(createRequest()).block();
+		this.service.createServiceInstance(CreateServiceInstanceRequest.builder()
+			.serviceInstanceId("other-service-instance-id")
+			.build()).block();
+
+		assertThat(this.tracker.reportSucceeded(INSTANCE_ID, "done")).isFalse();
+		assertThat(this.tracker.reportSucceeded("other-service-instance-id", "done")).isTrue();
+	}
+
+	@Test
+	void retryAfterIsLimitedByMaximumPollingDuration() {
+		given(this.serviceInstanceService.createServiceInstance(any())).willReturn(Mono.just(asyncCreateResponse()));
+		Plan plan = Plan.builder().id("plan-id").maximumPollingDuration(20).build();
+
+		CreateServiceInstanceRequest request = CreateServiceInstanceRequest.builder()
+			.serviceInstanceId(INSTANCE_ID)
+			.plan(plan)
+			.build();
+		this.service.createServiceInstance(request).block();
+
+		assertThat(lastOperation().getRetryAfter()).isEqualTo(Duration.ofSeconds(2));
+	}
+
+	@Test
+	void retryAfterIsNotProvidedWithoutPolicy() {
+		given(this.serviceInstanceService.createServiceInstance(any())).willReturn(Mono.just(asyncCreateResponse()));
+		this.tracker.setRetryAfterPolicy(null);
+
+		this.service.createServiceInstance(createRequest()).block();
+
+		assertThat(lastOperation().getRetryAfter()).isNull();
+	}
+
+	private GetLastServiceOperationResponse lastOperation() {
+		return lastOperation("operation-id");
+	}
+
+	private GetLastServiceOperationResponse lastOperation(String operation) {
+		return this.service
+			.getLastOperation(GetLastServiceOperationRequest.builder()
+				.serviceInstanceId(INSTANCE_ID)
+				.operation(operation)
+				.build())
+			.block();
+	}
+
+	private static CreateServiceInstanceRequest createRequest() {
+		return CreateServiceInstanceRequest.builder().serviceInstanceId(INSTANCE_ID).build();
+	}
+
+	private static CreateServiceInstanceResponse asyncCreateResponse() {
+		return CreateServiceInstanceResponse.builder().async(true).operation("operation-id").build();
+	}
+
+	private static final class MutableClock extends Clock {
+
+		private Instant instant = Instant.parse("2024-01-01T00:00:00Z");
+
+		void advance(Duration duration) {
+			this.instant = this.instant.plus(duration);
+		}
+
+		@Override
+		public ZoneId getZone() {
+			return ZoneOffset.UTC;
+		}
+
+		@Override
+		public Clock withZone(ZoneId zone) {
+			return this;
+		}
+
+		@Override
+		public Instant instant() {
+			return this.instant;
+		}
+
+	}
+
+}
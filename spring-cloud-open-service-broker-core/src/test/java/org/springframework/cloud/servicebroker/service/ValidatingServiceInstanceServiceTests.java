@@ -0,0 +1,148 @@
+/*
+ * Copyright 2002-2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.servicebroker.service;
+
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import org.springframework.cloud.servicebroker.exception.ServiceBrokerInvalidParametersException;
+import org.springframework.cloud.servicebroker.model.binding.CreateServiceInstanceBindingRequest;
+import org.springframework.cloud.servicebroker.model.catalog.MethodSchema;
+import org.springframework.cloud.servicebroker.model.catalog.Plan;
+import org.springframework.cloud.servicebroker.model.catalog.Schemas;
+import org.springframework.cloud.servicebroker.model.catalog.ServiceBindingSchema;
+import org.springframework.cloud.servicebroker.model.catalog.ServiceDefinition;
+import org.springframework.cloud.servicebroker.model.catalog.ServiceInstanceSchema;
+import org.springframework.cloud.servicebroker.model.instance.CreateServiceInstanceRequest;
+import org.springframework.cloud.servicebroker.model.instance.CreateServiceInstanceResponse;
+import org.springframework.cloud.servicebroker.model.instance.UpdateServiceInstanceRequest;
+import org.springframework.cloud.servicebroker.model.instance.UpdateServiceInstanceRequest.PreviousValues;
+import org.springframework.cloud.servicebroker.model.instance.UpdateServiceInstanceResponse;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+class ValidatingServiceInstanceServiceTests {
+
+	@Mock
+	private ServiceInstanceService serviceInstanceService;
+
+	@Mock
+	private ServiceInstanceBindingService serviceInstanceBindingService;
+
+	private Plan plan;
+
+	private ValidatingServiceInstanceService service;
+
+	private ValidatingServiceInstanceBindingService bindingService;
+
+	@BeforeEach
+	void setUp() {
+		MethodSchema schema = MethodSchema.builder()
+			.parameters(Map.of("type", "object", "required", List.of("size")))
+			.build();
+		this.plan = Plan.builder()
+			.id("plan-id")
+			.name("plan")
+			.schemas(Schemas.builder()
+				.serviceInstanceSchema(
+						ServiceInstanceSchema.builder().createMethodSchema(schema).updateMethodSchema(schema).build())
+				.serviceBindingSchema(ServiceBindingSchema.builder().createMethodSchema(schema).build())
+				.build())
+			.build();
+		ParameterSchemaValidator validator = new ParameterSchemaValidator();
+		this.service = new ValidatingServiceInstanceService(this.serviceInstanceService, validator);
+		this.bindingService = new ValidatingServiceInstanceBindingService(this.serviceInstanceBindingService,
+				validator);
+	}
+
+	@Test
+	void validCreateRequestIsPassedOn() {
+		CreateServiceInstanceResponse response = CreateServiceInstanceResponse.builder().build();
+		given(this.serviceInstanceService.createServiceInstance(any())).willReturn(Mono.just(response));
+
+		StepVerifier
+			.create(this.service.createServiceInstance(
+					CreateServiceInstanceRequest.builder().plan(this.plan).parameters("size", "small").build()))
+			.expectNext(response)
+			.verifyComplete();
+	}
+
+	@Test
+	void invalidCreateRequestDoesNotReachService() {
+		StepVerifier
+			.create(this.service.createServiceInstance(CreateServiceInstanceRequest.builder().plan(this.plan).build()))
+			.expectError(ServiceBrokerInvalidParametersException.class)
+			.verify();
+
+		verify(this.serviceInstanceService, never()).createServiceInstance(any());
+	}
+
+	@Test
+	void invalidUpdateRequestWithoutPlanIsValidatedAgainstPreviousPlan() {
+		ServiceDefinition serviceDefinition = ServiceDefinition.builder()
+			.id("service-id")
+			.name("service")
+			.description("Service")
+			.plans(this.plan)
+			.build();
+		UpdateServiceInstanceRequest request = UpdateServiceInstanceRequest.builder()
+			.serviceDefinition(serviceDefinition)
+			.previousValues(PreviousValues.builder().planId("plan-id").build())
+			.build();
+
+		StepVerifier.create(this.service.updateServiceInstance(request))
+			.expectError(ServiceBrokerInvalidParametersException.class)
+			.verify();
+
+		verify(this.serviceInstanceService, never()).updateServiceInstance(any());
+	}
+
+	@Test
+	void updateRequestWithUnknownPreviousPlanIsPassedOn() {
+		UpdateServiceInstanceResponse response = UpdateServiceInstanceResponse.builder().build();
+		given(this.serviceInstanceService.updateServiceInstance(any())).willReturn(Mono.just(response));
+		UpdateServiceInstanceRequest request = UpdateServiceInstanceRequest.builder()
+			.previousValues(PreviousValues.builder().planId("plan-id").build())
+			.build();
+
+		StepVerifier.create(this.service.updateServiceInstance(request)).expectNext(response).verifyComplete();
+	}
+
+	@Test
+	void invalidCreateBindingRequestDoesNotReachService() {
+		StepVerifier
+			.create(this.bindingService.createServiceInstanceBinding(
+					CreateServiceInstanceBindingRequest.builder().plan(this.plan).build()))
+			.expectError(ServiceBrokerInvalidParametersException.class)
+			.verify();
+
+		verify(this.serviceInstanceBindingService, never()).createServiceInstanceBinding(any());
+	}
+
+}
@@ -0,0 +1,53 @@
+/*
+ * Copyright 2002-2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.servicebroker.service.events;
+
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.core.scheduler.Schedulers;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class DetachedFlowExecutorTests {
+
+	@Test
+	void flowsAreDroppedWhenFull() {
+		DetachedFlowExecutor executor = new DetachedFlowExecutor(1, Schedulers.immediate());
+		Sinks.Empty<Void> first = Sinks.empty();
+
+		assertThat(executor.execute(first::asMono)).isTrue();
+		assertThat(executor.execute(Mono::empty)).isFalse();
+		assertThat(executor.getPendingCount()).isEqualTo(1);
+		assertThat(executor.getDroppedCount()).isEqualTo(1);
+
+		first.tryEmitEmpty();
+
+		assertThat(executor.getPendingCount()).isZero();
+		assertThat(executor.execute(Mono::empty)).isTrue();
+	}
+
+	@Test
+	void failedFlowIsNoLongerPending() {
+		DetachedFlowExecutor executor = new DetachedFlowExecutor(1, Schedulers.immediate());
+
+		assertThat(executor.execute(() -> Mono.error(new IllegalStateException("failed")))).isTrue();
+
+		assertThat(executor.getPendingCount()).isZero();
+	}
+
+}
@@ -0,0 +1,374 @@
+/*
+ * Copyright 2002-2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.servicebroker.service.events;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.core.scheduler.Schedulers;
+import reactor.test.StepVerifier;
+
+import org.springframework.cloud.servicebroker.model.instance.CreateServiceInstanceRequest;
+import org.springframework.cloud.servicebroker.model.instance.CreateServiceInstanceResponse;
+import org.springframework.cloud.servicebroker.service.events.flows.CreateServiceInstanceCompletionFlow;
+import org.springframework.cloud.servicebroker.service.events.flows.CreateServiceInstanceErrorFlow;
+import org.springframework.cloud.servicebroker.service.events.flows.CreateServiceInstanceInitializationFlow;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class EventFlowRegistryTests {
+
+	private final CreateServiceInstanceRequest request = CreateServiceInstanceRequest.builder().build();
+
+	private final CreateServiceInstanceResponse response = CreateServiceInstanceResponse.builder().build();
+
+	@Test
+	void operationIsUnchangedWithoutFlows() {
+		CreateServiceInstanceEventFlowRegistry registry = new CreateServiceInstanceEventFlowRegistry(null, null,
+				null);
+		Mono<CreateServiceInstanceResponse> operation = Mono.just(this.response);
+
+		assertThat(registry.hasInitializationFlows()).isFalse();
+		assertThat(registry.hasCompletionFlows()).isFalse();
+		assertThat(registry.hasErrorFlows()).isFalse();
+		assertThat(registry.applyFlows(this.request, operation)).isSameAs(operation);
+	}
+
+	@Test
+	void flowsAreAppliedInOrder() {
+		List<String> events = new ArrayList<>();
+		CreateServiceInstanceEventFlowRegistry registry = new CreateServiceInstanceEventFlowRegistry(null, null,
+				null);
+		registry.addInitializationFlow(new CreateServiceInstanceInitializationFlow() {
+			@Override
+			public Mono<Void> initialize(CreateServiceInstanceRequest request) {
+				return Mono.fromRunnable(() -> events.add("initialize"));
+			}
+		}).block();
+		registry.addCompletionFlow(new CreateServiceInstanceCompletionFlow() {
+			@Override
+			public Mono<Void> complete(CreateServiceInstanceRequest request, CreateServiceInstanceResponse response) {
+				return Mono.fromRunnable(() -> events.add("complete"));
+			}
+		}).block();
+
+		assertThat(registry.hasInitializationFlows()).isTrue();
+		assertThat(registry.hasCompletionFlows()).isTrue();
+		StepVerifier
+			.create(registry.applyFlows(this.request,
+					Mono.fromSupplier(() -> events.add("operation")).thenReturn(this.response)))
+			.expectNext(this.response)
+			.verifyComplete();
+
+		assertThat(events).containsExactly("initialize", "operation", "complete");
+	}
+
+	@Test
+	void errorFlowsAreAppliedOnError() {
+		List<String> events = new ArrayList<>();
+		CreateServiceInstanceEventFlowRegistry registry = new CreateServiceInstanceEventFlowRegistry(null, null,
+				List.of(new CreateServiceInstanceErrorFlow() {
+					@Override
+					public Mono<Void> error(CreateServiceInstanceRequest request, Throwable t) {
+						return Mono.fromRunnable(() -> events.add(t.getMessage()));
+					}
+				}));
+
+		StepVerifier.create(registry.applyFlows(this.request, Mono.error(new IllegalStateException("failed"))))
+			.expectError(IllegalStateException.class)
+			.verify();
+
+		assertThat(registry.hasErrorFlows()).isTrue();
+		assertThat(events).containsExactly("failed");
+	}
+
+	@Test
+	void registeredFlowIsRemovedWhenDisposed() {
+		List<String> events = new ArrayList<>();
+		CreateServiceInstanceEventFlowRegistry registry = new CreateServiceInstanceEventFlowRegistry(null, null,
+				null);
+		Disposable first = registry.registerInitializationFlow(recording(events, "first"));
+		registry.registerInitializationFlow(recording(events, "second"));
+
+		first.dispose();
+		first.dispose();
+		registry.applyFlows(this.request, Mono.just(this.response)).block();
+
+		assertThat(first.isDisposed()).isTrue();
+		assertThat(events).containsExactly("second");
+	}
+
+	@Test
+	void concurrentRegistrationsAreNotLost() throws InterruptedException {
+		CreateServiceInstanceEventFlowRegistry registry = new CreateServiceInstanceEventFlowRegistry(null, null,
+				null);
+		List<String> events = new ArrayList<>();
+		int registrations = 100;
+		CountDownLatch done = new CountDownLatch(registrations);
+		ExecutorService executor = Executors.newFixedThreadPool(4);
+		try {
+			for (int i = 0; i < registrations; i++) {
+				String name = "flow-" + i;
+				executor.execute(() -> {
+					Disposable registration = registry.registerInitializationFlow(recording(events, name));
+					if (name.endsWith("0")) {
+						registration.dispose();
+					}
+					done.countDown();
+				});
+			}
+			assertThat(done.await(10, TimeUnit.SECONDS)).isTrue();
+		}
+		finally {
+			executor.shutdownNow();
+		}
+
+		registry.getInitializationFlows(this.request).blockLast();
+
+		assertThat(events).hasSize(90).doesNotContain("flow-10", "flow-20");
+	}
+
+	@Test
+	void sequentialFlowsRunInRegistrationOrder() {
+		List<String> events = new ArrayList<>();
+		CreateServiceInstanceEventFlowRegistry registry = new CreateServiceInstanceEventFlowRegistry(null, null,
+				null);
+		registry.setExecutionStrategy(FlowExecutionStrategy.sequential());
+		registry.registerInitializationFlow(new CreateServiceInstanceInitializationFlow() {
+			@Override
+			public Mono<Void> initialize(CreateServiceInstanceRequest request) {
+				return Mono.delay(Duration.ofMillis(50)).then(Mono.fromRunnable(() -> events.add("slow")));
+			}
+		});
+		registry.registerInitializationFlow(recording(events, "fast"));
+
+		registry.getInitializationFlows(this.request).blockLast();
+
+		assertThat(events).containsExactly("slow", "fast");
+	}
+
+	@Test
+	void executionStrategyAppliesToFlowsRegisteredBeforeIt() {
+		List<String> events = new ArrayList<>();
+		CreateServiceInstanceEventFlowRegistry registry = new CreateServiceInstanceEventFlowRegistry(null, null,
+				null);
+		registry.registerInitializationFlow(new CreateServiceInstanceInitializationFlow() {
+			@Override
+			public Mono<Void> initialize(CreateServiceInstanceRequest request) {
+				return Mono.delay(Duration.ofMillis(50)).then(Mono.fromRunnable(() -> events.add("slow")));
+			}
+		});
+		registry.registerInitializationFlow(recording(events, "fast"));
+		registry.setExecutionStrategy(FlowExecutionStrategy.sequential());
+
+		registry.getInitializationFlows(this.request).blockLast();
+
+		assertThat(events).containsExactly("slow", "fast");
+	}
+
+	@Test
+	void detachedFlowsDoNotDelayOperation() {
+		DetachedFlowExecutor executor = new DetachedFlowExecutor(10, Schedulers.immediate());
+		CreateServiceInstanceEventFlowRegistry registry = new CreateServiceInstanceEventFlowRegistry(null, null,
+				null);
+		registry.registerCompletionFlow(new DetachedCompletionFlow(executor));
+
+		StepVerifier.create(registry.applyFlows(this.request, Mono.just(this.response)))
+			.expectNext(this.response)
+			.verifyComplete();
+
+		assertThat(executor.getPendingCount()).isEqualTo(1);
+	}
+
+	@Test
+	void slowFlowTimesOut() {
+		CreateServiceInstanceEventFlowRegistry registry = new CreateServiceInstanceEventFlowRegistry(null, null,
+				null);
+		registry.setFlowTimeout(Duration.ofMillis(50));
+		CreateServiceInstanceInitializationFlow flow = new CreateServiceInstanceInitializationFlow() {
+			@Override
+			public Mono<Void> initialize(CreateServiceInstanceRequest request) {
+				return Mono.never();
+			}
+		};
+		registry.registerInitializationFlow(flow);
+
+		StepVerifier.create(registry.applyFlows(this.request, Mono.just(this.response)))
+			.expectError(TimeoutException.class)
+			.verify(Duration.ofSeconds(5));
+
+		assertThat(registry.getFailureCount(flow)).isEqualTo(1);
+	}
+
+	@Test
+	void failingFlowIsSkippedWhenCircuitIsOpen() {
+		AtomicInteger invocations = new AtomicInteger();
+		CreateServiceInstanceEventFlowRegistry registry = new CreateServiceInstanceEventFlowRegistry(null, null,
+				null);
+		registry.setCircuitBreaker(2, Duration.ofMinutes(1));
+		CreateServiceInstanceInitializationFlow flow = new CreateServiceInstanceInitializationFlow() {
+			@Override
+			public Mono<Void> initialize(CreateServiceInstanceRequest request) {
+				invocations.incrementAndGet();
+				return Mono.error(new IllegalStateException("failed"));
+			}
+		};
+		registry.registerInitializationFlow(flow);
+
+		for (int i = 0; i < 2; i++) {
+			StepVerifier.create(registry.applyFlows(this.request, Mono.just(this.response)))
+				.expectError(IllegalStateException.class)
+				.verify();
+		}
+		StepVerifier.create(registry.applyFlows(this.request, Mono.just(this.response)))
+			.expectNext(this.response)
+			.verifyComplete();
+
+		assertThat(invocations).hasValue(2);
+		assertThat(registry.getFailureCount(flow)).isEqualTo(2);
+		assertThat(registry.isCircuitOpen(flow)).isTrue();
+	}
+
+	@Test
+	void circuitIsKeptWhileFlowIsStillRegistered() {
+		CreateServiceInstanceEventFlowRegistry registry = new CreateServiceInstanceEventFlowRegistry(null, null,
+				null);
+		registry.setCircuitBreaker(1, Duration.ofMinutes(1));
+		CreateServiceInstanceInitializationFlow flow = new CreateServiceInstanceInitializationFlow() {
+			@Override
+			public Mono<Void> initialize(CreateServiceInstanceRequest request) {
+				return Mono.error(new IllegalStateException("failed"));
+			}
+		};
+		Disposable first = registry.registerInitializationFlow(flow);
+		Disposable second = registry.registerInitializationFlow(flow);
+
+		StepVerifier.create(registry.applyFlows(this.request, Mono.just(this.response)))
+			.expectError(IllegalStateException.class)
+			.verify();
+		first.dispose();
+
+		assertThat(registry.isCircuitOpen(flow)).isTrue();
+		assertThat(registry.getFailureCount(flow)).isPositive();
+
+		second.dispose();
+
+		assertThat(registry.isCircuitOpen(flow)).isFalse();
+		assertThat(registry.getFailureCount(flow)).isZero();
+	}
+
+	@Test
+	void singleTrialIsLetThroughWhenOpenDurationHasPassed() {
+		AtomicInteger invocations = new AtomicInteger();
+		Sinks.Empty<Void> trial = Sinks.empty();
+		CreateServiceInstanceEventFlowRegistry registry = new CreateServiceInstanceEventFlowRegistry(null, null,
+				null);
+		registry.setCircuitBreaker(1, Duration.ZERO);
+		CreateServiceInstanceInitializationFlow flow = new CreateServiceInstanceInitializationFlow() {
+			@Override
+			public Mono<Void> initialize(CreateServiceInstanceRequest request) {
+				return (invocations.incrementAndGet() == 1) ? Mono.error(new IllegalStateException("failed"))
+						: trial.asMono();
+			}
+		};
+		registry.registerInitializationFlow(flow);
+
+		StepVerifier.create(registry.applyFlows(this.request, Mono.just(this.response)))
+			.expectError(IllegalStateException.class)
+			.verify();
+		Disposable trialOperation = registry.applyFlows(this.request, Mono.just(this.response)).subscribe();
+		StepVerifier.create(registry.applyFlows(this.request, Mono.just(this.response)))
+			.expectNext(this.response)
+			.verifyComplete();
+
+		assertThat(invocations).hasValue(2);
+		assertThat(registry.isCircuitOpen(flow)).isTrue();
+
+		trial.tryEmitEmpty();
+		StepVerifier.create(registry.applyFlows(this.request, Mono.just(this.response)))
+			.expectNext(this.response)
+			.verifyComplete();
+
+		assertThat(trialOperation.isDisposed()).isTrue();
+		assertThat(invocations).hasValue(3);
+		assertThat(registry.isCircuitOpen(flow)).isFalse();
+	}
+
+	@Test
+	void circuitIsNotRecreatedForUnregisteredFlow() {
+		CreateServiceInstanceEventFlowRegistry registry = new CreateServiceInstanceEventFlowRegistry(null, null,
+				null);
+		registry.setCircuitBreaker(1, Duration.ofMinutes(1));
+		CreateServiceInstanceInitializationFlow flow = new CreateServiceInstanceInitializationFlow() {
+			@Override
+			public Mono<Void> initialize(CreateServiceInstanceRequest request) {
+				return Mono.error(new IllegalStateException("failed"));
+			}
+		};
+		Disposable registration = registry.registerInitializationFlow(flow);
+		Flux<Void> stage = registry.getInitializationFlows(this.request);
+		registration.dispose();
+
+		StepVerifier.create(stage).expectError(IllegalStateException.class).verify();
+
+		assertThat(registry.isCircuitOpen(flow)).isFalse();
+		assertThat(registry.getFailureCount(flow)).isZero();
+	}
+
+	private static CreateServiceInstanceInitializationFlow recording(List<String> events, String name) {
+		return new CreateServiceInstanceInitializationFlow() {
+			@Override
+			public Mono<Void> initialize(CreateServiceInstanceRequest request) {
+				return Mono.fromRunnable(() -> events.add(name));
+			}
+		};
+	}
+
+	private static final class DetachedCompletionFlow
+			implements CreateServiceInstanceCompletionFlow, FlowExecutionStrategyProvider {
+
+		private final FlowExecutionStrategy executionStrategy;
+
+		private DetachedCompletionFlow(DetachedFlowExecutor executor) {
+			this.executionStrategy = FlowExecutionStrategy.detached(executor);
+		}
+
+		@Override
+		public Mono<Void> complete(CreateServiceInstanceRequest request, CreateServiceInstanceResponse response) {
+			return Mono.never();
+		}
+
+		@Override
+		public FlowExecutionStrategy getExecutionStrategy() {
+			return this.executionStrategy;
+		}
+
+	}
+
+}
@@ -0,0 +1,176 @@
+/*
+ * Copyright 2002-2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.servicebroker.service.events.outbox;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import org.springframework.cloud.servicebroker.model.binding.CreateServiceInstanceBindingRequest;
+import org.springframework.cloud.servicebroker.model.binding.CreateServiceInstanceBindingResponse;
+import org.springframework.cloud.servicebroker.service.events.outbox.OutboxEvent.Operation;
+import org.springframework.cloud.servicebroker.service.events.outbox.OutboxEvent.Phase;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BatchingEventSinkTests {
+
+	@Test
+	void eventsAreDeliveredInBatchesOfMaximumSize() {
+		List<List<OutboxEvent>> batches = new CopyOnWriteArrayList<>();
+		BatchingEventSink sink = new BatchingEventSink((events) -> Mono.fromRunnable(() -> batches.add(events)), 2,
+				Duration.ofMinutes(1), 4);
+		sink.start();
+		try {
+			for (int i = 0; i < 4; i++) {
+				sink.complete(bindingRequest("binding-" + i), CreateServiceInstanceBindingResponse.builder().build())
+					.block();
+			}
+
+			assertThat(batches).hasSize(2);
+			assertThat(batches.get(0)).extracting(OutboxEvent::getBindingId).containsExactly("binding-0", "binding-1");
+			assertThat(batches.get(1)).extracting(OutboxEvent::getSequence).containsExactly(3L, 4L);
+			assertThat(batches.get(0).get(0).getOperation()).isEqualTo(Operation.CREATE_SERVICE_INSTANCE_BINDING);
+			assertThat(batches.get(0).get(0).getPhase()).isEqualTo(Phase.COMPLETION);
+		}
+		finally {
+			sink.stop();
+		}
+	}
+
+	@Test
+	void partialBatchIsDeliveredOnStop() {
+		List<List<OutboxEvent>> batches = new CopyOnWriteArrayList<>();
+		BatchingEventSink sink = new BatchingEventSink((events) -> Mono.fromRunnable(() -> batches.add(events)), 10,
+				Duration.ofMinutes(1), 10);
+		sink.start();
+		sink.error(bindingRequest("binding-id"), new IllegalStateException("failed")).block();
+
+		assertThat(batches).isEmpty();
+		sink.stop();
+
+		assertThat(batches).hasSize(1);
+		assertThat(batches.get(0).get(0).getError()).isEqualTo("failed");
+	}
+
+	@Test
+	void stopCallbackRunsOnceBufferedEventsAreDelivered() throws InterruptedException {
+		List<List<OutboxEvent>> batches = new CopyOnWriteArrayList<>();
+		BatchingEventSink sink = new BatchingEventSink(
+				(events) -> Mono.delay(Duration.ofMillis(50)).then(Mono.fromRunnable(() -> batches.add(events))), 10,
+				Duration.ofMinutes(1), 10);
+		sink.start();
+		sink.error(bindingRequest("binding-id"), new IllegalStateException("failed")).block();
+		AtomicInteger deliveredOnStop = new AtomicInteger(-1);
+		CountDownLatch stopped = new CountDownLatch(1);
+
+		sink.stop(() -> {
+			deliveredOnStop.set(batches.size());
+			stopped.countDown();
+		});
+
+		assertThat(sink.isRunning()).isFalse();
+		assertThat(stopped.await(5, TimeUnit.SECONDS)).isTrue();
+		assertThat(deliveredOnStop).hasValue(1);
+	}
+
+	@Test
+	void stopCallbackRunsWhenShutdownTimeoutPasses() throws InterruptedException {
+		BatchingEventSink sink = new BatchingEventSink((events) -> Mono.never(), 10, Duration.ofMinutes(1), 10);
+		sink.setShutdownTimeout(Duration.ofMillis(50));
+		sink.start();
+		sink.error(bindingRequest("binding-id"), new IllegalStateException("failed")).block();
+		CountDownLatch stopped = new CountDownLatch(1);
+
+		sink.stop(stopped::countDown);
+
+		assertThat(stopped.await(5, TimeUnit.SECONDS)).isTrue();
+	}
+
+	@Test
+	void publishingWaitsWhileBufferIsFull() {
+		Sinks.Empty<Void> consumed = Sinks.empty();
+		BatchingEventSink sink = new BatchingEventSink((events) -> consumed.asMono(), 1, Duration.ofMinutes(1), 1);
+		sink.start();
+		try {
+			CompletableFuture<Void> waiting = null;
+			for (int i = 0; i < 100 && waiting == null; i++) {
+				CompletableFuture<Void> published = sink
+					.complete(bindingRequest("binding-" + i), CreateServiceInstanceBindingResponse.builder().build())
+					.toFuture();
+				if (!published.isDone()) {
+					waiting = published;
+				}
+			}
+
+			assertThat(waiting).isNotNull();
+			consumed.tryEmitEmpty();
+			assertThat(waiting).succeedsWithin(Duration.ofSeconds(5));
+		}
+		finally {
+			sink.stop();
+		}
+	}
+
+	@Test
+	void eventIsDroppedWhenBufferStaysFull() {
+		BatchingEventSink sink = new BatchingEventSink((events) -> Mono.empty(), 1, Duration.ofMinutes(1), 1,
+				Duration.ofMillis(50));
+		sink.complete(bindingRequest("binding-1"), CreateServiceInstanceBindingResponse.builder().build()).block();
+
+		sink.complete(bindingRequest("binding-2"), CreateServiceInstanceBindingResponse.builder().build())
+			.block(Duration.ofSeconds(5));
+
+		assertThat(sink.getDroppedCount()).isEqualTo(1);
+	}
+
+	@Test
+	void eventsPublishedWhileStoppedAreDeliveredWhenRestarted() {
+		List<List<OutboxEvent>> batches = new CopyOnWriteArrayList<>();
+		BatchingEventSink sink = new BatchingEventSink((events) -> Mono.fromRunnable(() -> batches.add(events)), 10,
+				Duration.ofMinutes(1), 10);
+		sink.start();
+		sink.stop();
+		sink.complete(bindingRequest("binding-id"), CreateServiceInstanceBindingResponse.builder().build()).block();
+
+		sink.start();
+		assertThat(sink.isRunning()).isTrue();
+		sink.stop();
+
+		assertThat(batches).hasSize(1);
+		assertThat(batches.get(0)).extracting(OutboxEvent::getBindingId).containsExactly("binding-id");
+		assertThat(sink.getDroppedCount()).isZero();
+	}
+
+	private static CreateServiceInstanceBindingRequest bindingRequest(String bindingId) {
+		return CreateServiceInstanceBindingRequest.builder()
+			.serviceInstanceId("service-instance-id")
+			.serviceDefinitionId("service-definition-id")
+			.planId("plan-id")
+			.bindingId(bindingId)
+			.build();
+	}
+
+}
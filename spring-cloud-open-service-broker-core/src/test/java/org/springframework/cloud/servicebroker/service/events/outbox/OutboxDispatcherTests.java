@@ -0,0 +1,75 @@
+/*
+ * Copyright 2002-2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.servicebroker.service.events.outbox;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import reactor.core.publisher.Mono;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalStateException;
+
+class OutboxDispatcherTests {
+
+	@TempDir
+	Path directory;
+
+	@Test
+	void deliveredEventsAreCheckpointed() throws IOException {
+		List<OutboxEvent> delivered = new ArrayList<>();
+		try (SegmentFileOutbox outbox = new SegmentFileOutbox(this.directory)) {
+			outbox.append(SegmentFileOutboxTests.event("instance-1"));
+			outbox.append(SegmentFileOutboxTests.event("instance-2"));
+			outbox.append(SegmentFileOutboxTests.event("instance-3"));
+			OutboxDispatcher dispatcher = new OutboxDispatcher(outbox,
+					(events) -> Mono.fromRunnable(() -> delivered.addAll(events)), 2, Duration.ofSeconds(1));
+
+			assertThat(dispatcher.dispatch().block()).isEqualTo(2);
+			assertThat(dispatcher.dispatch().block()).isEqualTo(1);
+			assertThat(dispatcher.dispatch().block()).isZero();
+
+			assertThat(delivered).extracting(OutboxEvent::getSequence).containsExactly(1L, 2L, 3L);
+			assertThat(outbox.getCheckpoint()).isEqualTo(3);
+		}
+	}
+
+	@Test
+	void failedDeliveryIsRetried() throws IOException {
+		List<OutboxEvent> delivered = new ArrayList<>();
+		try (SegmentFileOutbox outbox = new SegmentFileOutbox(this.directory)) {
+			outbox.append(SegmentFileOutboxTests.event("instance-1"));
+			OutboxDispatcher failing = new OutboxDispatcher(outbox,
+					(events) -> Mono.error(new IllegalStateException("unavailable")));
+			OutboxDispatcher dispatcher = new OutboxDispatcher(outbox,
+					(events) -> Mono.fromRunnable(() -> delivered.addAll(events)));
+
+			assertThatIllegalStateException().isThrownBy(() -> failing.dispatch().block());
+			assertThat(outbox.getCheckpoint()).isZero();
+			assertThat(dispatcher.dispatch().block()).isEqualTo(1);
+
+			assertThat(delivered).extracting(OutboxEvent::getServiceInstanceId).containsExactly("instance-1");
+			assertThat(outbox.getCheckpoint()).isEqualTo(1);
+		}
+	}
+
+}
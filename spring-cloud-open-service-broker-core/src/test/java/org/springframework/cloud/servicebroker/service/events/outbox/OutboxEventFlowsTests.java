@@ -0,0 +1,84 @@
+/*
+ * Copyright 2002-2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.servicebroker.service.events.outbox;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import reactor.test.StepVerifier;
+
+import org.springframework.cloud.servicebroker.model.instance.CreateServiceInstanceRequest;
+import org.springframework.cloud.servicebroker.model.instance.CreateServiceInstanceResponse;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class OutboxEventFlowsTests {
+
+	@TempDir
+	Path directory;
+
+	@Test
+	void completedOperationIsRecorded() throws IOException {
+		try (SegmentFileOutbox outbox = new SegmentFileOutbox(this.directory)) {
+			OutboxEventFlows flows = new OutboxEventFlows(outbox);
+
+			StepVerifier.create(flows.complete(request(), CreateServiceInstanceResponse.builder().build()))
+				.verifyComplete();
+
+			assertThat(outbox.read(10)).extracting(OutboxEvent::getServiceInstanceId).containsExactly("instance-id");
+			assertThat(flows.getFailedCount()).isZero();
+		}
+	}
+
+	@Test
+	void failureToRecordEventDoesNotFailOperation() throws IOException {
+		SegmentFileOutbox outbox = new SegmentFileOutbox(this.directory);
+		outbox.close();
+		OutboxEventFlows flows = new OutboxEventFlows(outbox);
+
+		StepVerifier.create(flows.complete(request(), CreateServiceInstanceResponse.builder().build()))
+			.verifyComplete();
+
+		assertThat(flows.getFailedCount()).isEqualTo(1);
+	}
+
+	@Test
+	void failureToRecordEventFailsOperationWhenConfigured() throws IOException {
+		SegmentFileOutbox outbox = new SegmentFileOutbox(this.directory);
+		outbox.close();
+		OutboxEventFlows flows = new OutboxEventFlows(outbox);
+		flows.setFailOnAppendError(true);
+
+		StepVerifier.create(flows.complete(request(), CreateServiceInstanceResponse.builder().build()))
+			.expectError(UncheckedIOException.class)
+			.verify();
+
+		assertThat(flows.getFailedCount()).isEqualTo(1);
+	}
+
+	private static CreateServiceInstanceRequest request() {
+		return CreateServiceInstanceRequest.builder()
+			.serviceInstanceId("instance-id")
+			.serviceDefinitionId("service-definition-id")
+			.planId("plan-id")
+			.build();
+	}
+
+}
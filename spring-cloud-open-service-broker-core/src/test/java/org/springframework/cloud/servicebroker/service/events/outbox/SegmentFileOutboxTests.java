@@ -0,0 +1,194 @@
+/*
+ * Copyright 2002-2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.servicebroker.service.events.outbox;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.stream.Stream;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import org.springframework.cloud.servicebroker.service.events.outbox.OutboxEvent.Operation;
+import org.springframework.cloud.servicebroker.service.events.outbox.OutboxEvent.Phase;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SegmentFileOutboxTests {
+
+	@TempDir
+	Path directory;
+
+	@Test
+	void appendedEventsAreReadInOrder() throws IOException {
+		try (SegmentFileOutbox outbox = new SegmentFileOutbox(this.directory)) {
+			assertThat(outbox.append(event("instance-1"))).isEqualTo(1);
+			assertThat(outbox.append(event("instance-2"))).isEqualTo(2);
+
+			List<OutboxEvent> events = outbox.read(10);
+
+			assertThat(events).extracting(OutboxEvent::getSequence).containsExactly(1L, 2L);
+			assertThat(events).extracting(OutboxEvent::getServiceInstanceId)
+				.containsExactly("instance-1", "instance-2");
+			assertThat(events.get(0).getOperation()).isEqualTo(Operation.CREATE_SERVICE_INSTANCE);
+			assertThat(events.get(0).getPhase()).isEqualTo(Phase.COMPLETION);
+		}
+	}
+
+	@Test
+	void readStartsAfterCheckpoint() throws IOException {
+		try (SegmentFileOutbox outbox = new SegmentFileOutbox(this.directory, 200, false)) {
+			for (int i = 1; i <= 5; i++) {
+				outbox.append(event("instance-" + i));
+			}
+
+			assertThat(outbox.read(2)).extracting(OutboxEvent::getSequence).containsExactly(1L, 2L);
+			assertThat(outbox.read(2)).extracting(OutboxEvent::getSequence).containsExactly(1L, 2L);
+			outbox.checkpoint(2);
+			assertThat(outbox.read(10)).extracting(OutboxEvent::getSequence).containsExactly(3L, 4L, 5L);
+		}
+	}
+
+	@Test
+	void deliveredSegmentsAreDeleted() throws IOException {
+		try (SegmentFileOutbox outbox = new SegmentFileOutbox(this.directory, 200, false)) {
+			for (int i = 1; i <= 10; i++) {
+				outbox.append(event("instance-" + i));
+			}
+			long segments = countSegments();
+			assertThat(segments).isGreaterThan(2);
+
+			outbox.checkpoint(10);
+
+			assertThat(countSegments()).isEqualTo(1);
+			assertThat(outbox.read(10)).isEmpty();
+		}
+	}
+
+	@Test
+	void stateIsRecoveredWhenReopened() throws IOException {
+		try (SegmentFileOutbox outbox = new SegmentFileOutbox(this.directory)) {
+			outbox.append(event("instance-1"));
+			outbox.append(event("instance-2"));
+			outbox.checkpoint(1);
+		}
+		Path segment = this.directory.resolve("outbox-00000000000000000001.log");
+		Files.writeString(segment, "{\"sequence\":3,\"oper", StandardCharsets.UTF_8, StandardOpenOption.APPEND);
+
+		try (SegmentFileOutbox outbox = new SegmentFileOutbox(this.directory)) {
+			assertThat(outbox.getCheckpoint()).isEqualTo(1);
+			assertThat(outbox.getLastSequence()).isEqualTo(2);
+			assertThat(outbox.append(event("instance-3"))).isEqualTo(3);
+			assertThat(outbox.read(10)).extracting(OutboxEvent::getServiceInstanceId)
+				.containsExactly("instance-2", "instance-3");
+		}
+	}
+
+	@Test
+	void unreadableCheckpointIsTreatedAsNoDelivery() throws IOException {
+		try (SegmentFileOutbox outbox = new SegmentFileOutbox(this.directory)) {
+			outbox.append(event("instance-1"));
+			outbox.append(event("instance-2"));
+			outbox.checkpoint(1);
+		}
+		Files.writeString(this.directory.resolve("checkpoint"), "", StandardCharsets.UTF_8);
+
+		try (SegmentFileOutbox outbox = new SegmentFileOutbox(this.directory)) {
+			assertThat(outbox.getCheckpoint()).isZero();
+			assertThat(outbox.read(10)).extracting(OutboxEvent::getSequence).containsExactly(1L, 2L);
+		}
+	}
+
+	@Test
+	void eventThatCannotBeReadIsSkipped() throws IOException {
+		try (SegmentFileOutbox outbox = new SegmentFileOutbox(this.directory, 1, false)) {
+			for (int i = 1; i <= 3; i++) {
+				outbox.append(event("instance-" + i));
+			}
+			corrupt(this.directory.resolve("outbox-00000000000000000002.log"));
+
+			assertThat(outbox.read(10)).extracting(OutboxEvent::getSequence).containsExactly(1L, 3L);
+			assertThat(outbox.read(10)).extracting(OutboxEvent::getSequence).containsExactly(1L, 3L);
+			assertThat(outbox.getSkippedCount()).isEqualTo(1);
+			assertThat(this.directory.resolve("dead-letter/outbox-00000000000000000002-0.log")).exists();
+			outbox.checkpoint(3);
+			assertThat(outbox.read(10)).isEmpty();
+			assertThat(countSegments()).isEqualTo(1);
+		}
+	}
+
+	@Test
+	void eventsAfterCorruptEventAreDeliveredWhenReopened() throws IOException {
+		try (SegmentFileOutbox outbox = new SegmentFileOutbox(this.directory)) {
+			for (int i = 1; i <= 3; i++) {
+				outbox.append(event("instance-" + i));
+			}
+		}
+		corrupt(this.directory.resolve("outbox-00000000000000000001.log"));
+
+		try (SegmentFileOutbox outbox = new SegmentFileOutbox(this.directory)) {
+			assertThat(outbox.getLastSequence()).isEqualTo(3);
+			assertThat(outbox.read(10)).extracting(OutboxEvent::getSequence).containsExactly(2L, 3L);
+			assertThat(outbox.getSkippedCount()).isEqualTo(1);
+			assertThat(outbox.append(event("instance-4"))).isEqualTo(4);
+		}
+	}
+
+	@Test
+	void eventsAreWrittenWithProvidedObjectMapper() throws IOException {
+		ObjectMapper objectMapper = JsonMapper.builder().build();
+		try (SegmentFileOutbox outbox = new SegmentFileOutbox(this.directory, SegmentFileOutbox.DEFAULT_SEGMENT_SIZE,
+				false, objectMapper)) {
+			outbox.append(event("instance-1"));
+
+			assertThat(outbox.read(10)).extracting(OutboxEvent::getServiceInstanceId).containsExactly("instance-1");
+		}
+		String line = Files.readString(this.directory.resolve("outbox-00000000000000000001.log"));
+		assertThat(objectMapper.readValue(line, OutboxEvent.class).getSequence()).isEqualTo(1);
+	}
+
+	private static void corrupt(Path segment) throws IOException {
+		try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.WRITE)) {
+			channel.write(ByteBuffer.wrap(new byte[] { '#' }), 0);
+		}
+	}
+
+	private long countSegments() throws IOException {
+		try (Stream<Path> files = Files.list(this.directory)) {
+			return files.filter((file) -> file.getFileName().toString().endsWith(".log")).count();
+		}
+	}
+
+	static OutboxEvent event(String serviceInstanceId) {
+		return OutboxEvent.builder()
+			.operation(Operation.CREATE_SERVICE_INSTANCE)
+			.phase(Phase.COMPLETION)
+			.serviceInstanceId(serviceInstanceId)
+			.serviceDefinitionId("service-definition-id")
+			.planId("plan-id")
+			.build();
+	}
+
+}